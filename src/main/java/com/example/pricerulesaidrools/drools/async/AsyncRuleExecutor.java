@@ -0,0 +1,146 @@
+package com.example.pricerulesaidrools.drools.async;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import com.example.pricerulesaidrools.drools.exception.DroolsApiException;
+import com.example.pricerulesaidrools.drools.exception.DroolsErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs rule executions off the request threads, from a bounded queue that sheds load.
+ * <p>
+ * A request is rejected with {@link DroolsErrorCode#RULE_EXECUTION_REJECTED} instead
+ * of being queued when the queue is full, or when its expected completion time, estimated
+ * from the queue depth and recent execution times, already exceeds its deadline. A
+ * request whose deadline passes while it waits is rejected when it reaches a worker,
+ * without executing, since its caller has given up on it.
+ */
+@Component
+@Slf4j
+public class AsyncRuleExecutor {
+
+    /** Weight of the latest execution in the moving average of execution times */
+    private static final double SERVICE_TIME_WEIGHT = 0.1;
+
+    private final DroolsProperties.Async settings;
+    private final BlockingQueue<Runnable> queue;
+    private final ThreadPoolExecutor workers;
+    private final Timer waitTimer;
+    private final Counter queueFullRejections;
+    private final Counter deadlineRejections;
+    private final Counter expiredRejections;
+    private final AtomicLong averageServiceNanos = new AtomicLong();
+
+    public AsyncRuleExecutor(DroolsProperties droolsProperties, MeterRegistry meterRegistry) {
+        this.settings = droolsProperties.getAsync();
+        this.queue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        this.workers = new ThreadPoolExecutor(settings.getThreads(), settings.getThreads(), 0, TimeUnit.MILLISECONDS,
+                queue, Thread.ofPlatform().name("drools-async-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("drools.async.queue.depth", queue, BlockingQueue::size)
+                .description("Rule executions waiting for an async worker")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("drools.async.queue.wait")
+                .description("Time rule executions spent queued before an async worker picked them up")
+                .register(meterRegistry);
+        this.queueFullRejections = rejectionCounter(meterRegistry, "queue_full");
+        this.deadlineRejections = rejectionCounter(meterRegistry, "deadline");
+        this.expiredRejections = rejectionCounter(meterRegistry, "expired");
+    }
+
+    /**
+     * Queues a rule execution
+     *
+     * @param ruleSetId The rule set ID, reported on rejection
+     * @param deadlineMs How long the caller is willing to wait for the result
+     * @param execution The execution
+     * @return A future of the execution's result; completes exceptionally with a
+     *         {@link DroolsApiException} when the execution is rejected
+     */
+    public <T> CompletableFuture<T> submit(String ruleSetId, long deadlineMs, Supplier<T> execution) {
+        long deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        long serviceNanos = averageServiceNanos.get();
+        long expectedNanos = queue.size() * serviceNanos / settings.getThreads() + serviceNanos;
+        if (expectedNanos > deadlineNanos) {
+            deadlineRejections.increment();
+            return CompletableFuture.failedFuture(rejected(ruleSetId, "Expected completion in "
+                    + TimeUnit.NANOSECONDS.toMillis(expectedNanos) + " ms exceeds the deadline of " + deadlineMs + " ms"));
+        }
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long enqueuedAt = System.nanoTime();
+        try {
+            workers.execute(() -> run(ruleSetId, execution, future, enqueuedAt, deadlineNanos));
+        } catch (RejectedExecutionException e) {
+            queueFullRejections.increment();
+            return CompletableFuture.failedFuture(rejected(ruleSetId, "Async execution queue is full"));
+        }
+        return future;
+    }
+
+    /**
+     * Number of executions waiting for a worker
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private <T> void run(String ruleSetId, Supplier<T> execution, CompletableFuture<T> future,
+                         long enqueuedAt, long deadlineNanos) {
+        long startedAt = System.nanoTime();
+        long waitedNanos = startedAt - enqueuedAt;
+        waitTimer.record(waitedNanos, TimeUnit.NANOSECONDS);
+        if (waitedNanos > deadlineNanos) {
+            expiredRejections.increment();
+            future.completeExceptionally(rejected(ruleSetId, "Deadline passed after "
+                    + TimeUnit.NANOSECONDS.toMillis(waitedNanos) + " ms in the async execution queue"));
+            return;
+        }
+
+        try {
+            future.complete(execution.get());
+        } catch (Exception e) {
+            log.error("Async rule execution failed for rule set {}", ruleSetId, e);
+            future.completeExceptionally(e);
+        } finally {
+            recordServiceTime(System.nanoTime() - startedAt);
+        }
+    }
+
+    private void recordServiceTime(long nanos) {
+        averageServiceNanos.getAndUpdate(average -> average == 0 ? nanos
+                : (long) (average + SERVICE_TIME_WEIGHT * (nanos - average)));
+    }
+
+    private static DroolsApiException rejected(String ruleSetId, String reason) {
+        return new DroolsApiException(DroolsErrorCode.RULE_EXECUTION_REJECTED,
+                "Rule execution rejected: " + reason, ruleSetId);
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("drools.async.rejections")
+                .description("Async rule executions rejected without running")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
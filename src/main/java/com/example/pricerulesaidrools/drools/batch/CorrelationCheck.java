@@ -0,0 +1,192 @@
+package com.example.pricerulesaidrools.drools.batch;
+
+import com.example.pricerulesaidrools.model.Correlated;
+import org.drools.base.base.ClassObjectType;
+import org.drools.base.base.ValueResolver;
+import org.drools.base.definitions.rule.impl.RuleImpl;
+import org.drools.base.rule.Declaration;
+import org.drools.base.rule.From;
+import org.drools.base.rule.GroupElement;
+import org.drools.base.rule.IndexableConstraint;
+import org.drools.base.rule.Pattern;
+import org.drools.base.rule.RuleConditionElement;
+import org.drools.base.rule.constraint.Constraint;
+import org.drools.base.util.index.ConstraintTypeOperator;
+import org.kie.api.KieBase;
+import org.kie.api.definition.KiePackage;
+import org.kie.api.definition.rule.Rule;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Checks that the facts of different requests can share one session: every rule must tie
+ * all the {@link Correlated} facts it matches to one correlation ID.
+ * <p>
+ * A rule passes when one of its top-level patterns binds the correlation ID, e.g.
+ * {@code PricingRequest($cid : correlationId)}, and every other pattern that can match a
+ * correlated fact, including those under {@code not}, {@code exists} or {@code accumulate},
+ * is joined to it with {@code correlationId == $cid}. Fields are recognized by reading
+ * them from a probe fact carrying a marker correlation ID, so the check applies to rules
+ * compiled from DRL and to the executable model alike.
+ */
+public final class CorrelationCheck {
+
+    private static final String PROBE_ID = "\u0000correlation-probe";
+
+    private final Map<Class<?>, Object> probes = new HashMap<>();
+
+    private CorrelationCheck() {
+    }
+
+    /**
+     * Checks the rules of a KieBase
+     *
+     * @throws IllegalArgumentException Naming the rules that may match facts of different requests together
+     */
+    public static void verify(KieBase kieBase) {
+        CorrelationCheck check = new CorrelationCheck();
+        Set<String> uncorrelated = new TreeSet<>();
+        for (KiePackage kiePackage : kieBase.getKiePackages()) {
+            for (Rule rule : kiePackage.getRules()) {
+                if (rule instanceof RuleImpl ruleImpl && !ruleImpl.isQuery() && !check.isCorrelated(ruleImpl)) {
+                    uncorrelated.add(rule.getPackageName() + "." + rule.getName());
+                }
+            }
+        }
+        if (!uncorrelated.isEmpty()) {
+            throw new IllegalArgumentException("Rules match correlated facts without joining them on correlationId: "
+                    + String.join(", ", uncorrelated));
+        }
+    }
+
+    private boolean isCorrelated(RuleImpl rule) {
+        List<Pattern> patterns = new ArrayList<>();
+        List<Pattern> topLevel = new ArrayList<>();
+        collect(rule.getLhs(), true, patterns, topLevel);
+        if (patterns.isEmpty()) {
+            return true;
+        }
+
+        // Links each pattern to the pattern whose correlation ID it is joined on
+        Map<Pattern, Pattern> links = new IdentityHashMap<>();
+        for (Pattern pattern : patterns) {
+            for (Constraint constraint : pattern.getConstraints()) {
+                Pattern joined = joinedPattern(pattern, constraint);
+                if (joined != null) {
+                    links.put(pattern, joined);
+                }
+            }
+        }
+
+        for (Pattern anchor : topLevel) {
+            if (patterns.stream().allMatch(pattern -> root(pattern, links) == anchor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Pattern root(Pattern pattern, Map<Pattern, Pattern> links) {
+        Pattern current = pattern;
+        for (int i = 0; i <= links.size(); i++) {
+            Pattern next = links.get(current);
+            if (next == null || next == current) {
+                return current;
+            }
+            current = next;
+        }
+        return null;
+    }
+
+    private void collect(RuleConditionElement element, boolean topLevel, List<Pattern> patterns,
+                         List<Pattern> topLevelPatterns) {
+        if (element instanceof Pattern pattern) {
+            if (pattern.getSource() instanceof From) {
+                // Matches objects returned by an expression, not facts in the session
+                return;
+            }
+            if (canMatchCorrelated(pattern)) {
+                patterns.add(pattern);
+                if (topLevel) {
+                    topLevelPatterns.add(pattern);
+                }
+            }
+            if (pattern.getSource() != null) {
+                collect(pattern.getSource(), false, patterns, topLevelPatterns);
+            }
+            return;
+        }
+        boolean conjunction = topLevel && element instanceof GroupElement group && group.isAnd();
+        for (RuleConditionElement nested : element.getNestedElements()) {
+            collect(nested, conjunction, patterns, topLevelPatterns);
+        }
+    }
+
+    private static boolean canMatchCorrelated(Pattern pattern) {
+        if (!(pattern.getObjectType() instanceof ClassObjectType objectType)) {
+            return false;
+        }
+        Class<?> type = objectType.getClassType();
+        return Correlated.class.isAssignableFrom(type) || type.isAssignableFrom(Correlated.class);
+    }
+
+    /**
+     * Gets the pattern binding the correlation ID a constraint compares this pattern's correlation ID with
+     */
+    private Pattern joinedPattern(Pattern pattern, Constraint constraint) {
+        if (!(constraint instanceof IndexableConstraint indexable)
+                || indexable.getConstraintType() != ConstraintTypeOperator.EQUAL
+                || indexable.getFieldExtractor() == null
+                || !readsCorrelationId(pattern, indexable.getFieldExtractor()::getValue)) {
+            return null;
+        }
+        for (Declaration declaration : constraint.getRequiredDeclarations()) {
+            Pattern declaring = declaration.getPattern();
+            if (declaring != null && declaring != pattern
+                    && readsCorrelationId(declaring, (resolver, fact) -> declaration.getValue(resolver, fact))) {
+                return declaring;
+            }
+        }
+        return null;
+    }
+
+    private boolean readsCorrelationId(Pattern pattern, Reader reader) {
+        Object probe = pattern.getObjectType() instanceof ClassObjectType objectType
+                ? probe(objectType.getClassType()) : null;
+        if (probe == null) {
+            return false;
+        }
+        try {
+            return Objects.equals(reader.read(null, probe), PROBE_ID);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private Object probe(Class<?> type) {
+        return probes.computeIfAbsent(type, key -> {
+            if (!Correlated.class.isAssignableFrom(key)) {
+                return null;
+            }
+            try {
+                Correlated probe = (Correlated) key.getDeclaredConstructor().newInstance();
+                probe.setCorrelationId(PROBE_ID);
+                return probe;
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return null;
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface Reader {
+        Object read(ValueResolver resolver, Object fact);
+    }
+}
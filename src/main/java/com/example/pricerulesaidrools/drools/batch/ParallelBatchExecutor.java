@@ -0,0 +1,254 @@
+package com.example.pricerulesaidrools.drools.batch;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Fans batch items out across cores in fixed-size chunks.
+ * <p>
+ * All batches share one worker pool sized by drools.batch.max-in-flight, which caps
+ * how many sessions batch work holds at once and leaves the rest of each session
+ * pool to interactive executions. Within a batch, at most drools.batch.parallelism
+ * workers claim chunks in order. Results keep the order of the input, and a
+ * failing item yields null without affecting the rest of the batch.
+ * <p>
+ * Streams are executed item by item instead: items are read while earlier ones
+ * execute, and results are handed out in completion order. At most
+ * drools.batch.stream-window items of a stream are held between reading and
+ * writing, so memory stays flat and a slow consumer stops the reading.
+ */
+@Component
+@Slf4j
+public class ParallelBatchExecutor {
+
+    private final DroolsProperties.Batch settings;
+    private final ExecutorService workers;
+    private final Timer batchTimer;
+    private final Counter itemFailures;
+
+    public ParallelBatchExecutor(DroolsProperties droolsProperties, MeterRegistry meterRegistry) {
+        this.settings = droolsProperties.getBatch();
+        this.workers = Executors.newFixedThreadPool(settings.getMaxInFlight(),
+                Thread.ofPlatform().name("drools-batch-", 0).daemon().factory());
+        this.batchTimer = Timer.builder("drools.batch.execution")
+                .description("Time to execute a whole batch")
+                .register(meterRegistry);
+        this.itemFailures = Counter.builder("drools.batch.item.failures")
+                .description("Batch items that failed and were returned as null")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Applies a task to every item, in parallel chunks
+     *
+     * @param items The batch items
+     * @param task Executes one item
+     * @return One result per item, in input order; null for failed items
+     */
+    public <I, T> List<T> execute(List<I> items, Function<I, T> task) {
+        int chunkSize = settings.getChunkSize();
+        int chunkCount = (items.size() + chunkSize - 1) / chunkSize;
+        int parallelism = Math.min(settings.getParallelism(), chunkCount);
+
+        Object[] results = new Object[items.size()];
+        Timer.Sample sample = Timer.start();
+        if (parallelism <= 1) {
+            runChunks(items, task, results, new AtomicInteger(), chunkCount, chunkSize);
+        } else {
+            AtomicInteger nextChunk = new AtomicInteger();
+            List<Future<?>> futures = new ArrayList<>(parallelism);
+            for (int i = 0; i < parallelism; i++) {
+                futures.add(workers.submit(() -> runChunks(items, task, results, nextChunk, chunkCount, chunkSize)));
+            }
+            awaitAll(futures);
+        }
+        sample.stop(batchTimer);
+
+        @SuppressWarnings("unchecked")
+        List<T> ordered = (List<T>) Arrays.asList(results);
+        return ordered;
+    }
+
+    /**
+     * Applies a task to every item of a stream, writing each result as soon as it is ready
+     * <p>
+     * Items are read on a separate thread and results are written on the calling thread.
+     * Reading pauses while drools.batch.stream-window items are in flight, so a sink that
+     * blocks on a slow consumer also stops consumption of the input.
+     *
+     * @param items The stream items; read lazily, and may block
+     * @param task Executes one item
+     * @param sink Receives every result, in completion order
+     * @return Number of items executed
+     * @throws IOException If the sink fails; the stream is abandoned
+     */
+    public <I, T> long stream(Iterator<I> items, Function<I, T> task, StreamSink<T> sink) throws IOException {
+        Semaphore window = new Semaphore(settings.getStreamWindow());
+        Semaphore running = new Semaphore(settings.getParallelism());
+        BlockingQueue<Object> completed = new LinkedBlockingQueue<>();
+
+        Thread reader = Thread.ofVirtual().name("drools-stream-reader").start(() -> {
+            long submitted = 0;
+            RuntimeException failure = null;
+            try {
+                while (true) {
+                    window.acquire();
+                    if (!items.hasNext()) {
+                        break;
+                    }
+                    long index = submitted;
+                    I item = items.next();
+                    running.acquire();
+                    try {
+                        workers.execute(() -> {
+                            try {
+                                completed.add(runItem(index, item, task));
+                            } finally {
+                                running.release();
+                            }
+                        });
+                    } catch (RuntimeException e) {
+                        running.release();
+                        throw e;
+                    }
+                    submitted++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = new IllegalStateException("Interrupted while reading the stream", e);
+            } catch (RuntimeException e) {
+                failure = e;
+            } finally {
+                // Always tell the writer how many results to expect, or it would wait forever
+                completed.add(new StreamEnd(submitted, failure));
+            }
+        });
+
+        long written = 0;
+        StreamEnd end = null;
+        try {
+            while (end == null || written < end.submitted()) {
+                Object next = completed.take();
+                if (next instanceof StreamEnd streamEnd) {
+                    end = streamEnd;
+                    continue;
+                }
+                @SuppressWarnings("unchecked")
+                StreamResult<T> result = (StreamResult<T>) next;
+                sink.accept(result.index(), result.value(), result.failure());
+                written++;
+                window.release();
+                if (completed.isEmpty()) {
+                    // Nothing else is ready, so hand what was written to the consumer now
+                    sink.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reader.interrupt();
+            throw new IllegalStateException("Interrupted while streaming results", e);
+        } catch (IOException | RuntimeException e) {
+            // Writing failed, typically because the consumer is gone; stop reading and let in-flight items finish
+            reader.interrupt();
+            throw e;
+        }
+
+        if (end.failure() != null) {
+            throw end.failure();
+        }
+        return written;
+    }
+
+    private <I, T> StreamResult<T> runItem(long index, I item, Function<I, T> task) {
+        try {
+            return new StreamResult<>(index, task.apply(item), null);
+        } catch (Exception e) {
+            log.warn("Stream item {} failed", index, e);
+            itemFailures.increment();
+            return new StreamResult<>(index, null, e);
+        }
+    }
+
+    private <I, T> void runChunks(List<I> items, Function<I, T> task, Object[] results,
+                                  AtomicInteger nextChunk, int chunkCount, int chunkSize) {
+        int chunk;
+        while ((chunk = nextChunk.getAndIncrement()) < chunkCount) {
+            int end = Math.min(items.size(), (chunk + 1) * chunkSize);
+            for (int index = chunk * chunkSize; index < end; index++) {
+                try {
+                    results[index] = task.apply(items.get(index));
+                } catch (Exception e) {
+                    log.warn("Batch item {} failed", index, e);
+                    itemFailures.increment();
+                    results[index] = null;
+                }
+            }
+        }
+    }
+
+    private void awaitAll(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(pending -> pending.cancel(true));
+                throw new IllegalStateException("Interrupted while waiting for batch execution", e);
+            } catch (ExecutionException e) {
+                // Items isolate their own failures, so this is a bug in the executor itself
+                throw new IllegalStateException("Batch worker failed", e.getCause());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Receives the results of a streamed batch
+     */
+    public interface StreamSink<T> {
+
+        /**
+         * Accepts the result of one item
+         *
+         * @param index Position of the item in the input
+         * @param result The result; null if the item failed
+         * @param failure Why the item failed, or null
+         */
+        void accept(long index, T result, Exception failure) throws IOException;
+
+        /**
+         * Called when no further result is ready yet
+         */
+        void flush() throws IOException;
+    }
+
+    private record StreamResult<T>(long index, T value, Exception failure) {
+    }
+
+    private record StreamEnd(long submitted, RuntimeException failure) {
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.pricerulesaidrools.drools.cache;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.drools.base.util.Drools;
+import org.drools.modelcompiler.CanonicalKieModule;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieModule;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local disk cache of compiled rule set KieModules, keyed by the MD5 hash of the DRL content.
+ * <p>
+ * A snapshot holds the jar of a KieModule built as the executable model, whose
+ * generated rule classes are already compiled, so a node that restarts or scales
+ * out loads the module into the KieRepository instead of recompiling the DRL.
+ * The jar of a plain DRL module only holds the DRL, which would be compiled again
+ * when its KieBase is created, so such modules are not cached. The snapshot header
+ * records the Drools version and build mode; a snapshot written by another Drools
+ * version, or loaded while the executable model is disabled, is a miss, as its
+ * generated classes target the engine and mode it was built with. Snapshots are written
+ * to a temporary file and moved into place, so a concurrent reader never sees a
+ * partial file; an unreadable snapshot is deleted and treated as a miss.
+ */
+@Component
+@Slf4j
+public class CompiledRuleModuleCache {
+
+    private static final int FORMAT_VERSION = 3;
+    private static final String SNAPSHOT_SUFFIX = ".kjar";
+    private static final String EXECUTABLE_MODEL = "executable-model";
+    private static final String DRL = "drl";
+
+    private final KieServices kieServices;
+    private final DroolsProperties.CompiledCache settings;
+    private final DroolsProperties.ExecutableModel executableModel;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer loadTimer;
+    private final Counter savedMillis;
+    private final AtomicLong totalSavedMillis = new AtomicLong();
+
+    public CompiledRuleModuleCache(KieServices kieServices, DroolsProperties droolsProperties,
+                                   MeterRegistry meterRegistry) {
+        this.kieServices = kieServices;
+        this.settings = droolsProperties.getCompiledCache();
+        this.executableModel = droolsProperties.getExecutableModel();
+        this.hits = Counter.builder("drools.compiled.cache.requests")
+                .description("Compiled rule module cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("drools.compiled.cache.requests")
+                .description("Compiled rule module cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.loadTimer = Timer.builder("drools.compiled.cache.load")
+                .description("Time to load a compiled rule module from disk")
+                .register(meterRegistry);
+        this.savedMillis = Counter.builder("drools.compiled.cache.saved")
+                .description("Compilation time avoided by loading cached rule modules")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads a cached compiled module into the KieRepository
+     *
+     * @param contentHash MD5 hash of the DRL content
+     * @return The loaded module, or empty on a miss
+     */
+    public Optional<KieModule> load(String contentHash) {
+        if (!settings.isEnabled()) {
+            return Optional.empty();
+        }
+        Path snapshot = snapshotPath(contentHash);
+        if (!Files.isRegularFile(snapshot)) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        long startTime = System.nanoTime();
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(snapshot))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format");
+            }
+            String droolsVersion = in.readUTF();
+            String buildMode = in.readUTF();
+            if (!droolsVersion.equals(Drools.getFullVersion()) || !buildMode.equals(buildMode())) {
+                log.info("Discarding compiled rule module snapshot {} built as {} by Drools {}",
+                        snapshot, buildMode, droolsVersion);
+                deleteQuietly(snapshot);
+                misses.increment();
+                return Optional.empty();
+            }
+            long compileMillis = in.readLong();
+            byte[] moduleBytes = in.readAllBytes();
+
+            KieModule kieModule = kieServices.getRepository()
+                    .addKieModule(kieServices.getResources().newByteArrayResource(moduleBytes));
+            if (!(kieModule instanceof CanonicalKieModule)) {
+                kieServices.getRepository().removeKieModule(kieModule.getReleaseId());
+                throw new IOException("Snapshot does not hold an executable model");
+            }
+
+            long loadNanos = System.nanoTime() - startTime;
+            long loadMillis = TimeUnit.NANOSECONDS.toMillis(loadNanos);
+            loadTimer.record(loadNanos, TimeUnit.NANOSECONDS);
+            long saved = Math.max(0, compileMillis - loadMillis);
+            savedMillis.increment(saved);
+            totalSavedMillis.addAndGet(saved);
+            hits.increment();
+            log.info("Loaded compiled rule module {} from cache in {} ms (compiled in {} ms)",
+                    contentHash, loadMillis, compileMillis);
+            return Optional.of(kieModule);
+        } catch (Exception e) {
+            log.warn("Discarding unreadable compiled rule module snapshot {}", snapshot, e);
+            deleteQuietly(snapshot);
+            misses.increment();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores a successfully built module, if it was built as the executable model
+     *
+     * @param contentHash MD5 hash of the DRL content
+     * @param kieModule The built module
+     * @param compileMillis How long the build took, reported as time saved on later hits
+     */
+    public void store(String contentHash, KieModule kieModule, long compileMillis) {
+        if (!settings.isEnabled() || !(kieModule instanceof CanonicalKieModule canonicalKieModule)) {
+            return;
+        }
+        byte[] moduleBytes = canonicalKieModule.getBytes();
+
+        Path snapshot = snapshotPath(contentHash);
+        Path tempFile = null;
+        try {
+            Files.createDirectories(snapshot.getParent());
+            tempFile = Files.createTempFile(snapshot.getParent(), contentHash, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tempFile))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(Drools.getFullVersion());
+                out.writeUTF(EXECUTABLE_MODEL);
+                out.writeLong(compileMillis);
+                out.write(moduleBytes);
+            }
+            Files.move(tempFile, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Cached compiled rule module {} at {}", contentHash, snapshot);
+        } catch (IOException e) {
+            // The cache is an optimization; deployment must not fail because of it
+            log.warn("Failed to cache compiled rule module {}", contentHash, e);
+            if (tempFile != null) {
+                deleteQuietly(tempFile);
+            }
+        }
+    }
+
+    /**
+     * Removes a cached module
+     *
+     * @param contentHash MD5 hash of the DRL content
+     */
+    public void evict(String contentHash) {
+        deleteQuietly(snapshotPath(contentHash));
+    }
+
+    public long getHitCount() {
+        return (long) hits.count();
+    }
+
+    public long getMissCount() {
+        return (long) misses.count();
+    }
+
+    /**
+     * Total compilation time avoided by cache hits since startup, in milliseconds
+     */
+    public long getTotalSavedMillis() {
+        return totalSavedMillis.get();
+    }
+
+    private String buildMode() {
+        return executableModel.isEnabled() ? EXECUTABLE_MODEL : DRL;
+    }
+
+    private Path snapshotPath(String contentHash) {
+        return Paths.get(settings.getDirectory()).resolve(contentHash + SNAPSHOT_SUFFIX);
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.pricerulesaidrools.drools.cache;
+
+import org.kie.api.builder.KieModule;
+import org.kie.api.builder.Message;
+import org.kie.api.builder.ReleaseId;
+
+import java.util.List;
+
+/**
+ * Outcome of compiling one DRL content, shared by validation and deployment.
+ *
+ * @param contentHash MD5 hash of the DRL content
+ * @param releaseId Content-addressed release ID of the module
+ * @param kieModule The compiled module, or null when compilation failed
+ * @param errors Compilation errors
+ * @param warnings Compilation warnings
+ * @param compileMillis Time the compilation took, or the snapshot load when restored from disk
+ * @param weightBytes Estimated memory held by this result
+ */
+public record CompiledRules(String contentHash, ReleaseId releaseId, KieModule kieModule,
+                            List<Message> errors, List<Message> warnings,
+                            long compileMillis, long weightBytes) {
+
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+}
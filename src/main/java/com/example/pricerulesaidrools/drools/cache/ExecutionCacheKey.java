@@ -0,0 +1,20 @@
+package com.example.pricerulesaidrools.drools.cache;
+
+/**
+ * Key of a {@code drools-execution} cache entry
+ *
+ * @param ruleSetId The rule set ID
+ * @param version The live version of the rule set when the key was built
+ * @param generation The generation of that version, unique per activation
+ * @param fingerprint The {@link FactFingerprint} of the facts, in hex
+ */
+public record ExecutionCacheKey(String ruleSetId, String version, long generation, String fingerprint) {
+
+    /**
+     * The stored form of the key, {@code ruleSetId:version:generation:fingerprint}
+     */
+    @Override
+    public String toString() {
+        return ruleSetId + ":" + version + ":" + generation + ":" + fingerprint;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.pricerulesaidrools.drools.cache;
+
+import com.example.pricerulesaidrools.drools.registry.KieBaseRegistry;
+import com.example.pricerulesaidrools.drools.registry.KieBaseVersion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+
+/**
+ * Builds {@code drools-execution} cache keys from the rule set, its live version and a
+ * {@link FactFingerprint} of the facts.
+ * <p>
+ * Equal fact maps share a key regardless of insertion order, and every activation of a
+ * rule set gets its own generation, so results computed by a replaced version are never
+ * served again.
+ */
+@Component(ExecutionCacheKeyGenerator.BEAN_NAME)
+@RequiredArgsConstructor
+public class ExecutionCacheKeyGenerator implements KeyGenerator {
+
+    public static final String BEAN_NAME = "executionCacheKeyGenerator";
+
+    private static final String NO_VERSION = "none";
+
+    private final KieBaseRegistry kieBaseRegistry;
+
+    /**
+     * Expects {@code (String ruleSetId, Object facts)} as the leading parameters
+     */
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        String ruleSetId = params.length > 0 ? String.valueOf(params[0]) : "null";
+        Object facts = params.length > 1 ? params[1] : null;
+        return key(ruleSetId, facts);
+    }
+
+    /**
+     * Builds the key for a rule set and a fact graph
+     *
+     * @param ruleSetId The rule set ID
+     * @param facts The facts
+     * @return The cache key
+     */
+    public ExecutionCacheKey key(String ruleSetId, Object facts) {
+        KieBaseVersion live = kieBaseRegistry.getLiveVersion(ruleSetId);
+        return new ExecutionCacheKey(ruleSetId,
+                live != null ? live.getVersion() : NO_VERSION,
+                live != null ? live.getGeneration() : 0,
+                FactFingerprint.of(facts).toHex());
+    }
+}
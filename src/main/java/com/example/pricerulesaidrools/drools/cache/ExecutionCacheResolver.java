@@ -0,0 +1,125 @@
+package com.example.pricerulesaidrools.drools.cache;
+
+import com.example.pricerulesaidrools.drools.metrics.RuleExecutionRecorder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.CacheOperationInvocationContext;
+import org.springframework.cache.interceptor.SimpleCacheResolver;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the {@code drools-execution} cache, counting lookups per rule set.
+ * <p>
+ * The cached methods only run on a miss, so hits are invisible to them. The resolved
+ * cache is wrapped so that every lookup keyed by an {@link ExecutionCacheKey} is
+ * recorded as a hit or miss of its rule set.
+ */
+@Component(ExecutionCacheResolver.BEAN_NAME)
+public class ExecutionCacheResolver extends SimpleCacheResolver {
+
+    public static final String BEAN_NAME = "executionCacheResolver";
+    public static final String EXECUTION_CACHE = "drools-execution";
+
+    private final RuleExecutionRecorder executionRecorder;
+    private final Map<String, Cache> meteredCaches = new ConcurrentHashMap<>();
+
+    public ExecutionCacheResolver(CacheManager cacheManager, RuleExecutionRecorder executionRecorder) {
+        super(cacheManager);
+        this.executionRecorder = executionRecorder;
+    }
+
+    @Override
+    public Collection<? extends Cache> resolveCaches(CacheOperationInvocationContext<?> context) {
+        return super.resolveCaches(context).stream()
+                .map(cache -> meteredCaches.computeIfAbsent(cache.getName(), name -> new MeteredCache(cache)))
+                .toList();
+    }
+
+    /**
+     * Gets the metered {@code drools-execution} cache, for callers that cannot go through
+     * {@code @Cacheable}, e.g. executions handed to another thread
+     *
+     * @return The cache, or null if the cache manager does not provide it
+     */
+    public Cache getExecutionCache() {
+        Cache cache = getCacheManager().getCache(EXECUTION_CACHE);
+        return cache != null ? meteredCaches.computeIfAbsent(cache.getName(), name -> new MeteredCache(cache)) : null;
+    }
+
+    private final class MeteredCache implements Cache {
+
+        private final Cache delegate;
+
+        private MeteredCache(Cache delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return delegate.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            ValueWrapper value = delegate.get(key);
+            if (key instanceof ExecutionCacheKey executionKey) {
+                if (value != null) {
+                    executionRecorder.recordCacheHit(executionKey.ruleSetId());
+                } else {
+                    executionRecorder.recordCacheMiss(executionKey.ruleSetId());
+                }
+            }
+            return value;
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return delegate.get(key, type);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return delegate.get(key, valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            delegate.put(key, value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return delegate.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            delegate.evict(key);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            return delegate.evictIfPresent(key);
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+        }
+
+        @Override
+        public boolean invalidate() {
+            return delegate.invalidate();
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.example.pricerulesaidrools.drools.cache;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Structural 128-bit fingerprint of a fact graph, used as the execution cache key.
+ * <p>
+ * The hash is fed directly from field values, so no intermediate strings are built.
+ * Maps and sets are combined commutatively, making the fingerprint independent of
+ * iteration order; lists and arrays stay ordered. Numbers are hashed by type and value,
+ * so {@code 1.0} and {@code 1.00} as BigDecimal fingerprint alike but {@code 2} and
+ * {@code 2.0} do not, as rules can tell them apart. Fields of other objects are read
+ * reflectively, with the field list cached per class. Classes whose fields cannot be
+ * read, such as JDK value types like UUID, Date or Currency, are hashed by their
+ * {@code hashCode()} and {@code toString()}. Cycles are detected and hashed as
+ * back-references.
+ * <p>
+ * This is a cache key, not a cryptographic digest.
+ */
+public final class FactFingerprint {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private static final ClassValue<TypeInfo> TYPES = new ClassValue<>() {
+        @Override
+        protected TypeInfo computeValue(Class<?> type) {
+            return TypeInfo.of(type);
+        }
+    };
+
+    private long h1;
+    private long h2;
+    private long length;
+    private final IdentityHashMap<Object, Integer> path;
+
+    private FactFingerprint(IdentityHashMap<Object, Integer> path) {
+        this.path = path;
+    }
+
+    /**
+     * Computes the fingerprint of a fact graph
+     *
+     * @param facts The root of the graph, typically the facts map of an execution
+     * @return The 128-bit fingerprint
+     */
+    public static Fingerprint of(Object facts) {
+        FactFingerprint hasher = new FactFingerprint(new IdentityHashMap<>());
+        hasher.putValue(facts);
+        return hasher.finish();
+    }
+
+    /**
+     * A 128-bit fingerprint
+     */
+    public record Fingerprint(long high, long low) {
+
+        private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+        /**
+         * The fingerprint as 32 lowercase hex digits
+         */
+        public String toHex() {
+            char[] digits = new char[32];
+            for (int i = 0; i < 16; i++) {
+                digits[15 - i] = HEX[(int) (high >>> (i * 4)) & 0xf];
+                digits[31 - i] = HEX[(int) (low >>> (i * 4)) & 0xf];
+            }
+            return new String(digits);
+        }
+    }
+
+    private void putValue(Object value) {
+        if (value == null) {
+            putLong(0x6e756c6cL);
+            return;
+        }
+
+        Integer depth = path.get(value);
+        if (depth != null) {
+            // Back-reference to an object already being hashed on this path
+            putLong(0x6379636cL);
+            putLong(depth);
+            return;
+        }
+
+        switch (value) {
+            case String string -> putString(string);
+            case Boolean bool -> putLong(bool ? 0x74727565L : 0x66616c73L);
+            case Character character -> {
+                putLong(0x63686172L);
+                putLong(character);
+            }
+            case Byte number -> putNumber(number, () -> putIntegral(number.longValue()));
+            case Short number -> putNumber(number, () -> putIntegral(number.longValue()));
+            case Integer number -> putNumber(number, () -> putIntegral(number.longValue()));
+            case Long number -> putNumber(number, () -> putIntegral(number));
+            case BigInteger number -> putNumber(number, () -> putBigDecimal(new BigDecimal(number)));
+            case BigDecimal number -> putNumber(number, () -> putBigDecimal(number));
+            case Float number -> putNumber(number, () -> putDouble(number.doubleValue()));
+            case Double number -> putNumber(number, () -> putDouble(number));
+            case Enum<?> constant -> {
+                putLong(TYPES.get(constant.getDeclaringClass()).nameHash);
+                putString(constant.name());
+            }
+            case TemporalAccessor temporal -> {
+                // java.time values have deterministic, value-based hash codes
+                putLong(TYPES.get(temporal.getClass()).nameHash);
+                putLong(temporal.hashCode());
+            }
+            default -> putComposite(value);
+        }
+    }
+
+    private void putComposite(Object value) {
+        path.put(value, path.size());
+        try {
+            if (value instanceof Map<?, ?> map) {
+                putLong(0x6d6170L);
+                putUnordered(map.entrySet(), entry -> {
+                    Map.Entry<?, ?> mapEntry = (Map.Entry<?, ?>) entry;
+                    FactFingerprint entryHasher = new FactFingerprint(path);
+                    entryHasher.putValue(mapEntry.getKey());
+                    entryHasher.putValue(mapEntry.getValue());
+                    return entryHasher.finish();
+                });
+            } else if (value instanceof Set<?> set) {
+                putLong(0x736574L);
+                putUnordered(set, this::childFingerprint);
+            } else if (value instanceof Collection<?> collection) {
+                putLong(0x6c697374L);
+                putLong(collection.size());
+                for (Object element : collection) {
+                    putValue(element);
+                }
+            } else if (value.getClass().isArray()) {
+                putArray(value);
+            } else {
+                TypeInfo type = TYPES.get(value.getClass());
+                putLong(type.nameHash);
+                if (type.opaque) {
+                    // Skipping the unreadable fields would make all instances of the type collide
+                    putLong(value.hashCode());
+                    putString(value.toString());
+                    return;
+                }
+                for (Field field : type.fields) {
+                    putValue(readField(field, value));
+                }
+            }
+        } finally {
+            path.remove(value);
+        }
+    }
+
+    private void putUnordered(Collection<?> elements, Function<Object, Fingerprint> hashElement) {
+        // Summing element hashes is commutative, so iteration order does not matter
+        long sumHigh = 0;
+        long sumLow = 0;
+        for (Object element : elements) {
+            Fingerprint fingerprint = hashElement.apply(element);
+            sumHigh += fingerprint.high();
+            sumLow += fingerprint.low();
+        }
+        putLong(elements.size());
+        putLong(sumHigh);
+        putLong(sumLow);
+    }
+
+    private Fingerprint childFingerprint(Object element) {
+        FactFingerprint child = new FactFingerprint(path);
+        child.putValue(element);
+        return child.finish();
+    }
+
+    private void putArray(Object array) {
+        putLong(0x61727279L);
+        int length = Array.getLength(array);
+        putLong(length);
+        for (int i = 0; i < length; i++) {
+            putValue(Array.get(array, i));
+        }
+    }
+
+    private void putString(String string) {
+        putLong(0x737472L);
+        int length = string.length();
+        putLong(length);
+        int i = 0;
+        // Pack four chars per mixed word
+        for (; i + 4 <= length; i += 4) {
+            putLong(((long) string.charAt(i) << 48) | ((long) string.charAt(i + 1) << 32)
+                    | ((long) string.charAt(i + 2) << 16) | string.charAt(i + 3));
+        }
+        long tail = 0;
+        for (; i < length; i++) {
+            tail = (tail << 16) | string.charAt(i);
+        }
+        putLong(tail);
+    }
+
+    private void putNumber(Number number, Runnable putValue) {
+        // Rules can tell an Integer from a Double of the same value, so the type is part of the key
+        putLong(TYPES.get(number.getClass()).nameHash);
+        putValue.run();
+    }
+
+    private void putIntegral(long number) {
+        putLong(0x6e756dL);
+        putLong(number);
+        putLong(0);
+    }
+
+    private void putDouble(double number) {
+        if (number == Math.rint(number) && !Double.isInfinite(number) && Math.abs(number) < 0x1p63) {
+            // Whole numbers fingerprint like their integral equivalents
+            putIntegral((long) number);
+            return;
+        }
+        putBigDecimal(Double.isFinite(number) ? BigDecimal.valueOf(number) : null);
+        if (!Double.isFinite(number)) {
+            putLong(Double.doubleToLongBits(number));
+        }
+    }
+
+    private void putBigDecimal(BigDecimal number) {
+        if (number == null) {
+            putLong(0x6e616eL);
+            return;
+        }
+        BigDecimal canonical = number.signum() == 0 ? BigDecimal.ZERO : number.stripTrailingZeros();
+        if (canonical.scale() <= 0 && canonical.precision() - canonical.scale() <= 18) {
+            putIntegral(canonical.longValueExact());
+            return;
+        }
+        BigInteger unscaled = canonical.unscaledValue();
+        putLong(0x6e756dL);
+        if (unscaled.bitLength() < 64) {
+            putLong(unscaled.longValue());
+        } else {
+            for (byte b : unscaled.toByteArray()) {
+                putLong(b);
+            }
+        }
+        putLong(canonical.scale());
+    }
+
+    private static Object readField(Field field, Object target) {
+        try {
+            return field.get(target);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot read fact field " + field, e);
+        }
+    }
+
+    private void putLong(long value) {
+        length++;
+        long k = value * C1;
+        k = Long.rotateLeft(k, 31) * C2;
+        h1 ^= k;
+        h1 = Long.rotateLeft(h1, 27) + h2;
+        h1 = h1 * 5 + 0x52dce729;
+        h2 ^= Long.rotateLeft(value * C2, 33) * C1;
+        h2 = Long.rotateLeft(h2, 31) + h1;
+        h2 = h2 * 5 + 0x38495ab5;
+    }
+
+    private Fingerprint finish() {
+        long high = h1 ^ length;
+        long low = h2 ^ length;
+        high += low;
+        low += high;
+        high = fmix64(high);
+        low = fmix64(low);
+        high += low;
+        low += high;
+        return new Fingerprint(high, low);
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    /**
+     * Per-class data for hashing: a hash of the class name and its instance fields, or whether
+     * some of those fields cannot be read, e.g. because the class is in a JDK module
+     */
+    private record TypeInfo(long nameHash, List<Field> fields, boolean opaque) {
+
+        static TypeInfo of(Class<?> type) {
+            FactFingerprint nameHasher = new FactFingerprint(new IdentityHashMap<>());
+            nameHasher.putString(type.getName());
+            Fingerprint name = nameHasher.finish();
+
+            List<Field> fields = new ArrayList<>();
+            boolean opaque = false;
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                        continue;
+                    }
+                    if (!field.trySetAccessible()) {
+                        opaque = true;
+                        continue;
+                    }
+                    fields.add(field);
+                }
+            }
+            // getDeclaredFields order is unspecified; sort so the fingerprint is stable across JVMs
+            fields.sort((a, b) -> {
+                int byName = a.getName().compareTo(b.getName());
+                return byName != 0 ? byName : a.getDeclaringClass().getName().compareTo(b.getDeclaringClass().getName());
+            });
+            return new TypeInfo(name.high() ^ name.low(), opaque ? List.of() : List.copyOf(fields), opaque);
+        }
+    }
+}
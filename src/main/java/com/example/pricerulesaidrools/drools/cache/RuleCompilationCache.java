@@ -0,0 +1,123 @@
+package com.example.pricerulesaidrools.drools.cache;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Memoizes compilation results by DRL content hash, so validating and then
+ * deploying the same content compiles it once.
+ * <p>
+ * Bounded both by entry count and by the estimated memory of the cached modules,
+ * evicting the least recently used results first.
+ */
+@Component
+@Slf4j
+public class RuleCompilationCache {
+
+    private final DroolsProperties.CompilationCache settings;
+    private final Counter compilations;
+    private final Counter hits;
+    private final Counter savedMillis;
+
+    private final LinkedHashMap<String, CompiledRules> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeightBytes;
+
+    public RuleCompilationCache(DroolsProperties droolsProperties, MeterRegistry meterRegistry) {
+        this.settings = droolsProperties.getCompilationCache();
+        this.compilations = Counter.builder("drools.compilation.count")
+                .description("Rule contents compiled or restored from disk")
+                .register(meterRegistry);
+        this.hits = Counter.builder("drools.compilation.memo.hits")
+                .description("Compilations avoided by reusing an earlier result for identical content")
+                .register(meterRegistry);
+        this.savedMillis = Counter.builder("drools.compilation.saved")
+                .description("Compilation time avoided by reusing earlier results")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        meterRegistry.gauge("drools.compilation.memo.size", entries, map -> {
+            synchronized (this) {
+                return map.size();
+            }
+        });
+    }
+
+    /**
+     * Gets the compilation result for content, compiling it on a miss
+     *
+     * @param contentHash MD5 hash of the DRL content
+     * @param compiler Compiles the content
+     * @return The memoized or fresh result
+     */
+    public CompiledRules get(String contentHash, Supplier<CompiledRules> compiler) {
+        synchronized (this) {
+            CompiledRules cached = entries.get(contentHash);
+            if (cached != null) {
+                hits.increment();
+                savedMillis.increment(cached.compileMillis());
+                return cached;
+            }
+        }
+
+        // Compile outside the lock; a concurrent compile of the same content only duplicates work
+        CompiledRules compiled = compiler.get();
+        compilations.increment();
+        put(compiled);
+        return compiled;
+    }
+
+    /**
+     * Removes the result for content, e.g. when its module must be rebuilt
+     *
+     * @param contentHash MD5 hash of the DRL content
+     */
+    public synchronized void evict(String contentHash) {
+        CompiledRules removed = entries.remove(contentHash);
+        if (removed != null) {
+            totalWeightBytes -= removed.weightBytes();
+        }
+    }
+
+    public long getCompilationCount() {
+        return (long) compilations.count();
+    }
+
+    public long getHitCount() {
+        return (long) hits.count();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxEntries() {
+        return settings.getMaxEntries();
+    }
+
+    private synchronized void put(CompiledRules compiled) {
+        long maxWeightBytes = settings.getMaxMemoryMb() * 1024L * 1024L;
+        if (compiled.weightBytes() > maxWeightBytes) {
+            log.debug("Compilation result for {} exceeds the memory bound, not memoizing", compiled.contentHash());
+            return;
+        }
+
+        CompiledRules previous = entries.put(compiled.contentHash(), compiled);
+        if (previous != null) {
+            totalWeightBytes -= previous.weightBytes();
+        }
+        totalWeightBytes += compiled.weightBytes();
+
+        Iterator<Map.Entry<String, CompiledRules>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > settings.getMaxEntries() || totalWeightBytes > maxWeightBytes) && eldest.hasNext()) {
+            totalWeightBytes -= eldest.next().getValue().weightBytes();
+            eldest.remove();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.pricerulesaidrools.drools.cluster;
+
+/**
+ * The version of a rule set one node serves, as recorded in Redis.
+ *
+ * @param nodeId The node
+ * @param version Version label the node serves
+ * @param contentHash MD5 hash of the DRL the node serves; null if the rule set is undeployed
+ * @param appliedAtMillis Wall clock time the node applied the version
+ * @param lagMs Time between the publication of the change and the node applying it
+ */
+record NodeRuleSetState(String nodeId, String version, String contentHash, long appliedAtMillis, long lagMs) {
+}
@@ -0,0 +1,199 @@
+package com.example.pricerulesaidrools.drools.cluster;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import com.example.pricerulesaidrools.drools.dto.RuleDeploymentStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Publishes rule set deployments to the other nodes and tracks which version every node serves.
+ * <p>
+ * Each node records the version it serves per rule set in a Redis hash, and refreshes a
+ * heartbeat so that nodes that left the cluster stop counting towards convergence. A live
+ * node without a record for a rule set has never held it in memory and loads the stored
+ * version on first use, so it counts as converged. With drools.cluster.enabled=false
+ * nothing is published and status covers this node only.
+ */
+@Component
+@Slf4j
+public class RuleDeploymentBroadcaster {
+
+    static final String NODES_KEY = "drools:cluster:nodes";
+    static final String RULE_SET_KEY_PREFIX = "drools:cluster:rule-set:";
+
+    private final DroolsProperties.Cluster settings;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    @Getter
+    private final String nodeId;
+    private final Map<String, NodeRuleSetState> localStates = new ConcurrentHashMap<>();
+
+    public RuleDeploymentBroadcaster(DroolsProperties droolsProperties, StringRedisTemplate redisTemplate,
+                                     ObjectMapper objectMapper) {
+        this.settings = droolsProperties.getCluster();
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.nodeId = settings.getNodeId() != null && !settings.getNodeId().isBlank()
+                ? settings.getNodeId() : defaultNodeId();
+    }
+
+    /**
+     * Records that this node serves the changed rule set and announces the change to the other nodes
+     *
+     * @param type What changed
+     * @param ruleSetId The rule set ID
+     * @param version Version label after the change
+     * @param contentHash MD5 hash of the DRL after the change; null when undeployed
+     */
+    public void publish(RuleDeploymentEvent.Type type, String ruleSetId, String version, String contentHash) {
+        recordApplied(ruleSetId, version, contentHash, 0);
+        if (!settings.isEnabled()) {
+            return;
+        }
+        RuleDeploymentEvent event = new RuleDeploymentEvent(ruleSetId, type, version, contentHash, nodeId,
+                System.currentTimeMillis());
+        try {
+            redisTemplate.convertAndSend(settings.getChannel(), objectMapper.writeValueAsString(event));
+            log.info("Published {} of rule set {} version {}", type, ruleSetId, version);
+        } catch (Exception e) {
+            // The other nodes still catch up when they next reconcile with the rule set store
+            log.error("Failed to publish {} of rule set {} version {}", type, ruleSetId, version, e);
+        }
+    }
+
+    /**
+     * Records the version of a rule set this node serves
+     *
+     * @param ruleSetId The rule set ID
+     * @param version Version label
+     * @param contentHash MD5 hash of the DRL; null if the rule set is undeployed
+     * @param lagMs Time since the change was published, or 0 if this node made it
+     */
+    public void recordApplied(String ruleSetId, String version, String contentHash, long lagMs) {
+        NodeRuleSetState state = new NodeRuleSetState(nodeId, version, contentHash, System.currentTimeMillis(),
+                Math.max(0, lagMs));
+        localStates.put(ruleSetId, state);
+        if (!settings.isEnabled()) {
+            return;
+        }
+        try {
+            redisTemplate.opsForHash().put(RULE_SET_KEY_PREFIX + ruleSetId, nodeId,
+                    objectMapper.writeValueAsString(state));
+        } catch (Exception e) {
+            log.warn("Failed to record version {} of rule set {} for node {}", version, ruleSetId, nodeId, e);
+        }
+    }
+
+    /**
+     * Marks this node as live
+     */
+    public void heartbeat() {
+        if (settings.isEnabled()) {
+            redisTemplate.opsForHash().put(NODES_KEY, nodeId, String.valueOf(System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Reports which live nodes serve the expected version of a rule set
+     *
+     * @param ruleSetId The rule set ID
+     * @param version The expected version label
+     * @param contentHash MD5 hash of the expected DRL; null if the rule set is undeployed
+     * @return The deployment status
+     */
+    public RuleDeploymentStatus getStatus(String ruleSetId, String version, String contentHash) {
+        long now = System.currentTimeMillis();
+        Map<String, Long> heartbeats = new HashMap<>();
+        Map<String, NodeRuleSetState> states = new HashMap<>();
+        if (settings.isEnabled()) {
+            redisTemplate.opsForHash().entries(NODES_KEY).forEach((node, millis) ->
+                    heartbeats.put((String) node, Long.parseLong((String) millis)));
+            redisTemplate.opsForHash().entries(RULE_SET_KEY_PREFIX + ruleSetId).forEach((node, json) ->
+                    states.put((String) node, parse((String) json)));
+        } else {
+            NodeRuleSetState local = localStates.get(ruleSetId);
+            if (local != null) {
+                states.put(nodeId, local);
+            }
+        }
+        // This node is live by definition, also before its first heartbeat
+        heartbeats.put(nodeId, now);
+
+        List<RuleDeploymentStatus.NodeStatus> nodes = new ArrayList<>();
+        long maxLagMs = 0;
+        int convergedNodes = 0;
+        for (Map.Entry<String, Long> heartbeat : heartbeats.entrySet()) {
+            long heartbeatAgoMs = now - heartbeat.getValue();
+            if (heartbeatAgoMs > settings.getNodeTimeoutMs()) {
+                continue;
+            }
+            NodeRuleSetState state = states.get(heartbeat.getKey());
+            boolean converged = state == null || Objects.equals(contentHash, state.contentHash());
+            if (converged) {
+                convergedNodes++;
+                maxLagMs = Math.max(maxLagMs, state != null ? state.lagMs() : 0);
+            }
+            nodes.add(RuleDeploymentStatus.NodeStatus.builder()
+                    .nodeId(heartbeat.getKey())
+                    .version(state != null ? state.version() : null)
+                    .contentHash(state != null ? state.contentHash() : null)
+                    .converged(converged)
+                    .resident(state != null)
+                    .appliedAt(state != null ? toLocalDateTime(state.appliedAtMillis()) : null)
+                    .lagMs(state != null ? state.lagMs() : 0)
+                    .lastHeartbeatAgoMs(heartbeatAgoMs)
+                    .build());
+        }
+
+        return RuleDeploymentStatus.builder()
+                .ruleSetId(ruleSetId)
+                .version(version)
+                .contentHash(contentHash)
+                .converged(convergedNodes == nodes.size())
+                .nodeCount(nodes.size())
+                .convergedNodeCount(convergedNodes)
+                .maxLagMs(maxLagMs)
+                .nodes(nodes)
+                .build();
+    }
+
+    private NodeRuleSetState parse(String json) {
+        try {
+            return objectMapper.readValue(json, NodeRuleSetState.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed node state: " + json, e);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static String defaultNodeId() {
+        String host = System.getenv("HOSTNAME");
+        if (host == null || host.isBlank()) {
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                host = "unknown";
+            }
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
+}
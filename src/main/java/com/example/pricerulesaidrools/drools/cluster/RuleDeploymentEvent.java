@@ -0,0 +1,22 @@
+package com.example.pricerulesaidrools.drools.cluster;
+
+/**
+ * Announces a change of a rule set to the other nodes of the cluster.
+ * <p>
+ * The event only identifies the change; receivers read the rule set itself from the
+ * rule set store, which the publishing node has written before publishing.
+ *
+ * @param ruleSetId The changed rule set
+ * @param type What changed
+ * @param version Version label of the rule set after the change
+ * @param contentHash MD5 hash of the DRL after the change; null once undeployed
+ * @param originNodeId Node that made the change
+ * @param publishedAtMillis Wall clock time of publication, for reporting propagation lag
+ */
+public record RuleDeploymentEvent(String ruleSetId, Type type, String version, String contentHash,
+                                  String originNodeId, long publishedAtMillis) {
+
+    public enum Type {
+        DEPLOYED, UPDATED, UNDEPLOYED
+    }
+}
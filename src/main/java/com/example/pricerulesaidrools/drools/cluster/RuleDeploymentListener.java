@@ -0,0 +1,66 @@
+package com.example.pricerulesaidrools.drools.cluster;
+
+import com.example.pricerulesaidrools.drools.service.DroolsIntegrationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies deployments made on other nodes, keeps this node's heartbeat alive and
+ * periodically reconciles with the rule set store in case an event was missed
+ */
+@Component
+@ConditionalOnProperty(prefix = "drools.cluster", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class RuleDeploymentListener implements MessageListener {
+
+    private final DroolsIntegrationService droolsIntegrationService;
+    private final RuleDeploymentBroadcaster broadcaster;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        RuleDeploymentEvent event;
+        try {
+            event = objectMapper.readValue(message.getBody(), RuleDeploymentEvent.class);
+        } catch (Exception e) {
+            log.error("Ignoring malformed deployment event", e);
+            return;
+        }
+        if (broadcaster.getNodeId().equals(event.originNodeId())) {
+            return;
+        }
+
+        log.info("Applying {} of rule set {} version {} from node {}", event.type(), event.ruleSetId(),
+                event.version(), event.originNodeId());
+        try {
+            droolsIntegrationService.applyDeploymentEvent(event);
+        } catch (Exception e) {
+            log.error("Failed to apply {} of rule set {}", event.type(), event.ruleSetId(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${drools.cluster.heartbeat-interval-ms:5000}")
+    public void heartbeat() {
+        try {
+            broadcaster.heartbeat();
+        } catch (Exception e) {
+            log.warn("Failed to send cluster heartbeat", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${drools.cluster.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        try {
+            droolsIntegrationService.reconcileRuleSets();
+        } catch (Exception e) {
+            log.warn("Failed to reconcile rule sets with the rule set store", e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.pricerulesaidrools.drools.config;
+
+import com.example.pricerulesaidrools.drools.cluster.RuleDeploymentListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Subscribes to the deployment events of the other nodes
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "drools.cluster", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DroolsClusterConfig {
+
+    @Bean
+    public RedisMessageListenerContainer ruleDeploymentListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                         RuleDeploymentListener listener,
+                                                                         DroolsProperties droolsProperties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(listener, new ChannelTopic(droolsProperties.getCluster().getChannel()));
+        return container;
+    }
+}
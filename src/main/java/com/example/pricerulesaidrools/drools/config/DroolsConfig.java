@@ -1,6 +1,10 @@
 package com.example.pricerulesaidrools.drools.config;
 
+import com.example.pricerulesaidrools.drools.metrics.RuleInstrumentation;
+import com.example.pricerulesaidrools.drools.tier.TierTableGlobals;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.drools.model.codegen.ExecutableModelProject;
 import org.kie.api.KieBase;
 import org.kie.api.KieBaseConfiguration;
 import org.kie.api.KieServices;
@@ -9,14 +13,16 @@ import org.kie.api.builder.KieFileSystem;
 import org.kie.api.builder.KieModule;
 import org.kie.api.builder.KieRepository;
 import org.kie.api.builder.Message.Level;
-import org.kie.api.conf.EventProcessingOption;
 import org.kie.api.io.Resource;
 import org.kie.api.runtime.KieContainer;
 import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.StatelessKieSession;
 import org.kie.internal.io.ResourceFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
 
@@ -25,21 +31,34 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Configuration
+@RequiredArgsConstructor
 @Slf4j
 public class DroolsConfig {
 
+    /** Rule class index the kie-maven-plugin writes for a kjar built into the executable model */
+    private static final String EXECUTABLE_MODEL_RESOURCES = "classpath*:META-INF/kie/*/*/drools-model";
+
+    /** KieBase configuration properties set by KieBase profiles */
+    private static final String SEQUENTIAL_PROPERTY = "drools.sequential";
+    private static final String ALPHA_NETWORK_COMPILER_PROPERTY = "drools.alphaNetworkCompiler";
+    private static final String JITTING_THRESHOLD_PROPERTY = "drools.jittingThreshold";
+
     @Value("${drools.default-rule-path}")
     private String defaultRulePath;
 
     @Value("${drools.rule-execution-timeout:1000}")
     private int ruleExecutionTimeout;
 
+    private final RuleInstrumentation ruleInstrumentation;
+    private final DroolsProperties droolsProperties;
+
     @Bean
     public KieServices kieServices() {
         return KieServices.Factory.get();
     }
 
     @Bean
+    @Lazy
     public KieFileSystem kieFileSystem(KieServices kieServices) throws IOException {
         KieFileSystem kieFileSystem = kieServices.newKieFileSystem();
         
@@ -65,12 +84,26 @@ public class DroolsConfig {
     }
 
     @Bean
-    public KieContainer kieContainer(KieServices kieServices, KieFileSystem kieFileSystem) {
+    public KieContainer kieContainer(KieServices kieServices, ObjectProvider<KieFileSystem> kieFileSystem) {
+        long startTime = System.currentTimeMillis();
+
+        boolean executableModel = droolsProperties.getExecutableModel().isEnabled();
+        if (executableModel && hasExecutableModel(getClass().getClassLoader())) {
+            KieContainer kieContainer = kieServices.getKieClasspathContainer(getClass().getClassLoader());
+            log.info("Loaded precompiled executable rule model in {} ms", System.currentTimeMillis() - startTime);
+            return kieContainer;
+        }
+
         KieRepository kieRepository = kieServices.getRepository();
         kieRepository.addKieModule(() -> kieRepository.getDefaultReleaseId());
         
-        KieBuilder kieBuilder = kieServices.newKieBuilder(kieFileSystem);
-        kieBuilder.buildAll();
+        KieBuilder kieBuilder = kieServices.newKieBuilder(kieFileSystem.getObject());
+        if (executableModel) {
+            // Only reached when the model was not generated at build time, e.g. when running from an IDE
+            kieBuilder.buildAll(ExecutableModelProject.class);
+        } else {
+            kieBuilder.buildAll();
+        }
         
         if (kieBuilder.getResults().hasMessages(Level.ERROR)) {
             List<String> errors = new ArrayList<>();
@@ -83,20 +116,99 @@ public class DroolsConfig {
         }
         
         KieModule kieModule = kieBuilder.getKieModule();
+        log.info("Compiled classpath DRL{} in {} ms", executableModel ? " into the executable model" : "",
+                System.currentTimeMillis() - startTime);
         return kieServices.newKieContainer(kieModule.getReleaseId());
     }
 
     @Bean
     public KieBase kieBase(KieContainer kieContainer, KieServices kieServices) {
+        DroolsProperties.KieBaseProfile profile = resolveKieBaseProfile(null);
+        // The classpath rules run in pooled stateful sessions, which sequential mode does not support
+        if (profile.isSequential()) {
+            throw new IllegalStateException("Default KieBase profile " + droolsProperties.getDefaultKieBaseProfile()
+                    + " must not use sequential mode");
+        }
+        String kieBaseName = droolsProperties.getExecutableModel().getKieBaseName();
+        if (kieContainer.getKieBaseNames().contains(kieBaseName)) {
+            return kieContainer.newKieBase(kieBaseName, newKieBaseConfiguration(kieServices, profile));
+        }
+        return kieContainer.newKieBase(newKieBaseConfiguration(kieServices, profile));
+    }
+
+    /**
+     * Checks whether the classpath carries rules precompiled into the Drools executable model,
+     * i.e. a kjar built by the kie-maven-plugin build goal, as this module's build does
+     *
+     * @param classLoader The class loader to inspect
+     * @return true if a generated model index is present
+     */
+    public static boolean hasExecutableModel(ClassLoader classLoader) {
+        try {
+            ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(classLoader);
+            return resolver.getResources(EXECUTABLE_MODEL_RESOURCES).length > 0;
+        } catch (IOException e) {
+            log.warn("Could not look up a precompiled executable model", e);
+            return false;
+        }
+    }
+
+    /**
+     * Looks up a configured KieBase profile
+     *
+     * @param profileName The profile name, or null for the default profile
+     * @return The profile
+     * @throws IllegalArgumentException If no profile of that name is configured
+     */
+    public DroolsProperties.KieBaseProfile resolveKieBaseProfile(String profileName) {
+        if (profileName == null || profileName.isBlank()) {
+            return droolsProperties.getKieBaseProfiles().getOrDefault(droolsProperties.getDefaultKieBaseProfile(),
+                    new DroolsProperties.KieBaseProfile());
+        }
+        DroolsProperties.KieBaseProfile profile = droolsProperties.getKieBaseProfiles().get(profileName.trim());
+        if (profile == null) {
+            throw new IllegalArgumentException("Unknown KieBase profile: " + profileName);
+        }
+        return profile;
+    }
+
+    /**
+     * Creates the KieBase configuration for the startup KieBase or a rule set compiled at runtime
+     *
+     * @param kieServices The KieServices instance
+     * @param profileName The KieBase profile, or null for the default profile
+     * @return A new KieBaseConfiguration
+     * @throws IllegalArgumentException If no profile of that name is configured
+     */
+    public KieBaseConfiguration newKieBaseConfiguration(KieServices kieServices, String profileName) {
+        return newKieBaseConfiguration(kieServices, resolveKieBaseProfile(profileName));
+    }
+
+    /**
+     * Creates a KieBase configuration with the options of a profile
+     *
+     * @param kieServices The KieServices instance
+     * @param profile The KieBase profile
+     * @return A new KieBaseConfiguration
+     */
+    public static KieBaseConfiguration newKieBaseConfiguration(KieServices kieServices,
+                                                               DroolsProperties.KieBaseProfile profile) {
         KieBaseConfiguration kieBaseConfiguration = kieServices.newKieBaseConfiguration();
-        kieBaseConfiguration.setOption(EventProcessingOption.STREAM);
-        return kieContainer.newKieBase(kieBaseConfiguration);
+        kieBaseConfiguration.setOption(profile.getEventProcessing());
+        kieBaseConfiguration.setProperty(SEQUENTIAL_PROPERTY, String.valueOf(profile.isSequential()));
+        kieBaseConfiguration.setProperty(ALPHA_NETWORK_COMPILER_PROPERTY, profile.getAlphaNetworkCompiler().name());
+        if (profile.getConstraintJittingThreshold() != null) {
+            kieBaseConfiguration.setProperty(JITTING_THRESHOLD_PROPERTY,
+                    String.valueOf(profile.getConstraintJittingThreshold()));
+        }
+        return kieBaseConfiguration;
     }
 
     @Bean
     public KieSession kieSession(KieBase kieBase) {
         KieSession kieSession = kieBase.newKieSession();
         kieSession.setGlobal("logger", log);
+        TierTableGlobals.defaults(kieBase).bind(kieSession);
         return kieSession;
     }
     
@@ -110,7 +222,32 @@ public class DroolsConfig {
      */
     public KieSession newKieSession(KieBase kieBase) {
         KieSession kieSession = kieBase.newKieSession();
-        kieSession.setGlobal("logger", log);
+        initKieSession(kieSession);
         return kieSession;
     }
+
+    /**
+     * Sets the globals and listeners every KieSession starts with, on a new or a reset session
+     *
+     * @param kieSession The session to initialize
+     */
+    public void initKieSession(KieSession kieSession) {
+        kieSession.setGlobal("logger", log);
+        ruleInstrumentation.attach(kieSession);
+    }
+
+    /**
+     * Creates a new StatelessKieSession from the KieBase
+     * Stateless sessions are thread-safe and can be shared across executions,
+     * so globals only need to be set once
+     *
+     * @param kieBase The KieBase to create the session from
+     * @return A new StatelessKieSession instance
+     */
+    public StatelessKieSession newStatelessKieSession(KieBase kieBase) {
+        StatelessKieSession statelessKieSession = kieBase.newStatelessKieSession();
+        statelessKieSession.setGlobal("logger", log);
+        ruleInstrumentation.attach(statelessKieSession, kieBase);
+        return statelessKieSession;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,623 @@
+package com.example.pricerulesaidrools.drools.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.Setter;
+import org.kie.api.conf.EventProcessingOption;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tuning settings for the Drools execution engine.
+ * Binds to application.yml properties under drools.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "drools")
+@Getter
+@Setter
+@Validated
+public class DroolsProperties {
+
+    /**
+     * KieSession pooling settings.
+     */
+    @Valid
+    private SessionPool sessionPool = new SessionPool();
+
+    /**
+     * Rule execution timeout enforcement settings.
+     */
+    @Valid
+    private Watchdog watchdog = new Watchdog();
+
+    /**
+     * Executable rule model settings for the classpath rules and deployed rule sets.
+     */
+    @Valid
+    private ExecutableModel executableModel = new ExecutableModel();
+
+    /**
+     * Disk cache of compiled rule set modules.
+     */
+    @Valid
+    private CompiledCache compiledCache = new CompiledCache();
+
+    /**
+     * In-memory memoization of compilation results.
+     */
+    @Valid
+    private CompilationCache compilationCache = new CompilationCache();
+
+    /**
+     * Parallel batch execution settings.
+     */
+    @Valid
+    private Batch batch = new Batch();
+
+    /**
+     * Per-rule firing instrumentation settings.
+     */
+    @Valid
+    private Instrumentation instrumentation = new Instrumentation();
+
+    /**
+     * Asynchronous rule execution settings.
+     */
+    @Valid
+    private Async async = new Async();
+
+    /**
+     * Memory residency of compiled rule sets.
+     */
+    @Valid
+    private Residency residency = new Residency();
+
+    /**
+     * Propagation of deployments to the other nodes of the cluster.
+     */
+    @Valid
+    private Cluster cluster = new Cluster();
+
+    /**
+     * Incremental updates of resident rule sets when only some rules change.
+     */
+    @Valid
+    private IncrementalUpdate incrementalUpdate = new IncrementalUpdate();
+
+    /**
+     * Model classes that execution request facts are deserialized into, by fact name.
+     */
+    @Valid
+    private FactSchema factSchema = new FactSchema();
+
+    /**
+     * Sampled recording of executions into the rule execution history table.
+     */
+    @Valid
+    private History history = new History();
+
+    /**
+     * Shadow execution of candidate rule set versions on sampled live executions.
+     */
+    @Valid
+    private Shadow shadow = new Shadow();
+
+    /**
+     * Profiling of single fact sets with every rule's matches, fires and consequence time recorded.
+     */
+    @Valid
+    private Profiler profiler = new Profiler();
+
+    /**
+     * Named KieBase tuning profiles that deployed rule sets select with the kieBaseProfile option.
+     */
+    @Valid
+    private Map<String, KieBaseProfile> kieBaseProfiles = new LinkedHashMap<>();
+
+    /**
+     * Profile for the classpath rules and for rule sets deployed without a profile; if no
+     * profile of that name is configured, the engine defaults with STREAM event processing apply.
+     */
+    @NotBlank(message = "Default KieBase profile must not be blank")
+    private String defaultKieBaseProfile = "default";
+
+    /**
+     * Where executions of rule sets deployed without a resultContract option find their
+     * result: fact:name, global:name or query:name.
+     */
+    @NotBlank(message = "Default result contract must not be blank")
+    private String defaultResultContract = "fact:pricingResult";
+
+    /**
+     * Settings for the bounded pool of KieSessions kept per KieBase.
+     */
+    @Getter
+    @Setter
+    public static class SessionPool {
+
+        /**
+         * Whether sessions are borrowed from a pool instead of created for every execution.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of sessions per KieBase, borrowed and idle combined.
+         */
+        @Min(value = 1, message = "Session pool max size must be at least 1")
+        private int maxSize = 32;
+
+        /**
+         * Maximum time in milliseconds a caller waits for a free session.
+         */
+        @Min(value = 0, message = "Session pool max wait must be non-negative")
+        private long maxWaitMs = 500;
+    }
+
+    /**
+     * Settings for the shared scheduler that halts executions at their deadline.
+     */
+    @Getter
+    @Setter
+    public static class Watchdog {
+
+        /**
+         * Number of scheduler threads; they only halt sessions, rules fire on the calling thread.
+         */
+        @Min(value = 1, message = "Watchdog threads must be at least 1")
+        private int threads = 1;
+    }
+
+    /**
+     * Settings for building rules as the Drools executable model.
+     */
+    @Getter
+    @Setter
+    public static class ExecutableModel {
+
+        /**
+         * Whether to use the executable model instead of plain DRL: the classpath rules are loaded from
+         * the model generated at build time, or built into it at startup when it is missing, and
+         * deployed rule sets are built into it.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Name of the KieBase declared in META-INF/kmodule.xml.
+         */
+        @NotBlank(message = "Executable model KieBase name must not be blank")
+        private String kieBaseName = "pricing-rules";
+    }
+
+    /**
+     * Settings for the local disk cache of compiled rule set modules.
+     */
+    @Getter
+    @Setter
+    public static class CompiledCache {
+
+        /**
+         * Whether compiled modules are stored on disk and reused instead of recompiling the DRL.
+         * Only executable model modules carry compiled classes, so plain DRL modules are not stored.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Directory holding the compiled module snapshots.
+         */
+        @NotBlank(message = "Compiled cache directory must not be blank")
+        private String directory = System.getProperty("java.io.tmpdir") + "/drools-rule-cache";
+    }
+
+    /**
+     * Settings for memoizing compilation results by DRL content hash.
+     */
+    @Getter
+    @Setter
+    public static class CompilationCache {
+
+        /**
+         * Maximum number of memoized compilation results.
+         */
+        @Min(value = 1, message = "Compilation cache max entries must be at least 1")
+        private int maxEntries = 64;
+
+        /**
+         * Maximum estimated memory of the memoized compiled modules, in megabytes.
+         */
+        @Min(value = 1, message = "Compilation cache max memory must be at least 1 MB")
+        private int maxMemoryMb = 64;
+    }
+
+    /**
+     * Settings for fanning batch executions out across cores.
+     */
+    @Getter
+    @Setter
+    public static class Batch {
+
+        /**
+         * Maximum number of workers a single batch uses.
+         */
+        @Min(value = 1, message = "Batch parallelism must be at least 1")
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Number of consecutive items a worker claims at a time.
+         */
+        @Min(value = 1, message = "Batch chunk size must be at least 1")
+        private int chunkSize = 64;
+
+        /**
+         * Maximum number of items executing at once across all batches; keep it below
+         * the session pool size so batches do not starve interactive executions.
+         */
+        @Min(value = 1, message = "Batch max in-flight must be at least 1")
+        private int maxInFlight = 16;
+
+        /**
+         * Number of requests inserted into one shared session by correlated batch execution.
+         */
+        @Min(value = 1, message = "Batch session chunk size must be at least 1")
+        private int sessionChunkSize = 256;
+
+        /**
+         * Maximum number of items of one streamed batch read but not yet written back.
+         */
+        @Min(value = 1, message = "Batch stream window must be at least 1")
+        private int streamWindow = 256;
+    }
+
+    /**
+     * Settings for the agenda listener that records per-rule activations, fires and
+     * consequence times.
+     */
+    @Getter
+    @Setter
+    public static class Instrumentation {
+
+        /**
+         * Whether sessions get the instrumentation listener.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Fraction of rule fires whose consequence is timed; activation and fire counts are always exact.
+         */
+        @DecimalMin(value = "0.0", message = "Instrumentation sample rate must be between 0 and 1")
+        @DecimalMax(value = "1.0", message = "Instrumentation sample rate must be between 0 and 1")
+        private double sampleRate = 0.01;
+    }
+
+    /**
+     * Settings for the bounded queue serving asynchronous rule executions.
+     */
+    @Getter
+    @Setter
+    public static class Async {
+
+        /**
+         * Number of worker threads executing queued rule executions.
+         */
+        @Min(value = 1, message = "Async threads must be at least 1")
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Maximum number of queued executions; further requests are rejected.
+         */
+        @Min(value = 1, message = "Async queue capacity must be at least 1")
+        private int queueCapacity = 1000;
+
+        /**
+         * Deadline for an execution when the caller does not give one, in milliseconds.
+         */
+        @Min(value = 1, message = "Async default deadline must be at least 1 ms")
+        private long defaultDeadlineMs = 2000;
+    }
+
+    /**
+     * Settings for evicting idle compiled rule sets; an evicted rule set is loaded from
+     * the rule set store and compiled again on its next execution.
+     */
+    @Getter
+    @Setter
+    public static class Residency {
+
+        /**
+         * Estimated memory all compiled rule sets may hold before idle ones are evicted, in megabytes.
+         */
+        @Min(value = 1, message = "Residency max memory must be at least 1 MB")
+        private int maxMemoryMb = 256;
+
+        /**
+         * Time without executions after which a rule set may be evicted, in milliseconds.
+         */
+        @Min(value = 0, message = "Residency idle timeout must be non-negative")
+        private long idleTimeoutMs = 600_000;
+
+        /**
+         * Interval between eviction sweeps, in milliseconds.
+         */
+        @Min(value = 1, message = "Residency eviction interval must be at least 1 ms")
+        private long evictionIntervalMs = 60_000;
+
+        /**
+         * Which idle rule sets are evicted first when the budget is exceeded.
+         */
+        private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+
+        /**
+         * How long a rule set ID that the rule set store does not hold is remembered as unknown,
+         * in milliseconds; requests for it meanwhile do not query the store.
+         */
+        @Min(value = 0, message = "Residency unknown rule set TTL must be non-negative")
+        private long unknownRuleSetTtlMs = 5_000;
+
+        public enum EvictionPolicy {
+            /**
+             * Least recently executed first.
+             */
+            LRU,
+            /**
+             * Least frequently executed first; use counts are halved every eviction sweep, and
+             * ties go to the least recently executed.
+             */
+            LFU
+        }
+    }
+
+    /**
+     * Settings for propagating rule set deployments between nodes over Redis pub/sub.
+     */
+    @Getter
+    @Setter
+    public static class Cluster {
+
+        /**
+         * Whether deployments are published to and received from the other nodes.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Redis channel carrying deployment events.
+         */
+        @NotBlank(message = "Cluster channel must not be blank")
+        private String channel = "drools:rule-deployments";
+
+        /**
+         * Identifies this node in deployment status reports; defaults to the host name and process ID.
+         */
+        private String nodeId;
+
+        /**
+         * Interval between liveness heartbeats of this node, in milliseconds.
+         */
+        @Min(value = 1, message = "Cluster heartbeat interval must be at least 1 ms")
+        private long heartbeatIntervalMs = 5_000;
+
+        /**
+         * Time without heartbeat after which a node no longer counts towards convergence, in milliseconds.
+         */
+        @Min(value = 1, message = "Cluster node timeout must be at least 1 ms")
+        private long nodeTimeoutMs = 15_000;
+
+        /**
+         * Interval between comparisons of the resident rule sets with the rule set store, which
+         * catch up on deployment events this node missed, in milliseconds.
+         */
+        @Min(value = 1, message = "Cluster reconcile interval must be at least 1 ms")
+        private long reconcileIntervalMs = 60_000;
+    }
+
+    /**
+     * Settings for building the next version of a rule set rule by rule instead of rebuilding it.
+     */
+    @Getter
+    @Setter
+    public static class IncrementalUpdate {
+
+        /**
+         * Whether updates that only add, change or remove rules are applied to a new KieBase of the
+         * live version's module, compiling just the changed rules.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Largest number of added, changed and removed rules applied incrementally; larger changes
+         * are rebuilt from scratch, which is faster for them.
+         */
+        @Min(value = 1, message = "Incremental update max changed rules must be at least 1")
+        private int maxChangedRules = 50;
+    }
+
+    /**
+     * Settings for binding execution request facts directly to the model classes the rules match.
+     */
+    @Getter
+    @Setter
+    public static class FactSchema {
+
+        /**
+         * Whether facts with a known name are deserialized into their model class; if disabled,
+         * every fact is read as generic JSON maps and values.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Fact names and their classes, for rule sets deployed without a factSchema option.
+         */
+        private Map<String, String> types = new LinkedHashMap<>(Map.of(
+                "pricingRequest", "com.example.pricerulesaidrools.model.PricingRequest",
+                "financialMetrics", "com.example.pricerulesaidrools.model.FinancialMetrics",
+                "pricingResult", "com.example.pricerulesaidrools.model.PricingResult"));
+
+        /**
+         * Package that fact classes named in a factSchema deployment option must belong to.
+         */
+        @NotBlank(message = "Fact schema allowed package must not be blank")
+        private String allowedPackage = "com.example.pricerulesaidrools.model";
+    }
+
+    /**
+     * Settings for recording executions into the rule execution history. Executions are
+     * buffered in memory and written in JDBC batches by a background thread, never on the
+     * request thread.
+     */
+    @Getter
+    @Setter
+    public static class History {
+
+        /**
+         * Whether executions are recorded at all.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Fraction of successful, fast executions that are recorded; failed and slow ones always are.
+         */
+        @DecimalMin(value = "0.0", message = "History sample rate must be between 0 and 1")
+        @DecimalMax(value = "1.0", message = "History sample rate must be between 0 and 1")
+        private double sampleRate = 0.01;
+
+        /**
+         * Executions taking at least this long are always recorded, in milliseconds.
+         */
+        @Min(value = 0, message = "History slow threshold must be non-negative")
+        private long slowThresholdMs = 250;
+
+        /**
+         * Records buffered before the writer catches up; rounded up to a power of two.
+         */
+        @Min(value = 1, message = "History buffer capacity must be at least 1")
+        private int bufferCapacity = 8192;
+
+        /**
+         * Which records are dropped when the writer falls behind.
+         */
+        private DropPolicy dropPolicy = DropPolicy.DROP_SAMPLED_FIRST;
+
+        /**
+         * Maximum number of records written in one JDBC batch.
+         */
+        @Min(value = 1, message = "History batch size must be at least 1")
+        private int batchSize = 500;
+
+        /**
+         * Time the writer waits for more records when the buffer is drained, in milliseconds.
+         */
+        @Min(value = 1, message = "History flush interval must be at least 1 ms")
+        private long flushIntervalMs = 1000;
+
+        /**
+         * Whether the facts and result of recorded executions are written as JSON; they are
+         * serialized by the writer, so the request thread does not pay for it.
+         */
+        private boolean capturePayload = false;
+
+        public enum DropPolicy {
+
+            /**
+             * Sampled records are dropped once the buffer is three quarters full, keeping the rest
+             * for failed and slow executions; those are dropped only when the buffer is full.
+             */
+            DROP_SAMPLED_FIRST,
+
+            /**
+             * Any record is dropped when the buffer is full.
+             */
+            DROP_NEWEST
+        }
+    }
+
+    /**
+     * Settings for shadow execution: sampled live executions of a rule set are executed again
+     * against a candidate version on low-priority threads, and the results compared.
+     */
+    @Getter
+    @Setter
+    public static class Shadow {
+
+        /**
+         * Whether candidate versions can be shadowed.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of low-priority threads executing candidate versions.
+         */
+        @Min(value = 1, message = "Shadow threads must be at least 1")
+        private int threads = 1;
+
+        /**
+         * Maximum number of queued shadow executions; further sampled executions are not mirrored.
+         */
+        @Min(value = 1, message = "Shadow queue capacity must be at least 1")
+        private int queueCapacity = 256;
+
+        /**
+         * Fraction of live executions mirrored when a candidate is started without a sample rate.
+         */
+        @DecimalMin(value = "0.0", message = "Shadow sample rate must be between 0 and 1")
+        @DecimalMax(value = "1.0", message = "Shadow sample rate must be between 0 and 1")
+        private double defaultSampleRate = 0.05;
+    }
+
+    /**
+     * Settings for profiling a single fact set.
+     */
+    @Getter
+    @Setter
+    public static class Profiler {
+
+        /**
+         * Maximum number of runs of one profiling request; larger repeat counts are capped.
+         */
+        @Min(value = 1, message = "Profiler max repeat must be at least 1")
+        private int maxRepeat = 100;
+    }
+
+    /**
+     * KieBase options a rule set is built with. Which profile is fastest depends on the
+     * rules, so compare them with the KieBaseProfileBenchmark before choosing one.
+     */
+    @Getter
+    @Setter
+    public static class KieBaseProfile {
+
+        /**
+         * STREAM for rules over events in time, CLOUD for plain facts; CLOUD skips the event bookkeeping.
+         */
+        private EventProcessingOption eventProcessing = EventProcessingOption.STREAM;
+
+        /**
+         * Whether the KieBase is built for sequential mode, which evaluates every rule once in
+         * salience order and ignores changes made by consequences. Only for rule sets deployed
+         * with the STATELESS execution mode.
+         */
+        private boolean sequential = false;
+
+        /**
+         * Compiles the alpha network into generated code; takes effect for rules built
+         * into the executable model.
+         */
+        private AlphaNetworkCompiler alphaNetworkCompiler = AlphaNetworkCompiler.DISABLED;
+
+        /**
+         * Number of evaluations after which an interpreted constraint is compiled to bytecode;
+         * unset keeps the engine default, 0 compiles constraints on their first evaluation.
+         */
+        @Min(value = 0, message = "Constraint jitting threshold must be non-negative")
+        private Integer constraintJittingThreshold;
+
+        public enum AlphaNetworkCompiler {
+            DISABLED, INMEMORY, LOAD
+        }
+    }
+}
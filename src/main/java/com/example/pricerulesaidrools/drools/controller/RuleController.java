@@ -1,13 +1,26 @@
 package com.example.pricerulesaidrools.drools.controller;
 
+import com.example.pricerulesaidrools.drools.batch.ParallelBatchExecutor;
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
 import com.example.pricerulesaidrools.drools.dto.*;
+import com.example.pricerulesaidrools.drools.exception.DroolsApiException;
+import com.example.pricerulesaidrools.drools.exception.DroolsErrorCode;
 import com.example.pricerulesaidrools.drools.model.RuleSetMetadata;
+import com.example.pricerulesaidrools.drools.schema.FactSchema;
+import com.example.pricerulesaidrools.drools.schema.FactSchemaRegistry;
 import com.example.pricerulesaidrools.drools.service.DroolsIntegrationService;
+import com.example.pricerulesaidrools.model.PricingResult;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,9 +30,16 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/drools")
@@ -29,7 +49,14 @@ import java.util.Map;
 @Tag(name = "Rule Management API", description = "APIs for managing and executing Drools rules")
 public class RuleController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final TypeReference<Map<String, JsonNode>> FACT_SET_TYPE = new TypeReference<>() {
+    };
+
     private final DroolsIntegrationService droolsIntegrationService;
+    private final ObjectMapper objectMapper;
+    private final DroolsProperties droolsProperties;
+    private final FactSchemaRegistry factSchemaRegistry;
 
     @PostMapping("/rules")
     @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_RULE_MANAGER')")
@@ -43,7 +70,8 @@ public class RuleController {
             @Valid @RequestBody RuleRequest ruleRequest) {
         
         log.info("Deploying rule set: {}", ruleRequest.getName());
-        RuleDeploymentResult result = droolsIntegrationService.deployRules(ruleRequest.getContent());
+        RuleDeploymentResult result = droolsIntegrationService.deployRules(
+                ruleRequest.getContent(), ruleRequest.getMetadata());
         
         if (result.isSuccessful()) {
             return ResponseEntity.ok(result);
@@ -63,10 +91,14 @@ public class RuleController {
     })
     public ResponseEntity<RuleDeploymentResult> updateRules(
             @Parameter(description = "Rule set version") @PathVariable String version,
+            @Parameter(description = "Rule set ID to update; defaults to the rule set with identical content")
+            @RequestParam(required = false) String ruleSetId,
             @Valid @RequestBody RuleRequest ruleRequest) {
         
         log.info("Updating rule set with version: {}", version);
-        RuleDeploymentResult result = droolsIntegrationService.updateRules(ruleRequest.getContent(), version);
+        RuleDeploymentResult result = ruleSetId != null
+                ? droolsIntegrationService.updateRules(ruleSetId, ruleRequest.getContent(), version)
+                : droolsIntegrationService.updateRules(ruleRequest.getContent(), version);
         
         if (result.isSuccessful()) {
             return ResponseEntity.ok(result);
@@ -145,19 +177,74 @@ public class RuleController {
         log.info("Executing rule set with ID: {}", request.getRuleSetId());
         
         long startTime = System.currentTimeMillis();
-        Map<String, Object> result = droolsIntegrationService.executeRules(request.getRuleSetId(), request.getFacts());
+        Object result = droolsIntegrationService.executeRules(request.getRuleSetId(), request.getFacts());
         long executionTime = System.currentTimeMillis() - startTime;
         
         if (result == null) {
             return ResponseEntity.notFound().build();
         }
         
-        RuleExecutionResponse response = RuleExecutionResponse.builder()
-                .results(result)
-                .executionTime(executionTime)
-                .build();
-        
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(toResponse(result, executionTime));
+    }
+
+    @PostMapping("/profile")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_RULE_MANAGER')")
+    @Operation(summary = "Profile rules", description = "Execute a rule set with one fact set and report each "
+            + "rule's matches, fires, consequence time and working-memory operations")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rules profiled successfully"),
+            @ApiResponse(responseCode = "404", description = "Rule set not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<RuleProfile> profileRules(
+            @Parameter(description = "Number of runs to average; capped at drools.profiler.max-repeat")
+            @RequestParam(defaultValue = "1") int repeat,
+            @Valid @RequestBody RuleExecutionRequest request) {
+
+        log.info("Profiling rule set {} over {} runs", request.getRuleSetId(), repeat);
+        RuleProfile profile = droolsIntegrationService.profileRules(request.getRuleSetId(), request.getFacts(),
+                repeat);
+        if (profile == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(profile);
+    }
+
+    @PostMapping("/execute-async")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_RULE_MANAGER') or hasRole('ROLE_RULE_EXECUTOR')")
+    @Operation(summary = "Execute rules asynchronously", description = "Execute a deployed rule set on an async worker "
+            + "without holding a request thread; rejected with 503 when the queue or the deadline would be exceeded")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rules executed successfully"),
+            @ApiResponse(responseCode = "404", description = "Rule set not found"),
+            @ApiResponse(responseCode = "503", description = "Execution rejected (RULE_EXECUTION_REJECTED)"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public CompletableFuture<ResponseEntity<RuleExecutionResponse>> executeRulesAsync(
+            @Valid @RequestBody RuleExecutionRequest request,
+            @Parameter(description = "How long to wait for the result, in milliseconds") @RequestParam(required = false) Long deadlineMs) {
+
+        log.info("Async executing rule set with ID: {}", request.getRuleSetId());
+
+        long startTime = System.currentTimeMillis();
+        long deadline = deadlineMs != null ? deadlineMs : droolsProperties.getAsync().getDefaultDeadlineMs();
+        return droolsIntegrationService.executeRulesAsync(request.getRuleSetId(), request.getFacts(), deadline)
+                .<ResponseEntity<RuleExecutionResponse>>thenApply(result -> {
+                    if (result == null) {
+                        return ResponseEntity.notFound().build();
+                    }
+                    return ResponseEntity.ok(toResponse(result, System.currentTimeMillis() - startTime));
+                });
+    }
+
+    private static RuleExecutionResponse toResponse(Object result, long executionTime) {
+        RuleExecutionResponse.RuleExecutionResponseBuilder response = RuleExecutionResponse.builder()
+                .result(result)
+                .executionTime(executionTime);
+        if (result instanceof PricingResult pricingResult && pricingResult.getAppliedRules() != null) {
+            response.rulesApplied(pricingResult.getAppliedRules());
+        }
+        return response.build();
     }
 
     @PostMapping("/batch-execute")
@@ -165,15 +252,23 @@ public class RuleController {
     @Operation(summary = "Execute rules in batch", description = "Execute a deployed rule set with multiple sets of facts")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Rules executed successfully"),
+            @ApiResponse(responseCode = "400", description = "Facts do not match the rule set's fact schema"),
             @ApiResponse(responseCode = "404", description = "Rule set not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<Map<String, Object>>> executeBatchRules(
+    public ResponseEntity<List<Object>> executeBatchRules(
             @Parameter(description = "Rule set ID") @RequestParam String ruleSetId,
-            @Valid @RequestBody List<Map<String, Object>> factsList) {
+            @Valid @RequestBody List<Map<String, JsonNode>> factsList) {
         
         log.info("Batch executing rule set with ID: {} for {} fact sets", ruleSetId, factsList.size());
-        List<Map<String, Object>> results = droolsIntegrationService.executeBatchRules(ruleSetId, factsList);
+        List<Map<String, Object>> factSets;
+        try {
+            factSets = bindFactSets(ruleSetId, factsList);
+        } catch (IOException e) {
+            log.warn("Facts of batch for rule set {} do not match its schema: {}", ruleSetId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        List<Object> results = droolsIntegrationService.executeBatchRules(ruleSetId, factSets);
         
         if (results.isEmpty() && !factsList.isEmpty()) {
             return ResponseEntity.notFound().build();
@@ -182,6 +277,126 @@ public class RuleController {
         return ResponseEntity.ok(results);
     }
 
+    @PostMapping("/correlated-batch-execute")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_RULE_MANAGER') or hasRole('ROLE_RULE_EXECUTOR')")
+    @Operation(summary = "Execute rules in correlated batch", description = "Execute a deployed rule set with multiple "
+            + "sets of facts sharing sessions, each tagged with its own correlation ID; rule sets not deployed as "
+            + "correlated execute one fact set at a time")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rules executed successfully"),
+            @ApiResponse(responseCode = "400", description = "Facts do not match the rule set's fact schema"),
+            @ApiResponse(responseCode = "404", description = "Rule set not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<List<Object>> executeCorrelatedBatch(
+            @Parameter(description = "Rule set ID") @RequestParam String ruleSetId,
+            @Valid @RequestBody List<Map<String, JsonNode>> factsList) {
+
+        log.info("Correlated batch executing rule set with ID: {} for {} fact sets", ruleSetId, factsList.size());
+        List<Map<String, Object>> factSets;
+        try {
+            factSets = bindFactSets(ruleSetId, factsList);
+        } catch (IOException e) {
+            log.warn("Facts of correlated batch for rule set {} do not match its schema: {}", ruleSetId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        List<Object> results = droolsIntegrationService.executeCorrelatedBatch(ruleSetId, factSets);
+
+        if (results.isEmpty() && !factsList.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(results);
+    }
+
+    @PostMapping(value = "/stream-execute", consumes = NDJSON, produces = NDJSON)
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_RULE_MANAGER') or hasRole('ROLE_RULE_EXECUTOR')")
+    @Operation(summary = "Execute rules on a stream", description = "Execute a deployed rule set on newline-delimited fact sets, "
+            + "writing one result line per fact set as soon as it is ready")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Results streamed; each line carries the index of its fact set"),
+            @ApiResponse(responseCode = "404", description = "Rule set not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public void executeRulesStream(
+            @Parameter(description = "Rule set ID") @RequestParam String ruleSetId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        log.info("Stream executing rule set with ID: {}", ruleSetId);
+
+        if (droolsIntegrationService.getRuleSetMetadata(ruleSetId) == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        response.setContentType(NDJSON);
+        OutputStream out = response.getOutputStream();
+        FactSchema schema = factSchemaRegistry.schemaFor(ruleSetId);
+        try (MappingIterator<Map<String, JsonNode>> lines = objectMapper.readerFor(FACT_SET_TYPE)
+                .readValues(request.getInputStream())) {
+            // Each fact set is bound to the rule set's fact schema as it is read, as for single executions
+            Iterator<Map<String, Object>> facts = new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return lines.hasNext();
+                }
+
+                @Override
+                public Map<String, Object> next() {
+                    try {
+                        return schema.bindFacts(lines.next());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+            long count = droolsIntegrationService.executeRulesStream(ruleSetId, facts, new ParallelBatchExecutor.StreamSink<>() {
+                @Override
+                public void accept(long index, Object result, Exception failure) throws IOException {
+                    Map<String, Object> line = new LinkedHashMap<>();
+                    line.put("index", index);
+                    if (failure != null) {
+                        line.put("error", failure.getMessage());
+                    } else {
+                        line.put("result", result);
+                    }
+                    writeLine(out, line);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    out.flush();
+                }
+            });
+            log.info("Streamed {} results for rule set with ID: {}", count, ruleSetId);
+        } catch (RuntimeException e) {
+            // Results already sent stay valid; report why the stream stopped as a final line
+            log.warn("Stream execution stopped for rule set with ID: {}", ruleSetId, e);
+            writeLine(out, Map.of("error", "Stream stopped: " + e.getMessage()));
+        }
+        out.flush();
+    }
+
+    /**
+     * Binds the fact sets of a batch to the classes of the rule set's fact schema, as for single executions;
+     * the schema is resolved here, after the request has been authorized
+     */
+    private List<Map<String, Object>> bindFactSets(String ruleSetId, List<Map<String, JsonNode>> factsList)
+            throws IOException {
+        FactSchema schema = factSchemaRegistry.schemaFor(ruleSetId);
+        List<Map<String, Object>> factSets = new ArrayList<>(factsList.size());
+        for (Map<String, JsonNode> facts : factsList) {
+            factSets.add(schema.bindFacts(facts));
+        }
+        return factSets;
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write('\n');
+    }
+
     @GetMapping("/rules/{ruleSetId}")
     @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_RULE_MANAGER') or hasRole('ROLE_RULE_EXECUTOR') or hasRole('ROLE_MONITOR')")
     @Operation(summary = "Get rule set metadata", description = "Get metadata for a deployed rule set")
@@ -238,6 +453,109 @@ public class RuleController {
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/rules/{ruleSetId}/deployment-status")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_RULE_MANAGER') or hasRole('ROLE_MONITOR')")
+    @Operation(summary = "Get rule set deployment status", description = "Get which cluster nodes serve the stored "
+            + "version of a rule set, optionally waiting for all of them to converge")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Deployment status returned"),
+            @ApiResponse(responseCode = "404", description = "Rule set not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<RuleDeploymentStatus> getDeploymentStatus(
+            @Parameter(description = "Rule set ID") @PathVariable String ruleSetId,
+            @Parameter(description = "How long to wait for all nodes to converge, in milliseconds")
+            @RequestParam(defaultValue = "0") long waitMs) {
+
+        log.info("Getting deployment status for rule set with ID: {}", ruleSetId);
+
+        RuleDeploymentStatus status = droolsIntegrationService.getDeploymentStatus(ruleSetId,
+                Math.max(0, Math.min(waitMs, droolsProperties.getCluster().getNodeTimeoutMs())));
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    @PostMapping("/rules/{ruleSetId}/shadow")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_RULE_MANAGER')")
+    @Operation(summary = "Shadow a candidate version", description = "Execute a sample of the live executions of a "
+            + "rule set again against a candidate version in the background and compare the results")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Candidate version is shadowed"),
+            @ApiResponse(responseCode = "400", description = "Invalid rule content"),
+            @ApiResponse(responseCode = "404", description = "Rule set not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<RuleDeploymentResult> startShadow(
+            @Parameter(description = "Rule set ID") @PathVariable String ruleSetId,
+            @Parameter(description = "Fraction of live executions to mirror; defaults to drools.shadow.default-sample-rate")
+            @RequestParam(required = false) Double sampleRate,
+            @Valid @RequestBody RuleRequest ruleRequest) {
+
+        log.info("Shadowing rule set {} with candidate version {}", ruleSetId, ruleRequest.getVersion());
+        RuleDeploymentResult result = droolsIntegrationService.startShadow(ruleSetId, ruleRequest.getContent(),
+                ruleRequest.getVersion(), sampleRate);
+
+        if (result.isSuccessful()) {
+            return ResponseEntity.ok(result);
+        } else if (result.getMessage().contains("not found")) {
+            return ResponseEntity.notFound().build();
+        } else {
+            return ResponseEntity.badRequest().body(result);
+        }
+    }
+
+    @GetMapping("/rules/{ruleSetId}/shadow")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_RULE_MANAGER') or hasRole('ROLE_MONITOR')")
+    @Operation(summary = "Get shadow comparison", description = "Get how the shadowed candidate version of a rule set "
+            + "compares with its live version")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Shadow statistics returned"),
+            @ApiResponse(responseCode = "404", description = "Rule set has no candidate version"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<ShadowStatistics> getShadowStatistics(
+            @Parameter(description = "Rule set ID") @PathVariable String ruleSetId) {
+
+        ShadowStatistics statistics = droolsIntegrationService.getShadowStatistics(ruleSetId);
+        if (statistics == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(statistics);
+    }
+
+    @DeleteMapping("/rules/{ruleSetId}/shadow")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_RULE_MANAGER')")
+    @Operation(summary = "Stop shadowing", description = "Stop shadowing a rule set and return the final comparison")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Shadowing stopped"),
+            @ApiResponse(responseCode = "404", description = "Rule set has no candidate version"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<ShadowStatistics> stopShadow(
+            @Parameter(description = "Rule set ID") @PathVariable String ruleSetId) {
+
+        log.info("Stopping shadow execution for rule set {}", ruleSetId);
+        ShadowStatistics statistics = droolsIntegrationService.stopShadow(ruleSetId);
+        if (statistics == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(statistics);
+    }
+
+    @GetMapping("/residency")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_RULE_MANAGER') or hasRole('ROLE_MONITOR')")
+    @Operation(summary = "Get rule set residency", description = "Get the estimated memory held by each resident "
+            + "compiled rule set, the memory budget, and eviction and reload counts")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Residency statistics returned"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<ResidencyStatistics> getResidencyStatistics() {
+        return ResponseEntity.ok(droolsIntegrationService.getResidencyStatistics());
+    }
+
     @GetMapping("/metrics/{ruleSetId}")
     @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_RULE_MANAGER') or hasRole('ROLE_MONITOR')")
     @Operation(summary = "Get rule execution metrics", description = "Get performance metrics for a deployed rule set")
@@ -280,6 +598,33 @@ public class RuleController {
         return ResponseEntity.ok(metrics);
     }
 
+    @GetMapping("/rule-stats")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_RULE_MANAGER') or hasRole('ROLE_MONITOR')")
+    @Operation(summary = "Get per-rule statistics", description = "Get activation, fire and sampled consequence time statistics per rule")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rule statistics returned"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<List<RuleFiringStats>> getRuleFiringStats() {
+        log.info("Getting per-rule firing statistics");
+        return ResponseEntity.ok(droolsIntegrationService.getRuleFiringStats());
+    }
+
+    @ExceptionHandler(DroolsApiException.class)
+    public ResponseEntity<Map<String, String>> handleDroolsApiException(DroolsApiException e) {
+        if (e.getErrorCode() != DroolsErrorCode.RULE_EXECUTION_REJECTED) {
+            return handleException(e);
+        }
+        // Shed load: the client should back off and retry, not treat it as a server fault
+        log.warn("Rule execution rejected: {}", e.getMessage());
+
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", e.getMessage());
+        errorResponse.put("code", e.getErrorCode().name());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleException(Exception e) {
         log.error("Error in rule controller", e);
@@ -0,0 +1,52 @@
+package com.example.pricerulesaidrools.drools.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estimated memory held by the compiled rule sets resident on this node, and how often
+ * rule sets were evicted and loaded again, for sizing the memory budget
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResidencyStatistics {
+
+    private String evictionPolicy;
+    private long budgetBytes;
+    private long residentBytes;
+    /** Rule sets evicted since startup */
+    private long evictions;
+    /** Rule sets loaded from the rule set store on first use since startup, e.g. after an eviction */
+    private long reloads;
+    private double averageReloadTimeMs;
+    /** Slowest reload within the meter's recent window */
+    private double maxReloadTimeMs;
+
+    /** Resident rule sets, largest first */
+    @Builder.Default
+    private List<RuleSetFootprint> ruleSets = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RuleSetFootprint {
+
+        private String ruleSetId;
+        private String version;
+        /** Estimated memory retained by the compiled rule set */
+        private long footprintBytes;
+        /** Executions counted by LFU eviction; halved every eviction sweep */
+        private long uses;
+        private long idleMs;
+        /** Whether the rule set can be evicted; rule sets not compiled at runtime stay resident */
+        private boolean evictable;
+    }
+}
@@ -12,8 +12,13 @@ import lombok.NoArgsConstructor;
 public class RuleCacheMetrics {
     
     private String ruleSetId;
+    // Cached executions of the rule set; -1 if the cache provider cannot count them
     private int cacheSize;
+    // Most executions the cache holds; -1 if only their time to live bounds them
     private int maxCacheSize;
+    // Compilation results memoized across all rule sets, and the most that are kept
+    private int compilationCacheSize;
+    private int maxCompilationCacheSize;
     private double hitRate;
     private long cacheHits;
     private long cacheMisses;
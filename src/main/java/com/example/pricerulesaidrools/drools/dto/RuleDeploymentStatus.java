@@ -0,0 +1,51 @@
+package com.example.pricerulesaidrools.drools.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Convergence of the nodes of the cluster on the stored version of a rule set
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RuleDeploymentStatus {
+
+    private String ruleSetId;
+    private String version;
+    /** MD5 hash of the stored DRL; null if the rule set is undeployed */
+    private String contentHash;
+    /** Whether every live node serves the stored version */
+    private boolean converged;
+    private int nodeCount;
+    private int convergedNodeCount;
+    /** Largest propagation lag among the converged nodes */
+    private long maxLagMs;
+
+    @Builder.Default
+    private List<NodeStatus> nodes = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class NodeStatus {
+
+        private String nodeId;
+        private String version;
+        private String contentHash;
+        private boolean converged;
+        /** Whether the node has held the rule set; if not, it loads the stored version on first use */
+        private boolean resident;
+        private LocalDateTime appliedAt;
+        private long lagMs;
+        private long lastHeartbeatAgoMs;
+    }
+}
@@ -18,4 +18,10 @@ public class RuleExecutionMetrics {
     private double errorRate;
     private long lastExecutionTimeMs;
     private long peakExecutionTimeMs;
+    private double p50ExecutionTimeMs;
+    private double p95ExecutionTimeMs;
+    private double p99ExecutionTimeMs;
+    private double p999ExecutionTimeMs;
+    private long errorCount;
+    private long timeoutCount;
 }
\ No newline at end of file
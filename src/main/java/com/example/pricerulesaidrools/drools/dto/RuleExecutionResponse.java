@@ -16,8 +16,8 @@ import java.util.Map;
 @AllArgsConstructor
 public class RuleExecutionResponse {
     
-    @Builder.Default
-    private Map<String, Object> results = new HashMap<>();
+    /** The result the rule set's result contract declares, e.g. the PricingResult the rules modified */
+    private Object result;
     
     @Builder.Default
     private List<String> rulesApplied = new ArrayList<>();
@@ -26,4 +26,4 @@ public class RuleExecutionResponse {
     
     @Builder.Default
     private Map<String, Object> metadata = new HashMap<>();
-}
\ No newline at end of file
+}
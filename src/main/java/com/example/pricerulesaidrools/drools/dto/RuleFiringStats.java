@@ -0,0 +1,24 @@
+package com.example.pricerulesaidrools.drools.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RuleFiringStats {
+
+    private String ruleSetId;
+    private String packageName;
+    private String ruleName;
+    private long activationsCreated;
+    private long activationsCancelled;
+    private long fires;
+    private long sampledFires;
+    private double averageConsequenceTimeMs;
+    private double maxConsequenceTimeMs;
+    private double estimatedConsequenceTimeMs;
+}
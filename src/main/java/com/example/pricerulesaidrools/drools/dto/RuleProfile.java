@@ -0,0 +1,67 @@
+package com.example.pricerulesaidrools.drools.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Where the time of executing one fact set against a rule set goes, measured over one or
+ * more runs. Counts are totals over all runs.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RuleProfile {
+
+    private String ruleSetId;
+    private String version;
+    private int runs;
+    /** Whether a run hit the execution timeout; runs stop at the first one that does */
+    private boolean timedOut;
+
+    private double averageTotalTimeMs;
+    private double minTotalTimeMs;
+    private double maxTotalTimeMs;
+    /** Time inserting the supplied facts, averaged over the runs */
+    private double averageInsertTimeMs;
+    /** Time firing rules, matching included, averaged over the runs */
+    private double averageFireTimeMs;
+
+    /** Working-memory operations, including the inserts of the supplied facts */
+    private long inserts;
+    private long updates;
+    private long deletes;
+
+    /** Rules that had at least one match, most expensive consequences first */
+    @Builder.Default
+    private List<RuleEntry> rules = new ArrayList<>();
+
+    /** Result of the last run, as the rule set's result contract declares it */
+    private Object result;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RuleEntry {
+
+        private String packageName;
+        private String ruleName;
+        /** Matches of the rule's conditions, each added to the agenda as an activation */
+        private long matches;
+        /** Activations removed from the agenda without firing */
+        private long cancelledActivations;
+        private long fires;
+        private double consequenceTimeMs;
+        private double maxConsequenceTimeMs;
+        /** Working-memory operations made by the rule's consequence */
+        private long inserts;
+        private long updates;
+        private long deletes;
+    }
+}
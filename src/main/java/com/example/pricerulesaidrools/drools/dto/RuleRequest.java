@@ -25,6 +25,9 @@ public class RuleRequest {
 
     private String version;
 
+    // Deployment options, e.g. executionMode=STATELESS and kieBaseProfile=one-shot for one-shot pricing rule sets,
+    // factSchema=pricingRequest=PricingRequest,... to bind request facts to model classes
+    // and resultContract=query:pricedQuotes to declare where executions find their result
     @Builder.Default
     private Map<String, String> metadata = new HashMap<>();
 }
\ No newline at end of file
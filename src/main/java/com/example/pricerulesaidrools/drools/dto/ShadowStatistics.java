@@ -0,0 +1,51 @@
+package com.example.pricerulesaidrools.drools.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * How a shadowed candidate version compares with the live version of a rule set, over the
+ * live executions mirrored to it since it was started
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShadowStatistics {
+
+    private String ruleSetId;
+    private String liveVersion;
+    private String candidateVersion;
+    private double sampleRate;
+    private LocalDateTime startedAt;
+
+    /** Mirrored executions whose candidate result was compared with the live result */
+    private long comparedExecutions;
+    private long matchingExecutions;
+    private long mismatchingExecutions;
+    /** Mirrored executions the candidate failed or timed out on */
+    private long candidateErrors;
+    /** Sampled executions not mirrored because the shadow queue was full or their facts could not be copied */
+    private long skippedExecutions;
+
+    /** Number of compared executions in which each result field differed */
+    @Builder.Default
+    private Map<String, Long> fieldMismatches = new LinkedHashMap<>();
+
+    /** Mean of candidate minus live final price, over compared PricingResults */
+    private double averageFinalPriceDelta;
+    private double maxAbsoluteFinalPriceDelta;
+
+    private double liveP50ExecutionTimeMs;
+    private double liveP95ExecutionTimeMs;
+    private double candidateP50ExecutionTimeMs;
+    private double candidateP95ExecutionTimeMs;
+    /** Mean of candidate minus live execution time, over compared executions */
+    private double averageExecutionTimeDeltaMs;
+}
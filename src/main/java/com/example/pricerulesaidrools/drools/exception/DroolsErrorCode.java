@@ -7,5 +7,6 @@ public enum DroolsErrorCode {
     RULE_NOT_FOUND,
     RULE_VERSION_CONFLICT,
     RULE_CACHE_ERROR,
-    RULE_COMPILE_ERROR
+    RULE_COMPILE_ERROR,
+    RULE_EXECUTION_REJECTED
 }
\ No newline at end of file
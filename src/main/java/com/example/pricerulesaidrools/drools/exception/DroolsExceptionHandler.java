@@ -26,7 +26,11 @@ public class DroolsExceptionHandler {
         response.put("ruleSetId", e.getRuleSetId());
         response.put("context", e.getContext());
         
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        // Shed load is a temporary condition; tell the client to retry instead of fixing the request
+        HttpStatus status = e.getErrorCode() == DroolsErrorCode.RULE_EXECUTION_REJECTED
+                ? HttpStatus.SERVICE_UNAVAILABLE
+                : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(response);
     }
     
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -0,0 +1,147 @@
+package com.example.pricerulesaidrools.drools.history;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded ring of recorded executions, filled by any number of request threads and drained
+ * by the history writer alone.
+ * <p>
+ * The slots are allocated up front and overwritten in place, so recording an execution
+ * allocates nothing. A producer claims a slot with a single compare-and-set on the tail and
+ * never waits: when the ring is full, the record is refused. Each slot carries a sequence
+ * number telling whether it is free for the producer of a given lap or published for the
+ * consumer, so a slot is never read while it is being written.
+ */
+public final class ExecutionHistoryBuffer {
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Written by the single consumer only; volatile so size() can be read from any thread
+    private volatile long head;
+
+    /**
+     * @param capacity Minimum number of records the ring holds; rounded up to a power of two
+     */
+    public ExecutionHistoryBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("History buffer capacity must be at least 1");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new Slot[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(i);
+        }
+    }
+
+    /**
+     * Adds a record unless the ring already holds the given number of records
+     *
+     * @param limit Number of records beyond which this record is refused; at most the capacity
+     * @return Whether the record was added
+     */
+    public boolean offer(int limit, String ruleSetId, long executedAtMillis, long durationNanos, boolean success,
+                         String errorMessage, SampleReason reason, Object facts, Object result) {
+        Slot slot;
+        long position;
+        while (true) {
+            position = tail.get();
+            if (position - head >= limit) {
+                return false;
+            }
+            slot = slots[(int) position & mask];
+            long lag = slot.sequence - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (lag < 0) {
+                // The consumer has not released this slot from the previous lap yet
+                return false;
+            }
+        }
+        slot.ruleSetId = ruleSetId;
+        slot.executedAtMillis = executedAtMillis;
+        slot.durationNanos = durationNanos;
+        slot.success = success;
+        slot.errorMessage = errorMessage;
+        slot.reason = reason;
+        slot.facts = facts;
+        slot.result = result;
+        slot.enqueuedNanos = System.nanoTime();
+        slot.sequence = position + 1;
+        return true;
+    }
+
+    /**
+     * Moves published records into a batch, oldest first. Must only be called by one thread at a time.
+     *
+     * @param batch Receives the records
+     * @param max Maximum number of records to move
+     * @return Number of records moved
+     */
+    public int drainTo(List<RecordedExecution> batch, int max) {
+        int drained = 0;
+        long position = head;
+        while (drained < max) {
+            Slot slot = slots[(int) position & mask];
+            if (slot.sequence != position + 1) {
+                break;
+            }
+            batch.add(new RecordedExecution(slot.ruleSetId, slot.executedAtMillis, slot.durationNanos, slot.success,
+                    slot.errorMessage, slot.reason, slot.facts, slot.result, slot.enqueuedNanos));
+            // Drop the references so the ring does not keep request objects alive
+            slot.errorMessage = null;
+            slot.facts = null;
+            slot.result = null;
+            slot.sequence = position + slots.length;
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    /**
+     * Number of records waiting to be drained, including ones still being written
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Time the oldest published record has been waiting, or 0 if there is none
+     */
+    public long oldestAgeNanos() {
+        long position = head;
+        Slot slot = slots[(int) position & mask];
+        return slot.sequence == position + 1 ? Math.max(0, System.nanoTime() - slot.enqueuedNanos) : 0;
+    }
+
+    private static final class Slot {
+
+        private volatile long sequence;
+        private String ruleSetId;
+        private long executedAtMillis;
+        private long durationNanos;
+        private boolean success;
+        private String errorMessage;
+        private SampleReason reason;
+        private Object facts;
+        private Object result;
+        private long enqueuedNanos;
+
+        private Slot(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.pricerulesaidrools.drools.history;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides which executions go into the execution history and buffers them for the
+ * {@link ExecutionHistoryWriter}.
+ * <p>
+ * Failed and slow executions are always recorded; other executions are sampled at the
+ * configured rate. Recording never blocks and never touches the database: an execution
+ * is copied into a preallocated slot of the {@link ExecutionHistoryBuffer}, or counted as
+ * dropped if the drop policy refuses it.
+ */
+@Component
+public class ExecutionHistoryRecorder {
+
+    private final DroolsProperties.History settings;
+    private final ExecutionHistoryBuffer buffer;
+    private final int sampledLimit;
+    private final long slowThresholdNanos;
+    private final Counter[] recorded;
+    private final Counter[] dropped;
+
+    public ExecutionHistoryRecorder(DroolsProperties droolsProperties, MeterRegistry meterRegistry) {
+        this.settings = droolsProperties.getHistory();
+        this.buffer = new ExecutionHistoryBuffer(settings.getBufferCapacity());
+        this.sampledLimit = settings.getDropPolicy() == DroolsProperties.History.DropPolicy.DROP_SAMPLED_FIRST
+                ? buffer.capacity() - buffer.capacity() / 4 : buffer.capacity();
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(settings.getSlowThresholdMs());
+
+        SampleReason[] reasons = SampleReason.values();
+        this.recorded = new Counter[reasons.length];
+        this.dropped = new Counter[reasons.length];
+        for (SampleReason reason : reasons) {
+            String tag = reason.name().toLowerCase();
+            recorded[reason.ordinal()] = Counter.builder("drools.execution.history.recorded")
+                    .description("Executions buffered for the execution history")
+                    .tag("reason", tag)
+                    .register(meterRegistry);
+            dropped[reason.ordinal()] = Counter.builder("drools.execution.history.dropped")
+                    .description("Executions dropped from the execution history because its buffer was full")
+                    .tag("reason", tag)
+                    .tag("policy", settings.getDropPolicy().name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("drools.execution.history.buffer.size", buffer, ExecutionHistoryBuffer::size)
+                .description("Executions waiting for the execution history writer")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records an execution if it is failed, slow or sampled
+     *
+     * @param ruleSetId The rule set ID
+     * @param durationNanos Wall-clock duration of the execution
+     * @param success Whether the execution produced a result without error or timeout
+     * @param errorMessage Why the execution failed, or null
+     * @param facts The execution's facts; only kept if payloads are captured
+     * @param result The execution's result; only kept if payloads are captured
+     */
+    public void record(String ruleSetId, long durationNanos, boolean success, String errorMessage,
+                       Object facts, Object result) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        SampleReason reason;
+        if (!success) {
+            reason = SampleReason.ERROR;
+        } else if (durationNanos >= slowThresholdNanos) {
+            reason = SampleReason.SLOW;
+        } else if (ThreadLocalRandom.current().nextDouble() < settings.getSampleRate()) {
+            reason = SampleReason.SAMPLED;
+        } else {
+            return;
+        }
+
+        boolean payload = settings.isCapturePayload();
+        int limit = reason == SampleReason.SAMPLED ? sampledLimit : buffer.capacity();
+        if (buffer.offer(limit, ruleSetId, System.currentTimeMillis(), durationNanos, success, errorMessage, reason,
+                payload ? facts : null, payload ? result : null)) {
+            recorded[reason.ordinal()].increment();
+        } else {
+            dropped[reason.ordinal()].increment();
+        }
+    }
+
+    /**
+     * Moves buffered executions into a batch, oldest first; for the single history writer only
+     *
+     * @return Number of executions moved
+     */
+    int drainTo(List<RecordedExecution> batch, int max) {
+        return buffer.drainTo(batch, max);
+    }
+
+    /**
+     * Number of executions waiting for the history writer
+     */
+    public int getBufferedCount() {
+        return buffer.size();
+    }
+
+    /**
+     * Time the oldest buffered execution has been waiting for the history writer
+     */
+    public long getOldestBufferedAgeNanos() {
+        return buffer.oldestAgeNanos();
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.pricerulesaidrools.drools.history;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background thread that drains the execution history buffer into the
+ * rule_execution_history table, one JDBC batch insert per round trip.
+ * <p>
+ * Request threads never wait for the writer. If the database is slow, the buffer fills up
+ * and the recorder drops executions; if a batch fails, its records are counted and lost
+ * rather than retried, so a failing database cannot back up the buffer forever. How far the
+ * writer is behind is published as the age of the oldest buffered execution and as the
+ * time each written execution spent waiting.
+ */
+@Component
+@Slf4j
+public class ExecutionHistoryWriter {
+
+    static final String INSERT_SQL = "INSERT INTO rule_execution_history (rule_set_id, rule_set_name, "
+            + "execution_time_ms, input_data, result, successful, error_message, sample_reason, executed_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String RULE_SET_KEY_SQL = "SELECT id FROM rule_sets WHERE name = ?";
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 5_000;
+
+    private final DroolsProperties.History settings;
+    private final ExecutionHistoryRecorder recorder;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Timer lagTimer;
+    private final Timer writeTimer;
+    private final Counter written;
+    private final Counter failed;
+
+    // Only touched by the writer thread
+    private final Map<String, Long> ruleSetKeys = new HashMap<>();
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public ExecutionHistoryWriter(DroolsProperties droolsProperties, ExecutionHistoryRecorder recorder,
+                                  JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.settings = droolsProperties.getHistory();
+        this.recorder = recorder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+
+        TimeGauge.builder("drools.execution.history.writer.lag", recorder,
+                        TimeUnit.NANOSECONDS, ExecutionHistoryRecorder::getOldestBufferedAgeNanos)
+                .description("Age of the oldest execution waiting for the execution history writer")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("drools.execution.history.delay")
+                .description("Time from recording an execution to writing it to the execution history")
+                .register(meterRegistry);
+        this.writeTimer = Timer.builder("drools.execution.history.write")
+                .description("Duration of execution history batch inserts")
+                .register(meterRegistry);
+        this.written = Counter.builder("drools.execution.history.written")
+                .description("Executions written to the execution history")
+                .register(meterRegistry);
+        this.failed = Counter.builder("drools.execution.history.write.failures")
+                .description("Executions lost because their execution history batch could not be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        running = true;
+        thread = Thread.ofPlatform().name("drools-history-writer").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(SHUTDOWN_TIMEOUT_MS);
+        }
+    }
+
+    private void run() {
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(settings.getFlushIntervalMs());
+        while (running) {
+            // A full batch means more are waiting; otherwise let records accumulate for the next round trip
+            if (flush() < settings.getBatchSize()) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+        // Write what was buffered before shutdown
+        while (flush() > 0) {
+            // keep draining
+        }
+    }
+
+    /**
+     * Writes one batch of buffered executions. Must only be called by one thread at a time;
+     * the writer thread calls it in a loop.
+     *
+     * @return Number of executions taken from the buffer, written or not
+     */
+    public int flush() {
+        List<RecordedExecution> batch = new ArrayList<>();
+        int drained = recorder.drainTo(batch, settings.getBatchSize());
+        if (drained == 0) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        try {
+            Map<String, Long> keys = new HashMap<>();
+            for (RecordedExecution execution : batch) {
+                if (!keys.containsKey(execution.ruleSetId())) {
+                    keys.put(execution.ruleSetId(), ruleSetKey(execution.ruleSetId()));
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (statement, execution) -> {
+                statement.setObject(1, keys.get(execution.ruleSetId()), Types.BIGINT);
+                statement.setString(2, execution.ruleSetId());
+                statement.setLong(3, TimeUnit.NANOSECONDS.toMillis(execution.durationNanos()));
+                statement.setString(4, toJson(execution.facts()));
+                statement.setString(5, toJson(execution.result()));
+                statement.setBoolean(6, execution.success());
+                statement.setString(7, execution.errorMessage());
+                statement.setString(8, execution.reason().name());
+                statement.setTimestamp(9, new Timestamp(execution.executedAtMillis()));
+            });
+            written.increment(drained);
+            long now = System.nanoTime();
+            for (RecordedExecution execution : batch) {
+                lagTimer.record(now - execution.enqueuedNanos(), TimeUnit.NANOSECONDS);
+            }
+        } catch (RuntimeException e) {
+            failed.increment(drained);
+            log.warn("Could not write {} executions to the execution history: {}", drained, e.getMessage());
+        } finally {
+            writeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return drained;
+    }
+
+    /**
+     * Key of the RuleSet row of a rule set ID, or null for rule sets without one, such as the
+     * classpath rules. Keys found are kept; missing ones are looked up again next batch.
+     */
+    private Long ruleSetKey(String ruleSetId) {
+        Long key = ruleSetKeys.get(ruleSetId);
+        if (key == null) {
+            List<Long> keys = jdbcTemplate.queryForList(RULE_SET_KEY_SQL, Long.class, ruleSetId);
+            if (!keys.isEmpty()) {
+                key = keys.get(0);
+                ruleSetKeys.put(ruleSetId, key);
+            }
+        }
+        return key;
+    }
+
+    private String toJson(Object payload) {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.debug("Could not serialize execution history payload: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.pricerulesaidrools.drools.history;
+
+/**
+ * An execution taken from the history buffer, on its way to the database
+ *
+ * @param facts The execution's facts, if payloads are captured
+ * @param result The execution's result, if payloads are captured
+ * @param enqueuedNanos {@link System#nanoTime()} when the execution was buffered
+ */
+public record RecordedExecution(String ruleSetId, long executedAtMillis, long durationNanos, boolean success,
+                                String errorMessage, SampleReason reason, Object facts, Object result,
+                                long enqueuedNanos) {
+}
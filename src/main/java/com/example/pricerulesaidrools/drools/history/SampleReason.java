@@ -0,0 +1,16 @@
+package com.example.pricerulesaidrools.drools.history;
+
+/**
+ * Why an execution was recorded in the execution history
+ */
+public enum SampleReason {
+
+    /** Picked at the configured sample rate; stands for about 1 / sample-rate executions */
+    SAMPLED,
+
+    /** Failed or timed out; always recorded */
+    ERROR,
+
+    /** Took longer than the slow threshold; always recorded */
+    SLOW
+}
@@ -0,0 +1,199 @@
+package com.example.pricerulesaidrools.drools.metrics;
+
+import com.example.pricerulesaidrools.drools.dto.RuleCacheMetrics;
+import com.example.pricerulesaidrools.drools.dto.RuleExecutionMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per rule set execution statistics, safe to record from any number of threads.
+ * <p>
+ * Counts are kept in striped {@link LongAdder}s, so concurrent executions never
+ * contend on a shared field. Latency goes to a Micrometer timer per rule set that
+ * publishes p50/p95/p99/p999 and a percentile histogram, so the same numbers are
+ * exported on the Prometheus endpoint and returned by the metrics API. Percentiles
+ * cover a sliding window of recent executions, not the whole uptime.
+ */
+@Component
+public class RuleExecutionRecorder {
+
+    private static final double[] PERCENTILES = { 0.5, 0.95, 0.99, 0.999 };
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RuleSetStats> statsByRuleSet = new ConcurrentHashMap<>();
+
+    public RuleExecutionRecorder(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Records one finished execution
+     *
+     * @param ruleSetId The rule set ID
+     * @param durationNanos Wall-clock duration of the execution
+     * @param success Whether the execution produced a result without error or timeout
+     */
+    public void recordExecution(String ruleSetId, long durationNanos, boolean success) {
+        RuleSetStats stats = stats(ruleSetId);
+        stats.latency.record(durationNanos, TimeUnit.NANOSECONDS);
+        stats.executions.increment();
+        stats.totalNanos.add(durationNanos);
+        stats.peakNanos.accumulate(durationNanos);
+        stats.lastNanos = durationNanos;
+        if (!success) {
+            stats.errors.increment();
+            stats.errorCounter.increment();
+        }
+    }
+
+    /**
+     * Records an execution halted at its deadline; the execution itself is recorded separately
+     */
+    public void recordTimeout(String ruleSetId) {
+        stats(ruleSetId).timeouts.increment();
+    }
+
+    public void recordCacheHit(String ruleSetId) {
+        stats(ruleSetId).cacheHits.increment();
+    }
+
+    public void recordCacheMiss(String ruleSetId) {
+        stats(ruleSetId).cacheMisses.increment();
+    }
+
+    /**
+     * Gets the execution statistics of a rule set
+     *
+     * @param ruleSetId The rule set ID
+     * @return The statistics; all zero if nothing was recorded
+     */
+    public RuleExecutionMetrics getExecutionMetrics(String ruleSetId) {
+        RuleSetStats stats = statsByRuleSet.get(ruleSetId);
+        if (stats == null) {
+            return RuleExecutionMetrics.builder().ruleSetId(ruleSetId).build();
+        }
+
+        long executions = stats.executions.sum();
+        long hits = stats.cacheHits.sum();
+        long lookups = hits + stats.cacheMisses.sum();
+        long errors = stats.errors.sum();
+        HistogramSnapshot snapshot = stats.latency.takeSnapshot();
+
+        RuleExecutionMetrics.RuleExecutionMetricsBuilder metrics = RuleExecutionMetrics.builder()
+                .ruleSetId(ruleSetId)
+                .totalExecutions(executions)
+                .errorCount(errors)
+                .timeoutCount(stats.timeouts.sum())
+                .errorRate(executions > 0 ? (double) errors / executions : 0)
+                .cacheHitRate(lookups > 0 ? (double) hits / lookups : 0)
+                .averageExecutionTimeMs(executions > 0 ? toMillis(stats.totalNanos.sum()) / executions : 0)
+                .lastExecutionTimeMs(TimeUnit.NANOSECONDS.toMillis(stats.lastNanos))
+                .peakExecutionTimeMs(TimeUnit.NANOSECONDS.toMillis(stats.peakNanos.get()));
+
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            double millis = value.value(TimeUnit.MILLISECONDS);
+            if (value.percentile() == 0.5) {
+                metrics.p50ExecutionTimeMs(millis);
+            } else if (value.percentile() == 0.95) {
+                metrics.p95ExecutionTimeMs(millis);
+            } else if (value.percentile() == 0.99) {
+                metrics.p99ExecutionTimeMs(millis);
+            } else if (value.percentile() == 0.999) {
+                metrics.p999ExecutionTimeMs(millis);
+            }
+        }
+        return metrics.build();
+    }
+
+    /**
+     * Gets the result cache statistics of a rule set
+     *
+     * @param ruleSetId The rule set ID
+     * @return The statistics; all zero if nothing was recorded
+     */
+    public RuleCacheMetrics getCacheMetrics(String ruleSetId) {
+        RuleSetStats stats = statsByRuleSet.get(ruleSetId);
+        long hits = stats != null ? stats.cacheHits.sum() : 0;
+        long misses = stats != null ? stats.cacheMisses.sum() : 0;
+        long total = hits + misses;
+        return RuleCacheMetrics.builder()
+                .ruleSetId(ruleSetId)
+                .cacheHits(hits)
+                .cacheMisses(misses)
+                .hitRate(total > 0 ? (double) hits / total : 0)
+                .build();
+    }
+
+    /**
+     * Drops the statistics and meters of a rule set
+     *
+     * @param ruleSetId The rule set ID
+     */
+    public void reset(String ruleSetId) {
+        RuleSetStats stats = statsByRuleSet.remove(ruleSetId);
+        if (stats != null) {
+            meterRegistry.remove(stats.latency);
+            meterRegistry.remove(stats.errorCounter);
+        }
+    }
+
+    /**
+     * Drops the statistics and meters of all rule sets
+     */
+    public void resetAll() {
+        statsByRuleSet.keySet().forEach(this::reset);
+    }
+
+    private RuleSetStats stats(String ruleSetId) {
+        RuleSetStats stats = statsByRuleSet.get(ruleSetId);
+        return stats != null ? stats : statsByRuleSet.computeIfAbsent(ruleSetId, this::newStats);
+    }
+
+    private RuleSetStats newStats(String ruleSetId) {
+        Timer latency = Timer.builder("drools.rule.execution")
+                .description("Rule execution latency")
+                .tag("ruleSet", ruleSetId)
+                .publishPercentiles(PERCENTILES)
+                .percentilePrecision(2)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Counter errorCounter = Counter.builder("drools.rule.execution.errors")
+                .description("Rule executions that failed or timed out")
+                .tag("ruleSet", ruleSetId)
+                .register(meterRegistry);
+        return new RuleSetStats(latency, errorCounter);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class RuleSetStats {
+
+        private final Timer latency;
+        private final Counter errorCounter;
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder cacheMisses = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator peakNanos = new LongAccumulator(Math::max, 0);
+        private volatile long lastNanos;
+
+        private RuleSetStats(Timer latency, Counter errorCounter) {
+            this.latency = latency;
+            this.errorCounter = errorCounter;
+        }
+    }
+}
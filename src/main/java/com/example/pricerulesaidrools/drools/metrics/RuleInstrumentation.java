@@ -0,0 +1,282 @@
+package com.example.pricerulesaidrools.drools.metrics;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import com.example.pricerulesaidrools.drools.dto.RuleFiringStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.kie.api.KieBase;
+import org.kie.api.definition.KiePackage;
+import org.kie.api.definition.rule.Rule;
+import org.kie.api.event.KieRuntimeEventManager;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.BeforeMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.event.rule.MatchCancelledEvent;
+import org.kie.api.event.rule.MatchCreatedEvent;
+import org.kie.api.runtime.KieSession;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-rule activation, fire and consequence time statistics, gathered by an agenda listener.
+ * <p>
+ * Statistics are kept per rule set, and only sessions of a KieBase registered with
+ * {@link #register(String, KieBase)} are instrumented. One listener instance is shared by
+ * every session of a rule set; it keeps no per-session state, so it is also safe on
+ * stateless sessions whose executions run concurrently. When a KieBase is released, the
+ * meters of rules no longer defined by any other registered KieBase of its rule set are
+ * removed, so replaced and evicted versions do not leave meters behind.
+ * Activation and fire counts are exact striped counters. Consequence time is measured
+ * only for a sampled fraction of fires, which keeps {@link System#nanoTime()} calls off
+ * the hot path; totals are estimated from the sampled mean.
+ * <p>
+ * The engine evaluates the network lazily for all rules at once when rules are fired,
+ * so matching time cannot be attributed to single rules through the public listener API
+ * and is not reported here.
+ */
+@Component
+public class RuleInstrumentation {
+
+    private final MeterRegistry meterRegistry;
+    private final DroolsProperties.Instrumentation settings;
+    private final Map<String, RuleSetStats> ruleSets = new ConcurrentHashMap<>();
+    private final Map<KieBase, RuleSetStats> registrations = new ConcurrentHashMap<>();
+    private final ThreadLocal<long[]> consequenceStart = ThreadLocal.withInitial(() -> new long[1]);
+
+    public RuleInstrumentation(DroolsProperties droolsProperties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.settings = droolsProperties.getInstrumentation();
+    }
+
+    /**
+     * Registers a KieBase of a rule set, so that its sessions can be instrumented.
+     * A KieBase may be registered more than once and stays registered until released as often.
+     *
+     * @param ruleSetId The rule set ID the meters are tagged with
+     * @param kieBase The KieBase
+     */
+    public synchronized void register(String ruleSetId, KieBase kieBase) {
+        RuleSetStats ruleSet = ruleSets.computeIfAbsent(ruleSetId, RuleSetStats::new);
+        ruleSet.kieBases.add(kieBase);
+        registrations.put(kieBase, ruleSet);
+    }
+
+    /**
+     * Releases one registration of a KieBase, removing the meters of rules that no other
+     * registered KieBase of the rule set defines
+     *
+     * @param kieBase The KieBase, whose sessions must no longer run
+     */
+    public synchronized void release(KieBase kieBase) {
+        RuleSetStats ruleSet = registrations.get(kieBase);
+        if (ruleSet == null) {
+            return;
+        }
+        ruleSet.kieBases.remove(kieBase);
+        if (!ruleSet.kieBases.contains(kieBase)) {
+            registrations.remove(kieBase);
+        }
+        if (ruleSet.kieBases.isEmpty()) {
+            ruleSets.remove(ruleSet.ruleSetId);
+        }
+
+        Set<String> liveRules = new HashSet<>();
+        for (KieBase live : ruleSet.kieBases) {
+            for (KiePackage kiePackage : live.getKiePackages()) {
+                kiePackage.getRules().forEach(rule -> liveRules.add(ruleKey(rule.getPackageName(), rule.getName())));
+            }
+        }
+        ruleSet.statsByPackage.forEach((packageName, rules) -> rules.entrySet().removeIf(entry -> {
+            if (liveRules.contains(ruleKey(packageName, entry.getKey()))) {
+                return false;
+            }
+            entry.getValue().meters.forEach(meterRegistry::remove);
+            return true;
+        }));
+        ruleSet.statsByPackage.values().removeIf(Map::isEmpty);
+    }
+
+    /**
+     * Adds the instrumentation listener to a session, if instrumentation is enabled
+     * and the session's KieBase is registered
+     *
+     * @param kieSession A stateful session
+     */
+    public void attach(KieSession kieSession) {
+        attach(kieSession, kieSession.getKieBase());
+    }
+
+    /**
+     * Adds the instrumentation listener to a session, if instrumentation is enabled
+     * and the session's KieBase is registered
+     *
+     * @param session A stateful or stateless session
+     * @param kieBase The KieBase the session was created from
+     */
+    public void attach(KieRuntimeEventManager session, KieBase kieBase) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        RuleSetStats ruleSet = registrations.get(kieBase);
+        if (ruleSet != null) {
+            session.addEventListener(ruleSet.listener);
+        }
+    }
+
+    /**
+     * Gets the statistics of every rule seen so far, most expensive consequences first
+     */
+    public List<RuleFiringStats> getRuleFiringStats() {
+        List<RuleFiringStats> result = new ArrayList<>();
+        ruleSets.values().forEach(ruleSet -> ruleSet.statsByPackage.forEach((packageName, rules) ->
+                rules.forEach((ruleName, stats) -> result.add(stats.toDto(ruleSet.ruleSetId, packageName, ruleName)))));
+        result.sort(Comparator.comparingDouble(RuleFiringStats::getEstimatedConsequenceTimeMs).reversed()
+                .thenComparing(Comparator.comparingLong(RuleFiringStats::getFires).reversed()));
+        return result;
+    }
+
+    private static String ruleKey(String packageName, String ruleName) {
+        return packageName + '\u0000' + ruleName;
+    }
+
+    private final class RuleSetStats {
+
+        private final String ruleSetId;
+        private final Listener listener = new Listener(this);
+        private final Map<String, Map<String, RuleStats>> statsByPackage = new ConcurrentHashMap<>();
+        private final List<KieBase> kieBases = new ArrayList<>();
+
+        private RuleSetStats(String ruleSetId) {
+            this.ruleSetId = ruleSetId;
+        }
+
+        private RuleStats stats(Rule rule) {
+            Map<String, RuleStats> rules = statsByPackage.get(rule.getPackageName());
+            if (rules == null) {
+                rules = statsByPackage.computeIfAbsent(rule.getPackageName(), name -> new ConcurrentHashMap<>());
+            }
+            RuleStats stats = rules.get(rule.getName());
+            return stats != null ? stats : rules.computeIfAbsent(rule.getName(), name -> newStats(rule));
+        }
+
+        private RuleStats newStats(Rule rule) {
+            Tags tags = Tags.of("ruleSet", ruleSetId, "package", rule.getPackageName(), "rule", rule.getName());
+            RuleStats stats = new RuleStats(Timer.builder("drools.rule.consequence")
+                    .description("Sampled rule consequence execution time")
+                    .tags(tags)
+                    .register(meterRegistry));
+            stats.meters.add(stats.consequenceTimer);
+            stats.meters.add(FunctionCounter.builder("drools.rule.activations.created", stats.created, LongAdder::sum)
+                    .description("Rule activations added to the agenda")
+                    .tags(tags)
+                    .register(meterRegistry));
+            stats.meters.add(FunctionCounter.builder("drools.rule.activations.cancelled", stats.cancelled, LongAdder::sum)
+                    .description("Rule activations removed from the agenda without firing")
+                    .tags(tags)
+                    .register(meterRegistry));
+            stats.meters.add(FunctionCounter.builder("drools.rule.fires", stats.fired, LongAdder::sum)
+                    .description("Rule consequences executed")
+                    .tags(tags)
+                    .register(meterRegistry));
+            return stats;
+        }
+    }
+
+    private final class Listener extends DefaultAgendaEventListener {
+
+        private final RuleSetStats ruleSet;
+
+        private Listener(RuleSetStats ruleSet) {
+            this.ruleSet = ruleSet;
+        }
+
+        @Override
+        public void matchCreated(MatchCreatedEvent event) {
+            ruleSet.stats(event.getMatch().getRule()).created.increment();
+        }
+
+        @Override
+        public void matchCancelled(MatchCancelledEvent event) {
+            ruleSet.stats(event.getMatch().getRule()).cancelled.increment();
+        }
+
+        @Override
+        public void beforeMatchFired(BeforeMatchFiredEvent event) {
+            double sampleRate = settings.getSampleRate();
+            if (sampleRate > 0) {
+                // Cleared when not sampled, in case a failed consequence left a start time behind
+                consequenceStart.get()[0] = ThreadLocalRandom.current().nextDouble() < sampleRate ? System.nanoTime() : 0;
+            }
+        }
+
+        @Override
+        public void afterMatchFired(AfterMatchFiredEvent event) {
+            RuleStats stats = ruleSet.stats(event.getMatch().getRule());
+            stats.fired.increment();
+            if (settings.getSampleRate() <= 0) {
+                return;
+            }
+            // A consequence never fires other rules, so before and after arrive in pairs on this thread
+            long[] start = consequenceStart.get();
+            if (start[0] != 0) {
+                stats.recordConsequence(System.nanoTime() - start[0]);
+                start[0] = 0;
+            }
+        }
+    }
+
+    private static final class RuleStats {
+
+        private final LongAdder created = new LongAdder();
+        private final LongAdder cancelled = new LongAdder();
+        private final LongAdder fired = new LongAdder();
+        private final LongAdder sampledFires = new LongAdder();
+        private final LongAdder sampledNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final Timer consequenceTimer;
+        private final List<Meter> meters = new ArrayList<>(4);
+
+        private RuleStats(Timer consequenceTimer) {
+            this.consequenceTimer = consequenceTimer;
+        }
+
+        private void recordConsequence(long nanos) {
+            sampledFires.increment();
+            sampledNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            consequenceTimer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        private RuleFiringStats toDto(String ruleSetId, String packageName, String ruleName) {
+            long fires = fired.sum();
+            long samples = sampledFires.sum();
+            double averageMs = samples > 0 ? sampledNanos.sum() / 1_000_000.0 / samples : 0;
+            return RuleFiringStats.builder()
+                    .ruleSetId(ruleSetId)
+                    .packageName(packageName)
+                    .ruleName(ruleName)
+                    .activationsCreated(created.sum())
+                    .activationsCancelled(cancelled.sum())
+                    .fires(fires)
+                    .sampledFires(samples)
+                    .averageConsequenceTimeMs(averageMs)
+                    .maxConsequenceTimeMs(maxNanos.get() / 1_000_000.0)
+                    .estimatedConsequenceTimeMs(averageMs * fires)
+                    .build();
+        }
+    }
+}
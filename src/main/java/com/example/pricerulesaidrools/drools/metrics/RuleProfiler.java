@@ -0,0 +1,169 @@
+package com.example.pricerulesaidrools.drools.metrics;
+
+import com.example.pricerulesaidrools.drools.dto.RuleProfile;
+import org.kie.api.definition.rule.Rule;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.BeforeMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.event.rule.MatchCancelledEvent;
+import org.kie.api.event.rule.MatchCreatedEvent;
+import org.kie.api.event.rule.ObjectDeletedEvent;
+import org.kie.api.event.rule.ObjectInsertedEvent;
+import org.kie.api.event.rule.ObjectUpdatedEvent;
+import org.kie.api.event.rule.RuleRuntimeEventListener;
+import org.kie.api.runtime.KieSession;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records everything the engine reports about the sessions of one profiling request: every
+ * match, fire and working-memory operation, and the time of every consequence.
+ * <p>
+ * Unlike {@link RuleInstrumentation}, which is shared by all sessions and samples, a profiler
+ * is created per request and only attached to the sessions it profiles, so executions that
+ * are not profiled never see it. It is not thread-safe; the profiled sessions must run one
+ * after the other on one thread.
+ */
+public class RuleProfiler {
+
+    private final Map<Rule, RuleCounts> countsByRule = new LinkedHashMap<>();
+    private final AgendaListener agendaListener = new AgendaListener();
+    private final WorkingMemoryListener workingMemoryListener = new WorkingMemoryListener();
+    private long inserts;
+    private long updates;
+    private long deletes;
+    private long consequenceStart;
+    /** Rule whose consequence is running, or null between fires */
+    private Rule firing;
+
+    /**
+     * Starts recording the events of a session
+     */
+    public void attach(KieSession kieSession) {
+        // A consequence that threw in the previous session never reported its end
+        firing = null;
+        kieSession.addEventListener(agendaListener);
+        kieSession.addEventListener(workingMemoryListener);
+    }
+
+    public long getInserts() {
+        return inserts;
+    }
+
+    public long getUpdates() {
+        return updates;
+    }
+
+    public long getDeletes() {
+        return deletes;
+    }
+
+    /**
+     * Per-rule figures of every rule that had at least one match, most expensive consequences first
+     */
+    public List<RuleProfile.RuleEntry> getRuleEntries() {
+        List<RuleProfile.RuleEntry> entries = new ArrayList<>(countsByRule.size());
+        countsByRule.forEach((rule, counts) -> entries.add(RuleProfile.RuleEntry.builder()
+                .packageName(rule.getPackageName())
+                .ruleName(rule.getName())
+                .matches(counts.matches)
+                .cancelledActivations(counts.cancelled)
+                .fires(counts.fires)
+                .consequenceTimeMs(counts.consequenceNanos / 1_000_000.0)
+                .maxConsequenceTimeMs(counts.maxConsequenceNanos / 1_000_000.0)
+                .inserts(counts.inserts)
+                .updates(counts.updates)
+                .deletes(counts.deletes)
+                .build()));
+        entries.sort(Comparator.comparingDouble(RuleProfile.RuleEntry::getConsequenceTimeMs).reversed()
+                .thenComparing(Comparator.comparingLong(RuleProfile.RuleEntry::getFires).reversed()));
+        return entries;
+    }
+
+    private RuleCounts counts(Rule rule) {
+        return countsByRule.computeIfAbsent(rule, key -> new RuleCounts());
+    }
+
+    /**
+     * Counts of the rule whose consequence is running, which made the current working-memory
+     * operation; null for operations made outside rules, such as inserting the supplied facts
+     */
+    private RuleCounts firingCounts() {
+        return firing != null ? counts(firing) : null;
+    }
+
+    private final class AgendaListener extends DefaultAgendaEventListener {
+
+        @Override
+        public void matchCreated(MatchCreatedEvent event) {
+            counts(event.getMatch().getRule()).matches++;
+        }
+
+        @Override
+        public void matchCancelled(MatchCancelledEvent event) {
+            counts(event.getMatch().getRule()).cancelled++;
+        }
+
+        @Override
+        public void beforeMatchFired(BeforeMatchFiredEvent event) {
+            firing = event.getMatch().getRule();
+            consequenceStart = System.nanoTime();
+        }
+
+        @Override
+        public void afterMatchFired(AfterMatchFiredEvent event) {
+            long nanos = System.nanoTime() - consequenceStart;
+            firing = null;
+            RuleCounts counts = counts(event.getMatch().getRule());
+            counts.fires++;
+            counts.consequenceNanos += nanos;
+            counts.maxConsequenceNanos = Math.max(counts.maxConsequenceNanos, nanos);
+        }
+    }
+
+    private final class WorkingMemoryListener implements RuleRuntimeEventListener {
+
+        @Override
+        public void objectInserted(ObjectInsertedEvent event) {
+            inserts++;
+            RuleCounts counts = firingCounts();
+            if (counts != null) {
+                counts.inserts++;
+            }
+        }
+
+        @Override
+        public void objectUpdated(ObjectUpdatedEvent event) {
+            updates++;
+            RuleCounts counts = firingCounts();
+            if (counts != null) {
+                counts.updates++;
+            }
+        }
+
+        @Override
+        public void objectDeleted(ObjectDeletedEvent event) {
+            deletes++;
+            RuleCounts counts = firingCounts();
+            if (counts != null) {
+                counts.deletes++;
+            }
+        }
+    }
+
+    private static final class RuleCounts {
+
+        private long matches;
+        private long cancelled;
+        private long fires;
+        private long consequenceNanos;
+        private long maxConsequenceNanos;
+        private long inserts;
+        private long updates;
+        private long deletes;
+    }
+}
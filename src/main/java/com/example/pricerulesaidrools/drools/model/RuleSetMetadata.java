@@ -23,7 +23,33 @@ public class RuleSetMetadata {
     private LocalDateTime lastUpdated;
     private long executionCount;
     
+    @Builder.Default
+    private ExecutionMode executionMode = ExecutionMode.STATEFUL;
+
+    /** Configured KieBase profile the rule set is built with; null for the default profile */
+    private String kieBaseProfile;
+
+    /** Fact names and classes the rule set's facts are deserialized into; null for the configured default */
+    private String factSchema;
+
+    /** Where executions find their result, e.g. fact:pricingResult; null for the configured default */
+    private String resultContract;
+
+    /** Whether requests may share a session in correlated batches; checked against the rules when deployed */
+    private boolean correlated;
+
+    /** Tier tables bound to the rule set's TierTable globals, as JSON; null for the defaults */
+    private String tierTables;
+    
     public enum RuleStatus {
         ACTIVE, INACTIVE, DELETED
     }
+    
+    /**
+     * How a rule set is executed: in a pooled stateful KieSession, or as a
+     * one-shot batch through a StatelessKieSession
+     */
+    public enum ExecutionMode {
+        STATEFUL, STATELESS
+    }
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.example.pricerulesaidrools.drools.registry;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import com.example.pricerulesaidrools.drools.dto.ResidencyStatistics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically evicts idle compiled rule sets while they exceed the drools.residency memory
+ * budget, and reports the estimated footprint of the resident rule sets, evictions and the
+ * latency of loading evicted rule sets again
+ */
+@Component
+@Slf4j
+public class IdleRuleSetEvictor {
+
+    private final KieBaseRegistry kieBaseRegistry;
+    private final DroolsProperties droolsProperties;
+    private final MeterRegistry meterRegistry;
+    private final Timer reloads;
+    private final MultiGauge footprints;
+
+    public IdleRuleSetEvictor(KieBaseRegistry kieBaseRegistry, DroolsProperties droolsProperties,
+                              MeterRegistry meterRegistry) {
+        this.kieBaseRegistry = kieBaseRegistry;
+        this.droolsProperties = droolsProperties;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("drools.residency.resident", kieBaseRegistry, KieBaseRegistry::getResidentWeightBytes)
+                .description("Estimated memory held by all resident compiled rule sets")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("drools.residency.budget", droolsProperties, properties -> budgetBytes(properties.getResidency()))
+                .description("Estimated memory resident compiled rule sets may hold before idle ones are evicted")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.reloads = Timer.builder("drools.residency.reload")
+                .description("Time to load and compile a rule set that was not resident on its first use")
+                .register(meterRegistry);
+        this.footprints = MultiGauge.builder("drools.residency.footprint")
+                .description("Estimated memory held by a resident compiled rule set, as of the last eviction sweep")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${drools.residency.eviction-interval-ms:60000}")
+    public void evictIdleRuleSets() {
+        DroolsProperties.Residency settings = droolsProperties.getResidency();
+        List<String> evicted = kieBaseRegistry.evictIdle(budgetBytes(settings),
+                TimeUnit.MILLISECONDS.toNanos(settings.getIdleTimeoutMs()), settings.getEvictionPolicy());
+        if (!evicted.isEmpty()) {
+            evictions(settings.getEvictionPolicy()).increment(evicted.size());
+            log.info("Evicted {} idle rule sets, {} bytes of compiled rules remain resident",
+                    evicted.size(), kieBaseRegistry.getResidentWeightBytes());
+        }
+        kieBaseRegistry.decayUses();
+        // Rows hold plain values, so a gauge never keeps an evicted KieBase reachable
+        footprints.register(kieBaseRegistry.getLiveVersions().stream()
+                .map(live -> MultiGauge.Row.of(Tags.of("ruleSet", live.getRuleSetId()), live.getWeightBytes()))
+                .toList(), true);
+    }
+
+    /**
+     * Records a rule set that was loaded because it was not resident on its first use
+     *
+     * @param nanos Time from the registry miss to the rule set being live
+     */
+    public void recordReload(long nanos) {
+        reloads.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the estimated footprint of every resident rule set, and the eviction and reload counts
+     */
+    public ResidencyStatistics getStatistics() {
+        DroolsProperties.Residency settings = droolsProperties.getResidency();
+        long now = System.nanoTime();
+        List<ResidencyStatistics.RuleSetFootprint> ruleSets = kieBaseRegistry.getLiveVersions().stream()
+                .map(live -> ResidencyStatistics.RuleSetFootprint.builder()
+                        .ruleSetId(live.getRuleSetId())
+                        .version(live.getVersion())
+                        .footprintBytes(live.getWeightBytes())
+                        .uses(live.getUses())
+                        .idleMs(TimeUnit.NANOSECONDS.toMillis(now - live.getLastUsedNanos()))
+                        .evictable(live.getKieContainer() != null)
+                        .build())
+                .sorted(Comparator.comparingLong(ResidencyStatistics.RuleSetFootprint::getFootprintBytes).reversed())
+                .toList();
+        long evictions = (long) meterRegistry.find("drools.residency.evictions").counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+        return ResidencyStatistics.builder()
+                .evictionPolicy(settings.getEvictionPolicy().name())
+                .budgetBytes(budgetBytes(settings))
+                .residentBytes(kieBaseRegistry.getResidentWeightBytes())
+                .evictions(evictions)
+                .reloads(reloads.count())
+                .averageReloadTimeMs(reloads.mean(TimeUnit.MILLISECONDS))
+                .maxReloadTimeMs(reloads.max(TimeUnit.MILLISECONDS))
+                .ruleSets(ruleSets)
+                .build();
+    }
+
+    private Counter evictions(DroolsProperties.Residency.EvictionPolicy policy) {
+        return Counter.builder("drools.residency.evictions")
+                .description("Idle compiled rule sets evicted to stay within the memory budget")
+                .tag("policy", policy.name())
+                .register(meterRegistry);
+    }
+
+    private static long budgetBytes(DroolsProperties.Residency settings) {
+        return settings.getMaxMemoryMb() * 1024L * 1024L;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.pricerulesaidrools.drools.registry;
+
+import lombok.Builder;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieContainer;
+
+import java.util.Objects;
+
+/**
+ * A compiled KieBase to make the live version of a rule set, see {@link KieBaseRegistry#activate}
+ *
+ * @param ruleSetId The rule set ID
+ * @param version The rule set version
+ * @param generation Generation from {@link KieBaseRegistry#nextGeneration()}
+ * @param kieBase The compiled KieBase
+ * @param kieContainer The container owning the KieBase, released with the version; null if the
+ *                     KieBase is owned elsewhere, which also exempts it from eviction
+ * @param weightBytes Estimated memory held by the compiled rules; 0 if unknown
+ * @param ruleContent The DRL the KieBase holds, which later updates are compared with; may be null
+ * @param moduleContent The DRL the container's module was compiled from; defaults to the rule content
+ */
+@Builder
+public record KieBaseActivation(String ruleSetId, String version, long generation, KieBase kieBase,
+                                KieContainer kieContainer, long weightBytes, String ruleContent,
+                                String moduleContent) {
+
+    public KieBaseActivation {
+        Objects.requireNonNull(ruleSetId, "ruleSetId");
+        Objects.requireNonNull(version, "version");
+        Objects.requireNonNull(kieBase, "kieBase");
+        if (moduleContent == null) {
+            moduleContent = ruleContent;
+        }
+    }
+}
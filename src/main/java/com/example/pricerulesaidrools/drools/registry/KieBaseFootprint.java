@@ -0,0 +1,50 @@
+package com.example.pricerulesaidrools.drools.registry;
+
+import org.kie.api.KieBase;
+import org.kie.api.definition.KiePackage;
+
+/**
+ * Estimates the memory a compiled KieBase retains, so the resident rule sets can be kept
+ * within a memory budget without walking the heap.
+ * <p>
+ * The estimate adds a fixed cost per KieBase and per rule, query, declared type and
+ * global to the weight of the compilation result, i.e. the DRL source and the module
+ * jar held by the KieRepository. The per-item costs approximate the Rete nodes, rule
+ * metadata and generated classes of typical pricing rules; they are meant for ranking
+ * and budgeting rule sets against each other, not for exact accounting.
+ */
+public final class KieBaseFootprint {
+
+    /** KieBase, Rete root, entry points, class loader and empty session pool */
+    static final long KIE_BASE_BYTES = 256 * 1024;
+    /** Rule metadata, its alpha/beta nodes and the loaded consequence and constraint classes */
+    static final long RULE_BYTES = 6 * 1024;
+    static final long QUERY_BYTES = 3 * 1024;
+    /** Generated class of a declared type and its fact type metadata */
+    static final long FACT_TYPE_BYTES = 12 * 1024;
+    static final long GLOBAL_BYTES = 256;
+
+    private KieBaseFootprint() {
+    }
+
+    /**
+     * Estimates the memory retained by a KieBase
+     *
+     * @param kieBase The compiled KieBase
+     * @param compiledWeightBytes Estimated weight of the compilation result it was loaded from
+     * @return The estimated retained size in bytes
+     */
+    public static long estimate(KieBase kieBase, long compiledWeightBytes) {
+        long bytes = KIE_BASE_BYTES + compiledWeightBytes;
+        for (KiePackage kiePackage : kieBase.getKiePackages()) {
+            // Queries are listed among the rules as well
+            long queries = kiePackage.getQueries().size();
+            long rules = Math.max(0, kiePackage.getRules().size() - queries);
+            bytes += rules * RULE_BYTES
+                    + queries * QUERY_BYTES
+                    + kiePackage.getFactTypes().size() * FACT_TYPE_BYTES
+                    + kiePackage.getGlobalVariables().size() * GLOBAL_BYTES;
+        }
+        return bytes;
+    }
+}
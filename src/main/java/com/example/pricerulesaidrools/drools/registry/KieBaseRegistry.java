@@ -0,0 +1,287 @@
+package com.example.pricerulesaidrools.drools.registry;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import com.example.pricerulesaidrools.drools.metrics.RuleInstrumentation;
+import com.example.pricerulesaidrools.drools.session.KieSessionPoolManager;
+import com.example.pricerulesaidrools.drools.session.RuleExecutionWatchdog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieModule;
+import org.kie.api.builder.ReleaseId;
+import org.kie.api.runtime.KieContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry of the live compiled version of every deployed rule set.
+ * <p>
+ * The live mapping is an immutable map replaced wholesale on every change
+ * (copy-on-write), so the execution path resolves a KieBase with a single
+ * volatile read and no locking. Writers serialize on a private lock. A replaced
+ * version stays usable by executions that already acquired it and releases its
+ * sessions, KieContainer and rule meters once they have drained; the rule set's
+ * timeout counter goes with its last version.
+ * <p>
+ * Rule sets compiled at runtime can be evicted when idle, least recently or least
+ * frequently used first, to bound the memory held by compiled rules; the caller loads an
+ * evicted rule set again on its next use.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class KieBaseRegistry {
+
+    private final KieServices kieServices;
+    private final KieSessionPoolManager sessionPoolManager;
+    private final RuleInstrumentation ruleInstrumentation;
+    private final RuleExecutionWatchdog executionWatchdog;
+
+    private final Object writeLock = new Object();
+    private final Object repositoryLock = new Object();
+    private final AtomicLong generations = new AtomicLong(0);
+    private volatile Map<String, KieBaseVersion> liveVersions = Map.of();
+
+    /**
+     * Acquires the live version of a rule set for one execution.
+     * The caller must call {@link KieBaseVersion#release()} when done.
+     *
+     * @param ruleSetId The rule set ID
+     * @return The acquired version, or null if the rule set is not registered
+     */
+    public KieBaseVersion acquire(String ruleSetId) {
+        while (true) {
+            KieBaseVersion live = liveVersions.get(ruleSetId);
+            if (live == null) {
+                return null;
+            }
+            if (live.tryAcquire()) {
+                return live;
+            }
+            // Retired and drained between the read and the acquire; a newer version is already live
+        }
+    }
+
+    /**
+     * Gets the live version without acquiring it, for inspection only
+     *
+     * @param ruleSetId The rule set ID
+     * @return The live version, or null
+     */
+    public KieBaseVersion getLiveVersion(String ruleSetId) {
+        return liveVersions.get(ruleSetId);
+    }
+
+    public Collection<KieBaseVersion> getLiveVersions() {
+        return liveVersions.values();
+    }
+
+    /**
+     * Allocates a generation number, unique across all compiled versions
+     */
+    public long nextGeneration() {
+        return generations.incrementAndGet();
+    }
+
+    /**
+     * Creates a container for a compiled module, adding the module to the KieRepository
+     * in case a drained version sharing its release ID removed it
+     *
+     * @param kieModule The compiled module
+     * @return A new KieContainer
+     */
+    public KieContainer newKieContainer(KieModule kieModule) {
+        synchronized (repositoryLock) {
+            kieServices.getRepository().addKieModule(kieModule);
+            return kieServices.newKieContainer(kieModule.getReleaseId());
+        }
+    }
+
+    /**
+     * Makes a compiled KieBase the live version of a rule set, retiring the previous one
+     *
+     * @param activation The KieBase and what the version is built from
+     * @return The new live version
+     */
+    public KieBaseVersion activate(KieBaseActivation activation) {
+        String ruleSetId = activation.ruleSetId();
+        String version = activation.version();
+        long generation = activation.generation();
+        KieBase kieBase = activation.kieBase();
+        KieContainer kieContainer = activation.kieContainer();
+        KieBaseVersion next = new KieBaseVersion(ruleSetId, version, generation, kieBase, kieContainer,
+                activation.weightBytes(), activation.ruleContent(), activation.moduleContent(),
+                releaseAction(ruleSetId, KieBaseVersion.poolName(ruleSetId, version, generation), kieBase, kieContainer));
+        ruleInstrumentation.register(ruleSetId, kieBase);
+
+        KieBaseVersion previous;
+        synchronized (writeLock) {
+            Map<String, KieBaseVersion> updated = new HashMap<>(liveVersions);
+            previous = updated.put(ruleSetId, next);
+            liveVersions = Map.copyOf(updated);
+        }
+
+        log.info("Activated rule set {} version {} (generation {})", ruleSetId, version, generation);
+        if (previous != null) {
+            log.info("Retiring rule set {} version {} with {} executions in flight",
+                    ruleSetId, previous.getVersion(), previous.getInFlight());
+            previous.retire();
+        }
+        return next;
+    }
+
+    /**
+     * Removes a rule set; its live version is released once in-flight executions drain
+     *
+     * @param ruleSetId The rule set ID
+     */
+    public void remove(String ruleSetId) {
+        KieBaseVersion previous;
+        synchronized (writeLock) {
+            if (!liveVersions.containsKey(ruleSetId)) {
+                return;
+            }
+            Map<String, KieBaseVersion> updated = new HashMap<>(liveVersions);
+            previous = updated.remove(ruleSetId);
+            liveVersions = Map.copyOf(updated);
+        }
+        previous.retire();
+    }
+
+    /**
+     * Estimated memory held by all live versions
+     */
+    public long getResidentWeightBytes() {
+        return liveVersions.values().stream().mapToLong(KieBaseVersion::getWeightBytes).sum();
+    }
+
+    /**
+     * Evicts idle rule sets, least recently used first, until the live versions fit the memory budget.
+     * Only versions with their own KieContainer are evicted, and only while no execution holds them.
+     *
+     * @param budgetBytes Memory budget for all live versions
+     * @param idleNanos Minimum time since the last use before a version may be evicted
+     * @return IDs of the evicted rule sets
+     */
+    public List<String> evictIdle(long budgetBytes, long idleNanos) {
+        return evictIdle(budgetBytes, idleNanos, DroolsProperties.Residency.EvictionPolicy.LRU);
+    }
+
+    /**
+     * Evicts idle rule sets in the order of an eviction policy until the live versions fit the
+     * memory budget. Only versions with their own KieContainer are evicted, and only while no
+     * execution holds them.
+     *
+     * @param budgetBytes Memory budget for all live versions
+     * @param idleNanos Minimum time since the last use before a version may be evicted
+     * @param policy Which idle versions go first
+     * @return IDs of the evicted rule sets
+     */
+    public List<String> evictIdle(long budgetBytes, long idleNanos, DroolsProperties.Residency.EvictionPolicy policy) {
+        long residentBytes = getResidentWeightBytes();
+        if (residentBytes <= budgetBytes) {
+            return List.of();
+        }
+
+        Comparator<KieBaseVersion> order = Comparator.comparingLong(KieBaseVersion::getLastUsedNanos);
+        if (policy == DroolsProperties.Residency.EvictionPolicy.LFU) {
+            order = Comparator.comparingLong(KieBaseVersion::getUses).thenComparing(order);
+        }
+        long now = System.nanoTime();
+        List<KieBaseVersion> candidates = liveVersions.values().stream()
+                .filter(live -> live.getKieContainer() != null && now - live.getLastUsedNanos() >= idleNanos)
+                .sorted(order)
+                .toList();
+        List<String> evicted = new ArrayList<>();
+        for (KieBaseVersion candidate : candidates) {
+            if (residentBytes <= budgetBytes) {
+                break;
+            }
+            if (candidate.getInFlight() == 0 && removeIfLive(candidate)) {
+                residentBytes -= candidate.getWeightBytes();
+                evicted.add(candidate.getRuleSetId());
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Halves the use counts of all live versions, so that LFU eviction favours recent popularity
+     */
+    public void decayUses() {
+        liveVersions.values().forEach(KieBaseVersion::decayUses);
+    }
+
+    /**
+     * Removes every registered rule set
+     */
+    public void removeAll() {
+        Map<String, KieBaseVersion> previous;
+        synchronized (writeLock) {
+            previous = liveVersions;
+            liveVersions = Map.of();
+        }
+        previous.values().forEach(KieBaseVersion::retire);
+    }
+
+    private boolean removeIfLive(KieBaseVersion expected) {
+        synchronized (writeLock) {
+            // A newer version activated since the candidate was picked is not idle
+            if (liveVersions.get(expected.getRuleSetId()) != expected) {
+                return false;
+            }
+            Map<String, KieBaseVersion> updated = new HashMap<>(liveVersions);
+            updated.remove(expected.getRuleSetId());
+            liveVersions = Map.copyOf(updated);
+        }
+        log.info("Evicted idle rule set {} version {}", expected.getRuleSetId(), expected.getVersion());
+        expected.retire();
+        return true;
+    }
+
+    /**
+     * Disposes a container that never became a live version, e.g. the one of a shadowed candidate
+     */
+    public void disposeContainer(KieContainer kieContainer) {
+        synchronized (repositoryLock) {
+            if (!isReleaseIdLive(kieContainer.getReleaseId())) {
+                kieServices.getRepository().removeKieModule(kieContainer.getReleaseId());
+            }
+        }
+        kieContainer.dispose();
+    }
+
+    private Runnable releaseAction(String ruleSetId, String poolName, KieBase kieBase, KieContainer kieContainer) {
+        return () -> {
+            sessionPoolManager.closePool(poolName);
+            ruleInstrumentation.release(kieBase);
+            if (!liveVersions.containsKey(ruleSetId)) {
+                executionWatchdog.release(ruleSetId);
+            }
+            if (kieContainer != null) {
+                // Modules are content-addressed, so a newer live version built from the same
+                // content shares the release ID and still needs the module
+                synchronized (repositoryLock) {
+                    if (!isReleaseIdLive(kieContainer.getReleaseId())) {
+                        kieServices.getRepository().removeKieModule(kieContainer.getReleaseId());
+                    }
+                }
+                kieContainer.dispose();
+            }
+        };
+    }
+
+    private boolean isReleaseIdLive(ReleaseId releaseId) {
+        return liveVersions.values().stream()
+                .map(KieBaseVersion::getKieContainer)
+                .anyMatch(container -> container != null && releaseId.equals(container.getReleaseId()));
+    }
+}
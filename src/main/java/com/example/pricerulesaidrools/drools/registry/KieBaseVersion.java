@@ -0,0 +1,207 @@
+package com.example.pricerulesaidrools.drools.registry;
+
+import com.example.pricerulesaidrools.drools.tier.TierTableGlobals;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.StatelessKieSession;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * One compiled, immutable version of a rule set.
+ * <p>
+ * An update changing only some rules is built into a new KieBase from the previous
+ * version's module, so the KieBase of a version may hold more recent rules than its
+ * KieContainer's module was compiled from.
+ * <p>
+ * Reference counted: the registry holds one reference while the version is live
+ * and every execution holds one while it runs. Once the version has been replaced
+ * and the last in-flight execution releases it, its resources are released.
+ */
+@Slf4j
+public class KieBaseVersion {
+
+    @Getter
+    private final String ruleSetId;
+    private final String version;
+    @Getter
+    private final long generation;
+    @Getter
+    private final KieBase kieBase;
+    @Getter
+    private final KieContainer kieContainer;
+    @Getter
+    private final LocalDateTime activatedAt = LocalDateTime.now();
+    /** Estimated memory held by the compiled rules; 0 if unknown */
+    private final long weightBytes;
+    private final String poolName;
+
+    private final AtomicInteger references = new AtomicInteger(1);
+    private final Runnable onDrained;
+    private volatile boolean retired;
+    private volatile StatelessKieSession statelessKieSession;
+    private volatile TierTableGlobals tierTables;
+    private volatile long lastUsedNanos = System.nanoTime();
+    private final LongAdder uses = new LongAdder();
+    private final String ruleContent;
+    private final String moduleContent;
+
+    KieBaseVersion(String ruleSetId, String version, long generation, KieBase kieBase, KieContainer kieContainer,
+                   long weightBytes, String ruleContent, String moduleContent, Runnable onDrained) {
+        this.ruleSetId = ruleSetId;
+        this.version = version;
+        this.poolName = poolName(ruleSetId, version, generation);
+        this.ruleContent = ruleContent;
+        this.moduleContent = moduleContent;
+        this.generation = generation;
+        this.kieBase = kieBase;
+        this.kieContainer = kieContainer;
+        this.weightBytes = weightBytes;
+        this.onDrained = onDrained;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * DRL the KieBase holds; null if it was not built from a single DRL
+     */
+    public String getRuleContent() {
+        return ruleContent;
+    }
+
+    /**
+     * DRL the KieContainer's module was compiled from, which a new KieBase of the container
+     * holds; differs from {@link #getRuleContent()} if the KieBase was updated incrementally
+     */
+    public String getModuleContent() {
+        return moduleContent;
+    }
+
+    /**
+     * Name of the session pool serving this version; unique per compiled KieBase
+     */
+    public String getPoolName() {
+        return poolName;
+    }
+
+    static String poolName(String ruleSetId, String version, long generation) {
+        return ruleSetId + ":" + version + ":" + generation;
+    }
+
+    /**
+     * Number of executions currently running against this version
+     */
+    public int getInFlight() {
+        int refs = references.get();
+        return retired ? refs : Math.max(0, refs - 1);
+    }
+
+    public boolean isRetired() {
+        return retired;
+    }
+
+    public long getWeightBytes() {
+        return weightBytes;
+    }
+
+    /**
+     * Number of acquires, halved by every {@link #decayUses()} so that past popularity fades
+     */
+    public long getUses() {
+        return uses.sum();
+    }
+
+    /**
+     * {@link System#nanoTime()} of the last acquire, or of the activation if never acquired
+     */
+    public long getLastUsedNanos() {
+        return lastUsedNanos;
+    }
+
+    /**
+     * Gets the shared stateless session for this version, creating it on first use
+     *
+     * @param factory Creates the session from this version's KieBase
+     * @return The stateless session
+     */
+    public StatelessKieSession getStatelessKieSession(Function<KieBase, StatelessKieSession> factory) {
+        StatelessKieSession session = statelessKieSession;
+        if (session == null) {
+            synchronized (this) {
+                session = statelessKieSession;
+                if (session == null) {
+                    session = factory.apply(kieBase);
+                    statelessKieSession = session;
+                }
+            }
+        }
+        return session;
+    }
+
+    /**
+     * Gets the tier tables bound on sessions of this version, resolving them on first use
+     *
+     * @param resolver Resolves the rule set's tier tables against this version's KieBase
+     * @return The tier tables
+     */
+    public TierTableGlobals getTierTables(Function<KieBase, TierTableGlobals> resolver) {
+        TierTableGlobals resolved = tierTables;
+        if (resolved == null) {
+            synchronized (this) {
+                resolved = tierTables;
+                if (resolved == null) {
+                    resolved = resolver.apply(kieBase);
+                    tierTables = resolved;
+                }
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Releases a reference obtained from {@link KieBaseRegistry#acquire(String)}
+     */
+    public void release() {
+        if (references.decrementAndGet() == 0) {
+            log.info("Rule set {} version {} drained, releasing resources", ruleSetId, version);
+            try {
+                onDrained.run();
+            } catch (Exception e) {
+                log.warn("Error releasing rule set {} version {}", ruleSetId, version, e);
+            }
+        }
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int refs = references.get();
+            if (refs <= 0) {
+                return false;
+            }
+            if (references.compareAndSet(refs, refs + 1)) {
+                lastUsedNanos = System.nanoTime();
+                uses.increment();
+                return true;
+            }
+        }
+    }
+
+    void decayUses() {
+        // Acquires racing with the reset are counted in full rather than halved
+        long current = uses.sumThenReset();
+        uses.add(current / 2);
+    }
+
+    void retire() {
+        retired = true;
+        // Drop the registry's own reference; in-flight executions keep the version alive
+        release();
+    }
+}
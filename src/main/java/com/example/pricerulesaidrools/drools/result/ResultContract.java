@@ -0,0 +1,197 @@
+package com.example.pricerulesaidrools.drools.result;
+
+import org.kie.api.KieBase;
+import org.kie.api.command.Command;
+import org.kie.api.command.KieCommands;
+import org.kie.api.definition.KiePackage;
+import org.kie.api.definition.rule.Global;
+import org.kie.api.runtime.ExecutionResults;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.QueryResults;
+import org.kie.api.runtime.rule.QueryResultsRow;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where an execution of a rule set finds its result, declared when the rule set is deployed:
+ * <ul>
+ *     <li>{@code fact:<name>}: the fact passed under that name, as the rules left it</li>
+ *     <li>{@code global:<name>}: a list bound to that global for each execution, holding what
+ *         the rules added to it</li>
+ *     <li>{@code query:<name>}: the rows of that query after the rules fired; a list of values
+ *         for a query with one identifier, otherwise a list of identifier-to-value maps</li>
+ * </ul>
+ * A contract is parsed and checked against the KieBase once, so executions read their
+ * result directly instead of searching the facts for it.
+ */
+public final class ResultContract {
+
+    public enum Kind {
+        FACT, GLOBAL, QUERY
+    }
+
+    private static final String QUERY_OUT_ID = "resultQuery";
+
+    private final Kind kind;
+    private final String name;
+
+    private ResultContract(Kind kind, String name) {
+        this.kind = kind;
+        this.name = name;
+    }
+
+    /**
+     * Parses a contract declaration
+     *
+     * @param spec The declaration, e.g. {@code fact:pricingResult}
+     * @return The contract
+     * @throws IllegalArgumentException If the declaration is malformed
+     */
+    public static ResultContract parse(String spec) {
+        int separator = spec != null ? spec.indexOf(':') : -1;
+        if (separator <= 0 || separator == spec.length() - 1) {
+            throw new IllegalArgumentException("Result contract must be fact:<name>, global:<name> or query:<name>: "
+                    + spec);
+        }
+        Kind kind;
+        try {
+            kind = Kind.valueOf(spec.substring(0, separator).trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown result contract kind: " + spec.substring(0, separator).trim());
+        }
+        return new ResultContract(kind, spec.substring(separator + 1).trim());
+    }
+
+    /**
+     * Checks that the KieBase declares the global or query the contract reads
+     *
+     * @throws IllegalArgumentException If it does not
+     */
+    public void verify(KieBase kieBase) {
+        switch (kind) {
+            case GLOBAL -> {
+                Global global = kieBase.getKiePackages().stream()
+                        .flatMap(kiePackage -> kiePackage.getGlobalVariables().stream())
+                        .filter(candidate -> candidate.getName().equals(name))
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("Result global " + name + " is not declared"));
+                if (!acceptsList(global.getType())) {
+                    throw new IllegalArgumentException("Result global " + name + " must be a java.util.List, not "
+                            + global.getType());
+                }
+            }
+            case QUERY -> {
+                boolean declared = kieBase.getKiePackages().stream()
+                        .map(KiePackage::getQueries)
+                        .anyMatch(queries -> queries.stream().anyMatch(query -> query.getName().equals(name)));
+                if (!declared) {
+                    throw new IllegalArgumentException("Result query " + name + " is not declared");
+                }
+            }
+            case FACT -> {
+                // Facts are supplied per execution
+            }
+        }
+    }
+
+    private static boolean acceptsList(String type) {
+        return type.equals("java.util.List") || type.equals("java.util.Collection")
+                || type.equals("java.lang.Iterable") || type.equals("java.lang.Object");
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Prepares a stateful session for one execution
+     *
+     * @return The collector bound to the result global, or null
+     */
+    public List<Object> bind(KieSession kieSession) {
+        if (kind != Kind.GLOBAL) {
+            return null;
+        }
+        List<Object> collector = new ArrayList<>();
+        kieSession.setGlobal(name, collector);
+        return collector;
+    }
+
+    /**
+     * Reads the result of a stateful execution after the rules fired
+     *
+     * @param collector The collector returned by {@link #bind(KieSession)}
+     */
+    public Object extract(KieSession kieSession, Map<String, Object> facts, List<Object> collector) {
+        return switch (kind) {
+            case FACT -> facts.get(name);
+            case GLOBAL -> collector;
+            case QUERY -> toRows(kieSession.getQueryResults(name));
+        };
+    }
+
+    /**
+     * Adds the commands a stateless execution needs before the facts are inserted
+     *
+     * @return The collector bound to the result global, or null
+     */
+    public List<Object> addSetupCommands(KieCommands commandFactory, List<Command<?>> commands) {
+        if (kind != Kind.GLOBAL) {
+            return null;
+        }
+        List<Object> collector = new ArrayList<>();
+        commands.add(commandFactory.newSetGlobal(name, collector));
+        return collector;
+    }
+
+    /**
+     * Adds the commands a stateless execution needs after the rules fired
+     */
+    public void addResultCommands(KieCommands commandFactory, List<Command<?>> commands) {
+        if (kind == Kind.QUERY) {
+            commands.add(commandFactory.newQuery(QUERY_OUT_ID, name));
+        }
+    }
+
+    /**
+     * Reads the result of a stateless execution
+     *
+     * @param collector The collector returned by {@link #addSetupCommands(KieCommands, List)}
+     */
+    public Object extract(ExecutionResults executionResults, Map<String, Object> facts, List<Object> collector) {
+        return switch (kind) {
+            case FACT -> facts.get(name);
+            case GLOBAL -> collector;
+            case QUERY -> toRows((QueryResults) executionResults.getValue(QUERY_OUT_ID));
+        };
+    }
+
+    private static List<Object> toRows(QueryResults queryResults) {
+        String[] identifiers = queryResults.getIdentifiers();
+        List<Object> rows = new ArrayList<>(queryResults.size());
+        for (QueryResultsRow row : queryResults) {
+            if (identifiers.length == 1) {
+                rows.add(row.get(identifiers[0]));
+            } else {
+                Map<String, Object> values = new LinkedHashMap<>();
+                for (String identifier : identifiers) {
+                    values.put(identifier, row.get(identifier));
+                }
+                rows.add(values);
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public String toString() {
+        return kind.name().toLowerCase() + ":" + name;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.pricerulesaidrools.drools.schema;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The classes that the facts of one rule set are deserialized into, by fact name.
+ * <p>
+ * An ObjectReader is built for every class when the schema is created, so binding a
+ * fact does not look up or construct a deserializer. Facts whose name is not in the
+ * schema are read as generic JSON maps and values.
+ */
+public final class FactSchema {
+
+    /** Schema without types: every fact is read as generic JSON */
+    static final FactSchema UNTYPED = new FactSchema(Map.of(), null);
+
+    private final Map<String, Class<?>> types;
+    private final Map<String, ObjectReader> readers;
+    private final ObjectReader untypedReader;
+
+    FactSchema(Map<String, Class<?>> types, ObjectMapper objectMapper) {
+        this.types = Collections.unmodifiableMap(new LinkedHashMap<>(types));
+        Map<String, ObjectReader> factReaders = new LinkedHashMap<>();
+        types.forEach((factName, type) -> factReaders.put(factName, objectMapper.readerFor(type)));
+        this.readers = factReaders;
+        this.untypedReader = (objectMapper != null ? objectMapper : new ObjectMapper()).readerFor(Object.class);
+    }
+
+    /**
+     * Fact names and the classes they are deserialized into
+     */
+    public Map<String, Class<?>> getTypes() {
+        return types;
+    }
+
+    /**
+     * Reads the value of a fact at the parser's current token
+     *
+     * @param factName The fact name
+     * @param parser The parser, positioned at the first token of the value
+     * @param context The context of the enclosing deserialization
+     * @return The fact, typed if its name is in the schema
+     */
+    public Object readFact(String factName, JsonParser parser, DeserializationContext context) throws IOException {
+        ObjectReader reader = readers.get(factName);
+        return reader != null ? reader.readValue(parser) : context.readValue(parser, Object.class);
+    }
+
+    /**
+     * Binds a fact set that was read as JSON trees, e.g. one fact set of a batch
+     *
+     * @param facts The facts by name, or null
+     * @return The facts, typed where their name is in the schema
+     */
+    public Map<String, Object> bindFacts(Map<String, JsonNode> facts) throws IOException {
+        if (facts == null) {
+            return null;
+        }
+        Map<String, Object> bound = new HashMap<>();
+        for (Map.Entry<String, JsonNode> fact : facts.entrySet()) {
+            JsonNode value = fact.getValue();
+            bound.put(fact.getKey(), value == null || value.isNull() ? null
+                    : readers.getOrDefault(fact.getKey(), untypedReader).readValue(value));
+        }
+        return bound;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.pricerulesaidrools.drools.schema;
+
+import com.example.pricerulesaidrools.drools.dto.RuleExecutionRequest;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * Registers the schema-aware execution request deserializer with the application's
+ * ObjectMapper; Spring Boot adds every Module bean to it.
+ * <p>
+ * Web test slices pick up Module beans but not the fact schema registry, so the registry
+ * is resolved on first use; without one, facts are read as generic JSON maps and values.
+ */
+@Component
+public class FactSchemaModule extends SimpleModule {
+
+    @Autowired
+    public FactSchemaModule(ObjectProvider<FactSchemaRegistry> factSchemaRegistry) {
+        this(new LazySchemas(factSchemaRegistry));
+    }
+
+    public FactSchemaModule(FactSchemaRegistry factSchemaRegistry) {
+        this(factSchemaRegistry::schemaFor);
+    }
+
+    private FactSchemaModule(Function<String, FactSchema> schemas) {
+        super("FactSchemaModule");
+        addDeserializer(RuleExecutionRequest.class, new RuleExecutionRequestDeserializer(schemas));
+    }
+
+    private static final class LazySchemas implements Function<String, FactSchema> {
+
+        private final ObjectProvider<FactSchemaRegistry> provider;
+        private volatile FactSchemaRegistry registry;
+
+        private LazySchemas(ObjectProvider<FactSchemaRegistry> provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        public FactSchema apply(String ruleSetId) {
+            FactSchemaRegistry resolved = registry;
+            if (resolved == null) {
+                resolved = provider.getIfAvailable();
+                if (resolved == null) {
+                    return FactSchema.UNTYPED;
+                }
+                registry = resolved;
+            }
+            return resolved.schemaFor(ruleSetId);
+        }
+    }
+}
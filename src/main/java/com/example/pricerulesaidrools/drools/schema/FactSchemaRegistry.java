@@ -0,0 +1,164 @@
+package com.example.pricerulesaidrools.drools.schema;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import com.example.pricerulesaidrools.drools.store.RuleSetStore;
+import com.example.pricerulesaidrools.drools.store.StoreMissCache;
+import com.example.pricerulesaidrools.drools.store.StoredRuleSet;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fact schemas of the deployed rule sets, registered when a rule set is deployed or loaded.
+ * <p>
+ * A rule set deployed with a factSchema option, e.g.
+ * {@code pricingRequest=PricingRequest,metrics=FinancialMetrics}, binds those fact names to
+ * those classes; other rule sets use the schema configured under drools.fact-schema.types.
+ * Classes must belong to the configured allowed package, so a request cannot make the
+ * server instantiate arbitrary types.
+ * <p>
+ * Schemas are resolved while a request is deserialized, before it is authorized, so IDs
+ * the rule set store does not hold are remembered for drools.residency.unknown-rule-set-ttl-ms
+ * and not looked up again meanwhile.
+ */
+@Component
+@Slf4j
+public class FactSchemaRegistry {
+
+    private final DroolsProperties.FactSchema settings;
+    private final RuleSetStore ruleSetStore;
+    // Resolved on first use: the ObjectMapper is built with the module that reads through this registry
+    private final ObjectProvider<ObjectMapper> objectMapperProvider;
+
+    private final Map<String, FactSchema> schemas = new ConcurrentHashMap<>();
+    private final StoreMissCache unknownRuleSets;
+    private volatile FactSchema defaultSchema;
+
+    public FactSchemaRegistry(DroolsProperties droolsProperties, RuleSetStore ruleSetStore,
+                              ObjectProvider<ObjectMapper> objectMapperProvider) {
+        this.settings = droolsProperties.getFactSchema();
+        this.ruleSetStore = ruleSetStore;
+        this.objectMapperProvider = objectMapperProvider;
+        this.unknownRuleSets = new StoreMissCache(droolsProperties.getResidency().getUnknownRuleSetTtlMs());
+    }
+
+    /**
+     * Gets the schema the facts of a rule set are read with. A stored rule set that was not
+     * used since startup is looked up in the rule set store once; an unknown one is looked
+     * up again only once its miss has expired.
+     *
+     * @param ruleSetId The rule set ID, or null
+     * @return The rule set's schema, or the default schema if it has none or is unknown
+     */
+    public FactSchema schemaFor(String ruleSetId) {
+        if (ruleSetId == null) {
+            return defaultSchema();
+        }
+        FactSchema schema = schemas.get(ruleSetId);
+        if (schema != null) {
+            return schema;
+        }
+        if (unknownRuleSets.isMissing(ruleSetId)) {
+            return defaultSchema();
+        }
+        StoredRuleSet stored = ruleSetStore.find(ruleSetId).orElse(null);
+        if (stored == null) {
+            unknownRuleSets.recordMiss(ruleSetId);
+            return defaultSchema();
+        }
+        try {
+            register(ruleSetId, stored.metadata().getFactSchema());
+        } catch (IllegalArgumentException e) {
+            log.error("Stored fact schema of rule set {} is no longer valid, using the default schema: {}",
+                    ruleSetId, e.getMessage());
+            schemas.put(ruleSetId, defaultSchema());
+        }
+        return schemas.get(ruleSetId);
+    }
+
+    /**
+     * Registers the fact schema of a rule set
+     *
+     * @param ruleSetId The rule set ID
+     * @param spec The factSchema deployment option, or null for the default schema
+     * @throws IllegalArgumentException If the option is malformed or names a class that is not allowed
+     */
+    public void register(String ruleSetId, String spec) {
+        schemas.put(ruleSetId, spec == null || spec.isBlank() ? defaultSchema() : parse(spec));
+        unknownRuleSets.forget(ruleSetId);
+    }
+
+    /**
+     * Forgets the schema of a rule set; it is looked up again on next use
+     */
+    public void remove(String ruleSetId) {
+        schemas.remove(ruleSetId);
+        unknownRuleSets.forget(ruleSetId);
+    }
+
+    /**
+     * Forgets the schemas of all rule sets
+     */
+    public void clear() {
+        schemas.clear();
+        unknownRuleSets.clear();
+    }
+
+    /**
+     * Builds the schema a factSchema deployment option declares
+     *
+     * @param spec Comma-separated fact name and class pairs, e.g. {@code request=PricingRequest};
+     *             classes are simple names in the allowed package or fully qualified names
+     * @return The schema
+     * @throws IllegalArgumentException If the option is malformed or names a class that is not allowed
+     */
+    public FactSchema parse(String spec) {
+        Map<String, Class<?>> types = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            int separator = entry.indexOf('=');
+            if (separator <= 0 || separator == entry.length() - 1) {
+                throw new IllegalArgumentException("Fact schema entry must be factName=ClassName: " + entry.trim());
+            }
+            String factName = entry.substring(0, separator).trim();
+            if (types.put(factName, resolveType(entry.substring(separator + 1).trim())) != null) {
+                throw new IllegalArgumentException("Fact " + factName + " is declared more than once");
+            }
+        }
+        return newSchema(types);
+    }
+
+    private FactSchema defaultSchema() {
+        FactSchema schema = defaultSchema;
+        if (schema == null) {
+            Map<String, Class<?>> types = new LinkedHashMap<>();
+            settings.getTypes().forEach((factName, className) -> types.put(factName, resolveType(className)));
+            schema = newSchema(types);
+            defaultSchema = schema;
+        }
+        return schema;
+    }
+
+    private FactSchema newSchema(Map<String, Class<?>> types) {
+        return new FactSchema(settings.isEnabled() ? types : Map.of(), objectMapperProvider.getObject());
+    }
+
+    private Class<?> resolveType(String className) {
+        String packagePrefix = settings.getAllowedPackage() + ".";
+        String qualifiedName = className.contains(".") ? className : packagePrefix + className;
+        // Checked before loading, so no class outside the package is ever loaded on request
+        if (!qualifiedName.startsWith(packagePrefix) || qualifiedName.indexOf('.', packagePrefix.length()) >= 0) {
+            throw new IllegalArgumentException("Fact class " + className + " is not in package "
+                    + settings.getAllowedPackage());
+        }
+        try {
+            return Class.forName(qualifiedName, false, FactSchemaRegistry.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unknown fact class: " + className);
+        }
+    }
+}
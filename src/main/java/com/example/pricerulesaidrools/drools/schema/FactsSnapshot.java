@@ -0,0 +1,58 @@
+package com.example.pricerulesaidrools.drools.schema;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Facts serialized as they were at one point in time, e.g. before rules modified them.
+ * Each restore builds fresh objects of the facts' original classes.
+ */
+public final class FactsSnapshot {
+
+    private final String[] names;
+    private final Class<?>[] types;
+    private final byte[][] values;
+
+    private FactsSnapshot(String[] names, Class<?>[] types, byte[][] values) {
+        this.names = names;
+        this.types = types;
+        this.values = values;
+    }
+
+    /**
+     * Serializes facts
+     *
+     * @throws IOException If a fact cannot be serialized
+     */
+    public static FactsSnapshot of(ObjectMapper objectMapper, Map<String, Object> facts) throws IOException {
+        String[] names = new String[facts.size()];
+        Class<?>[] types = new Class<?>[facts.size()];
+        byte[][] values = new byte[facts.size()][];
+        int i = 0;
+        for (Map.Entry<String, Object> entry : facts.entrySet()) {
+            names[i] = entry.getKey();
+            if (entry.getValue() != null) {
+                types[i] = entry.getValue().getClass();
+                values[i] = objectMapper.writeValueAsBytes(entry.getValue());
+            }
+            i++;
+        }
+        return new FactsSnapshot(names, types, values);
+    }
+
+    /**
+     * Builds a fresh copy of the facts, by the same names and in the same order
+     *
+     * @throws IOException If a fact cannot be deserialized into its original class
+     */
+    public Map<String, Object> restore(ObjectMapper objectMapper) throws IOException {
+        Map<String, Object> facts = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            facts.put(names[i], values[i] != null ? objectMapper.readValue(values[i], types[i]) : null);
+        }
+        return facts;
+    }
+}
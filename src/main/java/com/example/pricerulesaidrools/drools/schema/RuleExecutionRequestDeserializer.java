@@ -0,0 +1,92 @@
+package com.example.pricerulesaidrools.drools.schema;
+
+import com.example.pricerulesaidrools.drools.dto.RuleExecutionRequest;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Reads an execution request with its facts bound to the classes of the rule set's fact
+ * schema, so the rules receive the model objects their patterns match instead of maps.
+ * <p>
+ * Facts are read as they stream in when the ruleSetId comes first. Otherwise their tokens
+ * are buffered until the rule set, and so the schema, is known.
+ */
+public class RuleExecutionRequestDeserializer extends StdDeserializer<RuleExecutionRequest> {
+
+    private static final String RULE_SET_ID = "ruleSetId";
+    private static final String FACTS = "facts";
+
+    private final Function<String, FactSchema> schemas;
+
+    /**
+     * @param schemas Gets the fact schema of a rule set ID, which may be null
+     */
+    public RuleExecutionRequestDeserializer(Function<String, FactSchema> schemas) {
+        super(RuleExecutionRequest.class);
+        this.schemas = schemas;
+    }
+
+    @Override
+    public RuleExecutionRequest deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (!parser.isExpectedStartObjectToken()) {
+            return (RuleExecutionRequest) context.handleUnexpectedToken(RuleExecutionRequest.class, parser);
+        }
+        String ruleSetId = null;
+        Map<String, Object> facts = null;
+        boolean factsPresent = false;
+        TokenBuffer bufferedFacts = null;
+
+        for (String field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+            JsonToken token = parser.nextToken();
+            if (RULE_SET_ID.equals(field)) {
+                ruleSetId = token == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+            } else if (FACTS.equals(field)) {
+                factsPresent = true;
+                if (ruleSetId != null) {
+                    facts = readFacts(parser, context, schemas.apply(ruleSetId));
+                } else {
+                    bufferedFacts = context.bufferAsCopyOfValue(parser);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        if (bufferedFacts != null) {
+            try (JsonParser buffered = bufferedFacts.asParser(parser.getCodec())) {
+                buffered.nextToken();
+                facts = readFacts(buffered, context, schemas.apply(ruleSetId));
+            }
+        }
+        // Without a facts field the request keeps its default, empty facts
+        RuleExecutionRequest.RuleExecutionRequestBuilder request = RuleExecutionRequest.builder().ruleSetId(ruleSetId);
+        if (factsPresent) {
+            request.facts(facts);
+        }
+        return request.build();
+    }
+
+    private static Map<String, Object> readFacts(JsonParser parser, DeserializationContext context,
+                                                 FactSchema schema) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!parser.isExpectedStartObjectToken()) {
+            context.reportWrongTokenException(Map.class, JsonToken.START_OBJECT, "facts must be a JSON object");
+        }
+        Map<String, Object> facts = new HashMap<>();
+        for (String factName = parser.nextFieldName(); factName != null; factName = parser.nextFieldName()) {
+            parser.nextToken();
+            facts.put(factName, schema.readFact(factName, parser, context));
+        }
+        return facts;
+    }
+}
@@ -1,14 +1,24 @@
 package com.example.pricerulesaidrools.drools.service;
 
+import com.example.pricerulesaidrools.drools.batch.ParallelBatchExecutor;
+import com.example.pricerulesaidrools.drools.cluster.RuleDeploymentEvent;
+import com.example.pricerulesaidrools.drools.dto.ResidencyStatistics;
 import com.example.pricerulesaidrools.drools.dto.RuleCacheMetrics;
 import com.example.pricerulesaidrools.drools.dto.RuleDeploymentResult;
+import com.example.pricerulesaidrools.drools.dto.RuleDeploymentStatus;
 import com.example.pricerulesaidrools.drools.dto.RuleExecutionMetrics;
+import com.example.pricerulesaidrools.drools.dto.RuleFiringStats;
+import com.example.pricerulesaidrools.drools.dto.RuleProfile;
 import com.example.pricerulesaidrools.drools.dto.RuleValidationResult;
+import com.example.pricerulesaidrools.drools.dto.ShadowStatistics;
 import com.example.pricerulesaidrools.drools.model.RuleSetMetadata;
 import org.kie.api.KieBase;
 
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service interface for Drools rule engine integration
@@ -24,6 +34,25 @@ public interface DroolsIntegrationService {
      */
     RuleDeploymentResult deployRules(String ruleContent);
     
+    /**
+     * Deploys a new rule set with deployment options
+     * 
+     * @param ruleContent The rule content in DRL format
+     * @param options Deployment options, e.g. "executionMode" (STATEFUL or STATELESS) and
+     *                "kieBaseProfile" (a profile configured under drools.kie-base-profiles) and
+     *                "factSchema" (the classes facts are deserialized into, e.g.
+     *                "pricingRequest=PricingRequest,financialMetrics=FinancialMetrics") and
+     *                "resultContract" (where executions find their result: fact:, global: or
+     *                query: followed by a name; drools.default-result-contract if omitted) and
+     *                "correlated" (true to let requests share sessions in correlated batches;
+     *                every rule must join its facts on correlationId, and the result contract
+     *                must be a fact) and
+     *                "tierTables" (JSON mapping TierTable globals to their tiers, see TierTableGlobals;
+     *                globals without a table get the shipped default of the same name)
+     * @return Deployment result with status and validation information
+     */
+    RuleDeploymentResult deployRules(String ruleContent, Map<String, String> options);
+    
     /**
      * Updates an existing rule set
      * 
@@ -33,6 +62,17 @@ public interface DroolsIntegrationService {
      */
     RuleDeploymentResult updateRules(String ruleContent, String version);
     
+    /**
+     * Updates an existing rule set with new content and swaps it in as the live version.
+     * Executions already running finish on the previous version.
+     * 
+     * @param ruleSetId The rule set ID to update
+     * @param ruleContent The updated rule content
+     * @param version The new version
+     * @return Deployment result with status and validation information
+     */
+    RuleDeploymentResult updateRules(String ruleSetId, String ruleContent, String version);
+    
     /**
      * Undeploys a rule set
      * 
@@ -62,10 +102,35 @@ public interface DroolsIntegrationService {
      * @param ruleSetId The rule set ID to execute
      * @param facts The facts to evaluate rules against
      * @param <T> The return type
-     * @return The result of rule execution
+     * @return The result the rule set's result contract declares, e.g. the PricingResult fact
      */
     <T> T executeRules(String ruleSetId, Map<String, Object> facts);
     
+    /**
+     * Executes rules on a set of facts as a single stateless batch
+     * (insert all facts, fire all rules) without stateful session setup
+     * 
+     * @param ruleSetId The rule set ID to execute
+     * @param facts The facts to evaluate rules against
+     * @param <T> The return type
+     * @return The result of rule execution
+     */
+    <T> T executeStatelessRules(String ruleSetId, Map<String, Object> facts);
+    
+    /**
+     * Executes rules on an async worker, off the calling thread. A cached result is returned
+     * without queueing; otherwise the rules are halted at the caller's deadline, or at the
+     * execution timeout if that comes first.
+     *
+     * @param ruleSetId The rule set ID to execute
+     * @param facts The facts to evaluate rules against
+     * @param deadlineMs How long the caller will wait for the result, in milliseconds
+     * @param <T> The return type
+     * @return A future of the result of rule execution; completes exceptionally with
+     *         RULE_EXECUTION_REJECTED when the execution is shed instead of queued
+     */
+    <T> CompletableFuture<T> executeRulesAsync(String ruleSetId, Map<String, Object> facts, long deadlineMs);
+
     /**
      * Executes rules on multiple sets of facts (batch execution)
      * 
@@ -75,6 +140,82 @@ public interface DroolsIntegrationService {
      * @return List of results from rule execution
      */
     <T> List<T> executeBatchRules(String ruleSetId, List<Map<String, Object>> facts);
+
+    /**
+     * Executes many requests in shared sessions: each fact set is tagged with its own
+     * correlation ID, a chunk of fact sets is inserted into one session and fired once,
+     * and every request's result is read back from its facts. Only rule sets deployed with
+     * the "correlated" option share sessions; others run as {@link #executeBatchRules}.
+     * The correlation IDs are cleared again once the chunk has fired.
+     * 
+     * @param ruleSetId The rule set ID to execute
+     * @param facts The fact sets (PricingRequest, FinancialMetrics, PricingResult) to evaluate
+     * @param <T> The return type
+     * @return The result of each fact set, in input order; null where execution failed
+     */
+    <T> List<T> executeCorrelatedBatch(String ruleSetId, List<Map<String, Object>> facts);
+
+    /**
+     * Executes a stream of fact sets with bounded parallelism, handing each result
+     * to the sink as soon as it is ready
+     *
+     * @param ruleSetId The rule set ID to execute
+     * @param facts The fact sets, read lazily
+     * @param sink Receives the result of every fact set, in completion order
+     * @return Number of fact sets executed
+     * @throws IOException If the sink fails
+     */
+    long executeRulesStream(String ruleSetId, Iterator<Map<String, Object>> facts,
+                            ParallelBatchExecutor.StreamSink<Object> sink) throws IOException;
+
+    /**
+     * Starts shadowing a deployed rule set with a candidate version: a sample of its live
+     * executions is executed again against the candidate in the background, and the results
+     * and execution times compared. The live version is not changed.
+     *
+     * @param ruleSetId The rule set ID
+     * @param ruleContent The DRL of the candidate version
+     * @param version The candidate version label
+     * @param sampleRate Fraction of live executions to mirror, or null for the configured default
+     * @return The outcome; fails if the rule set is unknown or the candidate does not compile
+     */
+    RuleDeploymentResult startShadow(String ruleSetId, String ruleContent, String version, Double sampleRate);
+
+    /**
+     * Gets how the shadowed candidate of a rule set compares with its live version
+     *
+     * @param ruleSetId The rule set ID
+     * @return The comparison statistics, or null if the rule set has no candidate
+     */
+    ShadowStatistics getShadowStatistics(String ruleSetId);
+
+    /**
+     * Stops shadowing a rule set; updating or undeploying the rule set also stops it
+     *
+     * @param ruleSetId The rule set ID
+     * @return The final comparison statistics, or null if the rule set had no candidate
+     */
+    ShadowStatistics stopShadow(String ruleSetId);
+
+    /**
+     * Executes one fact set against a rule set with every rule's matches, fires, consequence
+     * time and working-memory operations recorded. Runs in its own session and is not cached,
+     * recorded or shadowed; other executions are not instrumented by it.
+     *
+     * @param ruleSetId The rule set ID
+     * @param facts The facts, copied before each run
+     * @param repeat Number of runs, capped at drools.profiler.max-repeat
+     * @return The profile, or null if the rule set is not found
+     */
+    RuleProfile profileRules(String ruleSetId, Map<String, Object> facts, int repeat);
+
+    /**
+     * Gets the estimated memory held by each resident compiled rule set, against the
+     * drools.residency budget, with the eviction and reload counts of this node
+     *
+     * @return The residency statistics
+     */
+    ResidencyStatistics getResidencyStatistics();
     
     /**
      * Gets metadata for a rule set
@@ -113,6 +254,34 @@ public interface DroolsIntegrationService {
      * @return Rule cache metrics
      */
     RuleCacheMetrics getRuleCacheMetrics(String ruleSetId);
+
+    /**
+     * Gets per-rule activation, fire and consequence time statistics across all rule sets
+     *
+     * @return Statistics per rule, most expensive consequences first
+     */
+    List<RuleFiringStats> getRuleFiringStats();
+
+    /**
+     * Applies a rule set change made on another node, reading the rule set from the rule set store
+     *
+     * @param event The deployment event
+     */
+    void applyDeploymentEvent(RuleDeploymentEvent event);
+
+    /**
+     * Brings the rule sets used on this node up to date with the rule set store
+     */
+    void reconcileRuleSets();
+
+    /**
+     * Gets which nodes of the cluster serve the stored version of a rule set
+     *
+     * @param ruleSetId The rule set ID
+     * @param waitMs How long to wait for all nodes to converge before reporting; 0 reports immediately
+     * @return The deployment status, or null if the rule set was never deployed
+     */
+    RuleDeploymentStatus getDeploymentStatus(String ruleSetId, long waitMs);
     
     /**
      * Gets the current KieBase (Drools knowledge base)
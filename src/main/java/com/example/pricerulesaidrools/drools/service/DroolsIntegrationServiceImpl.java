@@ -1,33 +1,91 @@
 package com.example.pricerulesaidrools.drools.service;
 
+import com.example.pricerulesaidrools.drools.async.AsyncRuleExecutor;
+import com.example.pricerulesaidrools.drools.batch.CorrelationCheck;
+import com.example.pricerulesaidrools.drools.batch.ParallelBatchExecutor;
+import com.example.pricerulesaidrools.drools.cache.CompiledRuleModuleCache;
+import com.example.pricerulesaidrools.drools.cache.CompiledRules;
+import com.example.pricerulesaidrools.drools.cache.ExecutionCacheKey;
+import com.example.pricerulesaidrools.drools.cache.ExecutionCacheKeyGenerator;
+import com.example.pricerulesaidrools.drools.cache.ExecutionCacheResolver;
+import com.example.pricerulesaidrools.drools.cache.RuleCompilationCache;
+import com.example.pricerulesaidrools.drools.cluster.RuleDeploymentBroadcaster;
+import com.example.pricerulesaidrools.drools.cluster.RuleDeploymentEvent;
 import com.example.pricerulesaidrools.drools.config.DroolsConfig;
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import com.example.pricerulesaidrools.drools.dto.ResidencyStatistics;
 import com.example.pricerulesaidrools.drools.dto.RuleCacheMetrics;
 import com.example.pricerulesaidrools.drools.dto.RuleDeploymentResult;
+import com.example.pricerulesaidrools.drools.dto.RuleDeploymentStatus;
 import com.example.pricerulesaidrools.drools.dto.RuleExecutionMetrics;
+import com.example.pricerulesaidrools.drools.dto.RuleFiringStats;
+import com.example.pricerulesaidrools.drools.dto.RuleProfile;
 import com.example.pricerulesaidrools.drools.dto.RuleValidationResult;
+import com.example.pricerulesaidrools.drools.dto.ShadowStatistics;
+import com.example.pricerulesaidrools.drools.history.ExecutionHistoryRecorder;
+import com.example.pricerulesaidrools.drools.metrics.RuleExecutionRecorder;
+import com.example.pricerulesaidrools.drools.metrics.RuleInstrumentation;
+import com.example.pricerulesaidrools.drools.metrics.RuleProfiler;
 import com.example.pricerulesaidrools.drools.model.RuleSetMetadata;
+import com.example.pricerulesaidrools.drools.registry.IdleRuleSetEvictor;
+import com.example.pricerulesaidrools.drools.registry.KieBaseActivation;
+import com.example.pricerulesaidrools.drools.registry.KieBaseFootprint;
+import com.example.pricerulesaidrools.drools.registry.KieBaseRegistry;
+import com.example.pricerulesaidrools.drools.registry.KieBaseVersion;
+import com.example.pricerulesaidrools.drools.registry.SingleFlight;
+import com.example.pricerulesaidrools.drools.result.ResultContract;
+import com.example.pricerulesaidrools.drools.tier.TierTableGlobals;
+import com.example.pricerulesaidrools.drools.schema.FactSchemaRegistry;
+import com.example.pricerulesaidrools.drools.schema.FactsSnapshot;
+import com.example.pricerulesaidrools.drools.shadow.ShadowExecutor;
+import com.example.pricerulesaidrools.drools.session.KieSessionPoolManager;
+import com.example.pricerulesaidrools.drools.session.RuleExecutionWatchdog;
+import com.example.pricerulesaidrools.drools.store.RuleSetStore;
+import com.example.pricerulesaidrools.drools.store.StoreMissCache;
+import com.example.pricerulesaidrools.drools.store.StoredRuleSet;
+import com.example.pricerulesaidrools.drools.update.IncrementalKieBaseUpdater;
+import com.example.pricerulesaidrools.model.Correlated;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.digest.DigestUtils;
+import org.drools.compiler.kie.builder.impl.InternalKieModule;
+import org.drools.core.impl.InternalKieContainer;
+import org.drools.model.codegen.ExecutableModelProject;
 // import org.drools.core.impl.InternalKnowledgeBase; // Temporarily commented out due to missing dependency
 import org.kie.api.KieBase;
 import org.kie.api.KieServices;
 import org.kie.api.builder.KieBuilder;
 import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.KieModule;
 import org.kie.api.builder.Message;
+import org.kie.api.builder.ReleaseId;
 import org.kie.api.builder.Results;
+import org.kie.api.command.Command;
+import org.kie.api.command.KieCommands;
+import org.kie.api.runtime.ExecutionResults;
+import org.kie.api.runtime.KieContainer;
 import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.StatelessKieSession;
 import org.kie.internal.io.ResourceFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
@@ -39,6 +97,41 @@ public class DroolsIntegrationServiceImpl implements DroolsIntegrationService {
     private final KieServices kieServices;
     private final KieBase kieBase;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final KieSessionPoolManager sessionPoolManager;
+    private final KieBaseRegistry kieBaseRegistry;
+    private final RuleExecutionWatchdog executionWatchdog;
+    private final CompiledRuleModuleCache compiledModuleCache;
+    private final RuleCompilationCache compilationCache;
+    private final ParallelBatchExecutor batchExecutor;
+    private final DroolsProperties droolsProperties;
+    private final RuleExecutionRecorder executionRecorder;
+    private final RuleInstrumentation ruleInstrumentation;
+    private final AsyncRuleExecutor asyncExecutor;
+    private final RuleSetStore ruleSetStore;
+    private final RuleDeploymentBroadcaster deploymentBroadcaster;
+    private final IncrementalKieBaseUpdater incrementalUpdater;
+    private final FactSchemaRegistry factSchemaRegistry;
+    private final ExecutionHistoryRecorder historyRecorder;
+    private final ShadowExecutor shadowExecutor;
+    private final ObjectMapper objectMapper;
+    private final IdleRuleSetEvictor residencyEvictor;
+    private final ExecutionCacheResolver executionCacheResolver;
+    private final ExecutionCacheKeyGenerator executionCacheKeyGenerator;
+
+    /** Rule set ID under which the classpath rules loaded at startup are executable */
+    public static final String CLASSPATH_RULE_SET_ID = "classpath";
+
+    private static final String INITIAL_VERSION = "1.0";
+    private static final String RULE_SET_GROUP_ID = "com.example.pricerulesaidrools.rulesets";
+    private static final String MODULE_VERSION = "1.0.0";
+    private static final String EXECUTION_MODE_OPTION = "executionMode";
+    private static final String KIE_BASE_PROFILE_OPTION = "kieBaseProfile";
+    private static final String FACT_SCHEMA_OPTION = "factSchema";
+    private static final String RESULT_CONTRACT_OPTION = "resultContract";
+    private static final String CORRELATED_OPTION = "correlated";
+    private static final String TIER_TABLES_OPTION = "tierTables";
+    private static final String EXECUTION_OUT_ID = "execution";
+    private static final long DEPLOYMENT_STATUS_POLL_MS = 100;
 
     @Value("${drools.rule-expiration:3600}")
     private int ruleExpiration;
@@ -46,18 +139,82 @@ public class DroolsIntegrationServiceImpl implements DroolsIntegrationService {
     @Value("${drools.rule-execution-timeout:1000}")
     private int ruleExecutionTimeout;
 
-    // In-memory stores for rule metadata and metrics (would be replaced with DB in
-    // production)
+    // Metadata of the rule sets used since startup; the rule set store is the durable copy
     private final Map<String, RuleSetMetadata> ruleSetMetadataMap = new ConcurrentHashMap<>();
-    private final Map<String, RuleExecutionMetrics> executionMetricsMap = new ConcurrentHashMap<>();
-    private final Map<String, Long> cacheHitsMap = new ConcurrentHashMap<>();
-    private final Map<String, Long> cacheMissesMap = new ConcurrentHashMap<>();
-    private final Map<String, AtomicLong> executionCountMap = new ConcurrentHashMap<>();
+
+    // Result contracts of the rule sets used since startup, resolved from their metadata once
+    private final Map<String, ResultContract> resultContracts = new ConcurrentHashMap<>();
+
+    // Loads of stored rule sets that are not resident, one per rule set at a time
+    private final SingleFlight<String, Boolean> ruleSetLoads = new SingleFlight<>();
+
+    // Rule set IDs recently not found in the rule set store, created on first use
+    private volatile StoreMissCache unknownRuleSets;
+
+    /** Tier tables bound on sessions handed out by {@link #getKieSession()} */
+    private volatile TierTableGlobals classpathTierTables;
+
+    @PostConstruct
+    public void registerClasspathRules() {
+        // The startup KieBase is owned by the Spring context, so the registry must not dispose it
+        // Never evicted, but counted against the residency budget like any other rule set
+        kieBaseRegistry.activate(KieBaseActivation.builder()
+                .ruleSetId(CLASSPATH_RULE_SET_ID)
+                .version(INITIAL_VERSION)
+                .generation(kieBaseRegistry.nextGeneration())
+                .kieBase(kieBase)
+                .weightBytes(KieBaseFootprint.estimate(kieBase, 0))
+                .build());
+        // Fails startup if the classpath rules read a tier table that has no default
+        classpathTierTables = TierTableGlobals.defaults(kieBase);
+        factSchemaRegistry.register(CLASSPATH_RULE_SET_ID, null);
+        ruleSetMetadataMap.put(CLASSPATH_RULE_SET_ID, RuleSetMetadata.builder()
+                .id(CLASSPATH_RULE_SET_ID)
+                .name("Classpath rules")
+                .version(INITIAL_VERSION)
+                .status(RuleSetMetadata.RuleStatus.ACTIVE)
+                .correlated(isCorrelatable(CLASSPATH_RULE_SET_ID, kieBase,
+                        ResultContract.parse(droolsProperties.getDefaultResultContract())))
+                .createdDate(LocalDateTime.now())
+                .lastUpdated(LocalDateTime.now())
+                .build());
+    }
 
     @Override
     public RuleDeploymentResult deployRules(String ruleContent) {
+        return deployRules(ruleContent, Collections.emptyMap());
+    }
+
+    @Override
+    public RuleDeploymentResult deployRules(String ruleContent, Map<String, String> options) {
         String ruleId = DigestUtils.md5Hex(ruleContent);
 
+        RuleSetMetadata.ExecutionMode executionMode;
+        String kieBaseProfile;
+        String factSchema;
+        String resultContractOption;
+        ResultContract resultContract;
+        boolean correlated;
+        String tierTablesOption;
+        TierTableGlobals tierTables;
+        try {
+            executionMode = parseExecutionMode(options);
+            kieBaseProfile = parseKieBaseProfile(options, executionMode);
+            factSchema = parseFactSchema(options);
+            resultContractOption = parseResultContract(options);
+            resultContract = ResultContract.parse(resultContractOption != null ? resultContractOption
+                    : droolsProperties.getDefaultResultContract());
+            correlated = parseCorrelated(options, kieBaseProfile, resultContract);
+            tierTablesOption = parseTierTables(options);
+            tierTables = TierTableGlobals.parse(objectMapper, tierTablesOption);
+        } catch (IllegalArgumentException e) {
+            return RuleDeploymentResult.builder()
+                    .id(ruleId)
+                    .successful(false)
+                    .message(e.getMessage())
+                    .build();
+        }
+
         try {
             // Validate rules first
             RuleValidationResult validationResult = validateRules(ruleContent);
@@ -70,63 +227,75 @@ public class DroolsIntegrationServiceImpl implements DroolsIntegrationService {
                         .build();
             }
 
-            // Create a KieFileSystem with the rule content
-            KieFileSystem kfs = kieServices.newKieFileSystem();
-            kfs.write("src/main/resources/rules/rule_" + ruleId + ".drl",
-                    ResourceFactory.newByteArrayResource(ruleContent.getBytes()));
-
-            // Build the rules
-            KieBuilder kieBuilder = kieServices.newKieBuilder(kfs);
-            kieBuilder.buildAll();
+            // Build the rules into their own KieModule
+            long generation = kieBaseRegistry.nextGeneration();
+            CompiledRules build = compileRules(ruleContent);
 
             // Check for errors
-            Results results = kieBuilder.getResults();
-            if (results.hasMessages(Message.Level.ERROR)) {
-                List<RuleDeploymentResult.ValidationError> errors = results.getMessages(Message.Level.ERROR)
-                        .stream()
-                        .map(message -> RuleDeploymentResult.ValidationError.builder()
-                                .code("COMPILATION_ERROR")
-                                .message(message.getText())
-                                .severity(RuleDeploymentResult.ValidationError.Severity.ERROR)
-                                .build())
-                        .collect(Collectors.toList());
-
+            if (build.hasErrors()) {
                 return RuleDeploymentResult.builder()
                         .id(ruleId)
                         .successful(false)
                         .message("Rule compilation failed")
-                        .validationErrors(errors)
+                        .validationErrors(toValidationErrors(build.errors()))
+                        .build();
+            }
+
+            // Load the rules and check that they provide the declared result and have their tier tables
+            LoadedRules loaded = loadRules(build, kieBaseProfile);
+            try {
+                resultContract.verify(loaded.kieBase());
+                tierTables.resolve(loaded.kieBase());
+                if (correlated) {
+                    CorrelationCheck.verify(loaded.kieBase());
+                }
+            } catch (IllegalArgumentException e) {
+                kieBaseRegistry.disposeContainer(loaded.kieContainer());
+                return RuleDeploymentResult.builder()
+                        .id(ruleId)
+                        .successful(false)
+                        .message(e.getMessage())
                         .build();
             }
 
-            // Store metadata
             RuleSetMetadata metadata = RuleSetMetadata.builder()
                     .id(ruleId)
                     .name("Rule_" + ruleId)
-                    .version("1.0")
+                    .version(INITIAL_VERSION)
                     .status(RuleSetMetadata.RuleStatus.ACTIVE)
+                    .executionMode(executionMode)
+                    .kieBaseProfile(kieBaseProfile)
+                    .factSchema(factSchema)
+                    .resultContract(resultContractOption)
+                    .correlated(correlated)
+                    .tierTables(tierTablesOption)
                     .createdDate(LocalDateTime.now())
                     .lastUpdated(LocalDateTime.now())
                     .build();
 
-            ruleSetMetadataMap.put(ruleId, metadata);
+            // Persist before activating, so every rule set that executes can be loaded again
+            try {
+                ruleSetStore.save(metadata, ruleContent);
+            } catch (RuntimeException e) {
+                kieBaseRegistry.disposeContainer(loaded.kieContainer());
+                throw e;
+            }
+            unknownRuleSets().forget(ruleId);
 
-            // Initialize metrics
-            executionMetricsMap.put(ruleId, RuleExecutionMetrics.builder()
-                    .ruleSetId(ruleId)
-                    .totalExecutions(0)
-                    .averageExecutionTimeMs(0)
-                    .cacheHitRate(0)
-                    .errorRate(0)
-                    .build());
+            // Make the compiled rules the live version of the rule set
+            activateLoadedRules(ruleId, INITIAL_VERSION, generation, build, loaded, ruleContent);
+            factSchemaRegistry.register(ruleId, factSchema);
+            resultContracts.put(ruleId, resultContract);
+            ruleSetMetadataMap.put(ruleId, metadata);
 
-            executionCountMap.put(ruleId, new AtomicLong(0));
-            cacheHitsMap.put(ruleId, 0L);
-            cacheMissesMap.put(ruleId, 0L);
+            // Start metrics from zero, also when the same content is deployed again
+            executionRecorder.reset(ruleId);
 
             // Store the rule in Redis cache
-            redisTemplate.opsForValue().set("rule:" + ruleId, ruleContent);
-            redisTemplate.expire("rule:" + ruleId, ruleExpiration, java.util.concurrent.TimeUnit.SECONDS);
+            cacheRuleContent(ruleId, ruleContent);
+
+            deploymentBroadcaster.publish(RuleDeploymentEvent.Type.DEPLOYED, ruleId, INITIAL_VERSION,
+                    DigestUtils.md5Hex(ruleContent));
 
             return RuleDeploymentResult.builder()
                     .id(ruleId)
@@ -148,6 +317,12 @@ public class DroolsIntegrationServiceImpl implements DroolsIntegrationService {
     @Override
     @CacheEvict(value = { "drools-rules", "drools-execution" }, allEntries = true)
     public RuleDeploymentResult updateRules(String ruleContent, String version) {
+        return updateRules(ruleContent != null ? DigestUtils.md5Hex(ruleContent) : null, ruleContent, version);
+    }
+
+    @Override
+    @CacheEvict(value = { "drools-rules", "drools-execution" }, allEntries = true)
+    public RuleDeploymentResult updateRules(String ruleSetId, String ruleContent, String version) {
         // Validate inputs
         if (ruleContent == null || ruleContent.isEmpty()) {
             return RuleDeploymentResult.builder()
@@ -163,12 +338,12 @@ public class DroolsIntegrationServiceImpl implements DroolsIntegrationService {
                     .build();
         }
 
-        String ruleId = DigestUtils.md5Hex(ruleContent);
+        String ruleId = ruleSetId;
 
         // Use synchronized block to avoid race conditions
         synchronized (this) {
             // Check if rule exists
-            if (!ruleSetMetadataMap.containsKey(ruleId)) {
+            if (ruleId == null || findMetadata(ruleId) == null) {
                 return RuleDeploymentResult.builder()
                         .id(ruleId)
                         .successful(false)
@@ -177,6 +352,9 @@ public class DroolsIntegrationServiceImpl implements DroolsIntegrationService {
             }
 
             try {
+                RuleSetMetadata metadata = findMetadata(ruleId);
+                String kieBaseProfile = metadata.getKieBaseProfile();
+
                 // Validate rules first
                 RuleValidationResult validationResult = validateRules(ruleContent);
                 if (!validationResult.isValid()) {
@@ -188,53 +366,75 @@ public class DroolsIntegrationServiceImpl implements DroolsIntegrationService {
                             .build();
                 }
 
-                // Create a KieFileSystem with the rule content
-                KieFileSystem kfs = kieServices.newKieFileSystem();
-                String resourcePath = "src/main/resources/rules/rule_" + ruleId + ".drl";
-                kfs.write(resourcePath,
-                        ResourceFactory.newByteArrayResource(ruleContent.getBytes()));
-
-                // Build the rules
-                KieBuilder kieBuilder = kieServices.newKieBuilder(kfs);
-                kieBuilder.buildAll();
-
-                // Check for errors
-                Results results = kieBuilder.getResults();
-                if (results.hasMessages(Message.Level.ERROR)) {
-                    List<RuleDeploymentResult.ValidationError> errors = results.getMessages(Message.Level.ERROR)
-                            .stream()
-                            .map(message -> RuleDeploymentResult.ValidationError.builder()
-                                    .code("COMPILATION_ERROR")
-                                    .message(message.getText())
-                                    .severity(RuleDeploymentResult.ValidationError.Severity.ERROR)
-                                    .build())
-                            .collect(Collectors.toList());
+                // Build the new version into a KieBase of its own, from the changed rules only if possible
+                long generation = kieBaseRegistry.nextGeneration();
+                IncrementalRules incremental = loadIncrementally(ruleId, ruleContent, kieBaseProfile);
+                CompiledRules build = null;
+                LoadedRules loaded;
+                if (incremental != null) {
+                    loaded = incremental.loaded();
+                } else {
+                    build = compileRules(ruleContent);
+
+                    // Check for errors
+                    if (build.hasErrors()) {
+                        return RuleDeploymentResult.builder()
+                                .id(ruleId)
+                                .successful(false)
+                                .message("Rule compilation failed")
+                                .validationErrors(toValidationErrors(build.errors()))
+                                .build();
+                    }
+                    loaded = loadRules(build, kieBaseProfile);
+                }
 
+                // Check that the new rules still provide the declared result and have their tier tables
+                try {
+                    resultContract(ruleId).verify(loaded.kieBase());
+                    TierTableGlobals.parse(objectMapper, metadata.getTierTables()).resolve(loaded.kieBase());
+                    if (metadata.isCorrelated()) {
+                        CorrelationCheck.verify(loaded.kieBase());
+                    }
+                } catch (IllegalArgumentException e) {
+                    kieBaseRegistry.disposeContainer(loaded.kieContainer());
                     return RuleDeploymentResult.builder()
                             .id(ruleId)
                             .successful(false)
-                            .message("Rule compilation failed")
-                            .validationErrors(errors)
+                            .message(e.getMessage())
                             .build();
                 }
 
-                // Update metadata
-                RuleSetMetadata metadata = ruleSetMetadataMap.get(ruleId);
+                // Update metadata and persist the new version before it goes live
+                String previousVersion = metadata.getVersion();
                 metadata.setVersion(version);
                 metadata.setLastUpdated(LocalDateTime.now());
+                try {
+                    ruleSetStore.save(metadata, ruleContent);
+                } catch (RuntimeException e) {
+                    metadata.setVersion(previousVersion);
+                    kieBaseRegistry.disposeContainer(loaded.kieContainer());
+                    throw e;
+                }
+
+                // Swap the live version; in-flight executions finish on the previous one
+                if (incremental != null) {
+                    activateIncrementalRules(ruleId, version, generation, incremental, ruleContent);
+                } else {
+                    activateLoadedRules(ruleId, version, generation, build, loaded, ruleContent);
+                }
                 ruleSetMetadataMap.put(ruleId, metadata);
 
                 // Update the rule in Redis cache
-                redisTemplate.opsForValue().set("rule:" + ruleId, ruleContent);
-                redisTemplate.expire("rule:" + ruleId, ruleExpiration, java.util.concurrent.TimeUnit.SECONDS);
-
-                // Note: Clear KieBase cache - InternalKnowledgeBase is not available in newer
-                // versions
-                // In production, rules would be reloaded from a proper deployment mechanism
-                // ((InternalKnowledgeBase) kieBase).clearRules();
+                cacheRuleContent(ruleId, ruleContent);
 
                 // Reset execution metrics for this rule set
-                executionCountMap.put(ruleId, new AtomicLong(0));
+                executionRecorder.reset(ruleId);
+
+                // A candidate was compared with the version just replaced
+                shadowExecutor.stop(ruleId);
+
+                deploymentBroadcaster.publish(RuleDeploymentEvent.Type.UPDATED, ruleId, version,
+                        DigestUtils.md5Hex(ruleContent));
 
                 return RuleDeploymentResult.builder()
                         .id(ruleId)
@@ -264,43 +464,41 @@ public class DroolsIntegrationServiceImpl implements DroolsIntegrationService {
         }
 
         try {
-            // Find rule set by version
+            // Find rule set by version, also among the stored rule sets not used since startup
             Optional<String> ruleSetIdOpt = ruleSetMetadataMap.entrySet().stream()
-                    .filter(entry -> entry.getValue().getVersion().equals(version))
+                    .filter(entry -> entry.getValue().getVersion().equals(version)
+                            && entry.getValue().getStatus() == RuleSetMetadata.RuleStatus.ACTIVE)
                     .map(Map.Entry::getKey)
-                    .findFirst();
+                    .findFirst()
+                    .or(() -> ruleSetStore.findActiveIdByVersion(version));
 
             if (ruleSetIdOpt.isPresent()) {
                 String ruleSetId = ruleSetIdOpt.get();
 
-                // Update metadata
-                RuleSetMetadata metadata = ruleSetMetadataMap.get(ruleSetId);
-                metadata.setStatus(RuleSetMetadata.RuleStatus.DELETED);
-                metadata.setLastUpdated(LocalDateTime.now());
-                ruleSetMetadataMap.put(ruleSetId, metadata);
-
-                // Remove from Redis cache
-                redisTemplate.delete("rule:" + ruleSetId);
-
-                // Clear KieBase cache for consistency with other methods
-                // Note: InternalKnowledgeBase API is not available in newer Drools versions
-                // if (kieBase != null) {
-                // try {
-                // ((InternalKnowledgeBase) kieBase).clearRules();
-                // log.debug("Cleared KieBase rules cache after undeployment");
-                // } catch (Exception e) {
-                // log.warn("Error clearing KieBase cache", e);
-                // }
-                // }
-
-                // Reset execution metrics for this rule set
+                // Serialized with on-demand loads, so a load in progress cannot bring the rule set back
                 synchronized (this) {
-                    executionCountMap.remove(ruleSetId);
-                    cacheHitsMap.remove(ruleSetId);
-                    cacheMissesMap.remove(ruleSetId);
-                    executionMetricsMap.remove(ruleSetId);
+                    // Update metadata
+                    RuleSetMetadata metadata = findMetadata(ruleSetId);
+                    metadata.setStatus(RuleSetMetadata.RuleStatus.DELETED);
+                    metadata.setLastUpdated(LocalDateTime.now());
+                    ruleSetStore.updateStatus(ruleSetId, RuleSetMetadata.RuleStatus.DELETED);
+                    ruleSetMetadataMap.put(ruleSetId, metadata);
+
+                    // Remove from Redis cache
+                    redisTemplate.delete("rule:" + ruleSetId);
+
+                    // Stop routing executions to the rule set; its KieBase is released once in-flight executions drain
+                    kieBaseRegistry.remove(ruleSetId);
+                    factSchemaRegistry.remove(ruleSetId);
+                    resultContracts.remove(ruleSetId);
+                    shadowExecutor.stop(ruleSetId);
                 }
 
+                deploymentBroadcaster.publish(RuleDeploymentEvent.Type.UNDEPLOYED, ruleSetId, version, null);
+
+                // Reset execution metrics for this rule set
+                executionRecorder.reset(ruleSetId);
+
                 log.info("Rule set with ID {} undeployed successfully", ruleSetId);
             } else {
                 log.warn("Rule set with version {} not found", version);
@@ -317,41 +515,20 @@ public class DroolsIntegrationServiceImpl implements DroolsIntegrationService {
         List<RuleDeploymentResult.ValidationError> errors = new ArrayList<>();
 
         try {
-            // Create a KieFileSystem with the rule content
-            KieFileSystem kfs = kieServices.newKieFileSystem();
-            kfs.write("src/main/resources/rules/validation.drl",
-                    ResourceFactory.newByteArrayResource(ruleContent.getBytes()));
-
-            // Build the rules without adding to the KieContainer
-            KieBuilder kieBuilder = kieServices.newKieBuilder(kfs);
-            kieBuilder.buildAll();
+            // Compile once; deploying the same content afterwards reuses this result
+            CompiledRules compiled = compileRules(ruleContent);
 
             // Check for errors
-            Results results = kieBuilder.getResults();
-            if (results.hasMessages(Message.Level.ERROR)) {
-                errors = results.getMessages(Message.Level.ERROR)
-                        .stream()
-                        .map(message -> RuleDeploymentResult.ValidationError.builder()
-                                .code("COMPILATION_ERROR")
-                                .message(message.getText())
-                                .severity(RuleDeploymentResult.ValidationError.Severity.ERROR)
-                                .build())
-                        .collect(Collectors.toList());
-            }
+            errors.addAll(toValidationErrors(compiled.errors()));
 
             // Check for warnings
-            if (results.hasMessages(Message.Level.WARNING)) {
-                List<RuleDeploymentResult.ValidationError> warnings = results.getMessages(Message.Level.WARNING)
-                        .stream()
-                        .map(message -> RuleDeploymentResult.ValidationError.builder()
-                                .code("COMPILATION_WARNING")
-                                .message(message.getText())
-                                .severity(RuleDeploymentResult.ValidationError.Severity.WARNING)
-                                .build())
-                        .collect(Collectors.toList());
-
-                errors.addAll(warnings);
-            }
+            compiled.warnings().stream()
+                    .map(message -> RuleDeploymentResult.ValidationError.builder()
+                            .code("COMPILATION_WARNING")
+                            .message(message.getText())
+                            .severity(RuleDeploymentResult.ValidationError.Severity.WARNING)
+                            .build())
+                    .forEach(errors::add);
 
         } catch (Exception e) {
             log.error("Error validating rules", e);
@@ -375,7 +552,7 @@ public class DroolsIntegrationServiceImpl implements DroolsIntegrationService {
     @Override
     public RuleValidationResult validateRuleSet(String ruleSetId) {
         // Check if rule set exists
-        if (!ruleSetMetadataMap.containsKey(ruleSetId)) {
+        if (findMetadata(ruleSetId) == null) {
             List<RuleDeploymentResult.ValidationError> errors = new ArrayList<>();
             errors.add(RuleDeploymentResult.ValidationError.builder()
                     .code("RULE_SET_NOT_FOUND")
@@ -390,14 +567,13 @@ public class DroolsIntegrationServiceImpl implements DroolsIntegrationService {
                     .build();
         }
 
-        // Get rule content from Redis
-        String ruleContent = (String) redisTemplate.opsForValue().get("rule:" + ruleSetId);
+        String ruleContent = findRuleContent(ruleSetId);
 
         if (ruleContent == null) {
             List<RuleDeploymentResult.ValidationError> errors = new ArrayList<>();
             errors.add(RuleDeploymentResult.ValidationError.builder()
                     .code("RULE_CONTENT_NOT_FOUND")
-                    .message("Rule content for ID " + ruleSetId + " not found in cache")
+                    .message("Rule content for ID " + ruleSetId + " not found")
                     .severity(RuleDeploymentResult.ValidationError.Severity.ERROR)
                     .build());
 
@@ -413,10 +589,17 @@ public class DroolsIntegrationServiceImpl implements DroolsIntegrationService {
 
     @Override
     @SuppressWarnings("unchecked")
-    @Cacheable(value = "drools-execution", key = "{#ruleSetId, #facts != null ? #facts.toString() : 'null'}")
+    @Cacheable(cacheResolver = ExecutionCacheResolver.BEAN_NAME, cacheNames = "drools-execution",
+            keyGenerator = ExecutionCacheKeyGenerator.BEAN_NAME)
     public <T> T executeRules(String ruleSetId, Map<String, Object> facts) {
-        long startTime = System.currentTimeMillis();
-        boolean success = true;
+        return execute(ruleSetId, facts, ruleExecutionTimeout);
+    }
+
+    /**
+     * Executes the rules uncached, halting the execution after the given time
+     */
+    private <T> T execute(String ruleSetId, Map<String, Object> facts, long timeoutMs) {
+        long startTime = System.nanoTime();
 
         // Validate inputs
         if (ruleSetId == null || ruleSetId.isEmpty()) {
@@ -429,27 +612,51 @@ public class DroolsIntegrationServiceImpl implements DroolsIntegrationService {
             return null;
         }
 
-        // Check if rule set exists
-        if (!ruleSetMetadataMap.containsKey(ruleSetId)) {
+        // Resolve the live version; it stays usable for this execution even if it is swapped meanwhile
+        KieBaseVersion kieBaseVersion = acquireRuleSet(ruleSetId);
+        if (kieBaseVersion == null) {
             log.error("Rule set with ID {} not found", ruleSetId);
-            synchronized (this) {
-                cacheHitsMap.put(ruleSetId, cacheHitsMap.getOrDefault(ruleSetId, 0L));
-                cacheMissesMap.put(ruleSetId, cacheMissesMap.getOrDefault(ruleSetId, 0L) + 1);
-            }
             return null;
         }
 
-        // Create a new KieSession
-        KieSession kieSession = droolsConfig.newKieSession(kieBase);
-        T result = null;
-
         try {
-            // Set timeout if configured
-            if (ruleExecutionTimeout > 0) {
-                kieSession.getAgenda().getAgendaGroup("MAIN").setFocus();
-                kieSession.setGlobal("executionTimeout", ruleExecutionTimeout);
+            RuleSetMetadata metadata = ruleSetMetadataMap.get(ruleSetId);
+            // Copies the facts of sampled executions while a candidate version is shadowed, before the rules modify them
+            ShadowExecutor.Mirror mirror = shadowExecutor.sample(ruleSetId, facts);
+            long runStart = System.nanoTime();
+            T result = run(ruleSetId, metadata, kieBaseVersion, facts, startTime, timeoutMs);
+            if (mirror != null) {
+                mirror.complete(result, System.nanoTime() - runStart);
             }
+            return result;
+        } finally {
+            kieBaseVersion.release();
+        }
+    }
 
+    /**
+     * Runs one fact set on an acquired version, in the rule set's execution mode
+     */
+    private <T> T run(String ruleSetId, RuleSetMetadata metadata, KieBaseVersion kieBaseVersion,
+                      Map<String, Object> facts, long startTime, long timeoutMs) {
+        return metadata != null && metadata.getExecutionMode() == RuleSetMetadata.ExecutionMode.STATELESS
+                ? runStateless(ruleSetId, kieBaseVersion, facts, startTime, timeoutMs)
+                : runStateful(ruleSetId, kieBaseVersion, facts, startTime, timeoutMs);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T runStateful(String ruleSetId, KieBaseVersion kieBaseVersion, Map<String, Object> facts,
+                              long startTime, long timeoutMs) {
+        boolean success = true;
+        String poolName = kieBaseVersion.getPoolName();
+
+        // Borrow a clean KieSession from the pool
+        KieSession kieSession = sessionPoolManager.borrowSession(poolName, kieBaseVersion.getKieBase());
+        boolean reusable = true;
+        T result = null;
+        String errorMessage = null;
+
+        try {
             // Insert facts
             for (Map.Entry<String, Object> entry : facts.entrySet()) {
                 if (entry.getValue() != null) {
@@ -459,63 +666,285 @@ public class DroolsIntegrationServiceImpl implements DroolsIntegrationService {
 
             // Set global variables if needed
             kieSession.setGlobal("logger", log);
+            tierTables(kieBaseVersion).bind(kieSession);
+            ResultContract resultContract = resultContract(ruleSetId);
+            List<Object> resultCollector = resultContract.bind(kieSession);
+
+            // Fire rules on this thread; the watchdog halts the session at the deadline
+            RuleExecutionWatchdog.Execution execution =
+                    executionWatchdog.fireAllRules(ruleSetId, kieSession, timeoutMs);
+            int firedRules = execution.firedRules();
+            if (execution.timedOut()) {
+                success = false;
+                // A halted session may hold partial results; do not hand it to the next caller
+                reusable = false;
+                errorMessage = "Timed out after " + timeoutMs + " ms";
+                executionRecorder.recordTimeout(ruleSetId);
+            }
 
-            // Fire rules with timeout
-            int firedRules = 0;
-            if (ruleExecutionTimeout > 0) {
-                // Create a future to run the rules with a timeout
-                java.util.concurrent.Future<Integer> future = java.util.concurrent.Executors.newSingleThreadExecutor()
-                        .submit(() -> kieSession.fireAllRules());
+            log.debug("Fired {} rules for rule set {}", firedRules, ruleSetId);
 
-                try {
-                    firedRules = future.get(ruleExecutionTimeout, java.util.concurrent.TimeUnit.MILLISECONDS);
-                } catch (java.util.concurrent.TimeoutException e) {
-                    log.warn("Rule execution timed out after {} ms for rule set {}",
-                            ruleExecutionTimeout, ruleSetId);
-                    future.cancel(true);
-                    success = false;
-                } catch (java.util.concurrent.ExecutionException | InterruptedException e) {
-                    log.error("Error during rule execution for rule set {}", ruleSetId, e);
-                    success = false;
-                }
+            result = (T) resultContract.extract(kieSession, facts, resultCollector);
+        } catch (Exception e) {
+            log.error("Error executing rules for rule set {}", ruleSetId, e);
+            success = false;
+            reusable = false;
+            errorMessage = e.toString();
+        } finally {
+            // Update metrics
+            long durationNanos = System.nanoTime() - startTime;
+            executionRecorder.recordExecution(ruleSetId, durationNanos, success);
+            historyRecorder.record(ruleSetId, durationNanos, success, errorMessage, facts, result);
+            if (reusable) {
+                sessionPoolManager.returnSession(poolName, kieSession);
             } else {
-                // Execute without timeout
-                firedRules = kieSession.fireAllRules();
+                sessionPoolManager.discardSession(poolName, kieSession);
             }
+        }
 
-            log.debug("Fired {} rules for rule set {}", firedRules, ruleSetId);
+        return result;
+    }
 
-            // Get result - assuming there's a specific fact of type T we want to return
-            // In a real application, we'd have a more structured approach to handle results
-            try {
-                result = (T) facts.values().stream()
-                        .filter(fact -> fact instanceof Map && ((Map<?, ?>) fact).containsKey("result"))
-                        .findFirst()
-                        .orElse(null);
-            } catch (ClassCastException e) {
-                log.error("Error casting result for rule set {}", ruleSetId, e);
+    @Override
+    @Cacheable(cacheResolver = ExecutionCacheResolver.BEAN_NAME, cacheNames = "drools-execution",
+            keyGenerator = ExecutionCacheKeyGenerator.BEAN_NAME)
+    public <T> T executeStatelessRules(String ruleSetId, Map<String, Object> facts) {
+        long startTime = System.nanoTime();
+
+        // Validate inputs
+        if (ruleSetId == null || ruleSetId.isEmpty()) {
+            log.error("Invalid rule set ID: null or empty");
+            return null;
+        }
+
+        if (facts == null) {
+            log.error("Facts map is null for rule set ID {}", ruleSetId);
+            return null;
+        }
+
+        KieBaseVersion kieBaseVersion = acquireRuleSet(ruleSetId);
+        if (kieBaseVersion == null) {
+            log.error("Rule set with ID {} not found", ruleSetId);
+            return null;
+        }
+
+        try {
+            return runStateless(ruleSetId, kieBaseVersion, facts, startTime, ruleExecutionTimeout);
+        } finally {
+            kieBaseVersion.release();
+        }
+    }
+
+    /**
+     * Runs the facts through the shared StatelessKieSession as one batch command:
+     * no session is created or reset, and no agenda focus or per-call globals other than a
+     * result collector are set. The batch fires through the watchdog, so the execution
+     * timeout applies as on the stateful path.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T runStateless(String ruleSetId, KieBaseVersion kieBaseVersion, Map<String, Object> facts,
+                               long startTime, long timeoutMs) {
+        boolean success = true;
+        T result = null;
+        String errorMessage = null;
+
+        try {
+            KieCommands commandFactory = kieServices.getCommands();
+            ResultContract resultContract = resultContract(ruleSetId);
+            List<Command<?>> commands = new ArrayList<>(facts.size() + 3);
+            List<Object> resultCollector = resultContract.addSetupCommands(commandFactory, commands);
+            for (Object fact : facts.values()) {
+                if (fact != null) {
+                    commands.add(commandFactory.newInsert(fact));
+                }
+            }
+            commands.add(executionWatchdog.newFireAllRulesCommand(ruleSetId, timeoutMs, EXECUTION_OUT_ID));
+            resultContract.addResultCommands(commandFactory, commands);
+
+            ExecutionResults executionResults = kieBaseVersion
+                    .getStatelessKieSession(kieBase -> {
+                        // Globals of the shared session stay bound across executions
+                        StatelessKieSession statelessKieSession = droolsConfig.newStatelessKieSession(kieBase);
+                        tierTables(kieBaseVersion).bind(statelessKieSession);
+                        return statelessKieSession;
+                    })
+                    .execute(commandFactory.newBatchExecution(commands));
+            RuleExecutionWatchdog.Execution execution =
+                    (RuleExecutionWatchdog.Execution) executionResults.getValue(EXECUTION_OUT_ID);
+            if (execution.timedOut()) {
                 success = false;
+                errorMessage = "Timed out after " + timeoutMs + " ms";
+                executionRecorder.recordTimeout(ruleSetId);
             }
+            log.debug("Fired {} rules for rule set {} (stateless)", execution.firedRules(), ruleSetId);
 
-            // Update metrics
-            executionCountMap.computeIfAbsent(ruleSetId, k -> new AtomicLong(0)).incrementAndGet();
-            updateExecutionMetrics(ruleSetId, System.currentTimeMillis() - startTime, success);
-
+            result = (T) resultContract.extract(executionResults, facts, resultCollector);
         } catch (Exception e) {
-            log.error("Error executing rules for rule set {}", ruleSetId, e);
+            log.error("Error executing stateless rules for rule set {}", ruleSetId, e);
             success = false;
-            updateExecutionMetrics(ruleSetId, System.currentTimeMillis() - startTime, success);
-        } finally {
-            try {
-                kieSession.dispose();
-            } catch (Exception e) {
-                log.warn("Error disposing KieSession for rule set {}", ruleSetId, e);
-            }
+            errorMessage = e.toString();
         }
 
+        long durationNanos = System.nanoTime() - startTime;
+        executionRecorder.recordExecution(ruleSetId, durationNanos, success);
+        historyRecorder.record(ruleSetId, durationNanos, success, errorMessage, facts, result);
         return result;
     }
 
+    /**
+     * Gets the result contract of a rule set, resolving it from the rule set's metadata on first use
+     */
+    private ResultContract resultContract(String ruleSetId) {
+        ResultContract resultContract = resultContracts.get(ruleSetId);
+        if (resultContract != null) {
+            return resultContract;
+        }
+        return resultContracts.computeIfAbsent(ruleSetId, id -> {
+            RuleSetMetadata metadata = findMetadata(id);
+            String declared = metadata != null ? metadata.getResultContract() : null;
+            return ResultContract.parse(declared != null ? declared : droolsProperties.getDefaultResultContract());
+        });
+    }
+
+    /**
+     * Gets the tier tables bound on sessions of a version, resolved once per version
+     */
+    private TierTableGlobals tierTables(KieBaseVersion kieBaseVersion) {
+        return kieBaseVersion.getTierTables(kieBase -> {
+            RuleSetMetadata metadata = findMetadata(kieBaseVersion.getRuleSetId());
+            return TierTableGlobals.parse(objectMapper, metadata != null ? metadata.getTierTables() : null)
+                    .resolve(kieBase);
+        });
+    }
+
+    private RuleSetMetadata.ExecutionMode parseExecutionMode(Map<String, String> options) {
+        String value = options != null ? options.get(EXECUTION_MODE_OPTION) : null;
+        if (value == null || value.isBlank()) {
+            return RuleSetMetadata.ExecutionMode.STATEFUL;
+        }
+        try {
+            return RuleSetMetadata.ExecutionMode.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown execution mode: " + value);
+        }
+    }
+
+    /**
+     * Reads the KieBase profile option; the profile must be configured, and sequential
+     * profiles are only accepted for stateless rule sets
+     */
+    private String parseKieBaseProfile(Map<String, String> options, RuleSetMetadata.ExecutionMode executionMode) {
+        String value = options != null ? options.get(KIE_BASE_PROFILE_OPTION) : null;
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        DroolsProperties.KieBaseProfile profile = droolsConfig.resolveKieBaseProfile(value);
+        if (profile.isSequential() && executionMode != RuleSetMetadata.ExecutionMode.STATELESS) {
+            throw new IllegalArgumentException("KieBase profile " + value.trim()
+                    + " uses sequential mode, which requires the STATELESS execution mode");
+        }
+        return value.trim();
+    }
+
+    /**
+     * Reads the result contract option; whether the rules provide the result is checked once they are loaded
+     */
+    private String parseResultContract(Map<String, String> options) {
+        String value = options != null ? options.get(RESULT_CONTRACT_OPTION) : null;
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        ResultContract.parse(value);
+        return value.trim();
+    }
+
+    /**
+     * Reads the tier tables option; whether the rules declare the globals is checked once they are loaded
+     */
+    private String parseTierTables(Map<String, String> options) {
+        String value = options != null ? options.get(TIER_TABLES_OPTION) : null;
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /**
+     * Reads the correlated option; correlated chunks run in stateful sessions and read each
+     * request's result from its own facts, so the rule set must allow both. Whether the
+     * rules join their facts on correlationId is checked once they are loaded.
+     */
+    private boolean parseCorrelated(Map<String, String> options, String kieBaseProfile, ResultContract resultContract) {
+        String value = options != null ? options.get(CORRELATED_OPTION) : null;
+        if (value == null || value.isBlank() || value.trim().equalsIgnoreCase("false")) {
+            return false;
+        }
+        if (!value.trim().equalsIgnoreCase("true")) {
+            throw new IllegalArgumentException("Correlated option must be true or false: " + value);
+        }
+        if (kieBaseProfile != null && droolsConfig.resolveKieBaseProfile(kieBaseProfile).isSequential()) {
+            throw new IllegalArgumentException("KieBase profile " + kieBaseProfile
+                    + " uses sequential mode, which cannot run correlated batches");
+        }
+        if (resultContract.getKind() != ResultContract.Kind.FACT) {
+            throw new IllegalArgumentException("Correlated rule sets must return a fact, not "
+                    + resultContract.getKind().name().toLowerCase() + ":" + resultContract.getName());
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether rules loaded without deployment options can run correlated batches
+     */
+    private boolean isCorrelatable(String ruleSetId, KieBase candidate, ResultContract resultContract) {
+        if (resultContract.getKind() != ResultContract.Kind.FACT) {
+            return false;
+        }
+        try {
+            CorrelationCheck.verify(candidate);
+            return true;
+        } catch (IllegalArgumentException e) {
+            log.info("Rule set {} runs correlated batches one request at a time: {}", ruleSetId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Reads the fact schema option; every class it names must be an allowed fact class
+     */
+    private String parseFactSchema(Map<String, String> options) {
+        String value = options != null ? options.get(FACT_SCHEMA_OPTION) : null;
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        factSchemaRegistry.parse(value);
+        return value.trim();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeRulesAsync(String ruleSetId, Map<String, Object> facts, long deadlineMs) {
+        // The worker thread calls this instance directly, past @Cacheable, so the cache is consulted here
+        Cache cache = ruleSetId != null && facts != null ? executionCacheResolver.getExecutionCache() : null;
+        Object key = cache != null ? executionCacheKeyGenerator.key(ruleSetId, facts) : null;
+        Cache.ValueWrapper cached = cache != null ? cache.get(key) : null;
+        if (cached != null) {
+            return CompletableFuture.completedFuture((T) cached.get());
+        }
+
+        long submittedAt = System.nanoTime();
+        return asyncExecutor.submit(ruleSetId, deadlineMs, () -> {
+            // Rules stop firing when the caller gives up, or at the execution timeout if that comes first
+            long remainingMs = Math.max(1, deadlineMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submittedAt));
+            long timeoutMs = ruleExecutionTimeout > 0 ? Math.min(remainingMs, ruleExecutionTimeout) : remainingMs;
+            long runStart = System.nanoTime();
+            T result = execute(ruleSetId, facts, timeoutMs);
+            // A run that reached its deadline was halted and may hold partial results
+            boolean completed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - runStart) < timeoutMs;
+            if (cache != null && result != null && completed) {
+                cache.put(key, result);
+            }
+            return result;
+        });
+    }
+
     @Override
     public <T> List<T> executeBatchRules(String ruleSetId, List<Map<String, Object>> facts) {
         List<T> results = new ArrayList<>();
@@ -531,18 +960,365 @@ public class DroolsIntegrationServiceImpl implements DroolsIntegrationService {
             return results;
         }
 
-        // Execute each set of facts
-        for (Map<String, Object> factSet : facts) {
-            if (factSet != null) {
-                T result = executeRules(ruleSetId, factSet);
-                results.add(result);
-            } else {
+        // Fan the fact sets out across cores; results keep the order of the input
+        return batchExecutor.execute(facts, factSet -> {
+            if (factSet == null) {
+                log.warn("Skipping null fact set in batch execution for rule set {}", ruleSetId);
+                return null;
+            }
+            return executeRules(ruleSetId, factSet);
+        });
+    }
+
+    @Override
+    public long executeRulesStream(String ruleSetId, Iterator<Map<String, Object>> facts,
+                                   ParallelBatchExecutor.StreamSink<Object> sink) throws IOException {
+        return batchExecutor.stream(facts, factSet -> {
+            if (factSet == null) {
+                log.warn("Skipping null fact set in streamed execution for rule set {}", ruleSetId);
+                return null;
+            }
+            return executeRules(ruleSetId, factSet);
+        }, sink);
+    }
+
+    @Override
+    public <T> List<T> executeCorrelatedBatch(String ruleSetId, List<Map<String, Object>> facts) {
+        // Validate inputs
+        if (ruleSetId == null || ruleSetId.isEmpty()) {
+            log.error("Invalid rule set ID: null or empty");
+            return new ArrayList<>();
+        }
+
+        if (facts == null || facts.isEmpty()) {
+            log.error("Facts list is null or empty for rule set ID {}", ruleSetId);
+            return new ArrayList<>();
+        }
+
+        KieBaseVersion kieBaseVersion = acquireRuleSet(ruleSetId);
+        if (kieBaseVersion == null) {
+            log.error("Rule set with ID {} not found", ruleSetId);
+            return new ArrayList<>();
+        }
+
+        RuleSetMetadata metadata = ruleSetMetadataMap.get(ruleSetId);
+        if (metadata == null || !metadata.isCorrelated()) {
+            // Rules not checked for correlation could match facts of different requests together
+            kieBaseVersion.release();
+            log.debug("Rule set {} is not correlated; executing the batch one request at a time", ruleSetId);
+            return executeBatchRules(ruleSetId, facts);
+        }
+
+        try {
+            // Split into chunks that each share one session; chunks run in parallel
+            int chunkSize = droolsProperties.getBatch().getSessionChunkSize();
+            List<List<Map<String, Object>>> chunks = new ArrayList<>();
+            for (int start = 0; start < facts.size(); start += chunkSize) {
+                chunks.add(facts.subList(start, Math.min(facts.size(), start + chunkSize)));
+            }
+
+            List<List<T>> chunkResults = batchExecutor.execute(chunks,
+                    chunk -> runCorrelatedChunk(ruleSetId, metadata, kieBaseVersion, chunk));
+
+            List<T> results = new ArrayList<>(facts.size());
+            for (int i = 0; i < chunks.size(); i++) {
+                List<T> chunkResult = chunkResults.get(i);
+                if (chunkResult != null) {
+                    results.addAll(chunkResult);
+                } else {
+                    results.addAll(Collections.nCopies(chunks.get(i).size(), null));
+                }
+            }
+            return results;
+        } finally {
+            kieBaseVersion.release();
+        }
+    }
+
+    /**
+     * Inserts the facts of many requests into one session, each tagged with its own
+     * correlation ID, fires once and reads every request's result back from its own facts.
+     * Fact sets holding facts that cannot be correlated run on their own instead.
+     * The correlation IDs are cleared once the chunk has fired, so the caller's facts
+     * do not keep the IDs of this batch.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> List<T> runCorrelatedChunk(String ruleSetId, RuleSetMetadata metadata, KieBaseVersion kieBaseVersion,
+                                           List<Map<String, Object>> chunk) {
+        long startTime = System.nanoTime();
+        List<T> results = new ArrayList<>(Collections.nCopies(chunk.size(), null));
+        List<Integer> correlated = new ArrayList<>(chunk.size());
+
+        for (int i = 0; i < chunk.size(); i++) {
+            Map<String, Object> factSet = chunk.get(i);
+            if (factSet == null) {
                 log.warn("Skipping null fact set in batch execution for rule set {}", ruleSetId);
-                results.add(null);
+            } else if (factSet.values().stream().allMatch(fact -> fact == null || fact instanceof Correlated)) {
+                correlated.add(i);
+            } else {
+                results.set(i, run(ruleSetId, metadata, kieBaseVersion, factSet, System.nanoTime(),
+                        ruleExecutionTimeout));
+            }
+        }
+        if (correlated.isEmpty()) {
+            return results;
+        }
+
+        String poolName = kieBaseVersion.getPoolName();
+        KieSession kieSession = sessionPoolManager.borrowSession(poolName, kieBaseVersion.getKieBase());
+        ResultContract resultContract = resultContract(ruleSetId);
+        boolean success = true;
+        boolean reusable = true;
+        String errorMessage = null;
+        try {
+            String batchId = UUID.randomUUID().toString();
+            for (int i : correlated) {
+                String correlationId = batchId + ":" + i;
+                for (Object fact : chunk.get(i).values()) {
+                    if (fact != null) {
+                        ((Correlated) fact).setCorrelationId(correlationId);
+                        kieSession.insert(fact);
+                    }
+                }
             }
+            kieSession.setGlobal("logger", log);
+            tierTables(kieBaseVersion).bind(kieSession);
+
+            // One deadline per request in the chunk, since they all fire together
+            RuleExecutionWatchdog.Execution execution = executionWatchdog.fireAllRules(ruleSetId, kieSession,
+                    (long) ruleExecutionTimeout * correlated.size());
+            if (execution.timedOut()) {
+                // Results of a halted chunk are partial; report none of them
+                success = false;
+                reusable = false;
+                errorMessage = "Timed out after " + (long) ruleExecutionTimeout * correlated.size()
+                        + " ms with " + correlated.size() + " correlated requests";
+                executionRecorder.recordTimeout(ruleSetId);
+                return new ArrayList<>(Collections.nCopies(chunk.size(), null));
+            }
+            log.debug("Fired {} rules for {} correlated requests of rule set {}",
+                    execution.firedRules(), correlated.size(), ruleSetId);
+
+            for (int i : correlated) {
+                results.set(i, (T) resultContract.extract(kieSession, chunk.get(i), null));
+            }
+            return results;
+        } catch (Exception e) {
+            log.error("Error executing correlated batch for rule set {}", ruleSetId, e);
+            success = false;
+            reusable = false;
+            errorMessage = e.toString();
+            return new ArrayList<>(Collections.nCopies(chunk.size(), null));
+        } finally {
+            for (int i : correlated) {
+                for (Object fact : chunk.get(i).values()) {
+                    if (fact != null) {
+                        ((Correlated) fact).setCorrelationId(null);
+                    }
+                }
+            }
+            long durationNanos = System.nanoTime() - startTime;
+            executionRecorder.recordExecution(ruleSetId, durationNanos, success);
+            // One history entry for the whole chunk, as for the execution metrics
+            historyRecorder.record(ruleSetId, durationNanos, success, errorMessage, null, null);
+            if (reusable) {
+                sessionPoolManager.returnSession(poolName, kieSession);
+            } else {
+                sessionPoolManager.discardSession(poolName, kieSession);
+            }
+        }
+    }
+
+    @Override
+    public RuleDeploymentResult startShadow(String ruleSetId, String ruleContent, String version, Double sampleRate) {
+        if (ruleContent == null || ruleContent.isEmpty()) {
+            return RuleDeploymentResult.builder()
+                    .id(ruleSetId)
+                    .successful(false)
+                    .message("Rule content cannot be null or empty")
+                    .build();
         }
 
-        return results;
+        if (version == null || version.isEmpty()) {
+            return RuleDeploymentResult.builder()
+                    .id(ruleSetId)
+                    .successful(false)
+                    .message("Version cannot be null or empty")
+                    .build();
+        }
+
+        if (!droolsProperties.getShadow().isEnabled()) {
+            return RuleDeploymentResult.builder()
+                    .id(ruleSetId)
+                    .successful(false)
+                    .message("Shadow execution is disabled")
+                    .build();
+        }
+
+        if (sampleRate != null && (sampleRate < 0 || sampleRate > 1)) {
+            return RuleDeploymentResult.builder()
+                    .id(ruleSetId)
+                    .successful(false)
+                    .message("Sample rate must be between 0 and 1")
+                    .build();
+        }
+
+        RuleSetMetadata metadata = ruleSetId != null ? findMetadata(ruleSetId) : null;
+        if (metadata == null || metadata.getStatus() != RuleSetMetadata.RuleStatus.ACTIVE) {
+            return RuleDeploymentResult.builder()
+                    .id(ruleSetId)
+                    .successful(false)
+                    .message("Rule set not found")
+                    .build();
+        }
+
+        try {
+            CompiledRules build = compileRules(ruleContent);
+            if (build.hasErrors()) {
+                return RuleDeploymentResult.builder()
+                        .id(ruleSetId)
+                        .successful(false)
+                        .message("Rule compilation failed")
+                        .validationErrors(toValidationErrors(build.errors()))
+                        .build();
+            }
+
+            // Built like the live version, so the comparison only reflects the rule changes
+            LoadedRules loaded = loadRules(build, metadata.getKieBaseProfile());
+            ResultContract resultContract = resultContract(ruleSetId);
+            TierTableGlobals tierTables;
+            try {
+                resultContract.verify(loaded.kieBase());
+                tierTables = TierTableGlobals.parse(objectMapper, metadata.getTierTables()).resolve(loaded.kieBase());
+            } catch (IllegalArgumentException e) {
+                kieBaseRegistry.disposeContainer(loaded.kieContainer());
+                return RuleDeploymentResult.builder()
+                        .id(ruleSetId)
+                        .successful(false)
+                        .message(e.getMessage())
+                        .build();
+            }
+
+            shadowExecutor.start(ruleSetId, metadata.getVersion(), version, sampleRate, loaded.kieBase(),
+                    metadata.getExecutionMode(), resultContract, tierTables,
+                    () -> kieBaseRegistry.disposeContainer(loaded.kieContainer()));
+            return RuleDeploymentResult.builder()
+                    .id(ruleSetId)
+                    .ruleSetId(ruleSetId)
+                    .successful(true)
+                    .message("Shadowing candidate version " + version)
+                    .build();
+        } catch (Exception e) {
+            log.error("Error starting shadow execution for rule set {}", ruleSetId, e);
+            return RuleDeploymentResult.builder()
+                    .id(ruleSetId)
+                    .successful(false)
+                    .message("Error starting shadow execution: " + e.getMessage())
+                    .build();
+        }
+    }
+
+    @Override
+    public ShadowStatistics getShadowStatistics(String ruleSetId) {
+        return shadowExecutor.getStatistics(ruleSetId);
+    }
+
+    @Override
+    public ShadowStatistics stopShadow(String ruleSetId) {
+        return shadowExecutor.stop(ruleSetId);
+    }
+
+    @Override
+    public ResidencyStatistics getResidencyStatistics() {
+        return residencyEvictor.getStatistics();
+    }
+
+    @Override
+    public RuleProfile profileRules(String ruleSetId, Map<String, Object> facts, int repeat) {
+        if (ruleSetId == null || ruleSetId.isEmpty() || facts == null) {
+            return null;
+        }
+        KieBaseVersion kieBaseVersion = acquireRuleSet(ruleSetId);
+        if (kieBaseVersion == null) {
+            log.error("Rule set with ID {} not found", ruleSetId);
+            return null;
+        }
+
+        try {
+            int runs = Math.max(1, Math.min(repeat, droolsProperties.getProfiler().getMaxRepeat()));
+            // Every run starts from the facts as supplied, not as the previous run's rules left them
+            FactsSnapshot snapshot = FactsSnapshot.of(objectMapper, facts);
+            ResultContract resultContract = resultContract(ruleSetId);
+            KieBase kieBase = kieBaseVersion.getKieBase();
+            boolean declaresLogger = kieBase.getKiePackages().stream()
+                    .flatMap(kiePackage -> kiePackage.getGlobalVariables().stream())
+                    .anyMatch(global -> global.getName().equals("logger"));
+            RuleProfiler profiler = new RuleProfiler();
+
+            long totalNanos = 0;
+            long minNanos = Long.MAX_VALUE;
+            long maxNanos = 0;
+            long insertNanos = 0;
+            long fireNanos = 0;
+            int completed = 0;
+            boolean timedOut = false;
+            Object result = null;
+            while (completed < runs && !timedOut) {
+                Map<String, Object> runFacts = snapshot.restore(objectMapper);
+                // A fresh session outside the pools, so pooled sessions never carry the profiler
+                KieSession kieSession = kieBase.newKieSession();
+                try {
+                    profiler.attach(kieSession);
+                    if (declaresLogger) {
+                        kieSession.setGlobal("logger", log);
+                    }
+                    tierTables(kieBaseVersion).bind(kieSession);
+                    List<Object> resultCollector = resultContract.bind(kieSession);
+
+                    long start = System.nanoTime();
+                    for (Object fact : runFacts.values()) {
+                        if (fact != null) {
+                            kieSession.insert(fact);
+                        }
+                    }
+                    long inserted = System.nanoTime();
+                    timedOut = executionWatchdog.fireAllRules(ruleSetId, kieSession, ruleExecutionTimeout).timedOut();
+                    long fired = System.nanoTime();
+                    result = resultContract.extract(kieSession, runFacts, resultCollector);
+                    long nanos = System.nanoTime() - start;
+
+                    insertNanos += inserted - start;
+                    fireNanos += fired - inserted;
+                    totalNanos += nanos;
+                    minNanos = Math.min(minNanos, nanos);
+                    maxNanos = Math.max(maxNanos, nanos);
+                    completed++;
+                } finally {
+                    kieSession.dispose();
+                }
+            }
+
+            return RuleProfile.builder()
+                    .ruleSetId(ruleSetId)
+                    .version(kieBaseVersion.getVersion())
+                    .runs(completed)
+                    .timedOut(timedOut)
+                    .averageTotalTimeMs(totalNanos / 1_000_000.0 / completed)
+                    .minTotalTimeMs(minNanos / 1_000_000.0)
+                    .maxTotalTimeMs(maxNanos / 1_000_000.0)
+                    .averageInsertTimeMs(insertNanos / 1_000_000.0 / completed)
+                    .averageFireTimeMs(fireNanos / 1_000_000.0 / completed)
+                    .inserts(profiler.getInserts())
+                    .updates(profiler.getUpdates())
+                    .deletes(profiler.getDeletes())
+                    .rules(profiler.getRuleEntries())
+                    .result(result)
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Facts cannot be copied for profiling: " + e.getMessage(), e);
+        } finally {
+            kieBaseVersion.release();
+        }
     }
 
     @Override
@@ -551,12 +1327,16 @@ public class DroolsIntegrationServiceImpl implements DroolsIntegrationService {
             log.error("Invalid rule set ID: null or empty");
             return null;
         }
-        return ruleSetMetadataMap.get(ruleSetId);
+        return findMetadata(ruleSetId);
     }
 
     @Override
     public List<RuleSetMetadata> listRuleSets() {
-        return new ArrayList<>(ruleSetMetadataMap.values());
+        // Stored rule sets not used since startup are listed with their stored metadata
+        Map<String, RuleSetMetadata> ruleSets = new LinkedHashMap<>();
+        ruleSetStore.findAll().forEach(stored -> ruleSets.put(stored.getId(), stored));
+        ruleSets.putAll(ruleSetMetadataMap);
+        return new ArrayList<>(ruleSets.values());
     }
 
     @Override
@@ -569,46 +1349,44 @@ public class DroolsIntegrationServiceImpl implements DroolsIntegrationService {
         }
 
         // Check if rule set exists
-        if (!ruleSetMetadataMap.containsKey(ruleSetId)) {
+        RuleSetMetadata metadata = findMetadata(ruleSetId);
+        if (metadata == null) {
             log.error("Rule set with ID {} not found", ruleSetId);
             return;
         }
 
-        // Get rule content from Redis
-        String ruleContent = (String) redisTemplate.opsForValue().get("rule:" + ruleSetId);
+        String ruleContent = findRuleContent(ruleSetId);
 
         if (ruleContent == null) {
-            log.error("Rule content for ID {} not found in cache", ruleSetId);
+            log.error("Rule content for ID {} not found", ruleSetId);
             return;
         }
 
         try {
-            // Create a KieFileSystem with the rule content
-            KieFileSystem kfs = kieServices.newKieFileSystem();
-            String resourcePath = "src/main/resources/rules/rule_" + ruleSetId + ".drl";
-            kfs.write(resourcePath,
-                    ResourceFactory.newByteArrayResource(ruleContent.getBytes()));
-
-            // Build the rules
-            KieBuilder kieBuilder = kieServices.newKieBuilder(kfs);
-            kieBuilder.buildAll();
+            String version = metadata.getVersion();
+            KieBaseVersion live = kieBaseRegistry.getLiveVersion(ruleSetId);
+            // Unchanged content is rebuilt, which also gives the rule set fresh sessions
+            boolean changed = live != null && !ruleContent.equals(live.getRuleContent());
+            if (!changed || !activateIncrementally(ruleSetId, version, ruleContent, metadata.getKieBaseProfile())) {
+                // Rebuild the current version into a fresh KieModule
+                long generation = kieBaseRegistry.nextGeneration();
+                CompiledRules build = compileRules(ruleContent);
+
+                if (build.hasErrors()) {
+                    log.error("Errors detected during rule reload for rule set {}:", ruleSetId);
+                    build.errors().forEach(message -> log.error("  - {}", message.getText()));
+                    throw new RuntimeException("Rule compilation errors detected");
+                }
 
-            Results results = kieBuilder.getResults();
-            if (results.hasMessages(Message.Level.ERROR)) {
-                log.error("Errors detected during rule reload for rule set {}:", ruleSetId);
-                results.getMessages(Message.Level.ERROR).forEach(message -> log.error("  - {}", message.getText()));
-                throw new RuntimeException("Rule compilation errors detected");
+                // Swap the live version; in-flight executions finish on the previous one
+                activateRuleModule(ruleSetId, version, generation, build, metadata.getKieBaseProfile(),
+                        ruleContent);
             }
 
-            // Clear KieBase cache
-            // Note: InternalKnowledgeBase API is not available in newer Drools versions
-            // ((InternalKnowledgeBase) kieBase).clearRules();
-
             // Reset execution metrics for this rule set
-            executionCountMap.put(ruleSetId, new AtomicLong(0));
+            executionRecorder.reset(ruleSetId);
 
             // Update rule metadata
-            RuleSetMetadata metadata = ruleSetMetadataMap.get(ruleSetId);
             metadata.setLastUpdated(LocalDateTime.now());
             ruleSetMetadataMap.put(ruleSetId, metadata);
 
@@ -625,51 +1403,463 @@ public class DroolsIntegrationServiceImpl implements DroolsIntegrationService {
 
     @Override
     public RuleExecutionMetrics getRuleExecutionMetrics(String ruleSetId) {
-        return executionMetricsMap.getOrDefault(ruleSetId, RuleExecutionMetrics.builder()
-                .ruleSetId(ruleSetId)
-                .build());
+        return executionRecorder.getExecutionMetrics(ruleSetId);
     }
 
     @Override
     public RuleCacheMetrics getRuleCacheMetrics(String ruleSetId) {
-        long hits = cacheHitsMap.getOrDefault(ruleSetId, 0L);
-        long misses = cacheMissesMap.getOrDefault(ruleSetId, 0L);
-        long total = hits + misses;
-        double hitRate = total > 0 ? (double) hits / total : 0;
+        RuleCacheMetrics metrics = executionRecorder.getCacheMetrics(ruleSetId);
+        metrics.setCacheSize(countCachedExecutions(ruleSetId));
+        // Execution entries expire after the cache's time to live; no entry limit applies
+        metrics.setMaxCacheSize(-1);
+        metrics.setCompilationCacheSize(compilationCache.size());
+        metrics.setMaxCompilationCacheSize(compilationCache.getMaxEntries());
+        return metrics;
+    }
+
+    /**
+     * Counts the cached executions of a rule set: in memory by their keys, in Redis by
+     * scanning the keys starting with the rule set ID
+     *
+     * @return The count, or -1 if the cache provider cannot enumerate its entries
+     */
+    private int countCachedExecutions(String ruleSetId) {
+        Cache cache = executionCacheResolver.getCacheManager().getCache(ExecutionCacheResolver.EXECUTION_CACHE);
+        if (cache == null) {
+            return 0;
+        }
+        long count = 0;
+        if (cache.getNativeCache() instanceof Map<?, ?> entries) {
+            count = entries.keySet().stream()
+                    .filter(key -> key instanceof ExecutionCacheKey cacheKey && cacheKey.ruleSetId().equals(ruleSetId))
+                    .count();
+        } else if (cache instanceof RedisCache redisCache) {
+            // Stored under the cache prefix and ExecutionCacheKey#toString, which starts with the rule set ID
+            String pattern = escapeGlob(redisCache.getCacheConfiguration().getKeyPrefixFor(cache.getName())
+                    + ruleSetId + ":") + "*";
+            try (Cursor<String> keys = redisTemplate.scan(ScanOptions.scanOptions().match(pattern).count(1000).build())) {
+                while (keys.hasNext()) {
+                    keys.next();
+                    count++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not count the cached executions of rule set {}: {}", ruleSetId, e.getMessage());
+                return -1;
+            }
+        } else {
+            return -1;
+        }
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    private static String escapeGlob(String literal) {
+        return literal.replaceAll("([*?\\[\\]\\\\])", "\\\\$1");
+    }
+
+    @Override
+    public List<RuleFiringStats> getRuleFiringStats() {
+        return ruleInstrumentation.getRuleFiringStats();
+    }
+
+    @Override
+    public void applyDeploymentEvent(RuleDeploymentEvent event) {
+        applyStoredRuleSet(event.ruleSetId(), System.currentTimeMillis() - event.publishedAtMillis());
+    }
+
+    @Override
+    public void reconcileRuleSets() {
+        for (RuleSetMetadata stored : ruleSetStore.findAll()) {
+            // Rule sets not used on this node load the stored version on first use
+            RuleSetMetadata local = ruleSetMetadataMap.get(stored.getId());
+            if (local != null && (local.getStatus() != stored.getStatus()
+                    || !Objects.equals(local.getVersion(), stored.getVersion()))) {
+                log.info("Rule set {} is at version {} on this node but at {} in the store, applying it",
+                        stored.getId(), local.getVersion(), stored.getVersion());
+                long lagMs = stored.getLastUpdated() != null
+                        ? Duration.between(stored.getLastUpdated(), LocalDateTime.now()).toMillis() : 0;
+                applyStoredRuleSet(stored.getId(), lagMs);
+            }
+        }
+    }
+
+    @Override
+    public RuleDeploymentStatus getDeploymentStatus(String ruleSetId, long waitMs) {
+        StoredRuleSet stored = ruleSetStore.find(ruleSetId).orElse(null);
+        if (stored == null) {
+            return null;
+        }
+        RuleSetMetadata metadata = stored.metadata();
+        String contentHash = metadata.getStatus() == RuleSetMetadata.RuleStatus.ACTIVE && stored.ruleContent() != null
+                ? DigestUtils.md5Hex(stored.ruleContent()) : null;
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMs);
+        RuleDeploymentStatus status = deploymentBroadcaster.getStatus(ruleSetId, metadata.getVersion(), contentHash);
+        while (!status.isConverged() && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(DEPLOYMENT_STATUS_POLL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            status = deploymentBroadcaster.getStatus(ruleSetId, metadata.getVersion(), contentHash);
+        }
+        return status;
+    }
+
+    /**
+     * Makes this node serve the stored state of a rule set changed elsewhere. Resident rule sets
+     * are rebuilt right away; the others only get their metadata refreshed and load the stored
+     * version on first use. Serialized with updates, so changes are applied in store order.
+     */
+    private synchronized void applyStoredRuleSet(String ruleSetId, long lagMs) {
+        // Deployed or changed on another node, so it may now be found in the store
+        unknownRuleSets().forget(ruleSetId);
+        StoredRuleSet stored = ruleSetStore.find(ruleSetId).orElse(null);
+        if (stored == null) {
+            log.warn("Rule set {} changed on another node but is not in the rule set store", ruleSetId);
+            return;
+        }
+        RuleSetMetadata metadata = stored.metadata();
+        // The schema and result contract are read from the store again on next use
+        factSchemaRegistry.remove(ruleSetId);
+        resultContracts.remove(ruleSetId);
+        shadowExecutor.stop(ruleSetId);
+
+        if (metadata.getStatus() != RuleSetMetadata.RuleStatus.ACTIVE || stored.ruleContent() == null) {
+            ruleSetMetadataMap.put(ruleSetId, metadata);
+            kieBaseRegistry.remove(ruleSetId);
+            executionRecorder.reset(ruleSetId);
+            deploymentBroadcaster.recordApplied(ruleSetId, metadata.getVersion(), null, lagMs);
+            return;
+        }
+
+        String contentHash = DigestUtils.md5Hex(stored.ruleContent());
+        if (kieBaseRegistry.getLiveVersion(ruleSetId) != null && !activateIncrementally(ruleSetId,
+                metadata.getVersion(), stored.ruleContent(), metadata.getKieBaseProfile())) {
+            long generation = kieBaseRegistry.nextGeneration();
+            CompiledRules build = compileRules(stored.ruleContent());
+            if (build.hasErrors()) {
+                log.error("Stored rule set {} version {} does not compile on this node: {}", ruleSetId,
+                        metadata.getVersion(), build.errors());
+                return;
+            }
+            activateRuleModule(ruleSetId, metadata.getVersion(), generation, build, metadata.getKieBaseProfile(),
+                    stored.ruleContent());
+        }
+        ruleSetMetadataMap.put(ruleSetId, metadata);
+        executionRecorder.reset(ruleSetId);
+        deploymentBroadcaster.recordApplied(ruleSetId, metadata.getVersion(), contentHash, lagMs);
+        log.info("Applied rule set {} version {}, {} ms after it changed", ruleSetId, metadata.getVersion(), lagMs);
+    }
+
+    /**
+     * Compiles rule content into its own content-addressed KieModule, so every
+     * compiled version can be loaded into a separate KieContainer. Results are
+     * memoized by content hash, so validation and deployment share one compilation;
+     * a module compiled before a restart is restored from the compiled module cache.
+     */
+    private CompiledRules compileRules(String ruleContent) {
+        String contentHash = DigestUtils.md5Hex(ruleContent);
+        return compilationCache.get(contentHash, () -> {
+            long startTime = System.currentTimeMillis();
+            Optional<KieModule> cachedModule = compiledModuleCache.load(contentHash);
+            if (cachedModule.isPresent()) {
+                KieModule kieModule = cachedModule.get();
+                return new CompiledRules(contentHash, kieModule.getReleaseId(), kieModule, List.of(), List.of(),
+                        System.currentTimeMillis() - startTime, estimateWeight(ruleContent, moduleBytes(kieModule)));
+            }
+
+            ReleaseId releaseId = releaseIdFor(contentHash);
+            KieFileSystem kfs = kieServices.newKieFileSystem();
+            kfs.generateAndWritePomXML(releaseId);
+            // Written explicitly so the module jar can be loaded back from the compiled module cache
+            kfs.writeKModuleXML(kieServices.newKieModuleModel().toXML());
+            kfs.write("src/main/resources/rules/rule_" + contentHash + ".drl",
+                    ResourceFactory.newByteArrayResource(ruleContent.getBytes()));
+
+            KieBuilder kieBuilder = kieServices.newKieBuilder(kfs);
+            if (droolsProperties.getExecutableModel().isEnabled()) {
+                kieBuilder.buildAll(ExecutableModelProject.class);
+            } else {
+                kieBuilder.buildAll();
+            }
+            long compileMillis = System.currentTimeMillis() - startTime;
+
+            Results results = kieBuilder.getResults();
+            List<Message> errors = results.getMessages(Message.Level.ERROR);
+            List<Message> warnings = results.getMessages(Message.Level.WARNING);
+            if (!errors.isEmpty()) {
+                return new CompiledRules(contentHash, releaseId, null, errors, warnings, compileMillis,
+                        estimateWeight(ruleContent, new byte[0]));
+            }
+
+            KieModule kieModule = kieBuilder.getKieModule();
+            byte[] moduleBytes = moduleBytes(kieModule);
+            compiledModuleCache.store(contentHash, kieModule, compileMillis);
+            return new CompiledRules(contentHash, releaseId, kieModule, errors, warnings, compileMillis,
+                    estimateWeight(ruleContent, moduleBytes));
+        });
+    }
+
+    private static byte[] moduleBytes(KieModule kieModule) {
+        return kieModule instanceof InternalKieModule internalKieModule ? internalKieModule.getBytes() : new byte[0];
+    }
+
+    /**
+     * Approximates the memory held by a compilation result: the DRL source plus the
+     * module jar, whose size tracks the compiled classes and resources kept in memory
+     */
+    private static long estimateWeight(String ruleContent, byte[] moduleBytes) {
+        return 2L * ruleContent.length() + moduleBytes.length;
+    }
+
+    private List<RuleDeploymentResult.ValidationError> toValidationErrors(List<Message> messages) {
+        return messages.stream()
+                .map(message -> RuleDeploymentResult.ValidationError.builder()
+                        .code("COMPILATION_ERROR")
+                        .message(message.getText())
+                        .severity(RuleDeploymentResult.ValidationError.Severity.ERROR)
+                        .build())
+                .collect(Collectors.toList());
+    }
 
-        return RuleCacheMetrics.builder()
+    private ReleaseId releaseIdFor(String contentHash) {
+        return kieServices.newReleaseId(RULE_SET_GROUP_ID, "rules-" + contentHash, MODULE_VERSION);
+    }
+
+    /**
+     * Acquires the live version of a rule set, loading it from the rule set store if it is
+     * not resident, e.g. after a restart or an eviction
+     *
+     * @return The acquired version, or null if the rule set is not deployed or cannot be loaded
+     */
+    private KieBaseVersion acquireRuleSet(String ruleSetId) {
+        KieBaseVersion kieBaseVersion = kieBaseRegistry.acquire(ruleSetId);
+        if (kieBaseVersion != null || !loadStoredRuleSet(ruleSetId)) {
+            return kieBaseVersion;
+        }
+        return kieBaseRegistry.acquire(ruleSetId);
+    }
+
+    /**
+     * Compiles a stored rule set and makes it live; concurrent callers for the same rule
+     * set wait for one load instead of compiling it again
+     *
+     * @return true if the rule set is live afterwards
+     */
+    private boolean loadStoredRuleSet(String ruleSetId) {
+        if (unknownRuleSets().isMissing(ruleSetId)) {
+            return false;
+        }
+        try {
+            return ruleSetLoads.load(ruleSetId, () -> {
+                // A load that completed between the registry miss and this one already made it live
+                if (kieBaseRegistry.getLiveVersion(ruleSetId) != null) {
+                    return true;
+                }
+                StoredRuleSet stored = ruleSetStore.find(ruleSetId).orElse(null);
+                if (stored == null || stored.ruleContent() == null
+                        || stored.metadata().getStatus() != RuleSetMetadata.RuleStatus.ACTIVE) {
+                    unknownRuleSets().recordMiss(ruleSetId);
+                    return false;
+                }
+
+                long startTime = System.currentTimeMillis();
+                long startNanos = System.nanoTime();
+                RuleSetMetadata metadata = stored.metadata();
+                long generation = kieBaseRegistry.nextGeneration();
+                CompiledRules build = compileRules(stored.ruleContent());
+                if (build.hasErrors()) {
+                    log.error("Stored rule set {} no longer compiles: {}", ruleSetId, build.errors());
+                    return false;
+                }
+
+                // Deployments, updates and undeployments completed meanwhile take precedence
+                synchronized (this) {
+                    RuleSetMetadata current = ruleSetMetadataMap.get(ruleSetId);
+                    if (current != null && current.getStatus() != RuleSetMetadata.RuleStatus.ACTIVE) {
+                        return false;
+                    }
+                    if (kieBaseRegistry.getLiveVersion(ruleSetId) == null) {
+                        activateRuleModule(ruleSetId, metadata.getVersion(), generation, build,
+                                metadata.getKieBaseProfile(), stored.ruleContent());
+                        residencyEvictor.recordReload(System.nanoTime() - startNanos);
+                    }
+                    ruleSetMetadataMap.putIfAbsent(ruleSetId, metadata);
+                }
+                deploymentBroadcaster.recordApplied(ruleSetId, metadata.getVersion(), build.contentHash(), 0);
+                log.info("Loaded stored rule set {} version {} in {} ms", ruleSetId, metadata.getVersion(),
+                        System.currentTimeMillis() - startTime);
+                return true;
+            });
+        } catch (RuntimeException e) {
+            log.error("Error loading stored rule set {}", ruleSetId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Gets the metadata of a rule set, from memory or else from the rule set store
+     */
+    private RuleSetMetadata findMetadata(String ruleSetId) {
+        RuleSetMetadata metadata = ruleSetMetadataMap.get(ruleSetId);
+        if (metadata != null) {
+            return metadata;
+        }
+        if (unknownRuleSets().isMissing(ruleSetId)) {
+            return null;
+        }
+        StoredRuleSet stored = ruleSetStore.find(ruleSetId).orElse(null);
+        if (stored == null) {
+            unknownRuleSets().recordMiss(ruleSetId);
+            return null;
+        }
+        return ruleSetMetadataMap.computeIfAbsent(ruleSetId, id -> stored.metadata());
+    }
+
+    /**
+     * Gets the rule set IDs recently not found in the rule set store, so executions of an
+     * unknown ID do not each query the database
+     */
+    private StoreMissCache unknownRuleSets() {
+        StoreMissCache misses = unknownRuleSets;
+        if (misses == null) {
+            synchronized (ruleSetMetadataMap) {
+                misses = unknownRuleSets;
+                if (misses == null) {
+                    misses = new StoreMissCache(droolsProperties.getResidency().getUnknownRuleSetTtlMs());
+                    unknownRuleSets = misses;
+                }
+            }
+        }
+        return misses;
+    }
+
+    /**
+     * Gets the DRL of a rule set from Redis or, once its entry has expired, from the rule set store
+     */
+    private String findRuleContent(String ruleSetId) {
+        String ruleContent = (String) redisTemplate.opsForValue().get("rule:" + ruleSetId);
+        if (ruleContent != null) {
+            return ruleContent;
+        }
+        ruleContent = ruleSetStore.find(ruleSetId).map(StoredRuleSet::ruleContent).orElse(null);
+        if (ruleContent != null) {
+            cacheRuleContent(ruleSetId, ruleContent);
+        }
+        return ruleContent;
+    }
+
+    private void cacheRuleContent(String ruleSetId, String ruleContent) {
+        redisTemplate.opsForValue().set("rule:" + ruleSetId, ruleContent);
+        redisTemplate.expire("rule:" + ruleSetId, ruleExpiration, java.util.concurrent.TimeUnit.SECONDS);
+    }
+
+    /**
+     * Loads a successfully compiled KieModule with the rule set's KieBase profile and makes it the
+     * live version of the rule set
+     */
+    private KieBaseVersion activateRuleModule(String ruleSetId, String version, long generation,
+                                              CompiledRules compiled, String kieBaseProfile, String ruleContent) {
+        return activateLoadedRules(ruleSetId, version, generation, compiled, loadRules(compiled, kieBaseProfile),
+                ruleContent);
+    }
+
+    /**
+     * Loads a successfully compiled KieModule into a new container and KieBase with the rule set's profile
+     */
+    private LoadedRules loadRules(CompiledRules compiled, String kieBaseProfile) {
+        KieContainer kieContainer = kieBaseRegistry.newKieContainer(compiled.kieModule());
+        return new LoadedRules(kieContainer, kieContainer.newKieBase(droolsConfig.newKieBaseConfiguration(kieServices,
+                kieBaseProfile)));
+    }
+
+    private KieBaseVersion activateLoadedRules(String ruleSetId, String version, long generation,
+                                               CompiledRules compiled, LoadedRules loaded, String ruleContent) {
+        return kieBaseRegistry.activate(KieBaseActivation.builder()
                 .ruleSetId(ruleSetId)
-                .cacheHits(hits)
-                .cacheMisses(misses)
-                .hitRate(hitRate)
-                .cacheSize(1) // Simplified - in reality would track actual cache size
-                .maxCacheSize(100) // Simplified - in reality would get from config
-                .build();
+                .version(version)
+                .generation(generation)
+                .kieBase(loaded.kieBase())
+                .kieContainer(loaded.kieContainer())
+                .weightBytes(KieBaseFootprint.estimate(loaded.kieBase(), compiled.weightBytes()))
+                .ruleContent(ruleContent)
+                .build());
     }
 
-    private void updateExecutionMetrics(String ruleSetId, long executionTime, boolean success) {
-        RuleExecutionMetrics metrics = executionMetricsMap.getOrDefault(ruleSetId,
-                RuleExecutionMetrics.builder().ruleSetId(ruleSetId).build());
+    /**
+     * A compiled rule module loaded into its own container, not yet live
+     */
+    private record LoadedRules(KieContainer kieContainer, KieBase kieBase) {
+    }
 
-        long totalExecutions = metrics.getTotalExecutions() + 1;
-        double avgTime = ((metrics.getAverageExecutionTimeMs() * (totalExecutions - 1)) + executionTime)
-                / totalExecutions;
-        double errorRate = success ? metrics.getErrorRate() * (totalExecutions - 1) / totalExecutions
-                : (metrics.getErrorRate() * (totalExecutions - 1) + 1) / totalExecutions;
+    /**
+     * Rules of a resident rule set updated from the live version's module, not yet live
+     *
+     * @param moduleContent The DRL the module was compiled from
+     */
+    private record IncrementalRules(LoadedRules loaded, String moduleContent, long weightBytes) {
+    }
 
-        metrics.setTotalExecutions(totalExecutions);
-        metrics.setAverageExecutionTimeMs(avgTime);
-        metrics.setLastExecutionTimeMs(executionTime);
-        metrics.setPeakExecutionTimeMs(Math.max(metrics.getPeakExecutionTimeMs(), executionTime));
-        metrics.setErrorRate(errorRate);
+    /**
+     * Builds new content of a resident rule set into a fresh KieBase of the live version's module
+     * when only some rules changed, compiling just those rules. The live KieBase and its sessions
+     * are not touched.
+     *
+     * @return The updated rules in their own container; null if the content must be compiled in full
+     */
+    private IncrementalRules loadIncrementally(String ruleSetId, String ruleContent, String kieBaseProfile) {
+        KieBaseVersion live = kieBaseRegistry.getLiveVersion(ruleSetId);
+        if (live == null || live.getKieContainer() == null || live.getModuleContent() == null) {
+            return null;
+        }
+        // Sequential mode and compiled alpha networks lay out the network once for the whole rule set
+        DroolsProperties.KieBaseProfile profile = droolsConfig.resolveKieBaseProfile(kieBaseProfile);
+        if (profile.isSequential()
+                || profile.getAlphaNetworkCompiler() != DroolsProperties.KieBaseProfile.AlphaNetworkCompiler.DISABLED) {
+            return null;
+        }
+        // A container of its own, so the new version outlives the live version's container
+        KieModule kieModule = ((InternalKieContainer) live.getKieContainer()).getMainKieModule();
+        KieContainer kieContainer = kieBaseRegistry.newKieContainer(kieModule);
+        KieBase kieBase = kieContainer.newKieBase(droolsConfig.newKieBaseConfiguration(kieServices, kieBaseProfile));
+        if (!incrementalUpdater.update(kieBase, live.getModuleContent(), ruleContent)) {
+            kieBaseRegistry.disposeContainer(kieContainer);
+            return null;
+        }
+        // The module jar is shared with the live version; only the rules and the source held differ
+        long weightBytes = live.getWeightBytes() - KieBaseFootprint.estimate(live.getKieBase(), 0)
+                + KieBaseFootprint.estimate(kieBase, 0) + 2L * (ruleContent.length() - live.getRuleContent().length());
+        return new IncrementalRules(new LoadedRules(kieContainer, kieBase), live.getModuleContent(), weightBytes);
+    }
 
-        // Update cache metrics
-        long cacheHits = cacheHitsMap.getOrDefault(ruleSetId, 0L);
-        long cacheMisses = cacheMissesMap.getOrDefault(ruleSetId, 0L);
-        long total = cacheHits + cacheMisses;
-        metrics.setCacheHitRate(total > 0 ? (double) cacheHits / total : 0);
+    private KieBaseVersion activateIncrementalRules(String ruleSetId, String version, long generation,
+                                                    IncrementalRules incremental, String ruleContent) {
+        return kieBaseRegistry.activate(KieBaseActivation.builder()
+                .ruleSetId(ruleSetId)
+                .version(version)
+                .generation(generation)
+                .kieBase(incremental.loaded().kieBase())
+                .kieContainer(incremental.loaded().kieContainer())
+                .weightBytes(incremental.weightBytes())
+                .ruleContent(ruleContent)
+                .moduleContent(incremental.moduleContent())
+                .build());
+    }
 
-        executionMetricsMap.put(ruleSetId, metrics);
+    /**
+     * Makes new content of a resident rule set live as a new version built from the changed rules only
+     *
+     * @return False if the content must be compiled in full
+     */
+    private boolean activateIncrementally(String ruleSetId, String version, String ruleContent,
+                                          String kieBaseProfile) {
+        IncrementalRules incremental = loadIncrementally(ruleSetId, ruleContent, kieBaseProfile);
+        if (incremental == null) {
+            return false;
+        }
+        activateIncrementalRules(ruleSetId, version, kieBaseRegistry.nextGeneration(), incremental, ruleContent);
+        return true;
     }
 
     @Override
@@ -683,21 +1873,26 @@ public class DroolsIntegrationServiceImpl implements DroolsIntegrationService {
         // Return a new KieSession from the KieBase
         // In a production system, this might be managed from a pool
         log.debug("Getting KieSession");
-        return kieBase.newKieSession();
+        KieSession kieSession = kieBase.newKieSession();
+        classpathTierTables.bind(kieSession);
+        return kieSession;
     }
 
     @Override
     public void reloadRules() {
         log.info("Reloading all rules");
         try {
-            // Clear all rule set metadata
+            // Release all compiled rule sets and clear their metadata
+            kieBaseRegistry.removeAll();
             ruleSetMetadataMap.clear();
-            executionCountMap.clear();
-            executionMetricsMap.clear();
-            cacheHitsMap.clear();
-            cacheMissesMap.clear();
-
-            // In a production system, this would reload rules from storage
+            unknownRuleSets().clear();
+            factSchemaRegistry.clear();
+            resultContracts.clear();
+            shadowExecutor.stopAll();
+            executionRecorder.resetAll();
+
+            // Stored rule sets are loaded again on their next execution
+            registerClasspathRules();
             log.info("All rules reloaded successfully");
         } catch (Exception e) {
             log.error("Error reloading all rules", e);
@@ -0,0 +1,238 @@
+package com.example.pricerulesaidrools.drools.session;
+
+import com.example.pricerulesaidrools.drools.exception.DroolsApiException;
+import com.example.pricerulesaidrools.drools.exception.DroolsErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.kie.api.KieBase;
+import org.drools.kiesession.session.StatefulKnowledgeSessionImpl;
+import org.kie.api.runtime.KieSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Bounded pool of KieSessions created from a single KieBase.
+ * Returned sessions are fully reset, i.e. working memory, agenda, focus stack,
+ * globals, listeners and timers, and initialized again before they are handed
+ * out, so callers always see a session as fresh as a new one.
+ */
+@Slf4j
+public class KieSessionPool {
+
+    @Getter
+    private final String name;
+    @Getter
+    private final KieBase kieBase;
+    private final Consumer<KieSession> sessionInitializer;
+    @Getter
+    private final int maxSize;
+    private final long maxWaitMs;
+    private final MeterRegistry meterRegistry;
+
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<KieSession> idleSessions = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger createdSessions = new AtomicInteger(0);
+    private final AtomicInteger borrowedSessions = new AtomicInteger(0);
+    private final List<Meter> meters = new ArrayList<>();
+    private final Timer waitTimer;
+    private final Timer resetTimer;
+    private final Counter exhaustedCounter;
+    private volatile boolean closed;
+
+    /**
+     * @param sessionInitializer Sets the globals and listeners of a new session; applied again after every reset
+     */
+    public KieSessionPool(String name, KieBase kieBase, Consumer<KieSession> sessionInitializer,
+                          int maxSize, long maxWaitMs, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.kieBase = kieBase;
+        this.sessionInitializer = sessionInitializer;
+        this.maxSize = maxSize;
+        this.maxWaitMs = maxWaitMs;
+        this.meterRegistry = meterRegistry;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.waitTimer = register(Timer.builder("drools.session.pool.wait")
+                .description("Time spent waiting to borrow a KieSession")
+                .tag("pool", name)
+                .register(meterRegistry));
+        this.resetTimer = register(Timer.builder("drools.session.pool.reset")
+                .description("Time spent resetting a KieSession before returning it to the pool")
+                .tag("pool", name)
+                .register(meterRegistry));
+        this.exhaustedCounter = register(Counter.builder("drools.session.pool.exhausted")
+                .description("Borrow attempts that timed out because the pool was exhausted")
+                .tag("pool", name)
+                .register(meterRegistry));
+        register(Gauge.builder("drools.session.pool.utilization", this, KieSessionPool::getUtilization)
+                .description("Fraction of the pool's sessions currently borrowed")
+                .tag("pool", name)
+                .register(meterRegistry));
+        register(Gauge.builder("drools.session.pool.active", borrowedSessions, AtomicInteger::get)
+                .description("Number of KieSessions currently borrowed")
+                .tag("pool", name)
+                .register(meterRegistry));
+        register(Gauge.builder("drools.session.pool.idle", idleSessions, ConcurrentLinkedDeque::size)
+                .description("Number of reset KieSessions waiting to be borrowed")
+                .tag("pool", name)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Borrows a session, creating one if the pool has spare capacity.
+     * Blocks for at most the configured max wait when all sessions are in use.
+     *
+     * @return A clean KieSession that must be handed back via {@link #release} or {@link #invalidate}
+     * @throws DroolsApiException if no session becomes available in time
+     */
+    public KieSession borrow() {
+        if (closed) {
+            throw new DroolsApiException(DroolsErrorCode.RULE_EXECUTION_ERROR,
+                    "Session pool " + name + " is closed", name);
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DroolsApiException(DroolsErrorCode.RULE_EXECUTION_ERROR,
+                    "Interrupted while waiting for a KieSession", name, e);
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        if (!acquired) {
+            exhaustedCounter.increment();
+            throw new DroolsApiException(DroolsErrorCode.RULE_EXECUTION_ERROR,
+                    "No KieSession available in pool " + name + " within " + maxWaitMs + " ms", name);
+        }
+
+        try {
+            KieSession session = idleSessions.pollFirst();
+            if (session == null) {
+                session = kieBase.newKieSession();
+                sessionInitializer.accept(session);
+                createdSessions.incrementAndGet();
+            }
+            borrowedSessions.incrementAndGet();
+            return session;
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a session to the pool after resetting it.
+     * Sessions that cannot be reset are disposed instead of being reused.
+     *
+     * @param session The session previously obtained from {@link #borrow()}
+     */
+    public void release(KieSession session) {
+        borrowedSessions.decrementAndGet();
+        try {
+            if (!closed && reset(session)) {
+                idleSessions.offerFirst(session);
+                // close() may have drained the idle deque while we were resetting
+                if (closed && idleSessions.remove(session)) {
+                    dispose(session);
+                }
+            } else {
+                dispose(session);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Discards a borrowed session that must not be reused, e.g. after a timeout
+     * left it in an unknown state.
+     *
+     * @param session The session previously obtained from {@link #borrow()}
+     */
+    public void invalidate(KieSession session) {
+        borrowedSessions.decrementAndGet();
+        try {
+            dispose(session);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes the pool, disposing idle sessions and unregistering its meters.
+     * Sessions still borrowed are disposed when they are released.
+     */
+    public void close() {
+        closed = true;
+        KieSession session;
+        while ((session = idleSessions.pollFirst()) != null) {
+            dispose(session);
+        }
+        meters.forEach(meterRegistry::remove);
+        log.debug("Closed KieSession pool {}", name);
+    }
+
+    public int getActiveCount() {
+        return borrowedSessions.get();
+    }
+
+    public int getIdleCount() {
+        return idleSessions.size();
+    }
+
+    public int getCreatedCount() {
+        return createdSessions.get();
+    }
+
+    public double getUtilization() {
+        return (double) borrowedSessions.get() / maxSize;
+    }
+
+    private boolean reset(KieSession session) {
+        long start = System.nanoTime();
+        try {
+            // Deleting facts and clearing the agenda would keep the focus stack, globals and listeners of the last caller
+            if (!(session instanceof StatefulKnowledgeSessionImpl statefulSession)) {
+                log.debug("KieSession in pool {} cannot be reset, discarding it", name);
+                return false;
+            }
+            statefulSession.reset();
+            sessionInitializer.accept(session);
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to reset KieSession in pool {}, discarding it", name, e);
+            return false;
+        } finally {
+            resetTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void dispose(KieSession session) {
+        createdSessions.decrementAndGet();
+        try {
+            session.dispose();
+        } catch (Exception e) {
+            log.warn("Error disposing KieSession from pool {}", name, e);
+        }
+    }
+
+    private <M extends Meter> M register(M meter) {
+        meters.add(meter);
+        return meter;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.pricerulesaidrools.drools.session;
+
+import com.example.pricerulesaidrools.drools.config.DroolsConfig;
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out KieSessions from one bounded {@link KieSessionPool} per KieBase.
+ * When pooling is disabled via drools.session-pool.enabled, every borrow
+ * creates a fresh session and every return disposes it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class KieSessionPoolManager {
+
+    private final DroolsConfig droolsConfig;
+    private final DroolsProperties droolsProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, KieSessionPool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * Borrows a session for the given KieBase
+     *
+     * @param poolName Name identifying the KieBase, used as the metrics tag
+     * @param kieBase The KieBase the session must belong to
+     * @return A clean KieSession
+     */
+    public KieSession borrowSession(String poolName, KieBase kieBase) {
+        if (!droolsProperties.getSessionPool().isEnabled()) {
+            return droolsConfig.newKieSession(kieBase);
+        }
+        return getPool(poolName, kieBase).borrow();
+    }
+
+    /**
+     * Returns a session so it can be reused
+     *
+     * @param poolName Name the session was borrowed under
+     * @param session The session to return
+     */
+    public void returnSession(String poolName, KieSession session) {
+        KieSessionPool pool = pools.get(poolName);
+        if (!ownsSession(pool, session)) {
+            disposeQuietly(session);
+            return;
+        }
+        pool.release(session);
+    }
+
+    /**
+     * Discards a session that must not be reused
+     *
+     * @param poolName Name the session was borrowed under
+     * @param session The session to discard
+     */
+    public void discardSession(String poolName, KieSession session) {
+        KieSessionPool pool = pools.get(poolName);
+        if (!ownsSession(pool, session)) {
+            disposeQuietly(session);
+            return;
+        }
+        pool.invalidate(session);
+    }
+
+    /**
+     * Closes and forgets the pool with the given name
+     *
+     * @param poolName The pool to close
+     */
+    public void closePool(String poolName) {
+        KieSessionPool pool = pools.remove(poolName);
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    /**
+     * Gets the pool with the given name, if one has been created
+     *
+     * @param poolName The pool name
+     * @return The pool, or null
+     */
+    public KieSessionPool findPool(String poolName) {
+        return pools.get(poolName);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pools.keySet().forEach(this::closePool);
+    }
+
+    private KieSessionPool getPool(String poolName, KieBase kieBase) {
+        // Every execution borrows; only lock the map entry when the pool is missing or stale
+        KieSessionPool pool = pools.get(poolName);
+        if (pool != null && pool.getKieBase() == kieBase) {
+            return pool;
+        }
+        return pools.compute(poolName, (name, existing) -> {
+            if (existing != null && existing.getKieBase() == kieBase) {
+                return existing;
+            }
+            if (existing != null) {
+                // The name now refers to a different KieBase; sessions of the old one must not be reused
+                existing.close();
+            }
+            log.info("Creating KieSession pool {} with max size {}", name,
+                    droolsProperties.getSessionPool().getMaxSize());
+            return new KieSessionPool(name, kieBase, droolsConfig::initKieSession,
+                    droolsProperties.getSessionPool().getMaxSize(),
+                    droolsProperties.getSessionPool().getMaxWaitMs(),
+                    meterRegistry);
+        });
+    }
+
+    private boolean ownsSession(KieSessionPool pool, KieSession session) {
+        // A pool that was replaced after the borrow no longer accounts for this session
+        return pool != null
+                && droolsProperties.getSessionPool().isEnabled()
+                && pool.getKieBase() == session.getKieBase();
+    }
+
+    private void disposeQuietly(KieSession session) {
+        try {
+            session.dispose();
+        } catch (Exception e) {
+            log.warn("Error disposing KieSession", e);
+        }
+    }
+}
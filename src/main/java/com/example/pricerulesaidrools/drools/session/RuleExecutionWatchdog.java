@@ -0,0 +1,210 @@
+package com.example.pricerulesaidrools.drools.session;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.kie.api.command.ExecutableCommand;
+import org.kie.api.runtime.Context;
+import org.kie.api.runtime.ExecutionResults;
+import org.kie.api.runtime.KieSession;
+import org.kie.internal.command.RegistryContext;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Enforces rule execution deadlines for all rule sets from one shared scheduler.
+ * <p>
+ * Rules fire on the calling thread. The watchdog only holds a deadline per
+ * running execution and calls {@link KieSession#halt()} on sessions that are
+ * still firing when it expires, so a timeout stops the runaway session instead
+ * of abandoning it on a background thread.
+ * <p>
+ * Timeouts are counted per rule set; the counter of a rule set is removed with
+ * {@link #release(String)} once none of its versions is live. The watchdog lag
+ * measures the shared scheduler and is not tagged per rule set.
+ */
+@Component
+@Slf4j
+public class RuleExecutionWatchdog {
+
+    private static final String TIMEOUTS_METER = "drools.execution.timeouts";
+
+    private final MeterRegistry meterRegistry;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Timer lagTimer;
+
+    public RuleExecutionWatchdog(DroolsProperties droolsProperties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.scheduler = new ScheduledThreadPoolExecutor(droolsProperties.getWatchdog().getThreads(),
+                Thread.ofPlatform().name("drools-watchdog-", 0).daemon().factory());
+        // Deadlines are cancelled on almost every execution; drop them from the queue right away
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        this.lagTimer = Timer.builder("drools.watchdog.lag")
+                .description("Delay between an execution deadline and the watchdog halting the session")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Fires all rules in a session on the calling thread, halting it at the deadline
+     *
+     * @param ruleSetId The rule set ID, used to tag metrics
+     * @param kieSession The session to fire
+     * @param timeoutMs The deadline in milliseconds; 0 or less disables it
+     * @return The outcome of the execution
+     */
+    public Execution fireAllRules(String ruleSetId, KieSession kieSession, long timeoutMs) {
+        if (timeoutMs <= 0) {
+            return new Execution(kieSession.fireAllRules(), false);
+        }
+
+        Deadline deadline = new Deadline(ruleSetId, kieSession, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+        deadline.future = scheduler.schedule(deadline, timeoutMs, TimeUnit.MILLISECONDS);
+        int firedRules;
+        try {
+            firedRules = kieSession.fireAllRules();
+        } finally {
+            deadline.complete();
+        }
+
+        boolean timedOut = deadline.isHalted();
+        if (timedOut) {
+            log.warn("Rule execution timed out after {} ms for rule set {}, session halted", timeoutMs, ruleSetId);
+            timeoutCounter(ruleSetId).increment();
+        }
+        return new Execution(firedRules, timedOut);
+    }
+
+    /**
+     * Creates a batch command that fires all rules in the session running the batch, halting it
+     * at the deadline. Stateless sessions only expose their KieSession to the commands they execute.
+     *
+     * @param ruleSetId The rule set ID, used to tag metrics
+     * @param timeoutMs The deadline in milliseconds; 0 or less disables it
+     * @param outIdentifier Key under which the {@link Execution} is added to the execution results
+     * @return The command, to be added to the batch instead of a plain fire-all-rules command
+     */
+    public ExecutableCommand<Execution> newFireAllRulesCommand(String ruleSetId, long timeoutMs,
+                                                               String outIdentifier) {
+        return new WatchedFireAllRules(ruleSetId, timeoutMs, outIdentifier);
+    }
+
+    /**
+     * Number of deadlines currently armed
+     */
+    public int getPendingDeadlines() {
+        return scheduler.getQueue().size();
+    }
+
+    /**
+     * Removes the timeout counter of a rule set that is no longer deployed
+     *
+     * @param ruleSetId The rule set ID
+     */
+    public void release(String ruleSetId) {
+        Counter counter = meterRegistry.find(TIMEOUTS_METER).tag("ruleSet", ruleSetId).counter();
+        if (counter != null) {
+            meterRegistry.remove(counter);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private Counter timeoutCounter(String ruleSetId) {
+        return Counter.builder(TIMEOUTS_METER)
+                .description("Rule executions halted at their deadline")
+                .tag("ruleSet", ruleSetId)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Outcome of a watched execution
+     *
+     * @param firedRules Number of rules fired before completion or halt
+     * @param timedOut Whether the session was halted at the deadline; a halted session should not be reused
+     */
+    public record Execution(int firedRules, boolean timedOut) {
+    }
+
+    private final class WatchedFireAllRules implements ExecutableCommand<Execution> {
+
+        private final String ruleSetId;
+        private final long timeoutMs;
+        private final String outIdentifier;
+
+        private WatchedFireAllRules(String ruleSetId, long timeoutMs, String outIdentifier) {
+            this.ruleSetId = ruleSetId;
+            this.timeoutMs = timeoutMs;
+            this.outIdentifier = outIdentifier;
+        }
+
+        @Override
+        public Execution execute(Context context) {
+            RegistryContext registryContext = (RegistryContext) context;
+            Execution execution = fireAllRules(ruleSetId, registryContext.lookup(KieSession.class), timeoutMs);
+            registryContext.lookup(ExecutionResults.class).setResult(outIdentifier, execution);
+            return execution;
+        }
+
+        @Override
+        public boolean autoFireAllRules() {
+            // Otherwise the stateless session fires again, unwatched, after the batch
+            return false;
+        }
+    }
+
+    private final class Deadline implements Runnable {
+
+        private static final int RUNNING = 0;
+        private static final int COMPLETED = 1;
+        private static final int HALTED = 2;
+
+        private final String ruleSetId;
+        private final KieSession kieSession;
+        private final long deadlineNanos;
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+        private volatile ScheduledFuture<?> future;
+
+        private Deadline(String ruleSetId, KieSession kieSession, long deadlineNanos) {
+            this.ruleSetId = ruleSetId;
+            this.kieSession = kieSession;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public void run() {
+            // Never halt a session that already finished and may be back in the pool
+            if (!state.compareAndSet(RUNNING, HALTED)) {
+                return;
+            }
+            lagTimer.record(Math.max(0, System.nanoTime() - deadlineNanos), TimeUnit.NANOSECONDS);
+            try {
+                kieSession.halt();
+            } catch (Exception e) {
+                log.warn("Error halting session for rule set {}", ruleSetId, e);
+            }
+        }
+
+        private void complete() {
+            if (state.compareAndSet(RUNNING, COMPLETED)) {
+                ScheduledFuture<?> scheduled = future;
+                if (scheduled != null) {
+                    scheduled.cancel(false);
+                }
+            }
+        }
+
+        private boolean isHalted() {
+            return state.get() == HALTED;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.pricerulesaidrools.drools.shadow;
+
+import com.example.pricerulesaidrools.drools.dto.ShadowStatistics;
+import com.example.pricerulesaidrools.drools.model.RuleSetMetadata;
+import com.example.pricerulesaidrools.drools.result.ResultContract;
+import com.example.pricerulesaidrools.drools.tier.TierTableGlobals;
+import com.example.pricerulesaidrools.model.PricingResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.StatelessKieSession;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A candidate version of a rule set being shadowed, with the statistics of its comparison
+ * against the live version.
+ * <p>
+ * The candidate's KieBase is disposed once the candidate is stopped and the last shadow
+ * execution using it has finished.
+ */
+public final class ShadowCandidate {
+
+    private static final double[] PERCENTILES = { 0.5, 0.95 };
+
+    private final String ruleSetId;
+    private final String liveVersion;
+    private final String version;
+    private final double sampleRate;
+    private final KieBase kieBase;
+    private final StatelessKieSession statelessKieSession;
+    private final ResultContract resultContract;
+    private final TierTableGlobals tierTables;
+    private final boolean declaresLogger;
+    private final Runnable disposer;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    private final MeterRegistry meterRegistry;
+    private final Timer liveLatency;
+    private final Timer candidateLatency;
+    private final LongAdder compared = new LongAdder();
+    private final LongAdder matching = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder latencyDeltaNanos = new LongAdder();
+    private final LongAdder pricedComparisons = new LongAdder();
+    private final DoubleAdder finalPriceDelta = new DoubleAdder();
+    private final DoubleAccumulator maxAbsoluteFinalPriceDelta = new DoubleAccumulator(Math::max, 0);
+    private final Map<String, LongAdder> fieldMismatches = new ConcurrentHashMap<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean disposed = new AtomicBoolean();
+    private volatile boolean closed;
+
+    /**
+     * @param executionMode How the live version executes; the candidate executes the same way
+     * @param tierTables Tier tables resolved for the candidate's KieBase
+     * @param disposer Releases the candidate's KieBase and container
+     */
+    public ShadowCandidate(String ruleSetId, String liveVersion, String version, double sampleRate, KieBase kieBase,
+                           RuleSetMetadata.ExecutionMode executionMode, ResultContract resultContract,
+                           TierTableGlobals tierTables, Runnable disposer, MeterRegistry meterRegistry) {
+        this.ruleSetId = ruleSetId;
+        this.liveVersion = liveVersion;
+        this.version = version;
+        this.sampleRate = sampleRate;
+        this.kieBase = kieBase;
+        // Shared by the shadow executions of the candidate, as the live version shares one
+        this.statelessKieSession = executionMode == RuleSetMetadata.ExecutionMode.STATELESS
+                ? kieBase.newStatelessKieSession() : null;
+        if (statelessKieSession != null) {
+            tierTables.bind(statelessKieSession);
+        }
+        this.resultContract = resultContract;
+        this.tierTables = tierTables;
+        this.declaresLogger = kieBase.getKiePackages().stream()
+                .flatMap(kiePackage -> kiePackage.getGlobalVariables().stream())
+                .anyMatch(global -> global.getName().equals("logger"));
+        this.disposer = disposer;
+        this.meterRegistry = meterRegistry;
+        this.liveLatency = latencyTimer("live");
+        this.candidateLatency = latencyTimer("candidate");
+    }
+
+    public String getRuleSetId() {
+        return ruleSetId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public KieBase getKieBase() {
+        return kieBase;
+    }
+
+    /**
+     * Gets the session stateless executions of the candidate run in
+     *
+     * @return The session, or null if the rule set executes in stateful sessions
+     */
+    public StatelessKieSession getStatelessKieSession() {
+        return statelessKieSession;
+    }
+
+    public ResultContract getResultContract() {
+        return resultContract;
+    }
+
+    public TierTableGlobals getTierTables() {
+        return tierTables;
+    }
+
+    /**
+     * Whether the candidate's rules declare the logger global that executions set
+     */
+    public boolean declaresLogger() {
+        return declaresLogger;
+    }
+
+    /**
+     * Reserves the candidate for one shadow execution
+     *
+     * @return False if the candidate was stopped meanwhile
+     */
+    boolean acquire() {
+        inFlight.incrementAndGet();
+        if (closed) {
+            release();
+            return false;
+        }
+        return true;
+    }
+
+    void release() {
+        if (inFlight.decrementAndGet() == 0 && closed) {
+            dispose();
+        }
+    }
+
+    /**
+     * Stops the candidate; its KieBase is disposed once no shadow execution uses it
+     */
+    void close() {
+        closed = true;
+        meterRegistry.remove(liveLatency);
+        meterRegistry.remove(candidateLatency);
+        if (inFlight.get() == 0) {
+            dispose();
+        }
+    }
+
+    private void dispose() {
+        if (disposed.compareAndSet(false, true)) {
+            disposer.run();
+        }
+    }
+
+    /**
+     * Records a live and a candidate result of the same facts
+     */
+    void recordComparison(Object liveResult, long liveNanos, Object candidateResult, long candidateNanos) {
+        liveLatency.record(liveNanos, TimeUnit.NANOSECONDS);
+        candidateLatency.record(candidateNanos, TimeUnit.NANOSECONDS);
+        latencyDeltaNanos.add(candidateNanos - liveNanos);
+
+        List<String> differences = differingFields(liveResult, candidateResult);
+        if (differences.isEmpty()) {
+            matching.increment();
+        }
+        for (String field : differences) {
+            fieldMismatches.computeIfAbsent(field, name -> new LongAdder()).increment();
+        }
+        if (liveResult instanceof PricingResult live && candidateResult instanceof PricingResult candidate) {
+            double delta = candidate.getFinalPrice() - live.getFinalPrice();
+            pricedComparisons.increment();
+            finalPriceDelta.add(delta);
+            maxAbsoluteFinalPriceDelta.accumulate(Math.abs(delta));
+        }
+        // Counted last, so a comparison is never seen before its outcome
+        compared.increment();
+    }
+
+    void recordError() {
+        errors.increment();
+    }
+
+    void recordSkipped() {
+        skipped.increment();
+    }
+
+    /**
+     * Names of the result fields that differ; PricingResults are compared field by field,
+     * other results as a whole
+     */
+    static List<String> differingFields(Object live, Object candidate) {
+        List<String> differences = new ArrayList<>();
+        if (live instanceof PricingResult l && candidate instanceof PricingResult c) {
+            compare(differences, "finalPrice", l.getFinalPrice(), c.getFinalPrice());
+            compare(differences, "discount", l.getDiscount(), c.getDiscount());
+            compare(differences, "priceMultiplier", l.getPriceMultiplier(), c.getPriceMultiplier());
+            compare(differences, "calculationComplete", l.isCalculationComplete(), c.isCalculationComplete());
+            compare(differences, "discountDescription", l.getDiscountDescription(), c.getDiscountDescription());
+            compare(differences, "minimumCommitment", l.getMinimumCommitment(), c.getMinimumCommitment());
+            compare(differences, "commitmentTier", l.getCommitmentTier(), c.getCommitmentTier());
+            compare(differences, "appliedRules", l.getAppliedRules(), c.getAppliedRules());
+            compare(differences, "includedServices", l.getIncludedServices(), c.getIncludedServices());
+        } else {
+            compare(differences, "result", live, candidate);
+        }
+        return differences;
+    }
+
+    private static void compare(List<String> differences, String field, Object live, Object candidate) {
+        if (!Objects.equals(live, candidate)) {
+            differences.add(field);
+        }
+    }
+
+    public ShadowStatistics getStatistics() {
+        long comparedCount = compared.sum();
+        long matchingCount = matching.sum();
+        long pricedCount = pricedComparisons.sum();
+        Map<String, Long> mismatches = new TreeMap<>();
+        fieldMismatches.forEach((field, count) -> mismatches.put(field, count.sum()));
+        double[] live = percentiles(liveLatency);
+        double[] candidate = percentiles(candidateLatency);
+        return ShadowStatistics.builder()
+                .ruleSetId(ruleSetId)
+                .liveVersion(liveVersion)
+                .candidateVersion(version)
+                .sampleRate(sampleRate)
+                .startedAt(startedAt)
+                .comparedExecutions(comparedCount)
+                .matchingExecutions(matchingCount)
+                .mismatchingExecutions(comparedCount - matchingCount)
+                .candidateErrors(errors.sum())
+                .skippedExecutions(skipped.sum())
+                .fieldMismatches(mismatches)
+                .averageFinalPriceDelta(pricedCount > 0 ? finalPriceDelta.sum() / pricedCount : 0)
+                .maxAbsoluteFinalPriceDelta(maxAbsoluteFinalPriceDelta.get())
+                .liveP50ExecutionTimeMs(live[0])
+                .liveP95ExecutionTimeMs(live[1])
+                .candidateP50ExecutionTimeMs(candidate[0])
+                .candidateP95ExecutionTimeMs(candidate[1])
+                .averageExecutionTimeDeltaMs(comparedCount > 0
+                        ? latencyDeltaNanos.sum() / 1_000_000.0 / comparedCount : 0)
+                .build();
+    }
+
+    private static double[] percentiles(Timer timer) {
+        double[] values = new double[PERCENTILES.length];
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                if (value.percentile() == PERCENTILES[i]) {
+                    values[i] = value.value(TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+        return values;
+    }
+
+    private Timer latencyTimer(String path) {
+        return Timer.builder("drools.shadow.execution")
+                .description("Execution time of live executions and their shadow executions on a candidate version")
+                .tag("ruleSet", ruleSetId)
+                .tag("candidate", version)
+                .tag("path", path)
+                .publishPercentiles(PERCENTILES)
+                .percentilePrecision(2)
+                .register(meterRegistry);
+    }
+}
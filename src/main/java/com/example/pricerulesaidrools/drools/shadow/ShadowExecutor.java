@@ -0,0 +1,295 @@
+package com.example.pricerulesaidrools.drools.shadow;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import com.example.pricerulesaidrools.drools.dto.ShadowStatistics;
+import com.example.pricerulesaidrools.drools.model.RuleSetMetadata;
+import com.example.pricerulesaidrools.drools.result.ResultContract;
+import com.example.pricerulesaidrools.drools.tier.TierTableGlobals;
+import com.example.pricerulesaidrools.drools.schema.FactsSnapshot;
+import com.example.pricerulesaidrools.drools.session.RuleExecutionWatchdog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.command.Command;
+import org.kie.api.command.KieCommands;
+import org.kie.api.runtime.ExecutionResults;
+import org.kie.api.runtime.KieSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes sampled live executions of a rule set again against a candidate version and
+ * compares the results, so a version can be judged on real traffic before it is promoted.
+ * <p>
+ * The live execution pays nothing unless it is sampled; a sampled execution copies its
+ * facts as JSON before the rules modify them and hands the copy to a bounded queue served
+ * by minimum-priority threads, after the live result is ready. When the queue is full the
+ * execution is not mirrored. Candidates are local to this node.
+ * <p>
+ * A candidate executes the way the live version does: as one batch command on a shared
+ * stateless session for STATELESS rule sets, in a fresh stateful session otherwise.
+ * Its executions are guarded by the watchdog under the rule set ID, like live executions.
+ */
+@Component
+@Slf4j
+public class ShadowExecutor {
+
+    private final DroolsProperties.Shadow settings;
+    private final RuleExecutionWatchdog executionWatchdog;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor workers;
+    private final Counter skipped;
+    private final Map<String, ShadowCandidate> candidates = new ConcurrentHashMap<>();
+    private final KieCommands commandFactory = KieServices.Factory.get().getCommands();
+
+    private static final String EXECUTION_OUT_ID = "execution";
+
+    @Value("${drools.rule-execution-timeout:1000}")
+    private int ruleExecutionTimeout;
+
+    public ShadowExecutor(DroolsProperties droolsProperties, RuleExecutionWatchdog executionWatchdog,
+                          ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.settings = droolsProperties.getShadow();
+        this.executionWatchdog = executionWatchdog;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        this.workers = new ThreadPoolExecutor(settings.getThreads(), settings.getThreads(), 0, TimeUnit.MILLISECONDS,
+                queue, Thread.ofPlatform().name("drools-shadow-", 0).daemon().priority(Thread.MIN_PRIORITY).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("drools.shadow.queue.depth", queue, BlockingQueue::size)
+                .description("Mirrored executions waiting for a shadow worker")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("drools.shadow.skipped")
+                .description("Sampled executions not mirrored because the shadow queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts shadowing a rule set with a candidate version, replacing any candidate it had
+     *
+     * @param ruleSetId The rule set ID
+     * @param liveVersion The live version the candidate is compared with
+     * @param version The candidate version label
+     * @param sampleRate Fraction of live executions to mirror, or null for the configured default
+     * @param kieBase The candidate's KieBase
+     * @param executionMode How the live version executes
+     * @param resultContract Where the candidate's executions find their result, as for the live version
+     * @param tierTables Tier tables resolved for the candidate's KieBase
+     * @param disposer Releases the candidate's KieBase once the candidate is stopped
+     * @return The new candidate
+     */
+    public ShadowCandidate start(String ruleSetId, String liveVersion, String version, Double sampleRate,
+                                 KieBase kieBase, RuleSetMetadata.ExecutionMode executionMode,
+                                 ResultContract resultContract, TierTableGlobals tierTables, Runnable disposer) {
+        stop(ruleSetId);
+        ShadowCandidate candidate = new ShadowCandidate(ruleSetId, liveVersion, version,
+                sampleRate != null ? sampleRate : settings.getDefaultSampleRate(), kieBase, executionMode,
+                resultContract, tierTables, disposer, meterRegistry);
+        if (candidate.getStatelessKieSession() != null && candidate.declaresLogger()) {
+            candidate.getStatelessKieSession().setGlobal("logger", log);
+        }
+        candidates.put(ruleSetId, candidate);
+        log.info("Shadowing rule set {} version {} with candidate version {} at sample rate {}",
+                ruleSetId, liveVersion, version, candidate.getSampleRate());
+        return candidate;
+    }
+
+    /**
+     * Stops shadowing a rule set
+     *
+     * @return The final statistics of its candidate, or null if it had none
+     */
+    public ShadowStatistics stop(String ruleSetId) {
+        ShadowCandidate candidate = candidates.remove(ruleSetId);
+        if (candidate == null) {
+            return null;
+        }
+        candidate.close();
+        ShadowStatistics statistics = candidate.getStatistics();
+        log.info("Stopped shadowing rule set {} with candidate version {}: {} of {} compared executions matched",
+                ruleSetId, candidate.getVersion(), statistics.getMatchingExecutions(),
+                statistics.getComparedExecutions());
+        return statistics;
+    }
+
+    /**
+     * Stops shadowing all rule sets
+     */
+    public void stopAll() {
+        candidates.keySet().forEach(this::stop);
+    }
+
+    /**
+     * Gets the comparison statistics of a rule set's candidate
+     *
+     * @return The statistics, or null if the rule set has no candidate
+     */
+    public ShadowStatistics getStatistics(String ruleSetId) {
+        ShadowCandidate candidate = candidates.get(ruleSetId);
+        return candidate != null ? candidate.getStatistics() : null;
+    }
+
+    /**
+     * Decides whether a live execution is mirrored; must be called before the rules modify the facts
+     *
+     * @return The mirror to complete with the live result, or null if the execution is not mirrored
+     */
+    public Mirror sample(String ruleSetId, Map<String, Object> facts) {
+        if (candidates.isEmpty() || !settings.isEnabled()) {
+            return null;
+        }
+        ShadowCandidate candidate = candidates.get(ruleSetId);
+        if (candidate == null || ThreadLocalRandom.current().nextDouble() >= candidate.getSampleRate()) {
+            return null;
+        }
+        try {
+            return new Mirror(candidate, FactsSnapshot.of(objectMapper, facts));
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not copy the facts of rule set {} for shadow execution: {}", ruleSetId, e.getMessage());
+            candidate.recordSkipped();
+            return null;
+        }
+    }
+
+    /**
+     * Number of mirrored executions waiting for a shadow worker
+     */
+    public int getQueueDepth() {
+        return workers.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        stopAll();
+    }
+
+    private void run(ShadowCandidate candidate, FactsSnapshot snapshot, Object liveResult, long liveNanos) {
+        if (!candidate.acquire()) {
+            return;
+        }
+        try {
+            Map<String, Object> facts = snapshot.restore(objectMapper);
+            long start = System.nanoTime();
+            CandidateResult result = candidate.getStatelessKieSession() != null
+                    ? runStateless(candidate, facts)
+                    : runStateful(candidate, facts);
+            if (result.timedOut()) {
+                candidate.recordError();
+                return;
+            }
+            candidate.recordComparison(liveResult, liveNanos, result.value(), System.nanoTime() - start);
+        } catch (Exception e) {
+            log.debug("Shadow execution of rule set {} version {} failed", candidate.getRuleSetId(),
+                    candidate.getVersion(), e);
+            candidate.recordError();
+        } finally {
+            candidate.release();
+        }
+    }
+
+    private CandidateResult runStateful(ShadowCandidate candidate, Map<String, Object> facts) {
+        ResultContract resultContract = candidate.getResultContract();
+        KieSession kieSession = candidate.getKieBase().newKieSession();
+        try {
+            candidate.getTierTables().bind(kieSession);
+            for (Object fact : facts.values()) {
+                if (fact != null) {
+                    kieSession.insert(fact);
+                }
+            }
+            if (candidate.declaresLogger()) {
+                kieSession.setGlobal("logger", log);
+            }
+            List<Object> resultCollector = resultContract.bind(kieSession);
+            RuleExecutionWatchdog.Execution execution = executionWatchdog.fireAllRules(
+                    candidate.getRuleSetId(), kieSession, ruleExecutionTimeout);
+            if (execution.timedOut()) {
+                return CandidateResult.TIMED_OUT;
+            }
+            return new CandidateResult(resultContract.extract(kieSession, facts, resultCollector), false);
+        } finally {
+            kieSession.dispose();
+        }
+    }
+
+    private CandidateResult runStateless(ShadowCandidate candidate, Map<String, Object> facts) {
+        ResultContract resultContract = candidate.getResultContract();
+        List<Command<?>> commands = new ArrayList<>(facts.size() + 3);
+        List<Object> resultCollector = resultContract.addSetupCommands(commandFactory, commands);
+        for (Object fact : facts.values()) {
+            if (fact != null) {
+                commands.add(commandFactory.newInsert(fact));
+            }
+        }
+        commands.add(executionWatchdog.newFireAllRulesCommand(candidate.getRuleSetId(), ruleExecutionTimeout,
+                EXECUTION_OUT_ID));
+        resultContract.addResultCommands(commandFactory, commands);
+
+        ExecutionResults executionResults = candidate.getStatelessKieSession()
+                .execute(commandFactory.newBatchExecution(commands));
+        RuleExecutionWatchdog.Execution execution =
+                (RuleExecutionWatchdog.Execution) executionResults.getValue(EXECUTION_OUT_ID);
+        if (execution.timedOut()) {
+            return CandidateResult.TIMED_OUT;
+        }
+        return new CandidateResult(resultContract.extract(executionResults, facts, resultCollector), false);
+    }
+
+    private record CandidateResult(Object value, boolean timedOut) {
+
+        private static final CandidateResult TIMED_OUT = new CandidateResult(null, true);
+    }
+
+    /**
+     * A sampled live execution, to be executed again against the candidate once its live result is known
+     */
+    public final class Mirror {
+
+        private final ShadowCandidate candidate;
+        private final FactsSnapshot snapshot;
+
+        private Mirror(ShadowCandidate candidate, FactsSnapshot snapshot) {
+            this.candidate = candidate;
+            this.snapshot = snapshot;
+        }
+
+        /**
+         * Queues the shadow execution; never blocks
+         *
+         * @param liveResult The live execution's result; failed live executions are not compared
+         * @param liveNanos The live execution's duration
+         */
+        public void complete(Object liveResult, long liveNanos) {
+            if (liveResult == null) {
+                return;
+            }
+            try {
+                workers.execute(() -> run(candidate, snapshot, liveResult, liveNanos));
+            } catch (RejectedExecutionException e) {
+                skipped.increment();
+                candidate.recordSkipped();
+            }
+        }
+    }
+}
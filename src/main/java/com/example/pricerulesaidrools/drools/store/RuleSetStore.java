@@ -0,0 +1,153 @@
+package com.example.pricerulesaidrools.drools.store;
+
+import com.example.pricerulesaidrools.drools.model.RuleSetMetadata;
+import com.example.pricerulesaidrools.model.Rule;
+import com.example.pricerulesaidrools.model.RuleSet;
+import com.example.pricerulesaidrools.repository.RuleRepository;
+import com.example.pricerulesaidrools.repository.RuleSetRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Durable store of deployed rule sets: their metadata and the DRL of their live version.
+ * <p>
+ * A deployed rule set is a RuleSet row named by its rule set ID. Deploying new content
+ * adds a Rule row holding the complete DRL as the next revision; only the latest revision
+ * is active, earlier ones are kept as deprecated history.
+ */
+@Component
+@RequiredArgsConstructor
+public class RuleSetStore {
+
+    /** Name of the Rule rows holding deployed DRL */
+    static final String DRL_RULE_NAME = "drl";
+
+    private final RuleSetRepository ruleSetRepository;
+    private final RuleRepository ruleRepository;
+
+    /**
+     * Creates or updates a rule set, storing its content as a new revision if it changed
+     *
+     * @param metadata The rule set metadata
+     * @param ruleContent The DRL of the live version
+     */
+    @Transactional
+    public void save(RuleSetMetadata metadata, String ruleContent) {
+        RuleSet ruleSet = ruleSetRepository.findByName(metadata.getId())
+                .orElseGet(() -> RuleSet.builder().name(metadata.getId()).build());
+        ruleSet.setDisplayName(metadata.getName());
+        ruleSet.setDescription(metadata.getDescription());
+        ruleSet.setDeployedVersion(metadata.getVersion());
+        ruleSet.setDeploymentStatus(metadata.getStatus());
+        ruleSet.setActive(metadata.getStatus() == RuleSetMetadata.RuleStatus.ACTIVE);
+        ruleSet.setExecutionMode(metadata.getExecutionMode());
+        ruleSet.setKieBaseProfile(metadata.getKieBaseProfile());
+        ruleSet.setFactSchema(metadata.getFactSchema());
+        ruleSet.setResultContract(metadata.getResultContract());
+        ruleSet.setCorrelated(metadata.isCorrelated());
+        ruleSet.setTierTables(metadata.getTierTables());
+
+        Rule live = activeDrl(ruleSet);
+        if (live == null || !live.getContent().equals(ruleContent)) {
+            if (live != null) {
+                live.setActive(false);
+                live.setStatus(Rule.RuleStatus.DEPRECATED);
+            }
+            int revision = ruleSet.getRules().stream().mapToInt(Rule::getVersion).max().orElse(0) + 1;
+            ruleSet.addRule(Rule.builder()
+                    .name(DRL_RULE_NAME)
+                    .description("Deployed DRL of version " + metadata.getVersion())
+                    .content(ruleContent)
+                    .version(revision)
+                    .status(Rule.RuleStatus.PUBLISHED)
+                    .build());
+        }
+        ruleSetRepository.save(ruleSet);
+    }
+
+    /**
+     * Updates the deployment status of a rule set
+     *
+     * @param ruleSetId The rule set ID
+     * @param status The new status
+     */
+    @Transactional
+    public void updateStatus(String ruleSetId, RuleSetMetadata.RuleStatus status) {
+        ruleSetRepository.findByName(ruleSetId).ifPresent(ruleSet -> {
+            ruleSet.setDeploymentStatus(status);
+            ruleSet.setActive(status == RuleSetMetadata.RuleStatus.ACTIVE);
+        });
+    }
+
+    /**
+     * Finds a deployed rule set with the DRL of its live version
+     *
+     * @param ruleSetId The rule set ID
+     * @return The stored rule set, if it was ever deployed
+     */
+    @Transactional(readOnly = true)
+    public Optional<StoredRuleSet> find(String ruleSetId) {
+        return ruleSetRepository.findByName(ruleSetId)
+                .filter(ruleSet -> ruleSet.getDeploymentStatus() != null)
+                .map(ruleSet -> {
+                    Rule live = activeDrl(ruleSet);
+                    return new StoredRuleSet(toMetadata(ruleSet), live != null ? live.getContent() : null);
+                });
+    }
+
+    /**
+     * Finds the ID of the active rule set deployed with a version label
+     *
+     * @param version The version label
+     * @return The rule set ID, if found
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> findActiveIdByVersion(String version) {
+        return ruleSetRepository.findFirstByDeployedVersionAndDeploymentStatus(version,
+                        RuleSetMetadata.RuleStatus.ACTIVE)
+                .map(RuleSet::getName);
+    }
+
+    /**
+     * Lists the metadata of every deployed rule set, in any status
+     */
+    @Transactional(readOnly = true)
+    public List<RuleSetMetadata> findAll() {
+        return ruleSetRepository.findByDeploymentStatusIsNotNull().stream()
+                .map(RuleSetStore::toMetadata)
+                .toList();
+    }
+
+    private Rule activeDrl(RuleSet ruleSet) {
+        if (ruleSet.getId() == null) {
+            return null;
+        }
+        return ruleRepository.findByRuleSetIdAndActiveTrue(ruleSet.getId()).stream()
+                .filter(rule -> DRL_RULE_NAME.equals(rule.getName()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static RuleSetMetadata toMetadata(RuleSet ruleSet) {
+        return RuleSetMetadata.builder()
+                .id(ruleSet.getName())
+                .name(ruleSet.getDisplayName())
+                .version(ruleSet.getDeployedVersion())
+                .description(ruleSet.getDescription())
+                .status(ruleSet.getDeploymentStatus())
+                .executionMode(ruleSet.getExecutionMode() != null ? ruleSet.getExecutionMode()
+                        : RuleSetMetadata.ExecutionMode.STATEFUL)
+                .kieBaseProfile(ruleSet.getKieBaseProfile())
+                .factSchema(ruleSet.getFactSchema())
+                .resultContract(ruleSet.getResultContract())
+                .correlated(Boolean.TRUE.equals(ruleSet.getCorrelated()))
+                .tierTables(ruleSet.getTierTables())
+                .createdDate(ruleSet.getCreatedAt())
+                .lastUpdated(ruleSet.getUpdatedAt())
+                .build();
+    }
+}
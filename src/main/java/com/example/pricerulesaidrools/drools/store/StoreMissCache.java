@@ -0,0 +1,74 @@
+package com.example.pricerulesaidrools.drools.store;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers for a short time which rule set IDs the rule set store does not hold, so
+ * repeated requests for an unknown ID do not each query the database.
+ * <p>
+ * A miss expires after the configured time, so a rule set deployed by another node is
+ * found once it has expired; a rule set deployed on this node is forgotten right away.
+ * At most {@link #MAX_ENTRIES} misses are kept, as the IDs come from requests.
+ */
+public class StoreMissCache {
+
+    static final int MAX_ENTRIES = 10_000;
+
+    private final long ttlNanos;
+    private final Map<String, Long> expiries = new ConcurrentHashMap<>();
+
+    /**
+     * @param ttlMs How long a miss is remembered, in milliseconds; 0 remembers none
+     */
+    public StoreMissCache(long ttlMs) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    }
+
+    /**
+     * Checks whether a rule set ID was recently not found in the store
+     */
+    public boolean isMissing(String ruleSetId) {
+        Long expiry = expiries.get(ruleSetId);
+        if (expiry == null) {
+            return false;
+        }
+        if (expiry - System.nanoTime() > 0) {
+            return true;
+        }
+        expiries.remove(ruleSetId, expiry);
+        return false;
+    }
+
+    /**
+     * Records that the store does not hold a rule set ID
+     */
+    public void recordMiss(String ruleSetId) {
+        if (ttlNanos <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (expiries.size() >= MAX_ENTRIES) {
+            expiries.values().removeIf(expiry -> expiry - now <= 0);
+            if (expiries.size() >= MAX_ENTRIES) {
+                expiries.clear();
+            }
+        }
+        expiries.put(ruleSetId, now + ttlNanos);
+    }
+
+    /**
+     * Forgets a miss, e.g. once the rule set has been deployed
+     */
+    public void forget(String ruleSetId) {
+        expiries.remove(ruleSetId);
+    }
+
+    /**
+     * Forgets all misses
+     */
+    public void clear() {
+        expiries.clear();
+    }
+}
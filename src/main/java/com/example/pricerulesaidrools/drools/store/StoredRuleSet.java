@@ -0,0 +1,12 @@
+package com.example.pricerulesaidrools.drools.store;
+
+import com.example.pricerulesaidrools.drools.model.RuleSetMetadata;
+
+/**
+ * A rule set as persisted in the rule set store.
+ *
+ * @param metadata The rule set metadata
+ * @param ruleContent DRL of the live version, or null if none was stored
+ */
+public record StoredRuleSet(RuleSetMetadata metadata, String ruleContent) {
+}
@@ -0,0 +1,198 @@
+package com.example.pricerulesaidrools.drools.tier;
+
+import com.example.pricerulesaidrools.pricing.tier.PricingTier;
+import com.example.pricerulesaidrools.pricing.tier.PricingTiers;
+import com.example.pricerulesaidrools.pricing.tier.TierTable;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.StatelessKieSession;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tier tables a rule set reads through globals, declared as data when the rule set is deployed.
+ * <p>
+ * A rule looks a value's tier up in a {@link TierTable} bound to a global, e.g.
+ * {@code $tier : PricingTier() from volumeDiscountTiers.lookup($metrics.getArr())}, so new
+ * tiers are deployed as data instead of as rule changes. The {@code tierTables} deploy option
+ * maps global names to their tiers as JSON:
+ * <pre>
+ * {"volumeDiscountTiers": [
+ *     {"from": 100000, "to": 250000, "name": "Volume Discount - Tier 1", "discount": 0.05},
+ *     {"from": 250000, "name": "Volume Discount - Tier 2", "discount": 0.10}]}
+ * </pre>
+ * A tier holds values from {@code from}, inclusive, to {@code to}, exclusive; without {@code to}
+ * it reaches the next tier, without {@code from} it holds all values below {@code to}. A tier
+ * has no discount and a price multiplier of 1 unless declared, and may include a service.
+ * <p>
+ * A {@code TierTable} global without a declared table gets the table of the same name from
+ * {@link #DEFAULTS}, the tables the shipped rules are written for. Tables are built and checked
+ * against the KieBase once per compiled version, not per execution.
+ */
+public final class TierTableGlobals {
+
+    /** Tables bound to globals of these names unless the rule set declares its own */
+    public static final Map<String, TierTable<PricingTier>> DEFAULTS = Map.of(
+            "volumeDiscountTiers", PricingTiers.VOLUME_DISCOUNT,
+            "tcvPricingTiers", PricingTiers.TCV_PRICING);
+
+    private static final TierTableGlobals NONE = new TierTableGlobals(Map.of());
+
+    private final Map<String, TierTable<PricingTier>> tables;
+
+    private TierTableGlobals(Map<String, TierTable<PricingTier>> tables) {
+        this.tables = tables;
+    }
+
+    /**
+     * Builds the tables declared by a rule set
+     *
+     * @param objectMapper Reads the declaration
+     * @param spec The {@code tierTables} deploy option; null or blank declares none
+     * @return The declared tables, not yet checked against a KieBase
+     * @throws IllegalArgumentException If the declaration is malformed or a table's tiers overlap
+     */
+    public static TierTableGlobals parse(ObjectMapper objectMapper, String spec) {
+        if (spec == null || spec.isBlank()) {
+            return NONE;
+        }
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(spec);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Tier tables are not valid JSON: " + e.getOriginalMessage());
+        }
+        if (root == null || !root.isObject()) {
+            throw new IllegalArgumentException("Tier tables must be a JSON object of global names to tiers");
+        }
+
+        Map<String, TierTable<PricingTier>> tables = new LinkedHashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> fields = root.fields(); fields.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            tables.put(field.getKey(), table(field.getKey(), field.getValue()));
+        }
+        return new TierTableGlobals(Map.copyOf(tables));
+    }
+
+    /**
+     * Gets the tables to bind on sessions of a KieBase: the declared ones and, for other
+     * {@code TierTable} globals, the defaults
+     *
+     * @throws IllegalArgumentException If a declared table has no global, or a global has no table
+     */
+    public TierTableGlobals resolve(KieBase kieBase) {
+        Map<String, String> globalTypes = new LinkedHashMap<>();
+        kieBase.getKiePackages().stream()
+                .flatMap(kiePackage -> kiePackage.getGlobalVariables().stream())
+                .forEach(global -> globalTypes.put(global.getName(), global.getType()));
+
+        Map<String, TierTable<PricingTier>> bound = new LinkedHashMap<>();
+        tables.forEach((name, table) -> {
+            String type = globalTypes.get(name);
+            if (type == null) {
+                throw new IllegalArgumentException("Tier table global " + name + " is not declared");
+            }
+            if (!acceptsTierTable(type)) {
+                throw new IllegalArgumentException("Tier table global " + name + " must be a "
+                        + TierTable.class.getName() + ", not " + type);
+            }
+            bound.put(name, table);
+        });
+        globalTypes.forEach((name, type) -> {
+            if (type.equals(TierTable.class.getName()) && !bound.containsKey(name)) {
+                TierTable<PricingTier> table = DEFAULTS.get(name);
+                if (table == null) {
+                    throw new IllegalArgumentException("Tier table global " + name
+                            + " has no table; declare it in the tierTables option");
+                }
+                bound.put(name, table);
+            }
+        });
+        return new TierTableGlobals(Map.copyOf(bound));
+    }
+
+    /**
+     * Gets the default tables to bind on sessions of a KieBase
+     */
+    public static TierTableGlobals defaults(KieBase kieBase) {
+        return NONE.resolve(kieBase);
+    }
+
+    public Map<String, TierTable<PricingTier>> getTables() {
+        return tables;
+    }
+
+    /**
+     * Binds the tables to their globals; only call on tables {@linkplain #resolve(KieBase) resolved}
+     * for the session's KieBase
+     */
+    public void bind(KieSession kieSession) {
+        tables.forEach(kieSession::setGlobal);
+    }
+
+    /**
+     * Binds the tables to their globals; only call on tables {@linkplain #resolve(KieBase) resolved}
+     * for the session's KieBase
+     */
+    public void bind(StatelessKieSession statelessKieSession) {
+        tables.forEach(statelessKieSession::setGlobal);
+    }
+
+    private static boolean acceptsTierTable(String type) {
+        return type.equals(TierTable.class.getName()) || type.equals("java.lang.Object");
+    }
+
+    private static TierTable<PricingTier> table(String name, JsonNode tiers) {
+        if (!tiers.isArray() || tiers.isEmpty()) {
+            throw new IllegalArgumentException("Tier table " + name + " must be a non-empty array of tiers");
+        }
+        TierTable.Builder<PricingTier> builder = TierTable.builder();
+        for (JsonNode tier : tiers) {
+            BigDecimal from = decimal(name, tier, "from");
+            BigDecimal to = decimal(name, tier, "to");
+            JsonNode tierName = tier.get("name");
+            if (tierName == null || !tierName.isTextual() || tierName.asText().isBlank()) {
+                throw new IllegalArgumentException("Every tier of table " + name + " needs a name");
+            }
+            PricingTier pricingTier = new PricingTier(tierName.asText(),
+                    tier.path("discount").asDouble(0.0),
+                    tier.path("priceMultiplier").asDouble(1.0),
+                    tier.hasNonNull("includedService") ? tier.get("includedService").asText() : null);
+            try {
+                if (from != null && to != null) {
+                    builder.range(from, to, pricingTier);
+                } else if (from != null) {
+                    builder.from(from, pricingTier);
+                } else if (to != null) {
+                    builder.below(to, pricingTier);
+                } else {
+                    throw new IllegalArgumentException("Tier " + pricingTier.name() + " needs from or to");
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Tier table " + name + ": " + e.getMessage());
+            }
+        }
+        try {
+            return builder.build();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tier table " + name + ": " + e.getMessage());
+        }
+    }
+
+    private static BigDecimal decimal(String table, JsonNode tier, String field) {
+        JsonNode value = tier.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        if (!value.isNumber()) {
+            throw new IllegalArgumentException("Tier table " + table + ": " + field + " must be a number");
+        }
+        return value.decimalValue();
+    }
+}
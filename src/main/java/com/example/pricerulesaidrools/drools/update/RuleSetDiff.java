@@ -0,0 +1,220 @@
+package com.example.pricerulesaidrools.drools.update;
+
+import lombok.Getter;
+import org.drools.drl.ast.descr.BaseDescr;
+import org.drools.drl.ast.descr.PackageDescr;
+import org.drools.drl.ast.descr.QueryDescr;
+import org.drools.drl.ast.descr.RuleDescr;
+import org.drools.drl.parser.DrlParser;
+import org.drools.drl.parser.DroolsParserException;
+import org.kie.internal.builder.conf.LanguageLevelOption;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Rule-level difference between two versions of a rule set's DRL.
+ * <p>
+ * Everything outside the rules, i.e. the package, imports, globals, functions and
+ * declarations, must be identical for the change to be applied rule by rule; a change
+ * there, to a query, or to a rule other rules extend affects rules whose text did not
+ * change, so it needs a full rebuild.
+ */
+public final class RuleSetDiff {
+
+    @Getter
+    private final String packageName;
+    /** Why the change cannot be applied rule by rule; null if it can */
+    @Getter
+    private final String fullRebuildReason;
+    @Getter
+    private final List<String> addedRules;
+    @Getter
+    private final List<String> changedRules;
+    @Getter
+    private final List<String> removedRules;
+    private final ParsedRuleSet next;
+
+    private RuleSetDiff(String packageName, String fullRebuildReason, List<String> addedRules,
+                        List<String> changedRules, List<String> removedRules, ParsedRuleSet next) {
+        this.packageName = packageName;
+        this.fullRebuildReason = fullRebuildReason;
+        this.addedRules = addedRules;
+        this.changedRules = changedRules;
+        this.removedRules = removedRules;
+        this.next = next;
+    }
+
+    /**
+     * Compares two versions of a rule set
+     *
+     * @param previousContent The DRL of the live version
+     * @param nextContent The DRL of the new version
+     * @return The difference
+     */
+    public static RuleSetDiff between(String previousContent, String nextContent) {
+        ParsedRuleSet previous;
+        ParsedRuleSet next;
+        try {
+            previous = ParsedRuleSet.parse(previousContent);
+            next = ParsedRuleSet.parse(nextContent);
+        } catch (IllegalArgumentException e) {
+            return fullRebuild(e.getMessage());
+        }
+        if (!Objects.equals(previous.packageName(), next.packageName())) {
+            return fullRebuild("package name changed");
+        }
+        if (!previous.structure().equals(next.structure())) {
+            return fullRebuild("package header or declarations changed");
+        }
+
+        List<String> added = new ArrayList<>();
+        List<String> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        next.rules().forEach((name, rule) -> {
+            ParsedRule previousRule = previous.rules().get(name);
+            if (previousRule == null) {
+                added.add(name);
+            } else if (!previousRule.source().equals(rule.source())) {
+                changed.add(name);
+            }
+        });
+        previous.rules().keySet().stream()
+                .filter(name -> !next.rules().containsKey(name))
+                .forEach(removed::add);
+
+        List<String> affected = new ArrayList<>(changed);
+        affected.addAll(removed);
+        affected.addAll(added);
+        for (String name : affected) {
+            ParsedRule rule = next.rules().containsKey(name) ? next.rules().get(name) : previous.rules().get(name);
+            if (rule.query()) {
+                return fullRebuild("query " + name + " changed");
+            }
+        }
+        for (ParsedRuleSet ruleSet : List.of(previous, next)) {
+            for (ParsedRule rule : ruleSet.rules().values()) {
+                if (rule.parentName() != null && affected.contains(rule.parentName())) {
+                    return fullRebuild("rule " + rule.parentName() + " is extended by rule " + rule.name());
+                }
+            }
+        }
+        return new RuleSetDiff(next.packageName(), null, added, changed, removed, next);
+    }
+
+    /**
+     * Whether the change can be applied rule by rule
+     */
+    public boolean isIncremental() {
+        return fullRebuildReason == null;
+    }
+
+    /**
+     * Number of added, changed and removed rules
+     */
+    public int getRuleChangeCount() {
+        return addedRules.size() + changedRules.size() + removedRules.size();
+    }
+
+    /**
+     * DRL of the added and changed rules of the new version, with the package header
+     */
+    String nextRulesSource() {
+        List<String> names = new ArrayList<>(changedRules);
+        names.addAll(addedRules);
+        return next.source(names);
+    }
+
+    private static RuleSetDiff fullRebuild(String reason) {
+        return new RuleSetDiff(null, reason, List.of(), List.of(), List.of(), null);
+    }
+
+    private record ParsedRule(String name, String source, boolean query, String parentName) {
+    }
+
+    /**
+     * @param header The DRL without rules and declarations: package, imports, globals and package attributes
+     * @param structure The DRL without rules, with whitespace normalized, for comparison
+     * @param rules The rules by name, in source order
+     */
+    private record ParsedRuleSet(String packageName, String header, String structure, Map<String, ParsedRule> rules) {
+
+        static ParsedRuleSet parse(String content) {
+            DrlParser parser = new DrlParser(LanguageLevelOption.DRL6);
+            PackageDescr packageDescr;
+            try {
+                packageDescr = parser.parse(false, content);
+            } catch (DroolsParserException e) {
+                throw new IllegalArgumentException("DRL does not parse: " + e.getMessage(), e);
+            }
+            if (parser.hasErrors() || packageDescr == null) {
+                throw new IllegalArgumentException("DRL does not parse");
+            }
+
+            Map<String, ParsedRule> rules = new LinkedHashMap<>();
+            for (RuleDescr ruleDescr : packageDescr.getRules()) {
+                String source = spanOf(content, ruleDescr);
+                if (!(source.startsWith("rule") || source.startsWith("query")) || !source.endsWith("end")) {
+                    throw new IllegalArgumentException("Source of rule " + ruleDescr.getName() + " not found");
+                }
+                rules.put(ruleDescr.getName(), new ParsedRule(ruleDescr.getName(), source,
+                        ruleDescr instanceof QueryDescr, ruleDescr.getParentName()));
+            }
+
+            List<BaseDescr> declarations = new ArrayList<>();
+            declarations.addAll(packageDescr.getFunctions());
+            declarations.addAll(packageDescr.getTypeDeclarations());
+            declarations.addAll(packageDescr.getEnumDeclarations());
+            declarations.addAll(packageDescr.getEntryPointDeclarations());
+            declarations.addAll(packageDescr.getWindowDeclarations());
+
+            List<BaseDescr> all = new ArrayList<>(packageDescr.getRules());
+            all.addAll(declarations);
+            String header = without(content, all);
+            String structure = normalize(without(content, packageDescr.getRules()));
+            return new ParsedRuleSet(packageDescr.getName(), header, structure, rules);
+        }
+
+        String source(List<String> ruleNames) {
+            StringBuilder source = new StringBuilder(header);
+            for (String name : ruleNames) {
+                source.append('\n').append(rules.get(name).source()).append('\n');
+            }
+            return source.toString();
+        }
+
+        private static String spanOf(String content, BaseDescr descr) {
+            checkSpan(content, descr);
+            return content.substring(descr.getStartCharacter(), descr.getEndCharacter()).strip();
+        }
+
+        private static void checkSpan(String content, BaseDescr descr) {
+            if (descr.getStartCharacter() < 0 || descr.getEndCharacter() < descr.getStartCharacter()
+                    || descr.getEndCharacter() > content.length()) {
+                throw new IllegalArgumentException("Source position of " + descr + " not found");
+            }
+        }
+
+        private static String without(String content, List<? extends BaseDescr> descrs) {
+            List<? extends BaseDescr> ordered = descrs.stream()
+                    .sorted(Comparator.comparingInt(BaseDescr::getStartCharacter))
+                    .toList();
+            StringBuilder remaining = new StringBuilder();
+            int position = 0;
+            for (BaseDescr descr : ordered) {
+                checkSpan(content, descr);
+                remaining.append(content, position, descr.getStartCharacter());
+                position = descr.getEndCharacter();
+            }
+            return remaining.append(content.substring(position)).toString();
+        }
+
+        private static String normalize(String source) {
+            return source.strip().replaceAll("\\s+", " ");
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.pricerulesaidrools.model;
+
+/**
+ * A pricing fact that can share a rule session with the facts of other requests.
+ * Every rule in the shipped DRLs joins its patterns on the correlation ID, so facts
+ * of different requests never match the same rule activation.
+ */
+public interface Correlated {
+
+    String getCorrelationId();
+
+    void setCorrelationId(String correlationId);
+}
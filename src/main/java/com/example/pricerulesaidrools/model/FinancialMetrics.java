@@ -17,7 +17,7 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class FinancialMetrics {
+public class FinancialMetrics implements Correlated {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -57,4 +57,8 @@ public class FinancialMetrics {
     @UpdateTimestamp
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
+
+    /** Identifies the request these metrics belong to when many requests share one rule session */
+    @Transient
+    private String correlationId;
 }
\ No newline at end of file
@@ -9,7 +9,7 @@ import lombok.NoArgsConstructor;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class PricingRequest {
+public class PricingRequest implements Correlated {
     private String customerId;
     private double basePrice;
     private int quantity;
@@ -18,4 +18,6 @@ public class PricingRequest {
     private int customerTenureMonths;
     private int contractLengthMonths;
     private FinancialMetrics financialMetrics;
+    /** Identifies this request's facts when many requests share one rule session */
+    private String correlationId;
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -12,7 +13,7 @@ import java.util.List;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class PricingResult {
+public class PricingResult implements Correlated, Serializable {
     private double discount;
     private double finalPrice;
     private boolean calculationComplete;
@@ -28,6 +29,9 @@ public class PricingResult {
     @Builder.Default
     private List<String> includedServices = new ArrayList<>();
     
+    /** Identifies the request this result belongs to when many requests share one rule session */
+    private String correlationId;
+    
     public void addAppliedRule(String ruleName) {
         if (appliedRules == null) {
             appliedRules = new ArrayList<>();
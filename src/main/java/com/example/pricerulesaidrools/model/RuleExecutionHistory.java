@@ -1,5 +1,6 @@
 package com.example.pricerulesaidrools.model;
 
+import com.example.pricerulesaidrools.drools.history.SampleReason;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,7 +17,8 @@ import java.time.LocalDateTime;
 @Table(name = "rule_execution_history", indexes = {
     @Index(name = "idx_rule_execution_history_rule_id", columnList = "rule_id"),
     @Index(name = "idx_rule_execution_history_rule_set_id", columnList = "rule_set_id"),
-    @Index(name = "idx_rule_execution_history_executed_at", columnList = "executed_at")
+    @Index(name = "idx_rule_execution_history_executed_at", columnList = "executed_at"),
+    @Index(name = "idx_rule_execution_history_rule_set_name", columnList = "rule_set_name")
 })
 @Data
 @Builder
@@ -36,6 +38,10 @@ public class RuleExecutionHistory {
     @JoinColumn(name = "rule_set_id")
     private RuleSet ruleSet;
 
+    /** ID of the executed rule set; also set for rule sets without a RuleSet row, such as the classpath rules */
+    @Column(name = "rule_set_name", length = 100)
+    private String ruleSetName;
+
     @Column(name = "execution_time_ms")
     private Long executionTimeMs;
 
@@ -51,6 +57,11 @@ public class RuleExecutionHistory {
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
 
+    /** Why the execution was recorded; sampled entries stand for many unrecorded executions */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "sample_reason", length = 20)
+    private SampleReason sampleReason;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "executed_by")
     private User executedBy;
@@ -1,5 +1,6 @@
 package com.example.pricerulesaidrools.model;
 
+import com.example.pricerulesaidrools.drools.model.RuleSetMetadata;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -49,6 +50,37 @@ public class RuleSet {
     @Builder.Default
     private boolean active = true;
 
+    /** Display name of a rule set deployed to the rule engine; the engine's rule set ID is the name */
+    @Column(name = "display_name", length = 100)
+    private String displayName;
+
+    /** Version label of the deployed DRL */
+    @Column(name = "deployed_version", length = 50)
+    private String deployedVersion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "deployment_status", length = 20)
+    private RuleSetMetadata.RuleStatus deploymentStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "execution_mode", length = 20)
+    private RuleSetMetadata.ExecutionMode executionMode;
+
+    @Column(name = "kie_base_profile", length = 100)
+    private String kieBaseProfile;
+
+    @Column(name = "fact_schema", length = 1000)
+    private String factSchema;
+
+    @Column(name = "result_contract", length = 200)
+    private String resultContract;
+
+    @Column(name = "correlated")
+    private Boolean correlated;
+
+    @Column(name = "tier_tables", columnDefinition = "TEXT")
+    private String tierTables;
+
     @OneToMany(mappedBy = "ruleSet", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<Rule> rules = new ArrayList<>();
@@ -2,13 +2,12 @@ package com.example.pricerulesaidrools.pricing;
 
 import com.example.pricerulesaidrools.model.FinancialMetrics;
 import com.example.pricerulesaidrools.model.Quote;
+import com.example.pricerulesaidrools.pricing.tier.PricingTiers;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Risk-adjusted pricing strategy implementation
@@ -18,20 +17,6 @@ import java.util.List;
 @Slf4j
 public class RiskAdjustedPricingStrategy implements PricingStrategy {
     
-    // Risk tiers for price adjustment
-    private final List<RiskTier> riskTiers;
-    
-    public RiskAdjustedPricingStrategy() {
-        this.riskTiers = new ArrayList<>();
-        
-        // Initialize default risk tiers
-        riskTiers.add(new RiskTier(BigDecimal.valueOf(0.8), BigDecimal.valueOf(0.80))); // Very high risk: 20% discount
-        riskTiers.add(new RiskTier(BigDecimal.valueOf(0.6), BigDecimal.valueOf(0.85))); // High risk: 15% discount
-        riskTiers.add(new RiskTier(BigDecimal.valueOf(0.4), BigDecimal.valueOf(0.95))); // Medium risk: 5% discount
-        riskTiers.add(new RiskTier(BigDecimal.valueOf(0.2), BigDecimal.valueOf(1.0)));  // Low risk: no change
-        riskTiers.add(new RiskTier(BigDecimal.valueOf(0.0), BigDecimal.valueOf(1.05))); // Very low risk: 5% premium
-    }
-    
     @Override
     public Quote applyStrategy(Quote quote, FinancialMetrics metrics) {
         log.info("Applying risk-adjusted pricing strategy for quote ID: {}", quote.getQuoteId());
@@ -41,13 +26,10 @@ public class RiskAdjustedPricingStrategy implements PricingStrategy {
         BigDecimal priceMultiplier = BigDecimal.ONE; // Default: no change
         
         // Find applicable risk tier
-        for (RiskTier tier : riskTiers) {
-            if (churnRiskScore.compareTo(tier.getRiskThreshold()) >= 0) {
-                priceMultiplier = tier.getPriceMultiplier();
-                log.info("Applied risk tier: threshold={}, multiplier={}", 
-                        tier.getRiskThreshold(), priceMultiplier);
-                break;
-            }
+        BigDecimal tierMultiplier = PricingTiers.RISK_PRICE_MULTIPLIER.lookup(churnRiskScore);
+        if (tierMultiplier != null) {
+            priceMultiplier = tierMultiplier;
+            log.info("Applied risk tier: score={}, multiplier={}", churnRiskScore, priceMultiplier);
         }
         
         // Apply price adjustment
@@ -88,25 +70,4 @@ public class RiskAdjustedPricingStrategy implements PricingStrategy {
         
         return baseCommitment.multiply(riskMultiplier).setScale(2, RoundingMode.HALF_UP);
     }
-    
-    /**
-     * Inner class to represent risk tiers
-     */
-    private static class RiskTier {
-        private final BigDecimal riskThreshold;
-        private final BigDecimal priceMultiplier;
-        
-        public RiskTier(BigDecimal riskThreshold, BigDecimal priceMultiplier) {
-            this.riskThreshold = riskThreshold;
-            this.priceMultiplier = priceMultiplier;
-        }
-        
-        public BigDecimal getRiskThreshold() {
-            return riskThreshold;
-        }
-        
-        public BigDecimal getPriceMultiplier() {
-            return priceMultiplier;
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.example.pricerulesaidrools.pricing.tier;
+
+/**
+ * Pricing adjustment applied to the values in one range of a tier table
+ *
+ * @param name The name recorded as the applied rule
+ * @param discount The discount added to the result's discount
+ * @param priceMultiplier The factor applied to the result's price multiplier
+ * @param includedService A service included at this tier, or null
+ */
+public record PricingTier(String name, double discount, double priceMultiplier, String includedService) {
+
+    public static PricingTier discount(String name, double discount) {
+        return new PricingTier(name, discount, 1.0, null);
+    }
+}
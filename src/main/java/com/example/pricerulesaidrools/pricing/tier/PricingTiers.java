@@ -0,0 +1,50 @@
+package com.example.pricerulesaidrools.pricing.tier;
+
+import java.math.BigDecimal;
+
+/**
+ * Tier tables shared by the pricing rules and the pricing strategies.
+ * <p>
+ * The rules look a value's tier up with a single {@code from} pattern, for example
+ * {@code $tier : PricingTier() from PricingTiers.VOLUME_DISCOUNT.lookup($metrics.getArr())},
+ * instead of declaring one rule per range, so the rule base does not grow with the number
+ * of tiers.
+ */
+public final class PricingTiers {
+
+    /**
+     * Volume discount by Annual Recurring Revenue; no discount below $100K
+     */
+    public static final TierTable<PricingTier> VOLUME_DISCOUNT = TierTable.<PricingTier>builder()
+            .from(BigDecimal.valueOf(100_000), PricingTier.discount("Volume Discount - Tier 1", 0.05))
+            .from(BigDecimal.valueOf(250_000), PricingTier.discount("Volume Discount - Tier 2", 0.10))
+            .from(BigDecimal.valueOf(500_000), PricingTier.discount("Volume Discount - Tier 3", 0.15))
+            .from(BigDecimal.valueOf(1_000_000), PricingTier.discount("Volume Discount - Tier 4", 0.20))
+            .build();
+
+    /**
+     * Pricing adjustment by Total Contract Value
+     */
+    public static final TierTable<PricingTier> TCV_PRICING = TierTable.<PricingTier>builder()
+            .below(BigDecimal.valueOf(50_000), new PricingTier("TCV Pricing - Low Tier", 0.0, 1.05, null))
+            .from(BigDecimal.valueOf(50_000), PricingTier.discount("TCV Pricing - Standard Tier", 0.0))
+            .from(BigDecimal.valueOf(200_000), PricingTier.discount("TCV Pricing - Premium Tier", 0.05))
+            .from(BigDecimal.valueOf(500_000), PricingTier.discount("TCV Pricing - Enterprise Tier", 0.10))
+            .from(BigDecimal.valueOf(1_000_000),
+                    new PricingTier("TCV Pricing - Strategic Tier", 0.15, 1.0, "Premium Support"))
+            .build();
+
+    /**
+     * Price multiplier by churn risk score; higher risk customers get a lower price
+     */
+    public static final TierTable<BigDecimal> RISK_PRICE_MULTIPLIER = TierTable.<BigDecimal>builder()
+            .from(BigDecimal.valueOf(0.0), BigDecimal.valueOf(1.05)) // Very low risk: 5% premium
+            .from(BigDecimal.valueOf(0.2), BigDecimal.valueOf(1.0))  // Low risk: no change
+            .from(BigDecimal.valueOf(0.4), BigDecimal.valueOf(0.95)) // Medium risk: 5% discount
+            .from(BigDecimal.valueOf(0.6), BigDecimal.valueOf(0.85)) // High risk: 15% discount
+            .from(BigDecimal.valueOf(0.8), BigDecimal.valueOf(0.80)) // Very high risk: 20% discount
+            .build();
+
+    private PricingTiers() {
+    }
+}
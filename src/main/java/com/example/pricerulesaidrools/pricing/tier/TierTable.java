@@ -0,0 +1,200 @@
+package com.example.pricerulesaidrools.pricing.tier;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable family of non-overlapping numeric ranges, each mapped to a tier.
+ * <p>
+ * The lower bounds are kept in a sorted primitive array and a value's tier is found by
+ * binary search, so a lookup takes O(log n) whatever the number of tiers, instead of
+ * testing every tier's range in turn. Gaps between tiers are allowed; values in a gap,
+ * below the first tier or above the last one have no tier.
+ * <p>
+ * Bounds are declared as {@link BigDecimal} and searched as doubles. A value that rounds
+ * onto a bound is compared with the exact bound, so lookups of {@link BigDecimal} values
+ * are exact even for bounds that have no exact double representation.
+ *
+ * @param <T> The tier type
+ */
+public final class TierTable<T> {
+
+    private final double[] lowerBounds;
+    private final double[] upperBounds;
+    /** Null for a tier without lower bound */
+    private final BigDecimal[] exactLowerBounds;
+    /** Null for a tier without upper bound */
+    private final BigDecimal[] exactUpperBounds;
+    private final Object[] tiers;
+
+    private TierTable(List<Range<T>> ranges) {
+        int size = ranges.size();
+        this.lowerBounds = new double[size];
+        this.upperBounds = new double[size];
+        this.exactLowerBounds = new BigDecimal[size];
+        this.exactUpperBounds = new BigDecimal[size];
+        this.tiers = new Object[size];
+        for (int i = 0; i < size; i++) {
+            Range<T> range = ranges.get(i);
+            exactLowerBounds[i] = range.lower();
+            exactUpperBounds[i] = range.upper();
+            lowerBounds[i] = range.lower() != null ? range.lower().doubleValue() : Double.NEGATIVE_INFINITY;
+            upperBounds[i] = range.upper() != null ? range.upper().doubleValue() : Double.POSITIVE_INFINITY;
+            tiers[i] = range.tier();
+        }
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Finds the tier whose range contains a value
+     *
+     * @param value The value
+     * @return The tier, or null if no range contains the value or the value is null
+     */
+    public T lookup(BigDecimal value) {
+        if (value == null) {
+            return null;
+        }
+        double approximate = value.doubleValue();
+        int index = floorIndex(approximate);
+        // Rounding to double is monotonic, so only a value that rounds onto a bound needs the exact comparison
+        if (index >= 0 && approximate == lowerBounds[index] && exactLowerBounds[index] != null
+                && value.compareTo(exactLowerBounds[index]) < 0) {
+            index--;
+        }
+        if (index < 0) {
+            return null;
+        }
+        boolean belowUpper = approximate == upperBounds[index]
+                ? exactUpperBounds[index] == null || value.compareTo(exactUpperBounds[index]) < 0
+                : approximate < upperBounds[index];
+        return belowUpper ? tier(index) : null;
+    }
+
+    /**
+     * Finds the tier whose range contains a value, comparing it with the bounds as doubles
+     *
+     * @param value The value
+     * @return The tier, or null if no range contains the value
+     */
+    public T lookup(double value) {
+        int index = floorIndex(value);
+        return index >= 0 && value < upperBounds[index] ? tier(index) : null;
+    }
+
+    /**
+     * Number of tiers
+     */
+    public int size() {
+        return tiers.length;
+    }
+
+    /**
+     * The tiers, in ascending order of their ranges
+     */
+    public List<T> getTiers() {
+        List<T> result = new ArrayList<>(tiers.length);
+        for (int i = 0; i < tiers.length; i++) {
+            result.add(tier(i));
+        }
+        return result;
+    }
+
+    /**
+     * Index of the last tier whose lower bound is at most the value, or -1
+     */
+    private int floorIndex(double value) {
+        int index = Arrays.binarySearch(lowerBounds, value);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T tier(int index) {
+        return (T) tiers[index];
+    }
+
+    /**
+     * Declares the ranges of a tier table. Ranges may be declared in any order.
+     */
+    public static final class Builder<T> {
+
+        private final List<Range<T>> ranges = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a tier for values from a lower bound, inclusive, to an upper bound, exclusive
+         */
+        public Builder<T> range(BigDecimal lowerInclusive, BigDecimal upperExclusive, T tier) {
+            if (lowerInclusive == null || upperExclusive == null) {
+                throw new IllegalArgumentException("Range bounds must not be null");
+            }
+            ranges.add(new Range<>(lowerInclusive, upperExclusive, false, tier));
+            return this;
+        }
+
+        /**
+         * Adds a tier for values from a lower bound, inclusive, up to the lower bound of the
+         * next tier, or without upper bound if it is the last tier
+         */
+        public Builder<T> from(BigDecimal lowerInclusive, T tier) {
+            if (lowerInclusive == null) {
+                throw new IllegalArgumentException("Lower bound must not be null");
+            }
+            ranges.add(new Range<>(lowerInclusive, null, true, tier));
+            return this;
+        }
+
+        /**
+         * Adds a tier for all values below an upper bound, exclusive
+         */
+        public Builder<T> below(BigDecimal upperExclusive, T tier) {
+            if (upperExclusive == null) {
+                throw new IllegalArgumentException("Upper bound must not be null");
+            }
+            ranges.add(new Range<>(null, upperExclusive, false, tier));
+            return this;
+        }
+
+        /**
+         * Sorts the ranges into a lookup table
+         *
+         * @throws IllegalArgumentException If ranges overlap or a range is empty
+         */
+        public TierTable<T> build() {
+            List<Range<T>> sorted = new ArrayList<>(ranges);
+            sorted.sort(Comparator.comparing(Range::lower, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+            List<Range<T>> resolved = new ArrayList<>(sorted.size());
+            for (int i = 0; i < sorted.size(); i++) {
+                Range<T> range = sorted.get(i);
+                BigDecimal nextLower = i + 1 < sorted.size() ? sorted.get(i + 1).lower() : null;
+                BigDecimal upper = range.openEnded() ? nextLower : range.upper();
+                if (range.lower() != null && upper != null && upper.compareTo(range.lower()) <= 0) {
+                    throw new IllegalArgumentException("Empty tier range [" + range.lower() + ", " + upper + ")");
+                }
+                if (nextLower != null && (upper == null || upper.compareTo(nextLower) > 0)) {
+                    throw new IllegalArgumentException("Tier range starting at " + range.lower()
+                            + " overlaps the tier starting at " + nextLower);
+                }
+                if (i > 0 && range.lower() != null && resolved.get(i - 1).lower() != null
+                        && range.lower().doubleValue() == resolved.get(i - 1).lower().doubleValue()) {
+                    throw new IllegalArgumentException("Tier bounds " + resolved.get(i - 1).lower() + " and "
+                            + range.lower() + " are too close to be told apart");
+                }
+                resolved.add(new Range<>(range.lower(), upper, false, range.tier()));
+            }
+            return new TierTable<>(resolved);
+        }
+    }
+
+    private record Range<T>(BigDecimal lower, BigDecimal upper, boolean openEnded, T tier) {
+    }
+}
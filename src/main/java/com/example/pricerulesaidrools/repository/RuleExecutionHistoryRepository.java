@@ -42,6 +42,15 @@ public interface RuleExecutionHistoryRepository extends JpaRepository<RuleExecut
      */
     Page<RuleExecutionHistory> findByRuleSetId(Long ruleSetId, Pageable pageable);
 
+    /**
+     * Finds execution history entries recorded for a deployed rule set ID, paginated
+     *
+     * @param ruleSetName The rule set ID the rule set was deployed under
+     * @param pageable    The pagination information
+     * @return Page of execution history entries for the rule set
+     */
+    Page<RuleExecutionHistory> findByRuleSetName(String ruleSetName, Pageable pageable);
+
     /**
      * Finds successful execution history entries
      *
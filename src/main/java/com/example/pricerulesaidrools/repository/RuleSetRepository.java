@@ -1,5 +1,6 @@
 package com.example.pricerulesaidrools.repository;
 
+import com.example.pricerulesaidrools.drools.model.RuleSetMetadata;
 import com.example.pricerulesaidrools.model.RuleSet;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -30,6 +31,23 @@ public interface RuleSetRepository extends JpaRepository<RuleSet, Long> {
      */
     List<RuleSet> findByActiveTrue();
 
+    /**
+     * Finds all rule sets deployed to the rule engine, in any deployment status
+     *
+     * @return List of deployed rule sets
+     */
+    List<RuleSet> findByDeploymentStatusIsNotNull();
+
+    /**
+     * Finds a deployed rule set by the version label of its DRL
+     *
+     * @param deployedVersion The version label
+     * @param deploymentStatus The deployment status
+     * @return The first matching rule set, if found
+     */
+    Optional<RuleSet> findFirstByDeployedVersionAndDeploymentStatus(String deployedVersion,
+                                                                    RuleSetMetadata.RuleStatus deploymentStatus);
+
     /**
      * Finds rule sets created by a specific user
      *
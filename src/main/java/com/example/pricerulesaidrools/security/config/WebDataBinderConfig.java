@@ -120,6 +120,7 @@ public class WebDataBinderConfig {
             case "deployRules":
             case "updateRules":
             case "validateRules":
+            case "startShadow":
                 // RuleRequest fields
                 binder.setAllowedFields(
                         "name",
@@ -129,6 +130,8 @@ public class WebDataBinderConfig {
                         "metadata");
                 break;
             case "executeRules":
+            case "executeRulesAsync":
+            case "profileRules":
                 // RuleExecutionRequest fields
                 binder.setAllowedFields(
                         "ruleSetId",
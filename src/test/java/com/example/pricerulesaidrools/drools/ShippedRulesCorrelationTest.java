@@ -0,0 +1,97 @@
+package com.example.pricerulesaidrools.drools;
+
+import com.example.pricerulesaidrools.drools.tier.TierTableGlobals;
+import com.example.pricerulesaidrools.model.FinancialMetrics;
+import com.example.pricerulesaidrools.model.PricingRequest;
+import com.example.pricerulesaidrools.model.PricingResult;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.Message;
+import org.kie.api.runtime.KieSession;
+import org.kie.internal.io.ResourceFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards correlated batch execution: facts of different requests share one session,
+ * so no shipped rule may join facts across correlation IDs.
+ */
+class ShippedRulesCorrelationTest {
+
+    private static final Pattern FACT_PATTERN =
+            Pattern.compile("(PricingRequest|FinancialMetrics|PricingResult)\\(([^\\n]*)");
+
+    @Test
+    void everyPricingPatternIsJoinedOnCorrelationId() throws Exception {
+        Resource[] drls = new PathMatchingResourcePatternResolver().getResources("classpath*:rules/**/*.drl");
+        assertThat(drls).isNotEmpty();
+
+        for (Resource drl : drls) {
+            String content = drl.getContentAsString(StandardCharsets.UTF_8);
+            Matcher matcher = FACT_PATTERN.matcher(content);
+            while (matcher.find()) {
+                String constraints = matcher.group(2);
+                String expected = matcher.group(1).equals("PricingRequest") ? "$cid : correlationId" : "correlationId == $cid";
+                assertThat(constraints)
+                        .as("%s pattern in %s", matcher.group(1), drl.getFilename())
+                        .contains(expected);
+            }
+        }
+    }
+
+    @Test
+    void requestsSharingASessionOnlyMatchTheirOwnFacts() {
+        KieServices kieServices = KieServices.Factory.get();
+        KieFileSystem kfs = kieServices.newKieFileSystem();
+        kfs.write("src/main/resources/rules/volume-discount-rules.drl",
+                ResourceFactory.newClassPathResource("rules/volume-discount-rules.drl"));
+        KieBuilder kieBuilder = kieServices.newKieBuilder(kfs).buildAll();
+        assertThat(kieBuilder.getResults().getMessages(Message.Level.ERROR)).isEmpty();
+
+        Logger ruleLogger = Logger.getLogger("correlation-test");
+        ruleLogger.setLevel(Level.OFF);
+        KieSession session = kieServices.newKieContainer(kieBuilder.getKieModule().getReleaseId()).newKieSession();
+        session.setGlobal("logger", ruleLogger);
+        TierTableGlobals.defaults(session.getKieBase()).bind(session);
+
+        PricingResult small = insertRequest(session, "a", 150_000);
+        PricingResult large = insertRequest(session, "b", 1_500_000);
+        session.fireAllRules();
+        session.dispose();
+
+        assertThat(small.getAppliedRules()).containsExactly("Volume Discount - Tier 1");
+        assertThat(large.getAppliedRules()).doesNotContain("Volume Discount - Tier 1");
+        assertThat(small.getDiscount()).isLessThan(large.getDiscount());
+    }
+
+    private static PricingResult insertRequest(KieSession session, String correlationId, long arr) {
+        FinancialMetrics metrics = FinancialMetrics.builder()
+                .arr(BigDecimal.valueOf(arr))
+                .correlationId(correlationId)
+                .build();
+        PricingRequest request = PricingRequest.builder()
+                .basePrice(10_000)
+                .financialMetrics(metrics)
+                .correlationId(correlationId)
+                .build();
+        PricingResult result = PricingResult.builder()
+                .finalPrice(10_000)
+                .correlationId(correlationId)
+                .build();
+        session.insert(request);
+        session.insert(metrics);
+        session.insert(result);
+        return result;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.pricerulesaidrools.drools;
+
+import com.example.pricerulesaidrools.drools.tier.TierTableGlobals;
+import com.example.pricerulesaidrools.model.FinancialMetrics;
+import com.example.pricerulesaidrools.model.PricingRequest;
+import com.example.pricerulesaidrools.model.PricingResult;
+import org.drools.model.codegen.ExecutableModelProject;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.Message;
+import org.kie.api.runtime.KieSession;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards against shipped rules that match their own changes again: every request must
+ * finish firing well below the limit, under plain DRL and the executable model alike.
+ */
+class ShippedRulesTerminationTest {
+
+    private static final int FIRING_LIMIT = 1_000;
+
+    @Test
+    void everyRequestStopsFiring() throws Exception {
+        Logger ruleLogger = Logger.getLogger("termination-test");
+        ruleLogger.setLevel(Level.OFF);
+
+        for (boolean executableModel : new boolean[] {false, true}) {
+            KieBase kieBase = buildShippedRules(executableModel);
+            for (int seed = 0; seed < 120; seed++) {
+                KieSession session = kieBase.newKieSession();
+                session.setGlobal("logger", ruleLogger);
+                TierTableGlobals.defaults(kieBase).bind(session);
+                PricingResult result = insertRequest(session, seed);
+
+                int fired = session.fireAllRules(FIRING_LIMIT);
+                session.dispose();
+
+                assertThat(fired)
+                        .as("rules fired for request %d (executable model %s): %s",
+                                seed, executableModel, result.getAppliedRules())
+                        .isLessThan(FIRING_LIMIT);
+            }
+        }
+    }
+
+    private static KieBase buildShippedRules(boolean executableModel) throws Exception {
+        KieServices kieServices = KieServices.Factory.get();
+        KieFileSystem kfs = kieServices.newKieFileSystem();
+        for (Resource drl : new PathMatchingResourcePatternResolver().getResources("classpath:rules/*.drl")) {
+            kfs.write("src/main/resources/rules/" + drl.getFilename(), drl.getContentAsString(StandardCharsets.UTF_8));
+        }
+        KieBuilder kieBuilder = executableModel
+                ? kieServices.newKieBuilder(kfs).buildAll(ExecutableModelProject.class)
+                : kieServices.newKieBuilder(kfs).buildAll();
+        assertThat(kieBuilder.getResults().getMessages(Message.Level.ERROR)).isEmpty();
+        return kieServices.newKieContainer(kieBuilder.getKieModule().getReleaseId()).getKieBase();
+    }
+
+    private static PricingResult insertRequest(KieSession session, int seed) {
+        FinancialMetrics metrics = FinancialMetrics.builder()
+                .arr(BigDecimal.valueOf(50_000L + (seed % 40) * 30_000L))
+                .tcv(BigDecimal.valueOf(40_000L + (seed % 30) * 45_000L))
+                .acv(BigDecimal.valueOf(5_000L + (seed % 25) * 25_000L))
+                .clv(BigDecimal.valueOf(250_000L))
+                .churnRiskScore(BigDecimal.valueOf(seed % 100))
+                .churnTrend(seed % 3 == 0 ? "INCREASING" : "STABLE")
+                .growthRate(BigDecimal.valueOf(seed % 80))
+                .contractMonths(12 + (seed % 4) * 12)
+                .correlationId("r" + seed)
+                .build();
+        PricingRequest request = PricingRequest.builder()
+                .customerId("C" + seed)
+                .basePrice(10_000 + seed % 1_000)
+                .quantity(1 + seed % 50)
+                .customerTenureMonths(seed % 48)
+                .contractLengthMonths(12 + (seed % 4) * 12)
+                .financialMetrics(metrics)
+                .correlationId("r" + seed)
+                .build();
+        PricingResult result = PricingResult.builder()
+                .finalPrice(request.getBasePrice())
+                .correlationId("r" + seed)
+                .build();
+        session.insert(request);
+        session.insert(metrics);
+        session.insert(result);
+        return result;
+    }
+}
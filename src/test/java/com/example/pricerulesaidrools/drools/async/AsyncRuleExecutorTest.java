@@ -0,0 +1,100 @@
+package com.example.pricerulesaidrools.drools.async;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import com.example.pricerulesaidrools.drools.exception.DroolsApiException;
+import com.example.pricerulesaidrools.drools.exception.DroolsErrorCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncRuleExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AsyncRuleExecutor executor;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        DroolsProperties droolsProperties = new DroolsProperties();
+        droolsProperties.getAsync().setThreads(1);
+        droolsProperties.getAsync().setQueueCapacity(1);
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new AsyncRuleExecutor(droolsProperties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void executesOffTheCallingThread() throws Exception {
+        Thread caller = Thread.currentThread();
+
+        Thread worker = executor.submit("rules", 1_000, Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+        assertThat(worker).isNotSameAs(caller);
+        assertThat(worker.getName()).startsWith("drools-async-");
+    }
+
+    @Test
+    void fullQueueRejectsImmediately() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        executor.submit("rules", 10_000, () -> {
+            running.countDown();
+            return await(release);
+        });
+        running.await(5, TimeUnit.SECONDS);
+        executor.submit("rules", 10_000, () -> "queued");
+
+        CompletableFuture<String> shed = executor.submit("rules", 10_000, () -> "shed");
+
+        assertRejected(shed);
+        assertThat(meterRegistry.get("drools.async.rejections").tag("reason", "queue_full").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void requestWhoseDeadlinePassesInTheQueueIsNotExecuted() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        executor.submit("rules", 10_000, () -> {
+            running.countDown();
+            return await(release);
+        });
+        running.await(5, TimeUnit.SECONDS);
+        CompletableFuture<String> expired = executor.submit("rules", 1, () -> "too late");
+
+        Thread.sleep(20);
+        release.countDown();
+
+        assertRejected(expired);
+        assertThat(meterRegistry.get("drools.async.rejections").tag("reason", "expired").counter().count())
+                .isEqualTo(1);
+    }
+
+    private static String await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+
+    private static void assertRejected(CompletableFuture<?> future) {
+        assertThat(future).failsWithin(5, TimeUnit.SECONDS)
+                .withThrowableOfType(ExecutionException.class)
+                .havingCause()
+                .isInstanceOfSatisfying(DroolsApiException.class, e ->
+                        assertThat(e.getErrorCode()).isEqualTo(DroolsErrorCode.RULE_EXECUTION_REJECTED));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.pricerulesaidrools.drools.batch;
+
+import org.drools.model.codegen.ExecutableModelProject;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.Message;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CorrelationCheckTest {
+
+    private static final String HEADER = """
+            package pricing;
+
+            import com.example.pricerulesaidrools.model.PricingRequest;
+            import com.example.pricerulesaidrools.model.PricingResult;
+
+            """;
+
+    private static final String JOINED = HEADER + """
+            rule "Joined"
+                when
+                    $request : PricingRequest($cid : correlationId, basePrice > 0)
+                    $result : PricingResult(correlationId == $cid, discount == 0)
+                    not PricingResult(correlationId == $cid, calculationComplete == true)
+                then
+                    $result.setDiscount(0.1);
+            end
+
+            rule "Single fact"
+                when
+                    $result : PricingResult(finalPrice > 100)
+                then
+                    $result.setDiscount(0.2);
+            end
+            """;
+
+    private static final String UNJOINED = HEADER + """
+            rule "Unjoined"
+                when
+                    $request : PricingRequest(basePrice > 0)
+                    $result : PricingResult(discount == 0)
+                then
+                    $result.setDiscount(0.1);
+            end
+            """;
+
+    private static final String UNJOINED_NEGATION = HEADER + """
+            rule "Unjoined negation"
+                when
+                    $request : PricingRequest($cid : correlationId)
+                    not PricingResult(calculationComplete == true)
+                then
+                    $request.setBasePrice(1);
+            end
+            """;
+
+    private static final String JOINED_ON_OTHER_FIELD = HEADER + """
+            rule "Joined on customer"
+                when
+                    $request : PricingRequest($cid : correlationId, $customer : customerId)
+                    $result : PricingResult(discountDescription == $customer)
+                then
+                    $result.setDiscount(0.1);
+            end
+            """;
+
+    @Test
+    void rulesJoinedOnTheCorrelationIdPass() {
+        assertThatCode(() -> CorrelationCheck.verify(build(JOINED, false))).doesNotThrowAnyException();
+        assertThatCode(() -> CorrelationCheck.verify(build(JOINED, true))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shippedRulesPass() throws Exception {
+        KieServices kieServices = KieServices.Factory.get();
+        KieFileSystem kfs = kieServices.newKieFileSystem();
+        for (Resource drl : new PathMatchingResourcePatternResolver().getResources("classpath:rules/*.drl")) {
+            kfs.write("src/main/resources/rules/" + drl.getFilename(), drl.getContentAsString(StandardCharsets.UTF_8));
+        }
+        KieBuilder kieBuilder = kieServices.newKieBuilder(kfs).buildAll(ExecutableModelProject.class);
+        assertThat(kieBuilder.getResults().getMessages(Message.Level.ERROR)).isEmpty();
+
+        KieBase kieBase = kieServices.newKieContainer(kieBuilder.getKieModule().getReleaseId()).getKieBase();
+
+        assertThatCode(() -> CorrelationCheck.verify(kieBase)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void rulesMatchingFactsOfDifferentRequestsAreRejected() {
+        for (boolean executableModel : new boolean[] {false, true}) {
+            assertThatThrownBy(() -> CorrelationCheck.verify(build(UNJOINED, executableModel)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("pricing.Unjoined");
+            assertThatThrownBy(() -> CorrelationCheck.verify(build(UNJOINED_NEGATION, executableModel)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("pricing.Unjoined negation");
+            assertThatThrownBy(() -> CorrelationCheck.verify(build(JOINED_ON_OTHER_FIELD, executableModel)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("pricing.Joined on customer");
+        }
+    }
+
+    private static KieBase build(String drl, boolean executableModel) {
+        KieServices kieServices = KieServices.Factory.get();
+        KieFileSystem kfs = kieServices.newKieFileSystem();
+        kfs.write("src/main/resources/pricing/rules.drl", drl);
+        KieBuilder kieBuilder = executableModel
+                ? kieServices.newKieBuilder(kfs).buildAll(ExecutableModelProject.class)
+                : kieServices.newKieBuilder(kfs).buildAll();
+        assertThat(kieBuilder.getResults().getMessages(Message.Level.ERROR)).isEmpty();
+        return kieServices.newKieContainer(kieBuilder.getKieModule().getReleaseId()).getKieBase();
+    }
+}
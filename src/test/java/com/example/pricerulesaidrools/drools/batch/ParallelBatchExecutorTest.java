@@ -0,0 +1,157 @@
+package com.example.pricerulesaidrools.drools.batch;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelBatchExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ParallelBatchExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        DroolsProperties droolsProperties = new DroolsProperties();
+        droolsProperties.getBatch().setParallelism(4);
+        droolsProperties.getBatch().setChunkSize(7);
+        droolsProperties.getBatch().setMaxInFlight(3);
+        droolsProperties.getBatch().setStreamWindow(10);
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new ParallelBatchExecutor(droolsProperties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void resultsKeepInputOrder() {
+        List<Integer> items = IntStream.range(0, 1_000).boxed().toList();
+
+        List<Integer> results = executor.execute(items, item -> item * 2);
+
+        assertThat(results).containsExactlyElementsOf(items.stream().map(item -> item * 2).toList());
+    }
+
+    @Test
+    void failingItemYieldsNullWithoutFailingTheBatch() {
+        List<Integer> items = IntStream.range(0, 50).boxed().toList();
+
+        List<Integer> results = executor.execute(items, item -> {
+            if (item == 13) {
+                throw new IllegalStateException("boom");
+            }
+            return item;
+        });
+
+        assertThat(results).hasSize(50);
+        assertThat(results.get(13)).isNull();
+        assertThat(results.get(14)).isEqualTo(14);
+        assertThat(meterRegistry.get("drools.batch.item.failures").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void concurrentItemsNeverExceedMaxInFlight() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<Integer> items = IntStream.range(0, 200).boxed().toList();
+
+        executor.execute(items, item -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return item;
+        });
+
+        assertThat(peak.get()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void streamDeliversEveryResultWithItsIndex() throws IOException {
+        Map<Long, Integer> results = new ConcurrentHashMap<>();
+        Map<Long, Exception> failures = new ConcurrentHashMap<>();
+
+        long count = executor.stream(IntStream.range(0, 500).boxed().iterator(), item -> {
+            if (item == 42) {
+                throw new IllegalStateException("boom");
+            }
+            return item * 2;
+        }, new ParallelBatchExecutor.StreamSink<>() {
+            @Override
+            public void accept(long index, Integer result, Exception failure) {
+                if (failure != null) {
+                    failures.put(index, failure);
+                } else {
+                    results.put(index, result);
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+        });
+
+        assertThat(count).isEqualTo(500);
+        assertThat(results).hasSize(499);
+        assertThat(results.get(100L)).isEqualTo(200);
+        assertThat(failures).containsOnlyKeys(42L);
+    }
+
+    @Test
+    void slowSinkStopsReadingAtTheStreamWindow() throws IOException {
+        AtomicInteger read = new AtomicInteger();
+        AtomicInteger peakRead = new AtomicInteger();
+        Iterator<Integer> source = IntStream.range(0, 200).boxed().iterator();
+        Iterator<Integer> counting = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public Integer next() {
+                read.incrementAndGet();
+                return source.next();
+            }
+        };
+
+        AtomicInteger written = new AtomicInteger();
+        executor.stream(counting, item -> item, new ParallelBatchExecutor.StreamSink<>() {
+            @Override
+            public void accept(long index, Integer result, Exception failure) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                // Items read but not yet written never exceed the window
+                peakRead.accumulateAndGet(read.get() - written.get(), Math::max);
+                written.incrementAndGet();
+            }
+
+            @Override
+            public void flush() {
+            }
+        });
+
+        assertThat(written.get()).isEqualTo(200);
+        assertThat(peakRead.get()).isLessThanOrEqualTo(10);
+    }
+}
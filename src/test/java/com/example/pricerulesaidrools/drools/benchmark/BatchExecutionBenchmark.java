@@ -0,0 +1,82 @@
+package com.example.pricerulesaidrools.drools.benchmark;
+
+import com.example.pricerulesaidrools.drools.batch.ParallelBatchExecutor;
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import com.example.pricerulesaidrools.drools.session.KieSessionPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures batch throughput of a 5,000-quote batch as parallelism grows from
+ * one worker to the number of available cores.
+ */
+@Tag("benchmark")
+class BatchExecutionBenchmark {
+
+    private static final int BATCH_SIZE = 5_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void throughputScalesWithCores() {
+        KieBase kieBase = BenchmarkSupport.buildKieBase(BenchmarkSupport.PRICING_RULE_FILES);
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Map<String, Object>> batch = IntStream.range(0, BATCH_SIZE)
+                .mapToObj(BenchmarkSupport::pricingFacts)
+                .toList();
+
+        System.out.println();
+        System.out.printf("=== Batch of %d quotes, %d cores ===%n", BATCH_SIZE, cores);
+        System.out.printf("%-12s %14s %10s%n", "parallelism", "quotes/s", "speedup");
+
+        double baseline = 0;
+        for (int parallelism = 1; parallelism <= cores; parallelism *= 2) {
+            DroolsProperties droolsProperties = new DroolsProperties();
+            droolsProperties.getBatch().setParallelism(parallelism);
+            droolsProperties.getBatch().setMaxInFlight(parallelism);
+            ParallelBatchExecutor executor = new ParallelBatchExecutor(droolsProperties, new SimpleMeterRegistry());
+            KieSessionPool pool = new KieSessionPool("batch", kieBase, BenchmarkSupport::initSession,
+                    parallelism, 5_000, new SimpleMeterRegistry());
+            try {
+                // Warm up the JIT and fill the session pool
+                executor.execute(batch, facts -> execute(pool, facts));
+
+                long start = System.nanoTime();
+                for (int round = 0; round < ROUNDS; round++) {
+                    List<Integer> results = executor.execute(batch, facts -> execute(pool, facts));
+                    assertThat(results).hasSize(BATCH_SIZE).doesNotContainNull();
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                double throughput = ROUNDS * BATCH_SIZE / seconds;
+                if (parallelism == 1) {
+                    baseline = throughput;
+                }
+                System.out.printf("%-12d %14.0f %9.2fx%n", parallelism, throughput, throughput / baseline);
+            } finally {
+                executor.shutdown();
+                pool.close();
+            }
+            if (parallelism < cores && parallelism * 2 > cores) {
+                parallelism = cores / 2;
+            }
+        }
+    }
+
+    private static int execute(KieSessionPool pool, Map<String, Object> facts) {
+        KieSession session = pool.borrow();
+        try {
+            facts.values().forEach(session::insert);
+            return session.fireAllRules();
+        } finally {
+            pool.release(session);
+        }
+    }
+}
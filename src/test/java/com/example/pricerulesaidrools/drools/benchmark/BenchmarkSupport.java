@@ -0,0 +1,235 @@
+package com.example.pricerulesaidrools.drools.benchmark;
+
+import com.example.pricerulesaidrools.drools.tier.TierTableGlobals;
+import com.example.pricerulesaidrools.model.FinancialMetrics;
+import com.example.pricerulesaidrools.model.PricingRequest;
+import com.example.pricerulesaidrools.model.PricingResult;
+import org.drools.model.codegen.ExecutableModelProject;
+import org.kie.api.KieBase;
+import org.kie.api.KieBaseConfiguration;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.Message;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.StatelessKieSession;
+import org.kie.internal.io.ResourceFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+/**
+ * Shared helpers for the rule engine benchmarks.
+ * Benchmarks are tagged "benchmark" and only run with the benchmark Maven profile:
+ * {@code mvn test -Pbenchmark}
+ */
+final class BenchmarkSupport {
+
+    static final String[] PRICING_RULE_FILES = {
+            "volume-discount-rules.drl",
+            "tcv-pricing-tier-rules.drl",
+            "churn-risk-adjustment-rules.drl",
+            "acv-minimum-commitment-rules.drl"
+    };
+
+    static final Logger RULE_LOGGER = Logger.getLogger("benchmark");
+
+    static {
+        // Keep rule consequences from dominating the measurements with console output
+        RULE_LOGGER.setLevel(java.util.logging.Level.OFF);
+    }
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Compiles the given classpath rule files (relative to rules/) into a KieBase, as the executable
+     * model the service builds deployed rule sets with
+     */
+    static KieBase buildKieBase(String... ruleFiles) {
+        return buildKieContainer(true, ruleFiles).getKieBase();
+    }
+
+    /**
+     * Compiles the given classpath rule files (relative to rules/) into an executable model KieBase
+     * with the given configuration
+     */
+    static KieBase buildKieBase(KieBaseConfiguration configuration, String... ruleFiles) {
+        return buildKieContainer(true, ruleFiles).newKieBase(configuration);
+    }
+
+    /**
+     * Compiles the given classpath rule files (relative to rules/) from plain DRL, as the service
+     * does with the executable model disabled
+     */
+    static KieBase buildDrlKieBase(String... ruleFiles) {
+        return buildKieContainer(false, ruleFiles).getKieBase();
+    }
+
+    private static KieContainer buildKieContainer(boolean executableModel, String... ruleFiles) {
+        KieServices kieServices = KieServices.Factory.get();
+        KieFileSystem kfs = kieServices.newKieFileSystem();
+        for (String ruleFile : ruleFiles) {
+            kfs.write("src/main/resources/rules/" + ruleFile,
+                    ResourceFactory.newClassPathResource("rules/" + ruleFile));
+        }
+        KieBuilder kieBuilder = executableModel
+                ? kieServices.newKieBuilder(kfs).buildAll(ExecutableModelProject.class)
+                : kieServices.newKieBuilder(kfs).buildAll();
+        if (kieBuilder.getResults().hasMessages(Message.Level.ERROR)) {
+            throw new IllegalStateException("Benchmark rules failed to compile: "
+                    + kieBuilder.getResults().getMessages(Message.Level.ERROR));
+        }
+        return kieServices.newKieContainer(kieBuilder.getKieModule().getReleaseId());
+    }
+
+    /**
+     * Creates a session with the globals the bundled rule files declare
+     */
+    static KieSession newSession(KieBase kieBase) {
+        KieSession session = kieBase.newKieSession();
+        initSession(session);
+        return session;
+    }
+
+    static void initSession(KieSession session) {
+        session.setGlobal("logger", RULE_LOGGER);
+        TierTableGlobals.defaults(session.getKieBase()).bind(session);
+    }
+
+    /**
+     * Creates a stateless session with the globals the bundled rule files declare
+     */
+    static StatelessKieSession newStatelessSession(KieBase kieBase) {
+        StatelessKieSession session = kieBase.newStatelessKieSession();
+        session.setGlobal("logger", RULE_LOGGER);
+        TierTableGlobals.defaults(kieBase).bind(session);
+        return session;
+    }
+
+    /**
+     * Builds a representative pricing fact set; the seed varies the tiers that fire
+     */
+    static Map<String, Object> pricingFacts(int seed) {
+        FinancialMetrics metrics = FinancialMetrics.builder()
+                .customerId("C" + seed)
+                .arr(BigDecimal.valueOf(50_000L + (seed % 40) * 30_000L))
+                .tcv(BigDecimal.valueOf(40_000L + (seed % 30) * 45_000L))
+                .acv(BigDecimal.valueOf(5_000L + (seed % 25) * 25_000L))
+                .clv(BigDecimal.valueOf(250_000L))
+                .churnRiskScore(BigDecimal.valueOf(seed % 100))
+                .churnTrend(seed % 3 == 0 ? "INCREASING" : "STABLE")
+                .growthRate(BigDecimal.valueOf(seed % 80))
+                .contractMonths(12 + (seed % 4) * 12)
+                .build();
+        PricingRequest request = PricingRequest.builder()
+                .customerId("C" + seed)
+                .basePrice(10_000 + seed % 1_000)
+                .quantity(1 + seed % 50)
+                .productId("P1")
+                .customerTenureMonths(seed % 48)
+                .contractLengthMonths(12 + (seed % 4) * 12)
+                .financialMetrics(metrics)
+                .build();
+        PricingResult result = PricingResult.builder()
+                .finalPrice(request.getBasePrice())
+                .build();
+
+        Map<String, Object> facts = new HashMap<>();
+        facts.put("pricingRequest", request);
+        facts.put("financialMetrics", metrics);
+        facts.put("pricingResult", result);
+        return facts;
+    }
+
+    /**
+     * Runs the operation from the given number of threads and collects per-call latencies
+     *
+     * @param threads Number of concurrent callers
+     * @param callsPerThread Measured calls per caller, after an equal number of warm-up calls
+     * @param operation The operation; receives a per-call sequence number
+     * @return Measured run statistics
+     */
+    static RunResult runConcurrent(int threads, int callsPerThread, IntOperation operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            runPhase(executor, threads, callsPerThread, operation, null);
+            long[][] latencies = new long[threads][callsPerThread];
+            long start = System.nanoTime();
+            runPhase(executor, threads, callsPerThread, operation, latencies);
+            long elapsed = System.nanoTime() - start;
+            return RunResult.of(threads, latencies, elapsed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void runPhase(ExecutorService executor, int threads, int callsPerThread,
+                                 IntOperation operation, long[][] latencies) throws Exception {
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                for (int i = 0; i < callsPerThread; i++) {
+                    long callStart = System.nanoTime();
+                    operation.run(thread * callsPerThread + i);
+                    if (latencies != null) {
+                        latencies[thread][i] = System.nanoTime() - callStart;
+                    }
+                }
+                return null;
+            }));
+        }
+        startGate.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    static void printHeader(String title) {
+        System.out.println();
+        System.out.println("=== " + title + " ===");
+        System.out.printf("%-28s %8s %14s %10s %10s %10s%n",
+                "variant", "threads", "ops/s", "p50 us", "p99 us", "max us");
+    }
+
+    static void printRow(String variant, RunResult result) {
+        System.out.printf("%-28s %8d %14.0f %10.1f %10.1f %10.1f%n",
+                variant, result.threads(), result.opsPerSecond(),
+                result.p50Micros(), result.p99Micros(), result.maxMicros());
+    }
+
+    @FunctionalInterface
+    interface IntOperation {
+        void run(int sequence) throws Exception;
+    }
+
+    record RunResult(int threads, double opsPerSecond, double p50Micros, double p99Micros, double maxMicros) {
+
+        static RunResult of(int threads, long[][] latencies, long elapsedNanos) {
+            long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+            double opsPerSecond = all.length / (elapsedNanos / 1_000_000_000.0);
+            return new RunResult(threads, opsPerSecond,
+                    percentile(all, 0.50) / 1_000.0,
+                    percentile(all, 0.99) / 1_000.0,
+                    all[all.length - 1] / 1_000.0);
+        }
+
+        private static long percentile(long[] sorted, double quantile) {
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.pricerulesaidrools.drools.benchmark;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import com.example.pricerulesaidrools.drools.dto.RuleExecutionRequest;
+import com.example.pricerulesaidrools.drools.schema.FactSchemaModule;
+import com.example.pricerulesaidrools.drools.schema.FactSchemaRegistry;
+import com.example.pricerulesaidrools.drools.store.RuleSetStore;
+import com.example.pricerulesaidrools.model.FinancialMetrics;
+import com.example.pricerulesaidrools.model.PricingRequest;
+import com.example.pricerulesaidrools.model.PricingResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cost of turning an execution request body into facts the pricing rules can match:
+ * reading the facts as generic maps and converting each one to its model class, versus
+ * binding them to the model classes directly through the fact schema.
+ */
+@Tag("benchmark")
+class FactBindingBenchmark {
+
+    private static final String BODY = """
+            {"ruleSetId": "pricing",
+             "facts": {
+               "pricingRequest": {"customerId": "C1", "basePrice": 12000.0, "quantity": 25, "productId": "P1",
+                                  "customerTenureMonths": 30, "contractLengthMonths": 36},
+               "financialMetrics": {"customerId": "C1", "arr": 350000, "tcv": 1050000, "acv": 350000,
+                                    "clv": 900000, "churnRiskScore": 0.35, "churnTrend": "STABLE",
+                                    "growthRate": 12.5, "contractMonths": 36},
+               "pricingResult": {"finalPrice": 12000.0}
+             }}""";
+    private static final int WARMUP = 50_000;
+    private static final int REQUESTS = 200_000;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mapsAndConversionVersusDirectBinding() throws Exception {
+        ObjectMapper generic = new ObjectMapper();
+        ObjectReader genericReader = generic.readerFor(RuleExecutionRequest.class);
+
+        ObjectMapper typed = new ObjectMapper();
+        RuleSetStore ruleSetStore = mock(RuleSetStore.class);
+        when(ruleSetStore.find(anyString())).thenReturn(Optional.empty());
+        ObjectProvider<ObjectMapper> objectMapperProvider = mock(ObjectProvider.class);
+        when(objectMapperProvider.getObject()).thenReturn(typed);
+        FactSchemaRegistry registry = new FactSchemaRegistry(new DroolsProperties(), ruleSetStore, objectMapperProvider);
+        registry.register("pricing", null);
+        typed.registerModule(new FactSchemaModule(registry));
+        ObjectReader typedReader = typed.readerFor(RuleExecutionRequest.class);
+
+        Binding convert = () -> {
+            RuleExecutionRequest request = genericReader.readValue(BODY);
+            Map<String, Object> facts = request.getFacts();
+            facts.put("pricingRequest", generic.convertValue(facts.get("pricingRequest"), PricingRequest.class));
+            facts.put("financialMetrics", generic.convertValue(facts.get("financialMetrics"), FinancialMetrics.class));
+            facts.put("pricingResult", generic.convertValue(facts.get("pricingResult"), PricingResult.class));
+            return request;
+        };
+        Binding direct = () -> typedReader.readValue(BODY);
+
+        Map<String, Object> directFacts = direct.bind().getFacts();
+        assertThat(directFacts.get("pricingRequest")).isEqualTo(convert.bind().getFacts().get("pricingRequest"));
+        assertThat(directFacts.get("financialMetrics")).isInstanceOf(FinancialMetrics.class);
+        assertThat(directFacts.get("pricingResult")).isInstanceOf(PricingResult.class);
+
+        System.out.println();
+        System.out.println("=== Fact binding: " + REQUESTS + " execution requests ===");
+        System.out.printf("%-28s %12s %16s%n", "path", "ns/request", "bytes/request");
+        printRow("maps + convertValue", measure(convert));
+        printRow("maps only (unmatchable)", measure(() -> genericReader.readValue(BODY)));
+        printRow("fact schema", measure(direct));
+    }
+
+    private static long[] measure(Binding binding) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        try {
+            for (int i = 0; i < WARMUP; i++) {
+                binding.bind();
+            }
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                binding.bind();
+            }
+            long elapsed = System.nanoTime() - start;
+            long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            return new long[] {elapsed / REQUESTS, allocated / REQUESTS};
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void printRow(String path, long[] result) {
+        System.out.printf("%-28s %12d %16d%n", path, result[0], result[1]);
+    }
+
+    @FunctionalInterface
+    private interface Binding {
+        RuleExecutionRequest bind() throws Exception;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.pricerulesaidrools.drools.benchmark;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import com.example.pricerulesaidrools.drools.update.IncrementalKieBaseUpdater;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.Message;
+import org.kie.api.builder.ReleaseId;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.KieSession;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Time to make a one-rule change to a 1,000-rule base live: compiling the whole rule set
+ * into a new KieBase, as every update did before, versus building a new KieBase from the
+ * live version's module and compiling just the changed rule into it. Both KieBases must
+ * fire the same rules afterwards.
+ */
+@Tag("benchmark")
+class IncrementalUpdateBenchmark {
+
+    private static final int RULES = 1_000;
+    private static final int ITERATIONS = 10;
+
+    @Test
+    void oneRuleChangeOnThousandRuleBase() {
+        KieServices kieServices = KieServices.Factory.get();
+        IncrementalKieBaseUpdater updater = new IncrementalKieBaseUpdater(new DroolsProperties(),
+                new SimpleMeterRegistry());
+        int[] thresholds = new int[RULES];
+        Arrays.setAll(thresholds, rule -> rule * 10);
+        String moduleContent = ruleSet(thresholds);
+        KieContainer live = newKieContainer(kieServices, moduleContent, 0);
+
+        long[] fullMillis = new long[ITERATIONS];
+        long[] incrementalMillis = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            // Change a different rule every time, so nothing is reused from the previous iteration
+            thresholds[i * 97 % RULES] += 5;
+            String next = ruleSet(thresholds);
+
+            long start = System.nanoTime();
+            KieBase rebuilt = newKieContainer(kieServices, next, i + 1).getKieBase();
+            fullMillis[i] = (System.nanoTime() - start) / 1_000_000;
+
+            // Every update starts from the module, so the changes accumulate as they would in the service
+            start = System.nanoTime();
+            KieBase updated = live.newKieBase(kieServices.newKieBaseConfiguration());
+            assertThat(updater.update(updated, moduleContent, next)).isTrue();
+            incrementalMillis[i] = (System.nanoTime() - start) / 1_000_000;
+
+            assertThat(fire(updated)).isEqualTo(fire(rebuilt));
+        }
+
+        System.out.println();
+        System.out.println("=== Update: one changed rule in a " + RULES + "-rule base ===");
+        System.out.printf("%-28s %12s %12s %12s%n", "path", "first ms", "median ms", "max ms");
+        printRow("full rebuild", fullMillis);
+        printRow("incremental update", incrementalMillis);
+    }
+
+    private static KieContainer newKieContainer(KieServices kieServices, String content, int version) {
+        ReleaseId releaseId = kieServices.newReleaseId("benchmark", "incremental", "1.0." + version);
+        KieFileSystem kfs = kieServices.newKieFileSystem();
+        kfs.generateAndWritePomXML(releaseId);
+        kfs.write("src/main/resources/rules/benchmark.drl", content);
+        KieBuilder kieBuilder = kieServices.newKieBuilder(kfs).buildAll();
+        assertThat(kieBuilder.getResults().getMessages(Message.Level.ERROR)).isEmpty();
+        return kieServices.newKieContainer(releaseId);
+    }
+
+    private static String ruleSet(int[] thresholds) {
+        StringBuilder drl = new StringBuilder("""
+                package benchmark;
+
+                global java.util.List results;
+                """);
+        for (int rule = 0; rule < thresholds.length; rule++) {
+            drl.append("""
+
+                    rule "Tier %d"
+                        when
+                            $n : Integer(this >= %d, this < %d)
+                        then
+                            results.add(%d);
+                    end
+                    """.formatted(rule, thresholds[rule], thresholds[rule] + 10, rule));
+        }
+        return drl.toString();
+    }
+
+    private static List<Integer> fire(KieBase kieBase) {
+        KieSession session = kieBase.newKieSession();
+        List<Integer> results = new ArrayList<>();
+        session.setGlobal("results", results);
+        for (int fact = 0; fact < RULES * 10; fact += 7) {
+            session.insert(fact);
+        }
+        session.fireAllRules();
+        session.dispose();
+        results.sort(null);
+        return results;
+    }
+
+    private static void printRow(String label, long[] millis) {
+        long[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-28s %12d %12d %12d%n", label, millis[0], sorted[millis.length / 2],
+                sorted[millis.length - 1]);
+    }
+}
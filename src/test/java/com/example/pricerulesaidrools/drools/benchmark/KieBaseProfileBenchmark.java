@@ -0,0 +1,140 @@
+package com.example.pricerulesaidrools.drools.benchmark;
+
+import com.example.pricerulesaidrools.drools.config.DroolsConfig;
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import com.example.pricerulesaidrools.drools.session.KieSessionPool;
+import com.example.pricerulesaidrools.model.PricingResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.command.Command;
+import org.kie.api.command.KieCommands;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.StatelessKieSession;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every bundled pricing rule set under every KieBase profile configured in
+ * application.yml, to pick the fastest profile per rule set. Profiles added to the
+ * configuration are benchmarked without changes here.
+ * <p>
+ * The "results" column tells whether a profile priced a reference set of requests the
+ * same as the default profile; sequential mode in particular does not re-evaluate rules
+ * after a consequence changes a fact, so a faster profile is only a candidate if it agrees.
+ */
+@Tag("benchmark")
+class KieBaseProfileBenchmark {
+
+    private static final int[] CONCURRENCY = {1, 8};
+    private static final int TOTAL_CALLS = 40_000;
+    private static final int REFERENCE_REQUESTS = 200;
+
+    @Test
+    void profileMatrix() throws Exception {
+        DroolsProperties droolsProperties = loadConfiguredProperties();
+        Map<String, DroolsProperties.KieBaseProfile> profiles = new LinkedHashMap<>();
+        profiles.put("engine defaults", new DroolsProperties.KieBaseProfile());
+        profiles.putAll(droolsProperties.getKieBaseProfiles());
+        KieServices kieServices = KieServices.Factory.get();
+        KieCommands commands = kieServices.getCommands();
+
+        for (String ruleSet : BenchmarkSupport.PRICING_RULE_FILES) {
+            BenchmarkSupport.printHeader("KieBase profiles: " + ruleSet);
+            List<PricingResult> reference = null;
+
+            for (Map.Entry<String, DroolsProperties.KieBaseProfile> profile : profiles.entrySet()) {
+                KieBase kieBase = BenchmarkSupport.buildKieBase(
+                        DroolsConfig.newKieBaseConfiguration(kieServices, profile.getValue()), ruleSet);
+                StatelessKieSession stateless = BenchmarkSupport.newStatelessSession(kieBase);
+
+                List<PricingResult> results = priceReferenceRequests(stateless, commands);
+                if (reference == null) {
+                    reference = results;
+                }
+                String variant = profile.getKey() + (results.equals(reference) ? "" : " (results differ)");
+                // Sequential KieBases only support stateless sessions
+                KieSessionPool pool = profile.getValue().isSequential() ? null : pool(ruleSet, kieBase);
+
+                try {
+                    for (int threads : CONCURRENCY) {
+                        int callsPerThread = TOTAL_CALLS / threads;
+                        BenchmarkSupport.printRow(variant + " stateless", BenchmarkSupport.runConcurrent(
+                                threads, callsPerThread, seq -> executeStateless(stateless, commands, seq)));
+
+                        if (pool != null) {
+                            BenchmarkSupport.printRow(variant + " stateful", BenchmarkSupport.runConcurrent(
+                                    threads, callsPerThread, seq -> executeStateful(pool, seq)));
+                        }
+                    }
+                } finally {
+                    // Executable model KieBases are large; keep only the one being measured
+                    if (pool != null) {
+                        pool.close();
+                    }
+                }
+            }
+        }
+    }
+
+    private static DroolsProperties loadConfiguredProperties() throws IOException {
+        // Only the first document holds the settings shared by every Spring profile
+        List<PropertySource<?>> documents = new YamlPropertySourceLoader()
+                .load("application", new ClassPathResource("application.yml"));
+        Binder binder = new Binder(ConfigurationPropertySources.from(documents.get(0)));
+        DroolsProperties droolsProperties = binder.bind("drools", Bindable.of(DroolsProperties.class))
+                .orElseGet(DroolsProperties::new);
+        assertThat(droolsProperties.getKieBaseProfiles()).isNotEmpty();
+        return droolsProperties;
+    }
+
+    private static List<PricingResult> priceReferenceRequests(StatelessKieSession stateless, KieCommands commands) {
+        List<PricingResult> results = new ArrayList<>(REFERENCE_REQUESTS);
+        for (int seed = 0; seed < REFERENCE_REQUESTS; seed++) {
+            Map<String, Object> facts = executeStateless(stateless, commands, seed);
+            results.add(Objects.requireNonNull((PricingResult) facts.get("pricingResult")));
+        }
+        return results;
+    }
+
+    private static Map<String, Object> executeStateless(StatelessKieSession stateless, KieCommands commands,
+                                                        int seq) {
+        Map<String, Object> facts = BenchmarkSupport.pricingFacts(seq);
+        List<Command<?>> batch = new ArrayList<>(facts.size() + 1);
+        facts.values().forEach(fact -> batch.add(commands.newInsert(fact)));
+        batch.add(commands.newFireAllRules());
+        stateless.execute(commands.newBatchExecution(batch));
+        return facts;
+    }
+
+    private static void executeStateful(KieSessionPool pool, int seq) {
+        KieSession session = pool.borrow();
+        try {
+            BenchmarkSupport.pricingFacts(seq).values().forEach(session::insert);
+            session.setGlobal("logger", BenchmarkSupport.RULE_LOGGER);
+            session.fireAllRules();
+        } finally {
+            pool.release(session);
+        }
+    }
+
+    private static KieSessionPool pool(String ruleSet, KieBase kieBase) {
+        return new KieSessionPool(ruleSet, kieBase, BenchmarkSupport::initSession,
+                16, 5_000, new SimpleMeterRegistry());
+    }
+}
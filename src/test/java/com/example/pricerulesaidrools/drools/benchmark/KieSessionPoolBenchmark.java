@@ -0,0 +1,81 @@
+package com.example.pricerulesaidrools.drools.benchmark;
+
+import com.example.pricerulesaidrools.drools.session.KieSessionPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares pooled KieSessions against a fresh session per execution
+ * at 1, 8 and 64 concurrent callers.
+ */
+@Tag("benchmark")
+class KieSessionPoolBenchmark {
+
+    private static final int[] CONCURRENCY = {1, 8, 64};
+    private static final int TOTAL_CALLS = 64_000;
+
+    private static KieBase kieBase;
+    private static KieSessionPool pool;
+    private static SimpleMeterRegistry meterRegistry;
+
+    @BeforeAll
+    static void setUp() {
+        kieBase = BenchmarkSupport.buildKieBase(BenchmarkSupport.PRICING_RULE_FILES);
+        meterRegistry = new SimpleMeterRegistry();
+        pool = new KieSessionPool("benchmark", kieBase, BenchmarkSupport::initSession,
+                64, 5_000, meterRegistry);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void pooledVersusFreshSessions() throws Exception {
+        BenchmarkSupport.printHeader("KieSession pooling");
+        for (int threads : CONCURRENCY) {
+            int callsPerThread = TOTAL_CALLS / threads;
+
+            BenchmarkSupport.RunResult fresh = BenchmarkSupport.runConcurrent(threads, callsPerThread, seq -> {
+                KieSession session = BenchmarkSupport.newSession(kieBase);
+                try {
+                    execute(session, BenchmarkSupport.pricingFacts(seq));
+                } finally {
+                    session.dispose();
+                }
+            });
+            BenchmarkSupport.printRow("fresh session", fresh);
+
+            BenchmarkSupport.RunResult pooled = BenchmarkSupport.runConcurrent(threads, callsPerThread, seq -> {
+                KieSession session = pool.borrow();
+                try {
+                    execute(session, BenchmarkSupport.pricingFacts(seq));
+                } finally {
+                    pool.release(session);
+                }
+            });
+            BenchmarkSupport.printRow("pooled session", pooled);
+        }
+
+        System.out.printf("pool: created=%d, reset mean=%.1f us, wait max=%.1f us%n",
+                pool.getCreatedCount(),
+                meterRegistry.get("drools.session.pool.reset").timer().mean(java.util.concurrent.TimeUnit.MICROSECONDS),
+                meterRegistry.get("drools.session.pool.wait").timer().max(java.util.concurrent.TimeUnit.MICROSECONDS));
+        assertThat(pool.getCreatedCount()).isLessThanOrEqualTo(64);
+    }
+
+    private static void execute(KieSession session, Map<String, Object> facts) {
+        facts.values().forEach(session::insert);
+        session.fireAllRules();
+    }
+}
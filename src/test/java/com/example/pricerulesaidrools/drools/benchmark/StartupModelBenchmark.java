@@ -0,0 +1,65 @@
+package com.example.pricerulesaidrools.drools.benchmark;
+
+import com.example.pricerulesaidrools.drools.config.DroolsConfig;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.runtime.KieSession;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the time to a first executable session when the classpath rules are
+ * compiled as plain DRL at startup, built into the executable model at startup, or
+ * loaded from the executable model the build generated.
+ */
+@Tag("benchmark")
+class StartupModelBenchmark {
+
+    private static final int ITERATIONS = 10;
+    /** The multi-year discount rule re-matches its own update, so firing is capped */
+    private static final int MAX_FIRINGS = 200;
+    private static final String CLASSPATH_KIE_BASE = "pricing-rules";
+
+    @Test
+    void drlCompilationVersusExecutableModel() {
+        System.out.println();
+        System.out.println("=== Startup: time to first fired session ===");
+        System.out.printf("%-28s %12s %12s %12s%n", "path", "first ms", "median ms", "max ms");
+
+        printStartupRow("DRL compilation", () ->
+                BenchmarkSupport.buildDrlKieBase(BenchmarkSupport.PRICING_RULE_FILES));
+        printStartupRow("executable model", () ->
+                BenchmarkSupport.buildKieBase(BenchmarkSupport.PRICING_RULE_FILES));
+        printStartupRow("precompiled model", () -> {
+            assertThat(DroolsConfig.hasExecutableModel(StartupModelBenchmark.class.getClassLoader())).isTrue();
+            return KieServices.Factory.get().newKieClasspathContainer(StartupModelBenchmark.class.getClassLoader())
+                    .getKieBase(CLASSPATH_KIE_BASE);
+        });
+    }
+
+    private static void printStartupRow(String label, Supplier<KieBase> loader) {
+        long[] millis = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            KieBase kieBase = loader.get();
+            KieSession session = BenchmarkSupport.newSession(kieBase);
+            try {
+                BenchmarkSupport.pricingFacts(i).values().forEach(session::insert);
+                session.fireAllRules(MAX_FIRINGS);
+            } finally {
+                session.dispose();
+            }
+            millis[i] = (System.nanoTime() - start) / 1_000_000;
+            assertThat(kieBase.getKiePackages()).isNotEmpty();
+        }
+        long first = millis[0];
+        long[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-28s %12d %12d %12d%n", label, first, sorted[ITERATIONS / 2], sorted[ITERATIONS - 1]);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.pricerulesaidrools.drools.benchmark;
+
+import com.example.pricerulesaidrools.drools.session.KieSessionPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.command.Command;
+import org.kie.api.command.KieCommands;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.StatelessKieSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the stateful execution path (pooled session, agenda focus, per-call
+ * globals) with the stateless batch-command path for each bundled pricing rule set.
+ */
+@Tag("benchmark")
+class StatelessExecutionBenchmark {
+
+    private static final String[] RULE_SETS = {
+            "volume-discount-rules.drl",
+            "tcv-pricing-tier-rules.drl",
+            "churn-risk-adjustment-rules.drl"
+    };
+    private static final int[] CONCURRENCY = {1, 8};
+    private static final int TOTAL_CALLS = 40_000;
+
+    private static final List<KieSessionPool> pools = new ArrayList<>();
+
+    @AfterAll
+    static void tearDown() {
+        pools.forEach(KieSessionPool::close);
+    }
+
+    @Test
+    void statefulVersusStateless() throws Exception {
+        KieCommands commands = KieServices.Factory.get().getCommands();
+
+        for (String ruleSet : RULE_SETS) {
+            KieBase kieBase = BenchmarkSupport.buildKieBase(ruleSet);
+            KieSessionPool pool = new KieSessionPool(ruleSet, kieBase, BenchmarkSupport::initSession,
+                    16, 5_000, new SimpleMeterRegistry());
+            pools.add(pool);
+            StatelessKieSession stateless = BenchmarkSupport.newStatelessSession(kieBase);
+
+            BenchmarkSupport.printHeader("Execution mode: " + ruleSet);
+            for (int threads : CONCURRENCY) {
+                int callsPerThread = TOTAL_CALLS / threads;
+
+                BenchmarkSupport.RunResult stateful = BenchmarkSupport.runConcurrent(threads, callsPerThread, seq -> {
+                    KieSession session = pool.borrow();
+                    try {
+                        Map<String, Object> facts = BenchmarkSupport.pricingFacts(seq);
+                        facts.values().forEach(session::insert);
+                        session.setGlobal("logger", BenchmarkSupport.RULE_LOGGER);
+                        session.fireAllRules();
+                    } finally {
+                        pool.release(session);
+                    }
+                });
+                BenchmarkSupport.printRow("stateful (pooled)", stateful);
+
+                BenchmarkSupport.RunResult statelessResult = BenchmarkSupport.runConcurrent(threads, callsPerThread, seq -> {
+                    Map<String, Object> facts = BenchmarkSupport.pricingFacts(seq);
+                    List<Command<?>> batch = new ArrayList<>(facts.size() + 1);
+                    facts.values().forEach(fact -> batch.add(commands.newInsert(fact)));
+                    batch.add(commands.newFireAllRules());
+                    stateless.execute(commands.newBatchExecution(batch));
+                });
+                BenchmarkSupport.printRow("stateless batch", statelessResult);
+            }
+        }
+    }
+}
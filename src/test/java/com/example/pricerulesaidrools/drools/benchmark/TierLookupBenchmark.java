@@ -0,0 +1,74 @@
+package com.example.pricerulesaidrools.drools.benchmark;
+
+import com.example.pricerulesaidrools.pricing.tier.TierTable;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tier lookup cost as the number of tiers grows: scanning the tiers from the highest
+ * threshold down, as the pricing strategies did, versus a binary search of a tier table.
+ */
+@Tag("benchmark")
+class TierLookupBenchmark {
+
+    private static final int LOOKUPS = 200_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void linearScanVersusTierTable() {
+        System.out.println();
+        System.out.println("=== Tier lookup: " + LOOKUPS + " BigDecimal lookups ===");
+        System.out.printf("%-10s %16s %16s%n", "tiers", "linear ns/op", "table ns/op");
+        for (int tiers : new int[] {5, 50, 500}) {
+            List<BigDecimal> thresholds = new ArrayList<>();
+            TierTable.Builder<Integer> builder = TierTable.builder();
+            for (int tier = 0; tier < tiers; tier++) {
+                thresholds.add(0, BigDecimal.valueOf(tier * 1_000L));
+                builder.from(BigDecimal.valueOf(tier * 1_000L), tier);
+            }
+            TierTable<Integer> table = builder.build();
+            BigDecimal[] values = new BigDecimal[LOOKUPS];
+            Random random = new Random(42);
+            for (int i = 0; i < LOOKUPS; i++) {
+                values[i] = BigDecimal.valueOf(random.nextInt(tiers * 1_000));
+            }
+
+            long linearNanos = Long.MAX_VALUE;
+            long tableNanos = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long checksum = 0;
+                long start = System.nanoTime();
+                for (BigDecimal value : values) {
+                    checksum += linearScan(thresholds, value);
+                }
+                linearNanos = Math.min(linearNanos, System.nanoTime() - start);
+
+                long tableChecksum = 0;
+                start = System.nanoTime();
+                for (BigDecimal value : values) {
+                    tableChecksum += table.lookup(value);
+                }
+                tableNanos = Math.min(tableNanos, System.nanoTime() - start);
+                assertThat(tableChecksum).isEqualTo(checksum);
+            }
+            System.out.printf("%-10d %16.1f %16.1f%n", tiers, (double) linearNanos / LOOKUPS,
+                    (double) tableNanos / LOOKUPS);
+        }
+    }
+
+    private static int linearScan(List<BigDecimal> descendingThresholds, BigDecimal value) {
+        for (int i = 0; i < descendingThresholds.size(); i++) {
+            if (value.compareTo(descendingThresholds.get(i)) >= 0) {
+                return descendingThresholds.size() - 1 - i;
+            }
+        }
+        return -1;
+    }
+}
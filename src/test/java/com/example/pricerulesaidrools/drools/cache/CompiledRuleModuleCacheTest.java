@@ -0,0 +1,156 @@
+package com.example.pricerulesaidrools.drools.cache;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.drools.model.codegen.ExecutableModelProject;
+import org.drools.modelcompiler.CanonicalKieModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.KieModule;
+import org.kie.api.builder.ReleaseId;
+import org.kie.api.runtime.KieSession;
+import org.kie.internal.io.ResourceFactory;
+
+import java.io.DataOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CompiledRuleModuleCacheTest {
+
+    private static final String RULE_CONTENT = """
+            package com.example.test;
+            global java.util.List results;
+            rule "Greet"
+                when
+                    $name : String()
+                then
+                    results.add("Hello " + $name);
+            end
+            """;
+
+    @TempDir
+    Path cacheDirectory;
+
+    private KieServices kieServices;
+    private DroolsProperties droolsProperties;
+    private CompiledRuleModuleCache cache;
+
+    @BeforeEach
+    void setUp() {
+        kieServices = spy(KieServices.Factory.get());
+        droolsProperties = new DroolsProperties();
+        droolsProperties.getCompiledCache().setDirectory(cacheDirectory.toString());
+        cache = new CompiledRuleModuleCache(kieServices, droolsProperties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void storedModuleIsLoadedWithoutRecompiling() {
+        KieModule compiled = compile("ruleset-cache-test", "1.0-1", true);
+        cache.store("abc123", compiled, 250);
+        // As after a restart: the module is only on disk
+        kieServices.getRepository().removeKieModule(compiled.getReleaseId());
+        clearInvocations(kieServices);
+
+        Optional<KieModule> loaded = cache.load("abc123");
+
+        assertThat(loaded).isPresent();
+        assertThat(loaded.get().getReleaseId()).isEqualTo(compiled.getReleaseId());
+        // The generated rule classes are loaded as they are; the DRL is not built again
+        assertThat(loaded.get()).isInstanceOf(CanonicalKieModule.class);
+        verify(kieServices, never()).newKieBuilder(any(KieFileSystem.class));
+        assertThat(cache.getHitCount()).isEqualTo(1);
+
+        KieSession session = kieServices.newKieContainer(loaded.get().getReleaseId()).newKieSession();
+        List<String> results = new ArrayList<>();
+        session.setGlobal("results", results);
+        session.insert("cache");
+        session.fireAllRules();
+        session.dispose();
+        assertThat(results).containsExactly("Hello cache");
+    }
+
+    @Test
+    void plainDrlModuleIsNotStored() {
+        cache.store("plain", compile("ruleset-cache-plain", "1.0-1", false), 250);
+
+        assertThat(cacheDirectory.resolve("plain.kjar")).doesNotExist();
+    }
+
+    @Test
+    void unknownContentIsAMiss() {
+        assertThat(cache.load("missing")).isEmpty();
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void corruptSnapshotIsDiscarded() throws Exception {
+        Path snapshot = cacheDirectory.resolve("corrupt.kjar");
+        Files.write(snapshot, new byte[] {1, 2, 3});
+
+        assertThat(cache.load("corrupt")).isEmpty();
+        assertThat(snapshot).doesNotExist();
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void snapshotIsAMissWhenTheExecutableModelIsDisabled() {
+        KieModule compiled = compile("ruleset-cache-mode", "1.0-1", true);
+        cache.store("mode", compiled, 250);
+        kieServices.getRepository().removeKieModule(compiled.getReleaseId());
+        droolsProperties.getExecutableModel().setEnabled(false);
+
+        assertThat(cache.load("mode")).isEmpty();
+        assertThat(cacheDirectory.resolve("mode.kjar")).doesNotExist();
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void snapshotOfAnotherDroolsVersionIsAMiss() throws Exception {
+        Path snapshot = cacheDirectory.resolve("upgraded.kjar");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(snapshot))) {
+            out.writeInt(3);
+            out.writeUTF("7.74.1.Final");
+            out.writeUTF("executable-model");
+            out.writeLong(250);
+            out.write(new byte[] {1, 2, 3});
+        }
+
+        assertThat(cache.load("upgraded")).isEmpty();
+        assertThat(snapshot).doesNotExist();
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void disabledCacheNeitherStoresNorLoads() {
+        droolsProperties.getCompiledCache().setEnabled(false);
+
+        cache.store("abc123", compile("ruleset-cache-disabled", "1.0-1", true), 250);
+
+        assertThat(cache.load("abc123")).isEmpty();
+        assertThat(cacheDirectory.resolve("abc123.kjar")).doesNotExist();
+    }
+
+    private KieModule compile(String artifactId, String version, boolean executableModel) {
+        ReleaseId releaseId = kieServices.newReleaseId("com.example.test", artifactId, version);
+        KieFileSystem kfs = kieServices.newKieFileSystem();
+        kfs.generateAndWritePomXML(releaseId);
+        kfs.writeKModuleXML(kieServices.newKieModuleModel().toXML());
+        kfs.write("src/main/resources/rules/greet.drl", ResourceFactory.newByteArrayResource(RULE_CONTENT.getBytes()));
+        KieBuilder kieBuilder = executableModel
+                ? kieServices.newKieBuilder(kfs).buildAll(ExecutableModelProject.class)
+                : kieServices.newKieBuilder(kfs).buildAll();
+        assertThat(kieBuilder.getResults().getMessages()).isEmpty();
+        return kieBuilder.getKieModule();
+    }
+}
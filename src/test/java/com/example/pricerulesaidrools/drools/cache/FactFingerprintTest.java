@@ -0,0 +1,102 @@
+package com.example.pricerulesaidrools.drools.cache;
+
+import com.example.pricerulesaidrools.model.PricingRequest;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FactFingerprintTest {
+
+    @Test
+    void mapOrderDoesNotChangeTheFingerprint() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("customerId", "C-1");
+        first.put("arr", 250_000);
+        first.put("region", "EMEA");
+
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("region", "EMEA");
+        second.put("arr", 250_000);
+        second.put("customerId", "C-1");
+
+        assertThat(FactFingerprint.of(first)).isEqualTo(FactFingerprint.of(second));
+    }
+
+    @Test
+    void differentValuesChangeTheFingerprint() {
+        Map<String, Object> facts = new HashMap<>(Map.of("customerId", "C-1", "arr", 250_000));
+        FactFingerprint.Fingerprint before = FactFingerprint.of(facts);
+
+        facts.put("arr", 250_001);
+
+        assertThat(FactFingerprint.of(facts)).isNotEqualTo(before);
+        assertThat(FactFingerprint.of(Map.of("a", "bc"))).isNotEqualTo(FactFingerprint.of(Map.of("ab", "c")));
+    }
+
+    @Test
+    void listOrderIsSignificant() {
+        assertThat(FactFingerprint.of(List.of("a", "b"))).isNotEqualTo(FactFingerprint.of(List.of("b", "a")));
+    }
+
+    @Test
+    void numbersAreHashedByTypeAndValue() {
+        assertThat(FactFingerprint.of(new BigDecimal("1.50"))).isEqualTo(FactFingerprint.of(new BigDecimal("1.5")));
+        assertThat(FactFingerprint.of(1.5)).isNotEqualTo(FactFingerprint.of(1.25));
+        assertThat(FactFingerprint.of(2.0)).isEqualTo(FactFingerprint.of(2.0));
+    }
+
+    @Test
+    void mixedNumericTypesDoNotCollide() {
+        assertThat(FactFingerprint.of(2)).isNotEqualTo(FactFingerprint.of(2.0));
+        assertThat(FactFingerprint.of(42)).isNotEqualTo(FactFingerprint.of(42L));
+        assertThat(FactFingerprint.of(new BigDecimal("2"))).isNotEqualTo(FactFingerprint.of(2));
+        assertThat(FactFingerprint.of(Map.of("arr", 250_000))).isNotEqualTo(FactFingerprint.of(Map.of("arr", 250_000.0)));
+    }
+
+    @Test
+    void jdkValueTypesAreHashedByValue() {
+        UUID id = UUID.randomUUID();
+        assertThat(FactFingerprint.of(Map.of("id", id)))
+                .isEqualTo(FactFingerprint.of(Map.of("id", UUID.fromString(id.toString()))));
+        assertThat(FactFingerprint.of(Map.of("id", id))).isNotEqualTo(FactFingerprint.of(Map.of("id", UUID.randomUUID())));
+
+        assertThat(FactFingerprint.of(new Date(1_000))).isEqualTo(FactFingerprint.of(new Date(1_000)));
+        // Date.toString() drops the milliseconds; they must still change the key
+        assertThat(FactFingerprint.of(new Date(1_000))).isNotEqualTo(FactFingerprint.of(new Date(1_001)));
+
+        assertThat(FactFingerprint.of(Currency.getInstance("EUR")))
+                .isNotEqualTo(FactFingerprint.of(Currency.getInstance("USD")));
+    }
+
+    @Test
+    void pojosAreHashedByFieldValues() {
+        PricingRequest first = new PricingRequest();
+        first.setCustomerId("C-1");
+        PricingRequest second = new PricingRequest();
+        second.setCustomerId("C-1");
+
+        assertThat(FactFingerprint.of(first)).isEqualTo(FactFingerprint.of(second));
+
+        second.setCustomerId("C-2");
+        assertThat(FactFingerprint.of(first)).isNotEqualTo(FactFingerprint.of(second));
+    }
+
+    @Test
+    void cyclesTerminate() {
+        List<Object> cyclic = new ArrayList<>();
+        cyclic.add("head");
+        cyclic.add(cyclic);
+
+        assertThat(FactFingerprint.of(cyclic).toHex()).hasSize(32);
+    }
+}
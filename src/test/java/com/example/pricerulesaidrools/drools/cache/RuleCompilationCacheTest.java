@@ -0,0 +1,82 @@
+package com.example.pricerulesaidrools.drools.cache;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleCompilationCacheTest {
+
+    private DroolsProperties droolsProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private RuleCompilationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        droolsProperties = new DroolsProperties();
+        droolsProperties.getCompilationCache().setMaxEntries(2);
+        droolsProperties.getCompilationCache().setMaxMemoryMb(1);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new RuleCompilationCache(droolsProperties, meterRegistry);
+    }
+
+    @Test
+    void identicalContentIsCompiledOnce() {
+        AtomicInteger compilations = new AtomicInteger();
+
+        CompiledRules first = cache.get("hash", () -> {
+            compilations.incrementAndGet();
+            return result("hash", 1_000, 120);
+        });
+        CompiledRules second = cache.get("hash", () -> {
+            compilations.incrementAndGet();
+            return result("hash", 1_000, 120);
+        });
+
+        assertThat(second).isSameAs(first);
+        assertThat(compilations).hasValue(1);
+        assertThat(cache.getCompilationCount()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("drools.compilation.saved").counter().count()).isEqualTo(120.0);
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedBeyondMaxEntries() {
+        cache.get("a", () -> result("a", 1_000, 10));
+        cache.get("b", () -> result("b", 1_000, 10));
+        cache.get("a", () -> result("a", 1_000, 10));
+        cache.get("c", () -> result("c", 1_000, 10));
+
+        assertThat(cache.size()).isEqualTo(2);
+        AtomicInteger recompiled = new AtomicInteger();
+        cache.get("b", () -> {
+            recompiled.incrementAndGet();
+            return result("b", 1_000, 10);
+        });
+        assertThat(recompiled).hasValue(1);
+    }
+
+    @Test
+    void entriesAreEvictedBeyondMemoryBound() {
+        cache.get("a", () -> result("a", 600 * 1024, 10));
+        cache.get("b", () -> result("b", 600 * 1024, 10));
+
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void resultLargerThanMemoryBoundIsNotMemoized() {
+        cache.get("huge", () -> result("huge", 2 * 1024 * 1024, 10));
+
+        assertThat(cache.size()).isZero();
+    }
+
+    private static CompiledRules result(String hash, long weightBytes, long compileMillis) {
+        return new CompiledRules(hash, null, null, List.of(), List.of(), compileMillis, weightBytes);
+    }
+}
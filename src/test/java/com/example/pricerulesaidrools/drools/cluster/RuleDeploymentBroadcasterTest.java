@@ -0,0 +1,110 @@
+package com.example.pricerulesaidrools.drools.cluster;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import com.example.pricerulesaidrools.drools.dto.RuleDeploymentStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RuleDeploymentBroadcasterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private DroolsProperties droolsProperties;
+    private StringRedisTemplate redisTemplate;
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        droolsProperties = new DroolsProperties();
+        droolsProperties.getCluster().setNodeId("node-a");
+        redisTemplate = mock(StringRedisTemplate.class);
+        hashOperations = mock(HashOperations.class);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+    }
+
+    @Test
+    void publishRecordsThisNodeAndAnnouncesTheChange() throws Exception {
+        RuleDeploymentBroadcaster broadcaster = newBroadcaster();
+
+        broadcaster.publish(RuleDeploymentEvent.Type.UPDATED, "rules", "2.0", "hash-2");
+
+        verify(hashOperations).put(eq(RuleDeploymentBroadcaster.RULE_SET_KEY_PREFIX + "rules"), eq("node-a"),
+                anyString());
+        verify(redisTemplate).convertAndSend(eq(droolsProperties.getCluster().getChannel()), anyString());
+    }
+
+    @Test
+    void liveNodesOnAnOldVersionAreNotConverged() throws Exception {
+        long now = System.currentTimeMillis();
+        when(hashOperations.entries(RuleDeploymentBroadcaster.NODES_KEY)).thenReturn(Map.of(
+                "node-b", String.valueOf(now),
+                "node-c", String.valueOf(now),
+                "node-gone", String.valueOf(now - 60_000)));
+        when(hashOperations.entries(RuleDeploymentBroadcaster.RULE_SET_KEY_PREFIX + "rules")).thenReturn(Map.of(
+                "node-a", state("node-a", "2.0", "hash-2", 0),
+                "node-b", state("node-b", "1.0", "hash-1", 0),
+                "node-gone", state("node-gone", "1.0", "hash-1", 0)));
+
+        RuleDeploymentStatus status = newBroadcaster().getStatus("rules", "2.0", "hash-2");
+
+        // node-c never held the rule set and loads the stored version on first use
+        assertThat(status.isConverged()).isFalse();
+        assertThat(status.getNodeCount()).isEqualTo(3);
+        assertThat(status.getConvergedNodeCount()).isEqualTo(2);
+        assertThat(status.getNodes()).extracting(RuleDeploymentStatus.NodeStatus::getNodeId)
+                .containsExactlyInAnyOrder("node-a", "node-b", "node-c");
+    }
+
+    @Test
+    void reportsTheLargestLagOfConvergedNodes() throws Exception {
+        long now = System.currentTimeMillis();
+        when(hashOperations.entries(RuleDeploymentBroadcaster.NODES_KEY)).thenReturn(Map.of(
+                "node-b", String.valueOf(now)));
+        when(hashOperations.entries(RuleDeploymentBroadcaster.RULE_SET_KEY_PREFIX + "rules")).thenReturn(Map.of(
+                "node-a", state("node-a", "2.0", "hash-2", 0),
+                "node-b", state("node-b", "2.0", "hash-2", 42)));
+
+        RuleDeploymentStatus status = newBroadcaster().getStatus("rules", "2.0", "hash-2");
+
+        assertThat(status.isConverged()).isTrue();
+        assertThat(status.getMaxLagMs()).isEqualTo(42);
+    }
+
+    @Test
+    void disabledClusterReportsThisNodeOnly() {
+        droolsProperties.getCluster().setEnabled(false);
+        RuleDeploymentBroadcaster broadcaster = newBroadcaster();
+
+        broadcaster.publish(RuleDeploymentEvent.Type.DEPLOYED, "rules", "1.0", "hash-1");
+        RuleDeploymentStatus status = broadcaster.getStatus("rules", "1.0", "hash-1");
+
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+        assertThat(status.isConverged()).isTrue();
+        assertThat(status.getNodes()).singleElement().satisfies(node -> {
+            assertThat(node.getNodeId()).isEqualTo("node-a");
+            assertThat(node.isResident()).isTrue();
+        });
+    }
+
+    private RuleDeploymentBroadcaster newBroadcaster() {
+        return new RuleDeploymentBroadcaster(droolsProperties, redisTemplate, objectMapper);
+    }
+
+    private String state(String nodeId, String version, String contentHash, long lagMs) throws Exception {
+        return objectMapper.writeValueAsString(new NodeRuleSetState(nodeId, version, contentHash,
+                System.currentTimeMillis(), lagMs));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.pricerulesaidrools.drools.config;
+
+import com.example.pricerulesaidrools.drools.metrics.RuleInstrumentation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.drools.compiler.kie.builder.impl.KieContainerImpl;
+import org.drools.modelcompiler.CanonicalKieModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBaseConfiguration;
+import org.kie.api.KieServices;
+import org.kie.api.conf.EventProcessingOption;
+import org.kie.api.runtime.KieContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DroolsConfigTest {
+
+    private final KieServices kieServices = KieServices.Factory.get();
+    private DroolsProperties droolsProperties;
+    private DroolsConfig droolsConfig;
+
+    @BeforeEach
+    void setUp() {
+        droolsProperties = new DroolsProperties();
+        droolsConfig = new DroolsConfig(new RuleInstrumentation(droolsProperties, new SimpleMeterRegistry()),
+                droolsProperties);
+    }
+
+    @Test
+    void defaultsToStreamWhenNoProfileIsConfigured() {
+        KieBaseConfiguration configuration = droolsConfig.newKieBaseConfiguration(kieServices, (String) null);
+
+        assertThat(configuration.getProperty("drools.eventProcessingMode")).isEqualTo("stream");
+        assertThat(configuration.getProperty("drools.sequential")).isEqualTo("false");
+    }
+
+    @Test
+    void appliesTheNamedProfile() {
+        DroolsProperties.KieBaseProfile oneShot = new DroolsProperties.KieBaseProfile();
+        oneShot.setEventProcessing(EventProcessingOption.CLOUD);
+        oneShot.setSequential(true);
+        oneShot.setConstraintJittingThreshold(0);
+        droolsProperties.getKieBaseProfiles().put("one-shot", oneShot);
+
+        KieBaseConfiguration configuration = droolsConfig.newKieBaseConfiguration(kieServices, "one-shot");
+
+        assertThat(configuration.getProperty("drools.eventProcessingMode")).isEqualTo("cloud");
+        assertThat(configuration.getProperty("drools.sequential")).isEqualTo("true");
+        assertThat(configuration.getProperty("drools.jittingThreshold")).isEqualTo("0");
+    }
+
+    @Test
+    void defaultProfileIsUsedWithoutAName() {
+        DroolsProperties.KieBaseProfile cloud = new DroolsProperties.KieBaseProfile();
+        cloud.setEventProcessing(EventProcessingOption.CLOUD);
+        droolsProperties.getKieBaseProfiles().put("cloud", cloud);
+        droolsProperties.setDefaultKieBaseProfile("cloud");
+
+        assertThat(droolsConfig.resolveKieBaseProfile(" ")).isSameAs(cloud);
+    }
+
+    @Test
+    void unknownProfileIsRejected() {
+        assertThatThrownBy(() -> droolsConfig.resolveKieBaseProfile("missing"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("missing");
+    }
+
+    @Test
+    void classpathRulesLoadTheModelGeneratedAtBuildTime() {
+        assertThat(DroolsConfig.hasExecutableModel(getClass().getClassLoader())).isTrue();
+
+        // The model branch returns before the DRL file system is needed
+        KieContainer kieContainer = droolsConfig.kieContainer(kieServices, null);
+
+        String kieBaseName = droolsProperties.getExecutableModel().getKieBaseName();
+        assertThat(((KieContainerImpl) kieContainer).getKieModuleForKBase(kieBaseName))
+                .isInstanceOf(CanonicalKieModule.class);
+        assertThat(kieContainer.getKieBase(kieBaseName).getKiePackages()).isNotEmpty();
+        kieContainer.dispose();
+    }
+}
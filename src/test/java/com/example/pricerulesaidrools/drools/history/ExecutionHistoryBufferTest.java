@@ -0,0 +1,99 @@
+package com.example.pricerulesaidrools.drools.history;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExecutionHistoryBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertThat(new ExecutionHistoryBuffer(1000).capacity()).isEqualTo(1024);
+        assertThat(new ExecutionHistoryBuffer(8).capacity()).isEqualTo(8);
+    }
+
+    @Test
+    void drainsRecordsOldestFirst() {
+        ExecutionHistoryBuffer buffer = new ExecutionHistoryBuffer(8);
+        for (int i = 0; i < 5; i++) {
+            assertThat(offer(buffer, 8, "rules-" + i)).isTrue();
+        }
+
+        List<RecordedExecution> batch = new ArrayList<>();
+        assertThat(buffer.drainTo(batch, 3)).isEqualTo(3);
+        assertThat(buffer.drainTo(batch, 10)).isEqualTo(2);
+
+        assertThat(batch).extracting(RecordedExecution::ruleSetId)
+                .containsExactly("rules-0", "rules-1", "rules-2", "rules-3", "rules-4");
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void refusesRecordsBeyondTheLimitAndReusesDrainedSlots() {
+        ExecutionHistoryBuffer buffer = new ExecutionHistoryBuffer(4);
+        for (int i = 0; i < 3; i++) {
+            assertThat(offer(buffer, 3, "sampled")).isTrue();
+        }
+        assertThat(offer(buffer, 3, "sampled")).isFalse();
+        assertThat(offer(buffer, 4, "error")).isTrue();
+        assertThat(offer(buffer, 4, "error")).isFalse();
+
+        buffer.drainTo(new ArrayList<>(), 2);
+
+        assertThat(offer(buffer, 4, "later")).isTrue();
+        assertThat(buffer.size()).isEqualTo(3);
+    }
+
+    @Test
+    void concurrentProducersNeitherLoseNorDuplicateRecords() throws Exception {
+        int producers = 8;
+        int perProducer = 20_000;
+        ExecutionHistoryBuffer buffer = new ExecutionHistoryBuffer(1024);
+        AtomicInteger refused = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    if (!buffer.offer(buffer.capacity(), "rules", producer * (long) perProducer + i, 0, true,
+                            null, SampleReason.SAMPLED, null, null)) {
+                        refused.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        Set<Long> seen = new HashSet<>();
+        List<RecordedExecution> batch = new ArrayList<>();
+        start.countDown();
+        executor.shutdown();
+        while (!executor.isTerminated() || buffer.size() > 0) {
+            batch.clear();
+            buffer.drainTo(batch, 256);
+            for (RecordedExecution execution : batch) {
+                assertThat(seen.add(execution.executedAtMillis())).isTrue();
+            }
+        }
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(seen.size() + refused.get()).isEqualTo(producers * perProducer);
+    }
+
+    private static boolean offer(ExecutionHistoryBuffer buffer, int limit, String ruleSetId) {
+        return buffer.offer(limit, ruleSetId, System.currentTimeMillis(), 1_000_000, true, null,
+                SampleReason.SAMPLED, null, null);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.pricerulesaidrools.drools.history;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExecutionHistoryWriterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(1);
+
+    private DroolsProperties droolsProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        droolsProperties = new DroolsProperties();
+        droolsProperties.getHistory().setSampleRate(0);
+        meterRegistry = new SimpleMeterRegistry();
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForList(ExecutionHistoryWriter.RULE_SET_KEY_SQL, Long.class, "rules"))
+                .thenReturn(List.of(42L));
+    }
+
+    @Test
+    void recordsOnlyFailedAndSlowExecutionsAtZeroSampleRate() {
+        ExecutionHistoryRecorder recorder = new ExecutionHistoryRecorder(droolsProperties, meterRegistry);
+
+        recorder.record("rules", FAST, true, null, null, null);
+        recorder.record("rules", FAST, false, "boom", null, null);
+        recorder.record("rules", SLOW, true, null, null, null);
+
+        assertThat(recorder.getBufferedCount()).isEqualTo(2);
+        assertThat(recorded("error")).isEqualTo(1);
+        assertThat(recorded("slow")).isEqualTo(1);
+        assertThat(recorded("sampled")).isZero();
+    }
+
+    @Test
+    void sampledRecordsAreDroppedFirstWhenTheBufferFillsUp() {
+        droolsProperties.getHistory().setSampleRate(1);
+        droolsProperties.getHistory().setBufferCapacity(8);
+        ExecutionHistoryRecorder recorder = new ExecutionHistoryRecorder(droolsProperties, meterRegistry);
+
+        for (int i = 0; i < 10; i++) {
+            recorder.record("rules", FAST, true, null, null, null);
+        }
+        recorder.record("rules", FAST, false, "boom", null, null);
+
+        // Sampled records stop at three quarters of the buffer; the error still fits
+        assertThat(recorder.getBufferedCount()).isEqualTo(7);
+        assertThat(dropped("sampled")).isEqualTo(4);
+        assertThat(dropped("error")).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushWritesBufferedExecutionsInOneBatch() {
+        ExecutionHistoryRecorder recorder = new ExecutionHistoryRecorder(droolsProperties, meterRegistry);
+        ExecutionHistoryWriter writer = new ExecutionHistoryWriter(droolsProperties, recorder, jdbcTemplate,
+                new ObjectMapper(), meterRegistry);
+        recorder.record("rules", FAST, false, "boom", Map.of("fact", 1), null);
+        recorder.record("rules", SLOW, true, null, null, null);
+
+        assertThat(writer.flush()).isEqualTo(2);
+
+        ArgumentCaptor<Collection<RecordedExecution>> batch = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(eq(ExecutionHistoryWriter.INSERT_SQL), batch.capture(), eq(2),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertThat(batch.getValue()).extracting(RecordedExecution::reason)
+                .containsExactly(SampleReason.ERROR, SampleReason.SLOW);
+        // Payloads are not kept unless configured
+        assertThat(batch.getValue()).extracting(RecordedExecution::facts).containsOnlyNulls();
+        // The rule set key is looked up once per batch and then kept
+        verify(jdbcTemplate, times(1)).queryForList(ExecutionHistoryWriter.RULE_SET_KEY_SQL, Long.class, "rules");
+        assertThat(meterRegistry.get("drools.execution.history.written").counter().count()).isEqualTo(2);
+        assertThat(writer.flush()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedBatchIsCountedAndNotRetried() {
+        ExecutionHistoryRecorder recorder = new ExecutionHistoryRecorder(droolsProperties, meterRegistry);
+        ExecutionHistoryWriter writer = new ExecutionHistoryWriter(droolsProperties, recorder, jdbcTemplate,
+                new ObjectMapper(), meterRegistry);
+        when(jdbcTemplate.batchUpdate(eq(ExecutionHistoryWriter.INSERT_SQL), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+        recorder.record("rules", FAST, false, "boom", null, null);
+
+        assertThat(writer.flush()).isEqualTo(1);
+        assertThat(writer.flush()).isZero();
+
+        assertThat(meterRegistry.get("drools.execution.history.write.failures").counter().count()).isEqualTo(1);
+    }
+
+    private double recorded(String reason) {
+        return meterRegistry.get("drools.execution.history.recorded").tag("reason", reason).counter().count();
+    }
+
+    private double dropped(String reason) {
+        return meterRegistry.get("drools.execution.history.dropped").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.pricerulesaidrools.drools.metrics;
+
+import com.example.pricerulesaidrools.drools.dto.RuleExecutionMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RuleExecutionRecorderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RuleExecutionRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        recorder = new RuleExecutionRecorder(meterRegistry);
+    }
+
+    @Test
+    void concurrentExecutionsAreAllCounted() throws InterruptedException {
+        int threads = 8;
+        int executionsPerThread = 5_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < executionsPerThread; i++) {
+                    recorder.recordExecution("rules", TimeUnit.MILLISECONDS.toNanos(1), i % 10 != 0);
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        RuleExecutionMetrics metrics = recorder.getExecutionMetrics("rules");
+        assertThat(metrics.getTotalExecutions()).isEqualTo(threads * executionsPerThread);
+        assertThat(metrics.getErrorCount()).isEqualTo(threads * executionsPerThread / 10);
+        assertThat(metrics.getErrorRate()).isCloseTo(0.1, within(1e-9));
+        assertThat(meterRegistry.get("drools.rule.execution").tag("ruleSet", "rules").timer().count())
+                .isEqualTo(threads * executionsPerThread);
+    }
+
+    @Test
+    void percentilesSeparateTheTail() {
+        for (int i = 0; i < 990; i++) {
+            recorder.recordExecution("rules", TimeUnit.MILLISECONDS.toNanos(2), true);
+        }
+        for (int i = 0; i < 10; i++) {
+            recorder.recordExecution("rules", TimeUnit.MILLISECONDS.toNanos(200), true);
+        }
+
+        RuleExecutionMetrics metrics = recorder.getExecutionMetrics("rules");
+        assertThat(metrics.getP50ExecutionTimeMs()).isLessThan(5);
+        assertThat(metrics.getP95ExecutionTimeMs()).isLessThan(5);
+        assertThat(metrics.getP999ExecutionTimeMs()).isGreaterThan(150);
+        assertThat(metrics.getPeakExecutionTimeMs()).isEqualTo(200);
+    }
+
+    @Test
+    void timeoutsAndCacheLookupsAreTracked() {
+        recorder.recordTimeout("rules");
+        recorder.recordCacheHit("rules");
+        recorder.recordCacheHit("rules");
+        recorder.recordCacheHit("rules");
+        recorder.recordCacheMiss("rules");
+
+        assertThat(recorder.getExecutionMetrics("rules").getTimeoutCount()).isEqualTo(1);
+        assertThat(recorder.getCacheMetrics("rules").getHitRate()).isEqualTo(0.75);
+    }
+
+    @Test
+    void resetDropsStatisticsAndMeters() {
+        recorder.recordExecution("rules", 1_000, true);
+
+        recorder.reset("rules");
+
+        assertThat(recorder.getExecutionMetrics("rules").getTotalExecutions()).isZero();
+        assertThat(meterRegistry.find("drools.rule.execution").timers()).isEmpty();
+    }
+}
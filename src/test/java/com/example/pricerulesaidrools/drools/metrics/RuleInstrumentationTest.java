@@ -0,0 +1,187 @@
+package com.example.pricerulesaidrools.drools.metrics;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import com.example.pricerulesaidrools.drools.dto.RuleFiringStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.Message;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.KieSession;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleInstrumentationTest {
+
+    private static final String DRL = """
+            package instrumented;
+
+            rule "Positive"
+                when
+                    $n : Integer(this > 0)
+                then
+                    insert(String.valueOf($n));
+            end
+
+            rule "Keeps one negative"
+                when
+                    $a : Integer(this < 0)
+                    $b : Integer(this < 0, this != $a)
+                then
+                    delete($b);
+            end
+            """;
+
+    private static final String REVISED_DRL = """
+            package instrumented;
+
+            rule "Positive"
+                when
+                    $n : Integer(this > 0)
+                then
+                    insert(String.valueOf($n));
+            end
+            """;
+
+    private DroolsProperties droolsProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private RuleInstrumentation instrumentation;
+    private KieServices kieServices;
+    private KieContainer kieContainer;
+
+    @BeforeEach
+    void setUp() {
+        droolsProperties = new DroolsProperties();
+        droolsProperties.getInstrumentation().setSampleRate(1.0);
+        meterRegistry = new SimpleMeterRegistry();
+        instrumentation = new RuleInstrumentation(droolsProperties, meterRegistry);
+
+        kieServices = KieServices.Factory.get();
+        kieContainer = newKieContainer(DRL);
+        instrumentation.register("pricing", kieContainer.getKieBase());
+    }
+
+    @Test
+    void recordsActivationsFiresAndConsequenceTimePerRule() {
+        KieSession kieSession = kieContainer.newKieSession();
+        instrumentation.attach(kieSession);
+        kieSession.insert(1);
+        kieSession.insert(2);
+        kieSession.insert(-1);
+        kieSession.insert(-2);
+        kieSession.fireAllRules();
+        kieSession.dispose();
+
+        RuleFiringStats positive = stats("Positive");
+        assertThat(positive.getActivationsCreated()).isEqualTo(2);
+        assertThat(positive.getFires()).isEqualTo(2);
+        assertThat(positive.getSampledFires()).isEqualTo(2);
+
+        // Two symmetric matches; firing one deletes a fact the other depends on
+        RuleFiringStats keepsOne = stats("Keeps one negative");
+        assertThat(keepsOne.getActivationsCreated()).isEqualTo(2);
+        assertThat(keepsOne.getFires()).isEqualTo(1);
+        assertThat(keepsOne.getActivationsCancelled()).isEqualTo(1);
+
+        assertThat(positive.getRuleSetId()).isEqualTo("pricing");
+        assertThat(meterRegistry.get("drools.rule.fires").tag("ruleSet", "pricing").tag("rule", "Positive")
+                .functionCounter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("drools.rule.consequence").tag("rule", "Positive").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void unsampledFiresAreStillCounted() {
+        droolsProperties.getInstrumentation().setSampleRate(0);
+
+        KieSession kieSession = kieContainer.newKieSession();
+        instrumentation.attach(kieSession);
+        for (int i = 1; i <= 100; i++) {
+            kieSession.insert(i);
+        }
+        kieSession.fireAllRules();
+        kieSession.dispose();
+
+        RuleFiringStats positive = stats("Positive");
+        assertThat(positive.getFires()).isEqualTo(100);
+        assertThat(positive.getSampledFires()).isZero();
+    }
+
+    @Test
+    void disabledInstrumentationDoesNotAttach() {
+        droolsProperties.getInstrumentation().setEnabled(false);
+
+        KieSession kieSession = kieContainer.newKieSession();
+        instrumentation.attach(kieSession);
+        kieSession.insert(1);
+        kieSession.fireAllRules();
+        kieSession.dispose();
+
+        assertThat(instrumentation.getRuleFiringStats()).isEmpty();
+    }
+
+    @Test
+    void unregisteredKieBaseIsNotInstrumented() {
+        KieSession kieSession = newKieContainer(DRL).newKieSession();
+        instrumentation.attach(kieSession);
+        kieSession.insert(1);
+        kieSession.fireAllRules();
+        kieSession.dispose();
+
+        assertThat(instrumentation.getRuleFiringStats()).isEmpty();
+    }
+
+    @Test
+    void releasingAVersionRemovesMetersOfRulesNoLongerDefined() {
+        fire(kieContainer.getKieBase(), 1, -1, -2);
+        KieBase revised = newKieContainer(REVISED_DRL).getKieBase();
+        instrumentation.register("pricing", revised);
+        fire(revised, 2);
+
+        instrumentation.release(kieContainer.getKieBase());
+
+        assertThat(meterRegistry.find("drools.rule.fires").tag("rule", "Keeps one negative").meters()).isEmpty();
+        assertThat(meterRegistry.get("drools.rule.fires").tag("ruleSet", "pricing").tag("rule", "Positive")
+                .functionCounter().count()).isEqualTo(2);
+        assertThat(instrumentation.getRuleFiringStats()).extracting(RuleFiringStats::getRuleName)
+                .containsExactly("Positive");
+
+        instrumentation.release(revised);
+
+        assertThat(meterRegistry.find("drools.rule.fires").meters()).isEmpty();
+        assertThat(meterRegistry.find("drools.rule.consequence").meters()).isEmpty();
+        assertThat(instrumentation.getRuleFiringStats()).isEmpty();
+    }
+
+    private void fire(KieBase kieBase, int... facts) {
+        KieSession kieSession = kieBase.newKieSession();
+        instrumentation.attach(kieSession);
+        for (int fact : facts) {
+            kieSession.insert(fact);
+        }
+        kieSession.fireAllRules();
+        kieSession.dispose();
+    }
+
+    private KieContainer newKieContainer(String drl) {
+        KieFileSystem kfs = kieServices.newKieFileSystem();
+        kfs.write("src/main/resources/instrumented/rules.drl", drl);
+        KieBuilder kieBuilder = kieServices.newKieBuilder(kfs).buildAll();
+        assertThat(kieBuilder.getResults().getMessages(Message.Level.ERROR)).isEmpty();
+        return kieServices.newKieContainer(kieBuilder.getKieModule().getReleaseId());
+    }
+
+    private RuleFiringStats stats(String ruleName) {
+        List<RuleFiringStats> stats = instrumentation.getRuleFiringStats();
+        return stats.stream()
+                .filter(rule -> rule.getRuleName().equals(ruleName))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.pricerulesaidrools.drools.metrics;
+
+import com.example.pricerulesaidrools.drools.dto.RuleProfile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.Message;
+import org.kie.api.runtime.KieSession;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleProfilerTest {
+
+    private static final String RULES = """
+            package pricing;
+
+            rule "Label large"
+                when
+                    $n : Integer(this >= 10)
+                then
+                    insert("large " + $n);
+            end
+
+            rule "Drop labels"
+                salience -10
+                when
+                    $label : String()
+                then
+                    delete($label);
+            end
+
+            rule "Never"
+                when
+                    Integer(this < 0)
+                then
+            end
+            """;
+
+    private KieBase kieBase;
+
+    @BeforeEach
+    void setUp() {
+        KieServices kieServices = KieServices.Factory.get();
+        KieFileSystem kfs = kieServices.newKieFileSystem();
+        kfs.write("src/main/resources/pricing/rules.drl", RULES);
+        KieBuilder kieBuilder = kieServices.newKieBuilder(kfs).buildAll();
+        assertThat(kieBuilder.getResults().getMessages(Message.Level.ERROR)).isEmpty();
+        kieBase = kieServices.newKieContainer(kieBuilder.getKieModule().getReleaseId()).getKieBase();
+    }
+
+    @Test
+    void recordsMatchesFiresAndWorkingMemoryOperationsPerRule() {
+        RuleProfiler profiler = new RuleProfiler();
+
+        run(profiler, 3, 30, 40);
+
+        List<RuleProfile.RuleEntry> entries = profiler.getRuleEntries();
+        assertThat(entries).extracting(RuleProfile.RuleEntry::getRuleName)
+                .containsExactlyInAnyOrder("Label large", "Drop labels");
+        RuleProfile.RuleEntry label = entry(entries, "Label large");
+        assertThat(label.getPackageName()).isEqualTo("pricing");
+        assertThat(label.getFires()).isEqualTo(2);
+        assertThat(label.getInserts()).isEqualTo(2);
+        RuleProfile.RuleEntry drop = entry(entries, "Drop labels");
+        assertThat(drop.getFires()).isEqualTo(2);
+        assertThat(drop.getDeletes()).isEqualTo(2);
+        assertThat(label.getMatches()).isEqualTo(2);
+        assertThat(label.getCancelledActivations()).isZero();
+        assertThat(label.getConsequenceTimeMs()).isGreaterThanOrEqualTo(label.getMaxConsequenceTimeMs());
+
+        // The three supplied facts plus the two labels
+        assertThat(profiler.getInserts()).isEqualTo(5);
+        assertThat(profiler.getDeletes()).isEqualTo(2);
+    }
+
+    @Test
+    void accumulatesOverSessions() {
+        RuleProfiler profiler = new RuleProfiler();
+
+        run(profiler, 30);
+        run(profiler, 30);
+
+        assertThat(entry(profiler.getRuleEntries(), "Label large").getFires()).isEqualTo(2);
+        assertThat(profiler.getInserts()).isEqualTo(4);
+    }
+
+    @Test
+    void sessionsWithoutProfilerAreNotRecorded() {
+        RuleProfiler profiler = new RuleProfiler();
+        run(profiler, 30);
+
+        KieSession other = kieBase.newKieSession();
+        other.insert(50);
+        other.fireAllRules();
+        other.dispose();
+
+        assertThat(entry(profiler.getRuleEntries(), "Label large").getFires()).isEqualTo(1);
+    }
+
+    private void run(RuleProfiler profiler, Integer... facts) {
+        KieSession kieSession = kieBase.newKieSession();
+        profiler.attach(kieSession);
+        for (Integer fact : facts) {
+            kieSession.insert(fact);
+        }
+        kieSession.fireAllRules();
+        kieSession.dispose();
+    }
+
+    private static RuleProfile.RuleEntry entry(List<RuleProfile.RuleEntry> entries, String ruleName) {
+        return entries.stream().filter(entry -> entry.getRuleName().equals(ruleName)).findFirst().orElseThrow();
+    }
+}
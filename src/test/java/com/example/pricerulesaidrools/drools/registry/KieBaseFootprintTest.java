@@ -0,0 +1,72 @@
+package com.example.pricerulesaidrools.drools.registry;
+
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.Message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KieBaseFootprintTest {
+
+    private static final String HEADER = """
+            package pricing;
+
+            global java.util.List results;
+
+            declare Tier
+                name : String
+            end
+            """;
+
+    @Test
+    void countsRulesQueriesTypesAndGlobals() {
+        KieBase kieBase = build(HEADER + rules(2) + """
+
+                query "tiers"
+                    $tier : Tier()
+                end
+                """);
+
+        assertThat(KieBaseFootprint.estimate(kieBase, 1000)).isEqualTo(KieBaseFootprint.KIE_BASE_BYTES + 1000
+                + 2 * KieBaseFootprint.RULE_BYTES
+                + KieBaseFootprint.QUERY_BYTES
+                + KieBaseFootprint.FACT_TYPE_BYTES
+                + KieBaseFootprint.GLOBAL_BYTES);
+    }
+
+    @Test
+    void growsWithTheNumberOfRules() {
+        long small = KieBaseFootprint.estimate(build(HEADER + rules(10)), 0);
+        long large = KieBaseFootprint.estimate(build(HEADER + rules(100)), 0);
+
+        assertThat(large - small).isEqualTo(90 * KieBaseFootprint.RULE_BYTES);
+    }
+
+    private static String rules(int count) {
+        StringBuilder drl = new StringBuilder();
+        for (int rule = 0; rule < count; rule++) {
+            drl.append("""
+
+                    rule "Tier %d"
+                        when
+                            $n : Integer(this == %d)
+                        then
+                            results.add($n);
+                    end
+                    """.formatted(rule, rule));
+        }
+        return drl.toString();
+    }
+
+    private static KieBase build(String drl) {
+        KieServices kieServices = KieServices.Factory.get();
+        KieFileSystem kfs = kieServices.newKieFileSystem();
+        kfs.write("src/main/resources/pricing/rules.drl", drl);
+        KieBuilder kieBuilder = kieServices.newKieBuilder(kfs).buildAll();
+        assertThat(kieBuilder.getResults().getMessages(Message.Level.ERROR)).isEmpty();
+        return kieServices.newKieContainer(kieBuilder.getKieModule().getReleaseId()).getKieBase();
+    }
+}
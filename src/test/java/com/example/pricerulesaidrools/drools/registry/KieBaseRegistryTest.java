@@ -0,0 +1,181 @@
+package com.example.pricerulesaidrools.drools.registry;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import com.example.pricerulesaidrools.drools.metrics.RuleInstrumentation;
+import com.example.pricerulesaidrools.drools.session.KieSessionPoolManager;
+import com.example.pricerulesaidrools.drools.session.RuleExecutionWatchdog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieRepository;
+import org.kie.api.builder.ReleaseId;
+import org.kie.api.runtime.KieContainer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class KieBaseRegistryTest {
+
+    private KieSessionPoolManager sessionPoolManager;
+    private RuleInstrumentation ruleInstrumentation;
+    private RuleExecutionWatchdog executionWatchdog;
+    private KieBaseRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        sessionPoolManager = mock(KieSessionPoolManager.class);
+        KieServices kieServices = mock(KieServices.class);
+        when(kieServices.getRepository()).thenReturn(mock(KieRepository.class));
+        ruleInstrumentation = mock(RuleInstrumentation.class);
+        executionWatchdog = mock(RuleExecutionWatchdog.class);
+        registry = new KieBaseRegistry(kieServices, sessionPoolManager, ruleInstrumentation, executionWatchdog);
+    }
+
+    @Test
+    void activateSwapsLiveVersion() {
+        KieBase first = mock(KieBase.class);
+        KieBase second = mock(KieBase.class);
+
+        registry.activate(activation("pricing", "1.0", first).build());
+        registry.activate(activation("pricing", "1.1", second).build());
+
+        KieBaseVersion acquired = registry.acquire("pricing");
+        assertThat(acquired.getKieBase()).isSameAs(second);
+        assertThat(acquired.getVersion()).isEqualTo("1.1");
+        acquired.release();
+    }
+
+    @Test
+    void replacedVersionIsReleasedOnlyAfterInFlightExecutionsDrain() {
+        KieBase originalKieBase = mock(KieBase.class);
+        KieBaseVersion original = registry.activate(activation("pricing", "1.0", originalKieBase).build());
+        KieBaseVersion inFlight = registry.acquire("pricing");
+
+        registry.activate(activation("pricing", "1.1", mock(KieBase.class)).build());
+
+        assertThat(original.isRetired()).isTrue();
+        assertThat(original.getInFlight()).isEqualTo(1);
+        verify(ruleInstrumentation).register("pricing", originalKieBase);
+        verify(sessionPoolManager, never()).closePool(original.getPoolName());
+        verify(ruleInstrumentation, never()).release(originalKieBase);
+
+        inFlight.release();
+
+        verify(sessionPoolManager).closePool(original.getPoolName());
+        verify(ruleInstrumentation).release(originalKieBase);
+        verify(executionWatchdog, never()).release("pricing");
+    }
+
+    @Test
+    void removedRuleSetCannotBeAcquired() {
+        KieBaseVersion version = registry.activate(activation("pricing", "1.0", mock(KieBase.class)).build());
+
+        registry.remove("pricing");
+
+        assertThat(registry.acquire("pricing")).isNull();
+        assertThat(version.tryAcquire()).isFalse();
+        verify(sessionPoolManager).closePool(version.getPoolName());
+        verify(executionWatchdog).release("pricing");
+    }
+
+    @Test
+    void idleRuleSetsAreEvictedLeastRecentlyUsedFirstUntilWithinBudget() {
+        KieBaseVersion oldest = activateEvictable("oldest", 100);
+        KieBaseVersion recent = activateEvictable("recent", 100);
+        registry.acquire("recent").release();
+        KieBaseVersion classpath = registry.activate(activation("classpath", "1.0", mock(KieBase.class))
+                .weightBytes(100)
+                .build());
+
+        List<String> evicted = registry.evictIdle(200, 0);
+
+        assertThat(evicted).containsExactly("oldest");
+        assertThat(oldest.isRetired()).isTrue();
+        assertThat(recent.isRetired()).isFalse();
+        assertThat(classpath.isRetired()).isFalse();
+        assertThat(registry.getResidentWeightBytes()).isEqualTo(200);
+    }
+
+    @Test
+    void lfuEvictsTheLeastFrequentlyUsedRuleSetFirst() {
+        activateEvictable("popular", 100);
+        activateEvictable("rare", 100);
+        for (int i = 0; i < 3; i++) {
+            registry.acquire("popular").release();
+        }
+        // The rare rule set was used last, so LRU would evict the popular one
+        registry.acquire("rare").release();
+
+        List<String> evicted = registry.evictIdle(100, 0, DroolsProperties.Residency.EvictionPolicy.LFU);
+
+        assertThat(evicted).containsExactly("rare");
+        assertThat(registry.getLiveVersion("popular")).isNotNull();
+    }
+
+    @Test
+    void decayHalvesUseCounts() {
+        KieBaseVersion version = activateEvictable("pricing", 100);
+        for (int i = 0; i < 4; i++) {
+            registry.acquire("pricing").release();
+        }
+
+        registry.decayUses();
+
+        assertThat(version.getUses()).isEqualTo(2);
+    }
+
+    @Test
+    void moduleContentDefaultsToTheRuleContent() {
+        KieBaseVersion full = registry.activate(activation("pricing", "1.0", mock(KieBase.class))
+                .ruleContent("rules v1")
+                .build());
+        KieBaseVersion incremental = registry.activate(activation("pricing", "1.1", mock(KieBase.class))
+                .ruleContent("rules v2")
+                .moduleContent("rules v1")
+                .build());
+
+        assertThat(full.getModuleContent()).isEqualTo("rules v1");
+        assertThat(incremental.getRuleContent()).isEqualTo("rules v2");
+        assertThat(incremental.getModuleContent()).isEqualTo("rules v1");
+    }
+
+    @Test
+    void recentlyUsedRuleSetsAreNotEvicted() {
+        activateEvictable("pricing", 100);
+
+        assertThat(registry.evictIdle(0, TimeUnit.HOURS.toNanos(1))).isEmpty();
+        assertThat(registry.getLiveVersion("pricing")).isNotNull();
+    }
+
+    @Test
+    void ruleSetsInUseAreNotEvicted() {
+        activateEvictable("pricing", 100);
+        KieBaseVersion inFlight = registry.acquire("pricing");
+
+        assertThat(registry.evictIdle(0, 0)).isEmpty();
+
+        inFlight.release();
+        assertThat(registry.evictIdle(0, 0)).containsExactly("pricing");
+    }
+
+    private KieBaseVersion activateEvictable(String ruleSetId, long weightBytes) {
+        KieContainer kieContainer = mock(KieContainer.class);
+        when(kieContainer.getReleaseId()).thenReturn(mock(ReleaseId.class));
+        return registry.activate(activation(ruleSetId, "1.0", mock(KieBase.class))
+                .kieContainer(kieContainer)
+                .weightBytes(weightBytes)
+                .build());
+    }
+
+    private KieBaseActivation.KieBaseActivationBuilder activation(String ruleSetId, String version, KieBase kieBase) {
+        return KieBaseActivation.builder()
+                .ruleSetId(ruleSetId)
+                .version(version)
+                .generation(registry.nextGeneration())
+                .kieBase(kieBase);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.pricerulesaidrools.drools.registry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> singleFlight.load("rules", () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return "compiled";
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> second = new CompletableFuture<>();
+        Thread joiner = new Thread(() -> second.complete(singleFlight.load("rules", () -> {
+            loads.incrementAndGet();
+            return "compiled again";
+        })));
+        joiner.start();
+        // Parked on the running load
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (joiner.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("compiled");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("compiled");
+        assertThat(loads).hasValue(1);
+        assertThat(singleFlight.getInFlight()).isZero();
+    }
+
+    @Test
+    void completedLoadsAreNotKept() {
+        assertThat(singleFlight.load("rules", () -> "first")).isEqualTo("first");
+        assertThat(singleFlight.load("rules", () -> "second")).isEqualTo("second");
+    }
+
+    @Test
+    void failedLoadCanBeRetried() {
+        assertThatThrownBy(() -> singleFlight.load("rules", () -> {
+            throw new IllegalStateException("compilation failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.load("rules", () -> "compiled")).isEqualTo("compiled");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
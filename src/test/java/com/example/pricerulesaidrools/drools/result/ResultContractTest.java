@@ -0,0 +1,143 @@
+package com.example.pricerulesaidrools.drools.result;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.Message;
+import org.kie.api.command.Command;
+import org.kie.api.command.KieCommands;
+import org.kie.api.runtime.ExecutionResults;
+import org.kie.api.runtime.KieSession;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResultContractTest {
+
+    private static final String RULES = """
+            package pricing;
+
+            global java.util.List priced;
+            global java.lang.String label;
+
+            rule "Price"
+                when
+                    $n : Integer(this >= 10)
+                then
+                    priced.add($n * 2);
+                    insert("priced " + $n);
+            end
+
+            query "pricedLabels"
+                $label : String(this str[startsWith] "priced")
+            end
+            """;
+
+    private KieBase kieBase;
+
+    @BeforeEach
+    void setUp() {
+        KieServices kieServices = KieServices.Factory.get();
+        KieFileSystem kfs = kieServices.newKieFileSystem();
+        kfs.write("src/main/resources/pricing/rules.drl", RULES);
+        KieBuilder kieBuilder = kieServices.newKieBuilder(kfs).buildAll();
+        assertThat(kieBuilder.getResults().getMessages(Message.Level.ERROR)).isEmpty();
+        kieBase = kieServices.newKieContainer(kieBuilder.getKieModule().getReleaseId()).getKieBase();
+    }
+
+    @Test
+    void factContractReturnsTheNamedFact() {
+        ResultContract contract = ResultContract.parse("fact:pricingResult");
+        contract.verify(kieBase);
+        Map<String, Object> facts = new LinkedHashMap<>();
+        facts.put("pricingResult", "result");
+        facts.put("other", 3);
+
+        assertThat(contract.extract(stateful(contract, facts), facts, null)).isEqualTo("result");
+    }
+
+    @Test
+    void globalContractCollectsWhatTheRulesAdded() {
+        ResultContract contract = ResultContract.parse("global:priced");
+        contract.verify(kieBase);
+        Map<String, Object> facts = Map.of("small", 3, "large", 30);
+
+        KieSession session = kieBase.newKieSession();
+        List<Object> collector = contract.bind(session);
+        facts.values().forEach(session::insert);
+        session.fireAllRules();
+
+        assertThat(contract.extract(session, facts, collector)).isEqualTo(List.of(60));
+        session.dispose();
+    }
+
+    @Test
+    void queryContractReturnsTheQueryRows() {
+        ResultContract contract = ResultContract.parse("query:pricedLabels");
+        contract.verify(kieBase);
+        Map<String, Object> facts = Map.of("large", 30);
+
+        assertThat(contract.extract(stateful(contract, facts), facts, null)).isEqualTo(List.of("priced 30"));
+    }
+
+    @Test
+    void statelessExecutionReadsTheSameResult() {
+        ResultContract contract = ResultContract.parse("query:pricedLabels");
+        KieCommands commandFactory = KieServices.Factory.get().getCommands();
+        List<Command<?>> commands = new ArrayList<>();
+        commands.add(commandFactory.newSetGlobal("priced", new ArrayList<>()));
+        List<Object> collector = contract.addSetupCommands(commandFactory, commands);
+        commands.add(commandFactory.newInsert(30));
+        commands.add(commandFactory.newFireAllRules());
+        contract.addResultCommands(commandFactory, commands);
+
+        ExecutionResults results = kieBase.newStatelessKieSession()
+                .execute(commandFactory.newBatchExecution(commands));
+
+        assertThat(contract.extract(results, Map.of(), collector)).isEqualTo(List.of("priced 30"));
+    }
+
+    @Test
+    void verifyRejectsUndeclaredGlobalsAndQueries() {
+        assertThatThrownBy(() -> ResultContract.parse("global:missing").verify(kieBase))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not declared");
+        assertThatThrownBy(() -> ResultContract.parse("query:missing").verify(kieBase))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not declared");
+    }
+
+    @Test
+    void verifyRejectsGlobalsThatCannotHoldAList() {
+        assertThatThrownBy(() -> ResultContract.parse("global:label").verify(kieBase))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("java.util.List");
+    }
+
+    @Test
+    void parseRejectsMalformedDeclarations() {
+        assertThatThrownBy(() -> ResultContract.parse("pricingResult"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ResultContract.parse("table:prices"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("table");
+        assertThat(ResultContract.parse(" Global : priced ").toString()).isEqualTo("global:priced");
+    }
+
+    private KieSession stateful(ResultContract contract, Map<String, Object> facts) {
+        KieSession session = kieBase.newKieSession();
+        session.setGlobal("priced", new ArrayList<>());
+        contract.bind(session);
+        facts.values().forEach(session::insert);
+        session.fireAllRules();
+        return session;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.pricerulesaidrools.drools.schema;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import com.example.pricerulesaidrools.drools.dto.RuleExecutionRequest;
+import com.example.pricerulesaidrools.drools.model.RuleSetMetadata;
+import com.example.pricerulesaidrools.drools.store.RuleSetStore;
+import com.example.pricerulesaidrools.drools.store.StoredRuleSet;
+import com.example.pricerulesaidrools.model.FinancialMetrics;
+import com.example.pricerulesaidrools.model.PricingRequest;
+import com.example.pricerulesaidrools.model.PricingResult;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FactSchemaRegistryTest {
+
+    private static final String FACTS = """
+            {"pricingRequest": {"customerId": "C1", "basePrice": 1000.0, "quantity": 3},
+             "financialMetrics": {"customerId": "C1", "arr": 150000, "tcv": 300000},
+             "pricingResult": {"finalPrice": 1000.0},
+             "extra": {"result": true}}""";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private DroolsProperties droolsProperties;
+    private RuleSetStore ruleSetStore;
+    private FactSchemaRegistry registry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        droolsProperties = new DroolsProperties();
+        ruleSetStore = mock(RuleSetStore.class);
+        when(ruleSetStore.find(anyString())).thenReturn(Optional.empty());
+        ObjectProvider<ObjectMapper> objectMapperProvider = mock(ObjectProvider.class);
+        when(objectMapperProvider.getObject()).thenReturn(objectMapper);
+        registry = new FactSchemaRegistry(droolsProperties, ruleSetStore, objectMapperProvider);
+        objectMapper.registerModule(new FactSchemaModule(registry));
+    }
+
+    @Test
+    void knownFactsAreBoundToModelClasses() throws Exception {
+        RuleExecutionRequest request = read("{\"ruleSetId\": \"rules\", \"facts\": " + FACTS + "}");
+
+        Map<String, Object> facts = request.getFacts();
+        assertThat(facts.get("pricingRequest")).isInstanceOf(PricingRequest.class);
+        assertThat(((PricingRequest) facts.get("pricingRequest")).getQuantity()).isEqualTo(3);
+        assertThat(((FinancialMetrics) facts.get("financialMetrics")).getArr()).isEqualByComparingTo("150000");
+        assertThat(facts.get("pricingResult")).isInstanceOf(PricingResult.class);
+        // Facts outside the schema keep their generic form
+        assertThat(facts.get("extra")).isEqualTo(Map.of("result", true));
+    }
+
+    @Test
+    void factsBeforeRuleSetIdUseTheRuleSetsSchema() throws Exception {
+        registry.register("rules", "metrics=FinancialMetrics");
+
+        RuleExecutionRequest request = read("{\"facts\": {\"metrics\": {\"arr\": 5}, \"pricingRequest\": {}},"
+                + " \"ruleSetId\": \"rules\"}");
+
+        assertThat(request.getRuleSetId()).isEqualTo("rules");
+        assertThat(((FinancialMetrics) request.getFacts().get("metrics")).getArr()).isEqualByComparingTo(BigDecimal.valueOf(5));
+        assertThat(request.getFacts().get("pricingRequest")).isInstanceOf(Map.class);
+    }
+
+    @Test
+    void missingFactsKeepTheEmptyDefault() throws Exception {
+        assertThat(read("{\"ruleSetId\": \"rules\"}").getFacts()).isEmpty();
+        assertThat(read("{\"ruleSetId\": \"rules\", \"facts\": null}").getFacts()).isNull();
+    }
+
+    @Test
+    void storedSchemaIsLookedUpOnce() throws Exception {
+        when(ruleSetStore.find("stored")).thenReturn(Optional.of(new StoredRuleSet(
+                RuleSetMetadata.builder().id("stored").factSchema("request=PricingRequest").build(), "rules")));
+
+        read("{\"ruleSetId\": \"stored\", \"facts\": {\"request\": {}}}");
+        RuleExecutionRequest request = read("{\"ruleSetId\": \"stored\", \"facts\": {\"request\": {}}}");
+
+        assertThat(request.getFacts().get("request")).isInstanceOf(PricingRequest.class);
+        verify(ruleSetStore, times(1)).find("stored");
+    }
+
+    @Test
+    void unknownRuleSetIsNotLookedUpAgainUntilDeployed() throws Exception {
+        read("{\"ruleSetId\": \"unknown\", \"facts\": {}}");
+        read("{\"ruleSetId\": \"unknown\", \"facts\": {}}");
+        verify(ruleSetStore, times(1)).find("unknown");
+
+        registry.register("unknown", "request=PricingRequest");
+        registry.remove("unknown");
+        read("{\"ruleSetId\": \"unknown\", \"facts\": {}}");
+        verify(ruleSetStore, times(2)).find("unknown");
+    }
+
+    @Test
+    void factSetsReadAsTreesAreBoundToModelClasses() throws Exception {
+        registry.register("rules", "request=PricingRequest");
+        Map<String, JsonNode> tree = objectMapper.readValue(
+                "{\"request\": {\"quantity\": 2}, \"extra\": {\"result\": true}, \"none\": null}",
+                new TypeReference<>() {
+                });
+
+        Map<String, Object> facts = registry.schemaFor("rules").bindFacts(tree);
+
+        assertThat(((PricingRequest) facts.get("request")).getQuantity()).isEqualTo(2);
+        assertThat(facts.get("extra")).isEqualTo(Map.of("result", true));
+        assertThat(facts).containsEntry("none", null);
+    }
+
+    @Test
+    void classesOutsideTheAllowedPackageAreRejected() {
+        assertThatThrownBy(() -> registry.parse("request=java.lang.ProcessBuilder"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not in package");
+        assertThatThrownBy(() -> registry.parse("request=NoSuchFact"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unknown fact class");
+        assertThatThrownBy(() -> registry.parse("request"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void disabledSchemaReadsGenericFacts() throws Exception {
+        droolsProperties.getFactSchema().setEnabled(false);
+
+        RuleExecutionRequest request = read("{\"ruleSetId\": \"rules\", \"facts\": " + FACTS + "}");
+
+        assertThat(request.getFacts().get("pricingRequest")).isInstanceOf(Map.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void moduleWithoutRegistryReadsGenericFacts() throws Exception {
+        // As in web test slices, which register Module beans but not the registry
+        ObjectProvider<FactSchemaRegistry> absent = mock(ObjectProvider.class);
+        ObjectMapper sliceMapper = new ObjectMapper().registerModule(new FactSchemaModule(absent));
+
+        RuleExecutionRequest request = sliceMapper.readValue("{\"ruleSetId\": \"rules\", \"facts\": " + FACTS + "}",
+                RuleExecutionRequest.class);
+
+        assertThat(request.getRuleSetId()).isEqualTo("rules");
+        assertThat(request.getFacts().get("pricingRequest")).isInstanceOf(Map.class);
+    }
+
+    private RuleExecutionRequest read(String json) throws Exception {
+        return objectMapper.readValue(json, RuleExecutionRequest.class);
+    }
+}
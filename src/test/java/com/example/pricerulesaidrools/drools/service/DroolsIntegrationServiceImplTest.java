@@ -0,0 +1,507 @@
+package com.example.pricerulesaidrools.drools.service;
+
+import com.example.pricerulesaidrools.drools.async.AsyncRuleExecutor;
+import com.example.pricerulesaidrools.drools.batch.ParallelBatchExecutor;
+import com.example.pricerulesaidrools.drools.cache.CompiledRuleModuleCache;
+import com.example.pricerulesaidrools.drools.cache.ExecutionCacheKeyGenerator;
+import com.example.pricerulesaidrools.drools.cache.ExecutionCacheResolver;
+import com.example.pricerulesaidrools.drools.cache.RuleCompilationCache;
+import com.example.pricerulesaidrools.drools.cluster.RuleDeploymentBroadcaster;
+import com.example.pricerulesaidrools.drools.config.DroolsConfig;
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import com.example.pricerulesaidrools.drools.dto.RuleCacheMetrics;
+import com.example.pricerulesaidrools.drools.dto.RuleDeploymentResult;
+import com.example.pricerulesaidrools.drools.history.ExecutionHistoryRecorder;
+import com.example.pricerulesaidrools.drools.metrics.RuleExecutionRecorder;
+import com.example.pricerulesaidrools.drools.metrics.RuleInstrumentation;
+import com.example.pricerulesaidrools.drools.registry.IdleRuleSetEvictor;
+import com.example.pricerulesaidrools.drools.registry.KieBaseRegistry;
+import com.example.pricerulesaidrools.drools.registry.KieBaseVersion;
+import com.example.pricerulesaidrools.drools.schema.FactSchemaRegistry;
+import com.example.pricerulesaidrools.drools.session.KieSessionPoolManager;
+import com.example.pricerulesaidrools.drools.session.RuleExecutionWatchdog;
+import com.example.pricerulesaidrools.drools.shadow.ShadowExecutor;
+import com.example.pricerulesaidrools.drools.store.RuleSetStore;
+import com.example.pricerulesaidrools.drools.update.IncrementalKieBaseUpdater;
+import com.example.pricerulesaidrools.model.Correlated;
+import com.example.pricerulesaidrools.model.PricingRequest;
+import com.example.pricerulesaidrools.model.PricingResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.runtime.KieSession;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DroolsIntegrationServiceImplTest {
+
+    private static final String RULES = """
+            package pricing;
+
+            import com.example.pricerulesaidrools.model.PricingResult;
+
+            global org.slf4j.Logger logger;
+
+            rule "Discount"
+                when
+                    $result : PricingResult(finalPrice >= 100, discount == 0)
+                then
+                    modify($result) {
+                        setDiscount(0.2),
+                        setFinalPrice($result.getFinalPrice() * 0.8)
+                    }
+            end
+            """;
+
+    private static final String RUNAWAY_RULES = """
+            package pricing;
+
+            import com.example.pricerulesaidrools.model.PricingResult;
+
+            global org.slf4j.Logger logger;
+
+            rule "Keep discounting"
+                when
+                    $result : PricingResult() @watch(discount)
+                then
+                    modify($result) {
+                        setDiscount($result.getDiscount() + 1)
+                    }
+            end
+            """;
+
+    private static final String CORRELATED_RULES = """
+            package pricing;
+
+            import com.example.pricerulesaidrools.model.PricingRequest;
+            import com.example.pricerulesaidrools.model.PricingResult;
+
+            global org.slf4j.Logger logger;
+
+            rule "Request discount"
+                when
+                    $request : PricingRequest($cid : correlationId)
+                    $result : PricingResult(correlationId == $cid, discount == 0) @watch(!correlationId)
+                then
+                    modify($result) {
+                        setDiscount($request.getQuantity() / 100.0)
+                    }
+            end
+            """;
+
+    private static final String UNCORRELATED_RULES = CORRELATED_RULES.replace("correlationId == $cid, ", "");
+
+    private static final String QUERY_RULES = RULES + """
+
+            query "pricedResults"
+                $result : PricingResult(discount > 0)
+            end
+            """;
+
+    private static final String TIERED_RULES = """
+            package pricing;
+
+            import com.example.pricerulesaidrools.model.PricingResult;
+            import com.example.pricerulesaidrools.pricing.tier.PricingTier;
+            import com.example.pricerulesaidrools.pricing.tier.TierTable;
+
+            global org.slf4j.Logger logger;
+            global TierTable priceTiers;
+
+            rule "Tiered discount"
+                when
+                    $result : PricingResult(discount == 0)
+                    $tier : PricingTier() from priceTiers.lookup($result.getFinalPrice())
+                then
+                    modify($result) {
+                        setDiscount($tier.discount())
+                    }
+            end
+            """;
+
+    private static final String PRICE_TIERS = """
+            {"priceTiers": [
+                {"from": 0, "to": 100, "name": "Small", "discount": 0.01},
+                {"from": 100, "name": "Large", "discount": 0.3}]}
+            """;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RuleExecutionWatchdog executionWatchdog;
+    private RuleExecutionRecorder executionRecorder;
+    private KieBaseRegistry kieBaseRegistry;
+    private RuleSetStore ruleSetStore;
+    private IncrementalKieBaseUpdater incrementalUpdater;
+    private ParallelBatchExecutor batchExecutor;
+    private AsyncRuleExecutor asyncExecutor;
+    private DroolsIntegrationServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        DroolsProperties droolsProperties = new DroolsProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        KieServices kieServices = KieServices.Factory.get();
+        RuleInstrumentation ruleInstrumentation = new RuleInstrumentation(droolsProperties, meterRegistry);
+        DroolsConfig droolsConfig = new DroolsConfig(ruleInstrumentation, droolsProperties);
+        KieSessionPoolManager sessionPoolManager =
+                new KieSessionPoolManager(droolsConfig, droolsProperties, meterRegistry);
+        executionWatchdog = new RuleExecutionWatchdog(droolsProperties, meterRegistry);
+        executionRecorder = mock(RuleExecutionRecorder.class);
+        kieBaseRegistry = spy(new KieBaseRegistry(kieServices, sessionPoolManager, ruleInstrumentation,
+                executionWatchdog));
+        ruleSetStore = mock(RuleSetStore.class);
+        incrementalUpdater = spy(new IncrementalKieBaseUpdater(droolsProperties, meterRegistry));
+        batchExecutor = new ParallelBatchExecutor(droolsProperties, meterRegistry);
+        asyncExecutor = mock(AsyncRuleExecutor.class);
+        // Runs async executions inline, as a worker would
+        when(asyncExecutor.submit(anyString(), anyLong(), any())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(invocation.<Supplier<?>>getArgument(2).get()));
+
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(mock(ValueOperations.class));
+
+        service = new DroolsIntegrationServiceImpl(droolsConfig, kieServices, null, redisTemplate,
+                sessionPoolManager, kieBaseRegistry, executionWatchdog,
+                mock(CompiledRuleModuleCache.class), new RuleCompilationCache(droolsProperties, meterRegistry),
+                batchExecutor, droolsProperties, executionRecorder, ruleInstrumentation,
+                asyncExecutor, ruleSetStore, mock(RuleDeploymentBroadcaster.class),
+                incrementalUpdater, mock(FactSchemaRegistry.class),
+                mock(ExecutionHistoryRecorder.class), mock(ShadowExecutor.class), new ObjectMapper(),
+                mock(IdleRuleSetEvictor.class),
+                new ExecutionCacheResolver(new ConcurrentMapCacheManager("drools-execution"), executionRecorder),
+                new ExecutionCacheKeyGenerator(kieBaseRegistry));
+        ReflectionTestUtils.setField(service, "ruleExecutionTimeout", 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executionWatchdog.shutdown();
+        batchExecutor.shutdown();
+    }
+
+    @Test
+    void statelessRuleSetExecutesThroughTheService() {
+        RuleDeploymentResult deployment = service.deployRules(RULES, Map.of("executionMode", "stateless"));
+        assertThat(deployment.isSuccessful()).as(deployment.getMessage()).isTrue();
+
+        PricingResult result = service.executeRules(deployment.getRuleSetId(), pricingFacts(200.0));
+
+        assertThat(result.getDiscount()).isEqualTo(0.2);
+        assertThat(result.getFinalPrice()).isEqualTo(160.0);
+        verify(executionRecorder).recordExecution(eq(deployment.getRuleSetId()), anyLong(), eq(true));
+        assertThat(meterRegistry.get("drools.rule.fires").tag("ruleSet", deployment.getRuleSetId())
+                .tag("rule", "Discount").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void statelessEntryPointRunsAStatefulRuleSetWithoutASession() {
+        RuleDeploymentResult deployment = service.deployRules(RULES);
+        assertThat(deployment.isSuccessful()).as(deployment.getMessage()).isTrue();
+
+        PricingResult result = service.executeStatelessRules(deployment.getRuleSetId(), pricingFacts(100.0));
+
+        assertThat(result.getFinalPrice()).isEqualTo(80.0);
+        verify(executionRecorder, never()).recordTimeout(anyString());
+    }
+
+    @Test
+    void statefulRuleSetExecutesWithADeadline() {
+        RuleDeploymentResult deployment = service.deployRules(RULES);
+        assertThat(deployment.isSuccessful()).as(deployment.getMessage()).isTrue();
+
+        PricingResult result = service.executeRules(deployment.getRuleSetId(), pricingFacts(200.0));
+
+        assertThat(result.getDiscount()).isEqualTo(0.2);
+        verify(executionRecorder).recordExecution(eq(deployment.getRuleSetId()), anyLong(), eq(true));
+    }
+
+    @Test
+    void statelessExecutionIsHaltedAtTheDeadline() {
+        ReflectionTestUtils.setField(service, "ruleExecutionTimeout", 50);
+        RuleDeploymentResult deployment = service.deployRules(RUNAWAY_RULES, Map.of("executionMode", "stateless"));
+        assertThat(deployment.isSuccessful()).as(deployment.getMessage()).isTrue();
+
+        PricingResult result = service.executeRules(deployment.getRuleSetId(), pricingFacts(100.0));
+
+        assertThat(result.getDiscount()).isPositive();
+        verify(executionRecorder).recordTimeout(deployment.getRuleSetId());
+        verify(executionRecorder).recordExecution(eq(deployment.getRuleSetId()), anyLong(), eq(false));
+        assertThat(meterRegistry.get("drools.execution.timeouts").tag("ruleSet", deployment.getRuleSetId())
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void asyncExecutionIsServedFromTheExecutionCache() throws Exception {
+        RuleDeploymentResult deployment = service.deployRules(RULES);
+        assertThat(deployment.isSuccessful()).as(deployment.getMessage()).isTrue();
+
+        PricingResult first = service.<PricingResult>executeRulesAsync(deployment.getRuleSetId(),
+                pricingFacts(200.0), 1_000).get(5, TimeUnit.SECONDS);
+        PricingResult second = service.<PricingResult>executeRulesAsync(deployment.getRuleSetId(),
+                pricingFacts(200.0), 1_000).get(5, TimeUnit.SECONDS);
+
+        assertThat(first.getDiscount()).isEqualTo(0.2);
+        assertThat(second).isSameAs(first);
+        verify(asyncExecutor, times(1)).submit(anyString(), anyLong(), any());
+        verify(executionRecorder).recordCacheHit(deployment.getRuleSetId());
+    }
+
+    @Test
+    void cacheMetricsReportTheCachedExecutionsOfTheRuleSet() throws Exception {
+        RuleDeploymentResult deployment = service.deployRules(RULES);
+        RuleDeploymentResult other = service.deployRules(RUNAWAY_RULES.replace("Keep discounting", "Other"));
+        assertThat(deployment.isSuccessful()).as(deployment.getMessage()).isTrue();
+        assertThat(other.isSuccessful()).as(other.getMessage()).isTrue();
+
+        service.executeRulesAsync(deployment.getRuleSetId(), pricingFacts(200.0), 1_000).get(5, TimeUnit.SECONDS);
+        service.executeRulesAsync(deployment.getRuleSetId(), pricingFacts(300.0), 1_000).get(5, TimeUnit.SECONDS);
+        when(executionRecorder.getCacheMetrics(anyString())).thenAnswer(invocation -> RuleCacheMetrics.builder()
+                .ruleSetId(invocation.getArgument(0))
+                .build());
+
+        RuleCacheMetrics metrics = service.getRuleCacheMetrics(deployment.getRuleSetId());
+
+        assertThat(metrics.getCacheSize()).isEqualTo(2);
+        assertThat(metrics.getMaxCacheSize()).isEqualTo(-1);
+        assertThat(metrics.getCompilationCacheSize()).isEqualTo(2);
+        assertThat(metrics.getMaxCompilationCacheSize())
+                .isEqualTo(new DroolsProperties().getCompilationCache().getMaxEntries());
+        assertThat(service.getRuleCacheMetrics(other.getRuleSetId()).getCacheSize()).isZero();
+    }
+
+    @Test
+    void asyncExecutionIsHaltedAtTheCallersDeadline() throws Exception {
+        ReflectionTestUtils.setField(service, "ruleExecutionTimeout", 60_000);
+        RuleDeploymentResult deployment = service.deployRules(RUNAWAY_RULES);
+        assertThat(deployment.isSuccessful()).as(deployment.getMessage()).isTrue();
+
+        PricingResult result = service.<PricingResult>executeRulesAsync(deployment.getRuleSetId(),
+                pricingFacts(100.0), 50).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.getDiscount()).isPositive();
+        verify(executionRecorder).recordTimeout(deployment.getRuleSetId());
+        // The partial result is not cached
+        service.executeRulesAsync(deployment.getRuleSetId(), pricingFacts(100.0), 50).get(5, TimeUnit.SECONDS);
+        verify(asyncExecutor, times(2)).submit(anyString(), anyLong(), any());
+    }
+
+    @Test
+    void incrementalUpdateIsPublishedAsANewVersionAndLeavesTheLiveKieBaseUnchanged() {
+        RuleDeploymentResult deployment = service.deployRules(RULES);
+        assertThat(deployment.isSuccessful()).as(deployment.getMessage()).isTrue();
+        String ruleSetId = deployment.getRuleSetId();
+        KieBaseVersion previous = kieBaseRegistry.getLiveVersion(ruleSetId);
+        KieBaseVersion inFlight = kieBaseRegistry.acquire(ruleSetId);
+
+        RuleDeploymentResult update = service.updateRules(ruleSetId, RULES.replace("0.2", "0.5"), "1.1");
+
+        assertThat(update.isSuccessful()).as(update.getMessage()).isTrue();
+        KieBaseVersion live = kieBaseRegistry.getLiveVersion(ruleSetId);
+        assertThat(live).isNotSameAs(previous);
+        assertThat(live.getKieBase()).isNotSameAs(previous.getKieBase());
+        assertThat(live.getVersion()).isEqualTo("1.1");
+        assertThat(meterRegistry.get("drools.rules.incremental.update").timer().count()).isEqualTo(1);
+
+        // The execution in flight finishes on the rules it started with
+        assertThat(discountOf(previous.getKieBase(), 200.0)).isEqualTo(0.2);
+        assertThat(previous.isRetired()).isTrue();
+        inFlight.release();
+        PricingResult result = service.executeRules(ruleSetId, pricingFacts(200.0));
+        assertThat(result.getDiscount()).isEqualTo(0.5);
+    }
+
+    @Test
+    void invalidUpdateIsRejectedBeforeTheRulesAreTouched() {
+        RuleDeploymentResult deployment = service.deployRules(RULES);
+        String ruleSetId = deployment.getRuleSetId();
+        KieBaseVersion previous = kieBaseRegistry.getLiveVersion(ruleSetId);
+
+        RuleDeploymentResult update = service.updateRules(ruleSetId,
+                RULES.replace("setDiscount(0.2)", "setDiscount(undefined)"), "1.1");
+
+        assertThat(update.isSuccessful()).isFalse();
+        assertThat(kieBaseRegistry.getLiveVersion(ruleSetId)).isSameAs(previous);
+        verify(incrementalUpdater, never()).update(any(), any(), any());
+        verify(ruleSetStore, times(1)).save(any(), any());
+    }
+
+    @Test
+    void updateThatBreaksTheResultContractIsRejected() {
+        RuleDeploymentResult deployment = service.deployRules(QUERY_RULES,
+                Map.of("resultContract", "query:pricedResults"));
+        assertThat(deployment.isSuccessful()).as(deployment.getMessage()).isTrue();
+        String ruleSetId = deployment.getRuleSetId();
+        KieBaseVersion previous = kieBaseRegistry.getLiveVersion(ruleSetId);
+
+        RuleDeploymentResult update = service.updateRules(ruleSetId, RULES, "1.1");
+
+        assertThat(update.isSuccessful()).isFalse();
+        assertThat(update.getMessage()).contains("pricedResults");
+        assertThat(kieBaseRegistry.getLiveVersion(ruleSetId)).isSameAs(previous);
+        assertThat(previous.getVersion()).isEqualTo("1.0");
+        verify(ruleSetStore, times(1)).save(any(), any());
+    }
+
+    @Test
+    void correlatedBatchSharesSessionsAndClearsTheCorrelationIds() {
+        RuleDeploymentResult deployment = service.deployRules(CORRELATED_RULES, Map.of("correlated", "true"));
+        assertThat(deployment.isSuccessful()).as(deployment.getMessage()).isTrue();
+        List<Map<String, Object>> factSets = List.of(requestFacts(10), requestFacts(30));
+
+        List<PricingResult> results = service.executeCorrelatedBatch(deployment.getRuleSetId(), factSets);
+
+        assertThat(results).extracting(PricingResult::getDiscount).containsExactly(0.1, 0.3);
+        assertThat(factSets).allSatisfy(facts -> facts.values().forEach(fact ->
+                assertThat(((Correlated) fact).getCorrelationId()).isNull()));
+        // Both requests fired in one chunk
+        verify(executionRecorder).recordExecution(eq(deployment.getRuleSetId()), anyLong(), eq(true));
+    }
+
+    @Test
+    void correlatedBatchRunsFactsThatCannotBeCorrelatedOnTheirOwn() {
+        RuleDeploymentResult deployment = service.deployRules(CORRELATED_RULES, Map.of("correlated", "true"));
+        Map<String, Object> uncorrelated = requestFacts(20);
+        uncorrelated.put("note", "not correlated");
+
+        List<PricingResult> results = service.executeCorrelatedBatch(deployment.getRuleSetId(),
+                List.of(requestFacts(10), uncorrelated));
+
+        assertThat(results).extracting(PricingResult::getDiscount).containsExactly(0.1, 0.2);
+    }
+
+    @Test
+    void batchOfARuleSetNotDeployedAsCorrelatedRunsOneRequestAtATime() {
+        RuleDeploymentResult deployment = service.deployRules(UNCORRELATED_RULES);
+        assertThat(deployment.isSuccessful()).as(deployment.getMessage()).isTrue();
+
+        List<PricingResult> results = service.executeCorrelatedBatch(deployment.getRuleSetId(),
+                List.of(requestFacts(10), requestFacts(30)));
+
+        // Sharing a session, each request's result would have matched the other request too
+        assertThat(results).extracting(PricingResult::getDiscount).containsExactly(0.1, 0.3);
+        verify(executionRecorder, times(2)).recordExecution(eq(deployment.getRuleSetId()), anyLong(), eq(true));
+    }
+
+    @Test
+    void correlatedDeploymentIsRejectedWhenTheRulesDoNotJoinOnTheCorrelationId() {
+        RuleDeploymentResult deployment = service.deployRules(UNCORRELATED_RULES, Map.of("correlated", "true"));
+
+        assertThat(deployment.isSuccessful()).isFalse();
+        assertThat(deployment.getMessage()).contains("pricing.Request discount");
+        verify(ruleSetStore, never()).save(any(), any());
+    }
+
+    @Test
+    void correlatedDeploymentIsRejectedWithAResultThatIsNotAFact() {
+        RuleDeploymentResult deployment = service.deployRules(QUERY_RULES,
+                Map.of("resultContract", "query:pricedResults", "correlated", "true"));
+
+        assertThat(deployment.isSuccessful()).isFalse();
+        assertThat(deployment.getMessage()).contains("query:pricedResults");
+    }
+
+    @Test
+    void deployedTierTableIsBoundToItsGlobal() {
+        RuleDeploymentResult deployment = service.deployRules(TIERED_RULES, Map.of("tierTables", PRICE_TIERS));
+        assertThat(deployment.isSuccessful()).as(deployment.getMessage()).isTrue();
+
+        PricingResult large = service.executeRules(deployment.getRuleSetId(), pricingFacts(200.0));
+        PricingResult small = service.executeStatelessRules(deployment.getRuleSetId(), pricingFacts(50.0));
+
+        assertThat(large.getDiscount()).isEqualTo(0.3);
+        assertThat(small.getDiscount()).isEqualTo(0.01);
+    }
+
+    @Test
+    void deploymentWithoutATableForATierTableGlobalIsRejected() {
+        RuleDeploymentResult deployment = service.deployRules(TIERED_RULES);
+
+        assertThat(deployment.isSuccessful()).isFalse();
+        assertThat(deployment.getMessage()).contains("priceTiers has no table");
+        verify(ruleSetStore, never()).save(any(), any());
+    }
+
+    @Test
+    void deploymentThatCannotBeStoredReleasesItsContainer() {
+        doThrow(new IllegalStateException("Store unavailable")).when(ruleSetStore).save(any(), any());
+
+        RuleDeploymentResult deployment = service.deployRules(RULES);
+
+        assertThat(deployment.isSuccessful()).isFalse();
+        assertThat(deployment.getMessage()).contains("Store unavailable");
+        verify(kieBaseRegistry).disposeContainer(any());
+        assertThat(kieBaseRegistry.getLiveVersion(deployment.getId())).isNull();
+    }
+
+    @Test
+    void unknownRuleSetIsLookedUpInTheStoreOnceUntilItIsDeployed() {
+        String ruleSetId = DigestUtils.md5Hex(RULES);
+        when(ruleSetStore.find(anyString())).thenReturn(Optional.empty());
+
+        PricingResult first = service.executeRules(ruleSetId, pricingFacts(200.0));
+        PricingResult second = service.executeRules(ruleSetId, pricingFacts(200.0));
+
+        assertThat(first).isNull();
+        assertThat(second).isNull();
+        verify(ruleSetStore, times(1)).find(ruleSetId);
+
+        RuleDeploymentResult deployment = service.deployRules(RULES);
+        assertThat(deployment.getRuleSetId()).isEqualTo(ruleSetId);
+        kieBaseRegistry.remove(ruleSetId);
+
+        // Looked up in the store again once deployed, as after an eviction
+        service.executeRules(ruleSetId, pricingFacts(200.0));
+        verify(ruleSetStore, times(2)).find(ruleSetId);
+    }
+
+    private static Map<String, Object> requestFacts(int quantity) {
+        PricingRequest pricingRequest = new PricingRequest();
+        pricingRequest.setQuantity(quantity);
+        PricingResult pricingResult = new PricingResult();
+        Map<String, Object> facts = new HashMap<>();
+        facts.put("pricingRequest", pricingRequest);
+        facts.put("pricingResult", pricingResult);
+        return facts;
+    }
+
+    private static double discountOf(KieBase kieBase, double finalPrice) {
+        KieSession kieSession = kieBase.newKieSession();
+        kieSession.setGlobal("logger", LoggerFactory.getLogger(DroolsIntegrationServiceImplTest.class));
+        PricingResult pricingResult = (PricingResult) pricingFacts(finalPrice).get("pricingResult");
+        kieSession.insert(pricingResult);
+        kieSession.fireAllRules();
+        kieSession.dispose();
+        return pricingResult.getDiscount();
+    }
+
+    private static Map<String, Object> pricingFacts(double finalPrice) {
+        PricingResult pricingResult = new PricingResult();
+        pricingResult.setFinalPrice(finalPrice);
+        pricingResult.setDiscount(0.0);
+        Map<String, Object> facts = new HashMap<>();
+        facts.put("pricingResult", pricingResult);
+        return facts;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.pricerulesaidrools.drools.session;
+
+import com.example.pricerulesaidrools.drools.exception.DroolsApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.Message;
+import org.kie.api.runtime.KieSession;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class KieSessionPoolTest {
+
+    private static final String RULES = """
+            package pricing;
+
+            global java.util.List fired;
+
+            rule "Main"
+                when
+                    Integer()
+                then
+                    fired.add("main");
+            end
+
+            rule "Late"
+                agenda-group "late"
+                when
+                    Integer()
+                then
+                    fired.add("late");
+            end
+            """;
+
+    private KieBase kieBase;
+    private SimpleMeterRegistry meterRegistry;
+    private KieSessionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        kieBase = mock(KieBase.class);
+        when(kieBase.newKieSession()).thenAnswer(invocation -> mock(KieSession.class));
+        meterRegistry = new SimpleMeterRegistry();
+        pool = new KieSessionPool("test", kieBase, session -> { }, 2, 10, meterRegistry);
+    }
+
+    @Test
+    void releasedSessionIsResetAndReused() {
+        KieSessionPool rulePool = newRulePool();
+
+        // The previous caller leaves a fact, a focused agenda group and its own global behind
+        KieSession session = rulePool.borrow();
+        List<Object> callerList = new ArrayList<>();
+        session.setGlobal("fired", callerList);
+        session.insert(1);
+        session.getAgenda().getAgendaGroup("late").setFocus();
+        rulePool.release(session);
+
+        KieSession reused = rulePool.borrow();
+        assertThat(reused).isSameAs(session);
+        assertThat(reused.getFactCount()).isZero();
+        assertThat(reused.getGlobal("fired")).isNotSameAs(callerList);
+        reused.insert(2);
+        reused.fireAllRules();
+        assertThat(reused.getGlobal("fired")).isEqualTo(List.of("main"));
+        assertThat(callerList).isEmpty();
+        assertThat(rulePool.getCreatedCount()).isEqualTo(1);
+        rulePool.release(reused);
+        rulePool.close();
+    }
+
+    @Test
+    void borrowFailsWhenPoolIsExhausted() {
+        pool.borrow();
+        pool.borrow();
+
+        assertThatThrownBy(() -> pool.borrow()).isInstanceOf(DroolsApiException.class);
+        assertThat(meterRegistry.get("drools.session.pool.exhausted").counter().count()).isEqualTo(1.0);
+        assertThat(pool.getUtilization()).isEqualTo(1.0);
+    }
+
+    @Test
+    void invalidatedSessionIsDisposedAndFreesCapacity() {
+        KieSession first = pool.borrow();
+        pool.borrow();
+
+        pool.invalidate(first);
+
+        verify(first).dispose();
+        assertThat(pool.borrow()).isNotSameAs(first);
+    }
+
+    @Test
+    void sessionThatCannotBeResetIsDiscarded() {
+        KieSession session = pool.borrow();
+
+        pool.release(session);
+
+        verify(session).dispose();
+        assertThat(pool.getIdleCount()).isZero();
+        assertThat(pool.borrow()).isNotSameAs(session);
+    }
+
+    @Test
+    void closeDisposesIdleSessionsAndRemovesMeters() {
+        KieSessionPool rulePool = newRulePool();
+        rulePool.release(rulePool.borrow());
+        assertThat(rulePool.getIdleCount()).isEqualTo(1);
+
+        rulePool.close();
+
+        assertThat(rulePool.getIdleCount()).isZero();
+        assertThat(rulePool.getCreatedCount()).isZero();
+        assertThat(meterRegistry.find("drools.session.pool.wait").tag("pool", "rules").timer()).isNull();
+    }
+
+    private KieSessionPool newRulePool() {
+        KieServices kieServices = KieServices.Factory.get();
+        KieFileSystem kfs = kieServices.newKieFileSystem();
+        kfs.write("src/main/resources/pricing/rules.drl", RULES);
+        KieBuilder kieBuilder = kieServices.newKieBuilder(kfs).buildAll();
+        assertThat(kieBuilder.getResults().getMessages(Message.Level.ERROR)).isEmpty();
+        KieBase rules = kieServices.newKieContainer(kieBuilder.getKieModule().getReleaseId()).getKieBase();
+        return new KieSessionPool("rules", rules, session -> session.setGlobal("fired", new ArrayList<>()),
+                1, 10, meterRegistry);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.pricerulesaidrools.drools.session;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.api.runtime.KieSession;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class RuleExecutionWatchdogTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RuleExecutionWatchdog watchdog;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        watchdog = new RuleExecutionWatchdog(new DroolsProperties(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        watchdog.shutdown();
+    }
+
+    @Test
+    void completedExecutionIsNotHalted() {
+        KieSession session = mock(KieSession.class);
+        when(session.fireAllRules()).thenReturn(3);
+
+        RuleExecutionWatchdog.Execution execution = watchdog.fireAllRules("pricing", session, 1_000);
+
+        assertThat(execution.firedRules()).isEqualTo(3);
+        assertThat(execution.timedOut()).isFalse();
+        assertThat(watchdog.getPendingDeadlines()).isZero();
+        verify(session, never()).halt();
+    }
+
+    @Test
+    void runawayExecutionIsHaltedAtDeadline() {
+        KieSession session = mock(KieSession.class);
+        CountDownLatch halted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            halted.countDown();
+            return null;
+        }).when(session).halt();
+        when(session.fireAllRules()).thenAnswer(invocation -> {
+            halted.await(5, TimeUnit.SECONDS);
+            return 1;
+        });
+
+        RuleExecutionWatchdog.Execution execution = watchdog.fireAllRules("pricing", session, 20);
+
+        assertThat(execution.timedOut()).isTrue();
+        verify(session).halt();
+        assertThat(meterRegistry.get("drools.execution.timeouts").tag("ruleSet", "pricing").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("drools.watchdog.lag").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void releasedRuleSetLosesItsTimeoutCounter() {
+        KieSession session = mock(KieSession.class);
+        when(session.fireAllRules()).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return 1;
+        });
+        watchdog.fireAllRules("pricing", session, 10);
+        assertThat(meterRegistry.find("drools.execution.timeouts").tag("ruleSet", "pricing").counter()).isNotNull();
+
+        watchdog.release("pricing");
+
+        assertThat(meterRegistry.find("drools.execution.timeouts").tag("ruleSet", "pricing").counter()).isNull();
+    }
+
+    @Test
+    void zeroTimeoutFiresWithoutDeadline() {
+        KieSession session = mock(KieSession.class);
+
+        RuleExecutionWatchdog.Execution execution = watchdog.fireAllRules("pricing", session, 0);
+
+        assertThat(execution.timedOut()).isFalse();
+        assertThat(watchdog.getPendingDeadlines()).isZero();
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.pricerulesaidrools.drools.shadow;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import com.example.pricerulesaidrools.drools.dto.ShadowStatistics;
+import com.example.pricerulesaidrools.drools.model.RuleSetMetadata;
+import com.example.pricerulesaidrools.drools.result.ResultContract;
+import com.example.pricerulesaidrools.drools.tier.TierTableGlobals;
+import com.example.pricerulesaidrools.drools.session.RuleExecutionWatchdog;
+import com.example.pricerulesaidrools.model.PricingResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.Message;
+import org.kie.api.conf.SequentialOption;
+import org.kie.api.io.ResourceType;
+import org.kie.internal.utils.KieHelper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShadowExecutorTest {
+
+    private static final String CANDIDATE = """
+            package pricing;
+
+            import com.example.pricerulesaidrools.model.PricingResult;
+
+            rule "Discount"
+                when
+                    $result : PricingResult(finalPrice >= 100, discount == 0)
+                then
+                    modify($result) {
+                        setDiscount(0.2),
+                        setFinalPrice($result.getFinalPrice() * 0.8)
+                    }
+            end
+            """;
+
+    private DroolsProperties droolsProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private ShadowExecutor shadowExecutor;
+    private KieBase candidateKieBase;
+
+    @BeforeEach
+    void setUp() {
+        droolsProperties = new DroolsProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        shadowExecutor = new ShadowExecutor(droolsProperties,
+                new RuleExecutionWatchdog(droolsProperties, meterRegistry), new ObjectMapper(), meterRegistry);
+
+        KieServices kieServices = KieServices.Factory.get();
+        KieFileSystem kfs = kieServices.newKieFileSystem();
+        kfs.write("src/main/resources/pricing/candidate.drl", CANDIDATE);
+        KieBuilder kieBuilder = kieServices.newKieBuilder(kfs).buildAll();
+        assertThat(kieBuilder.getResults().getMessages(Message.Level.ERROR)).isEmpty();
+        candidateKieBase = kieServices.newKieContainer(kieBuilder.getKieModule().getReleaseId()).getKieBase();
+    }
+
+    @AfterEach
+    void tearDown() {
+        shadowExecutor.shutdown();
+    }
+
+    @Test
+    void comparesCandidateResultsWithTheLiveResult() throws Exception {
+        start(1.0, () -> { });
+
+        // The live version applies a 25% discount
+        mirrorLiveExecution(200, 0.25);
+        mirrorLiveExecution(50, 0);
+
+        ShadowStatistics statistics = awaitCompared(2);
+        assertThat(statistics.getMatchingExecutions()).isEqualTo(1);
+        assertThat(statistics.getMismatchingExecutions()).isEqualTo(1);
+        assertThat(statistics.getFieldMismatches()).containsOnlyKeys("discount", "finalPrice");
+        // Candidate 160 against live 150 for the first request, both 50 for the second
+        assertThat(statistics.getAverageFinalPriceDelta()).isEqualTo(5.0);
+        assertThat(statistics.getMaxAbsoluteFinalPriceDelta()).isEqualTo(10.0);
+        assertThat(statistics.getCandidateVersion()).isEqualTo("2.0");
+        assertThat(statistics.getLiveVersion()).isEqualTo("1.0");
+    }
+
+    @Test
+    void unsampledExecutionsAreNotMirrored() {
+        start(0.0, () -> { });
+
+        assertThat(shadowExecutor.sample("rules", facts(200))).isNull();
+        assertThat(shadowExecutor.sample("other-rules", facts(200))).isNull();
+    }
+
+    @Test
+    void stoppingReleasesTheCandidateAndReturnsFinalStatistics() throws Exception {
+        AtomicBoolean disposed = new AtomicBoolean();
+        start(1.0, () -> disposed.set(true));
+        mirrorLiveExecution(200, 0.2);
+        awaitCompared(1);
+
+        ShadowStatistics statistics = shadowExecutor.stop("rules");
+
+        assertThat(statistics.getMatchingExecutions()).isEqualTo(1);
+        assertThat(disposed).isTrue();
+        assertThat(shadowExecutor.getStatistics("rules")).isNull();
+        assertThat(shadowExecutor.sample("rules", facts(200))).isNull();
+    }
+
+    @Test
+    void statelessCandidateExecutesAsABatchOnASequentialKieBase() throws Exception {
+        KieBase sequential = new KieHelper().addContent(CANDIDATE, ResourceType.DRL).build(SequentialOption.YES);
+        shadowExecutor.start("rules", "1.0", "2.0", 1.0, sequential, RuleSetMetadata.ExecutionMode.STATELESS,
+                ResultContract.parse("fact:pricingResult"), TierTableGlobals.defaults(sequential), () -> { });
+
+        mirrorLiveExecution(200, 0.2);
+
+        ShadowStatistics statistics = awaitCompared(1);
+        assertThat(statistics.getMatchingExecutions()).isEqualTo(1);
+    }
+
+    @Test
+    void differingFieldsOfOtherResultsAreReportedAsTheWholeResult() {
+        assertThat(ShadowCandidate.differingFields(1, 2)).containsExactly("result");
+        assertThat(ShadowCandidate.differingFields("a", "a")).isEmpty();
+    }
+
+    private void start(double sampleRate, Runnable disposer) {
+        shadowExecutor.start("rules", "1.0", "2.0", sampleRate, candidateKieBase,
+                RuleSetMetadata.ExecutionMode.STATEFUL, ResultContract.parse("fact:pricingResult"),
+                TierTableGlobals.defaults(candidateKieBase), disposer);
+    }
+
+    /**
+     * Samples an execution, then lets the "live version" modify the facts before completing it,
+     * as the live rules would
+     */
+    private void mirrorLiveExecution(double price, double liveDiscount) {
+        Map<String, Object> facts = facts(price);
+        ShadowExecutor.Mirror mirror = shadowExecutor.sample("rules", facts);
+        assertThat(mirror).isNotNull();
+
+        PricingResult live = (PricingResult) facts.get("pricingResult");
+        live.setDiscount(liveDiscount);
+        live.setFinalPrice(price * (1 - liveDiscount));
+        mirror.complete(live, 1_000_000);
+    }
+
+    private static Map<String, Object> facts(double price) {
+        PricingResult result = new PricingResult();
+        result.setFinalPrice(price);
+        Map<String, Object> facts = new HashMap<>();
+        facts.put("pricingResult", result);
+        return facts;
+    }
+
+    private ShadowStatistics awaitCompared(long executions) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        ShadowStatistics statistics = shadowExecutor.getStatistics("rules");
+        while (statistics.getComparedExecutions() + statistics.getCandidateErrors() < executions
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            statistics = shadowExecutor.getStatistics("rules");
+        }
+        assertThat(statistics.getCandidateErrors()).isZero();
+        assertThat(statistics.getComparedExecutions()).isEqualTo(executions);
+        return statistics;
+    }
+}
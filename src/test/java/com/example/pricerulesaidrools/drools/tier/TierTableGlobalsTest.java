@@ -0,0 +1,154 @@
+package com.example.pricerulesaidrools.drools.tier;
+
+import com.example.pricerulesaidrools.pricing.tier.PricingTier;
+import com.example.pricerulesaidrools.pricing.tier.PricingTiers;
+import com.example.pricerulesaidrools.pricing.tier.TierTable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.Message;
+import org.kie.api.runtime.KieSession;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TierTableGlobalsTest {
+
+    private static final String HEADER = """
+            package pricing;
+
+            import com.example.pricerulesaidrools.pricing.tier.TierTable;
+            import com.example.pricerulesaidrools.model.PricingResult;
+
+            """;
+
+    private static final String VOLUME_RULES = HEADER + """
+            global TierTable volumeDiscountTiers;
+
+            rule "Volume Discount"
+                when
+                    $result : PricingResult()
+                then
+            end
+            """;
+
+    private static final String CUSTOM_RULES = HEADER + """
+            global TierTable seatTiers;
+
+            rule "Seat Discount"
+                when
+                    $result : PricingResult()
+                then
+            end
+            """;
+
+    private static final String SEATS = """
+            {"seatTiers": [
+                {"to": 10, "name": "Small"},
+                {"from": 10, "to": 100, "name": "Medium", "discount": 0.05},
+                {"from": 100, "name": "Large", "discount": 0.1, "includedService": "Support"}]}
+            """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void declaredTablesAreBuiltFromTheirTiers() {
+        TierTable<PricingTier> seats = TierTableGlobals.parse(objectMapper, SEATS)
+                .resolve(build(CUSTOM_RULES))
+                .getTables().get("seatTiers");
+
+        assertThat(seats.lookup(new BigDecimal("9"))).isEqualTo(new PricingTier("Small", 0.0, 1.0, null));
+        assertThat(seats.lookup(new BigDecimal("10")).discount()).isEqualTo(0.05);
+        assertThat(seats.lookup(100.0)).isEqualTo(new PricingTier("Large", 0.1, 1.0, "Support"));
+    }
+
+    @Test
+    void undeclaredTierTableGlobalsGetTheirDefaults() {
+        KieBase kieBase = build(VOLUME_RULES);
+
+        assertThat(TierTableGlobals.defaults(kieBase).getTables())
+                .containsExactly(Map.entry("volumeDiscountTiers", PricingTiers.VOLUME_DISCOUNT));
+        assertThat(TierTableGlobals.parse(objectMapper, "  ").resolve(kieBase).getTables())
+                .containsEntry("volumeDiscountTiers", PricingTiers.VOLUME_DISCOUNT);
+    }
+
+    @Test
+    void declaredTablesReplaceTheDefaults() {
+        String volume = """
+                {"volumeDiscountTiers": [{"from": 0, "name": "Everyone", "discount": 0.5}]}
+                """;
+        KieBase kieBase = build(VOLUME_RULES);
+        TierTableGlobals tierTables = TierTableGlobals.parse(objectMapper, volume).resolve(kieBase);
+
+        KieSession kieSession = kieBase.newKieSession();
+        try {
+            tierTables.bind(kieSession);
+            TierTable<?> bound = (TierTable<?>) kieSession.getGlobal("volumeDiscountTiers");
+            assertThat(bound.lookup(1.0)).isEqualTo(PricingTier.discount("Everyone", 0.5));
+        } finally {
+            kieSession.dispose();
+        }
+    }
+
+    @Test
+    void tierTableGlobalWithoutATableIsRejected() {
+        assertThatThrownBy(() -> TierTableGlobals.defaults(build(CUSTOM_RULES)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("seatTiers has no table");
+    }
+
+    @Test
+    void tableWithoutAGlobalIsRejected() {
+        assertThatThrownBy(() -> TierTableGlobals.parse(objectMapper, SEATS).resolve(build(VOLUME_RULES)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("seatTiers is not declared");
+    }
+
+    @Test
+    void malformedTablesAreRejected() {
+        assertThatThrownBy(() -> TierTableGlobals.parse(objectMapper, "{\"seatTiers\": ["))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not valid JSON");
+        assertThatThrownBy(() -> TierTableGlobals.parse(objectMapper, "[]"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("JSON object");
+        assertThatThrownBy(() -> TierTableGlobals.parse(objectMapper, "{\"seatTiers\": []}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("non-empty array");
+        assertThatThrownBy(() -> TierTableGlobals.parse(objectMapper, "{\"seatTiers\": [{\"from\": 1}]}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("needs a name");
+        assertThatThrownBy(() -> TierTableGlobals.parse(objectMapper,
+                "{\"seatTiers\": [{\"from\": \"ten\", \"name\": \"Small\"}]}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("from must be a number");
+    }
+
+    @Test
+    void overlappingTiersAreRejected() {
+        String overlapping = """
+                {"seatTiers": [
+                    {"from": 0, "to": 20, "name": "A"},
+                    {"from": 10, "to": 30, "name": "B"}]}
+                """;
+
+        assertThatThrownBy(() -> TierTableGlobals.parse(objectMapper, overlapping))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Tier table seatTiers: ");
+    }
+
+    private static KieBase build(String drl) {
+        KieServices kieServices = KieServices.Factory.get();
+        KieFileSystem kfs = kieServices.newKieFileSystem();
+        kfs.write("src/main/resources/pricing/rules.drl", drl);
+        KieBuilder kieBuilder = kieServices.newKieBuilder(kfs).buildAll();
+        assertThat(kieBuilder.getResults().getMessages(Message.Level.ERROR)).isEmpty();
+        return kieServices.newKieContainer(kieBuilder.getKieModule().getReleaseId()).getKieBase();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.pricerulesaidrools.drools.update;
+
+import com.example.pricerulesaidrools.drools.config.DroolsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.Message;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.KieSession;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IncrementalKieBaseUpdaterTest {
+
+    private static final String RULES = """
+            package pricing;
+
+            global java.util.List results;
+
+            rule "Small"
+                when
+                    $n : Integer(this < 10)
+                then
+                    results.add("small " + $n);
+            end
+
+            rule "Large"
+                when
+                    $n : Integer(this >= 10)
+                then
+                    results.add("large " + $n);
+            end
+            """;
+
+    private DroolsProperties droolsProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private IncrementalKieBaseUpdater updater;
+    private KieServices kieServices;
+    private KieContainer kieContainer;
+    private KieBase kieBase;
+
+    @BeforeEach
+    void setUp() {
+        droolsProperties = new DroolsProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        updater = new IncrementalKieBaseUpdater(droolsProperties, meterRegistry);
+
+        kieServices = KieServices.Factory.get();
+        KieFileSystem kfs = kieServices.newKieFileSystem();
+        kfs.write("src/main/resources/pricing/rules.drl", RULES);
+        KieBuilder kieBuilder = kieServices.newKieBuilder(kfs).buildAll();
+        assertThat(kieBuilder.getResults().getMessages(Message.Level.ERROR)).isEmpty();
+        kieContainer = kieServices.newKieContainer(kieBuilder.getKieModule().getReleaseId());
+        kieBase = kieContainer.newKieBase(kieServices.newKieBaseConfiguration());
+    }
+
+    @Test
+    void changedRuleTakesEffect() {
+        String next = RULES.replace("\"small \"", "\"tiny \"");
+
+        assertThat(updater.update(kieBase, RULES, next)).isTrue();
+
+        assertThat(fire(kieBase, 3, 30)).containsExactlyInAnyOrder("tiny 3", "large 30");
+        assertThat(meterRegistry.get("drools.rules.incremental.update").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void otherKieBasesOfTheModuleAndTheirSessionsAreUnchanged() {
+        KieBase live = kieContainer.newKieBase(kieServices.newKieBaseConfiguration());
+        KieSession session = live.newKieSession();
+        List<String> results = new ArrayList<>();
+        session.setGlobal("results", results);
+        session.insert(3);
+
+        String next = RULES.substring(0, RULES.indexOf("rule \"Large\""))
+                .replace("\"small \"", "\"tiny \"");
+        assertThat(updater.update(kieBase, RULES, next)).isTrue();
+        session.insert(30);
+        session.fireAllRules();
+        session.dispose();
+
+        assertThat(results).containsExactlyInAnyOrder("small 3", "large 30");
+        assertThat(live.getRule("pricing", "Large")).isNotNull();
+        assertThat(fire(kieBase, 3, 30)).containsExactly("tiny 3");
+    }
+
+    @Test
+    void removedRuleNoLongerFires() {
+        String next = RULES.substring(0, RULES.indexOf("rule \"Large\""));
+
+        assertThat(updater.update(kieBase, RULES, next)).isTrue();
+
+        assertThat(kieBase.getRule("pricing", "Large")).isNull();
+        assertThat(fire(kieBase, 3, 30)).containsExactly("small 3");
+    }
+
+    @Test
+    void changeThatDoesNotCompileNeedsAFullRebuild() {
+        String next = RULES.replace("results.add(\"small \" + $n);", "results.add(undefined);");
+
+        assertThat(updater.update(kieBase, RULES, next)).isFalse();
+
+        assertThat(meterRegistry.get("drools.rules.incremental.full.rebuilds").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void tooManyChangedRulesAreRebuilt() {
+        droolsProperties.getIncrementalUpdate().setMaxChangedRules(1);
+        String next = RULES.replace("\"small \"", "\"tiny \"").replace("\"large \"", "\"big \"");
+
+        assertThat(updater.update(kieBase, RULES, next)).isFalse();
+
+        assertThat(fire(kieBase, 3, 30)).containsExactlyInAnyOrder("small 3", "large 30");
+    }
+
+    private static List<String> fire(KieBase kieBase, Integer... facts) {
+        KieSession session = kieBase.newKieSession();
+        List<String> results = new ArrayList<>();
+        session.setGlobal("results", results);
+        for (Integer fact : facts) {
+            session.insert(fact);
+        }
+        session.fireAllRules();
+        session.dispose();
+        return results;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.pricerulesaidrools.drools.update;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleSetDiffTest {
+
+    private static final String HEADER = """
+            package pricing;
+
+            import java.util.List;
+
+            global java.util.List results;
+            """;
+
+    private static final String RULES = HEADER + """
+
+            rule "Small"
+                when
+                    $n : Integer(this < 10)
+                then
+                    results.add("small " + $n);
+            end
+
+            rule "Large"
+                when
+                    $n : Integer(this >= 10)
+                then
+                    results.add("large " + $n);
+            end
+            """;
+
+    @Test
+    void detectsAddedChangedAndRemovedRules() {
+        String next = HEADER + """
+
+                rule "Small"
+                    when
+                        $n : Integer(this < 5)
+                    then
+                        results.add("small " + $n);
+                end
+
+                rule "Negative"
+                    when
+                        $n : Integer(this < 0)
+                    then
+                        results.add("negative " + $n);
+                end
+                """;
+
+        RuleSetDiff diff = RuleSetDiff.between(RULES, next);
+
+        assertThat(diff.isIncremental()).isTrue();
+        assertThat(diff.getPackageName()).isEqualTo("pricing");
+        assertThat(diff.getChangedRules()).containsExactly("Small");
+        assertThat(diff.getAddedRules()).containsExactly("Negative");
+        assertThat(diff.getRemovedRules()).containsExactly("Large");
+        assertThat(diff.nextRulesSource())
+                .contains("global java.util.List results;")
+                .contains("rule \"Small\"", "this < 5", "rule \"Negative\"")
+                .doesNotContain("rule \"Large\"");
+    }
+
+    @Test
+    void identicalContentHasNoRuleChanges() {
+        RuleSetDiff diff = RuleSetDiff.between(RULES, RULES);
+
+        assertThat(diff.isIncremental()).isTrue();
+        assertThat(diff.getRuleChangeCount()).isZero();
+    }
+
+    @Test
+    void headerChangeNeedsFullRebuild() {
+        String next = RULES.replace("import java.util.List;", "import java.util.Map;");
+
+        RuleSetDiff diff = RuleSetDiff.between(RULES, next);
+
+        assertThat(diff.isIncremental()).isFalse();
+        assertThat(diff.getFullRebuildReason()).contains("header");
+    }
+
+    @Test
+    void changedDeclarationNeedsFullRebuild() {
+        String previous = RULES + """
+
+                declare Tier
+                    name : String
+                end
+                """;
+        String next = RULES + """
+
+                declare Tier
+                    name : String
+                    rank : int
+                end
+                """;
+
+        assertThat(RuleSetDiff.between(previous, next).isIncremental()).isFalse();
+    }
+
+    @Test
+    void changedParentRuleNeedsFullRebuild() {
+        String next = RULES.replace("this >= 10", "this >= 20") + """
+
+                rule "Very large" extends "Large"
+                    when
+                        Integer(this > 1000)
+                    then
+                        results.add("very large");
+                end
+                """;
+        String previous = RULES + """
+
+                rule "Very large" extends "Large"
+                    when
+                        Integer(this > 1000)
+                    then
+                        results.add("very large");
+                end
+                """;
+
+        RuleSetDiff diff = RuleSetDiff.between(previous, next);
+
+        assertThat(diff.isIncremental()).isFalse();
+        assertThat(diff.getFullRebuildReason()).contains("extended");
+    }
+
+    @Test
+    void unparsableContentNeedsFullRebuild() {
+        assertThat(RuleSetDiff.between(RULES, "rule \"Broken\" when then").isIncremental()).isFalse();
+    }
+}
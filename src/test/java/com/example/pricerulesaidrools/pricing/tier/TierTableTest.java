@@ -0,0 +1,91 @@
+package com.example.pricerulesaidrools.pricing.tier;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TierTableTest {
+
+    private final TierTable<String> table = TierTable.<String>builder()
+            .from(new BigDecimal("500"), "gold")
+            .below(new BigDecimal("100"), "basic")
+            .from(new BigDecimal("100"), "silver")
+            .build();
+
+    @Test
+    void boundsAreLowerInclusiveAndUpperExclusive() {
+        assertThat(table.lookup(new BigDecimal("-1"))).isEqualTo("basic");
+        assertThat(table.lookup(new BigDecimal("99.99"))).isEqualTo("basic");
+        assertThat(table.lookup(new BigDecimal("100"))).isEqualTo("silver");
+        assertThat(table.lookup(new BigDecimal("499.999"))).isEqualTo("silver");
+        assertThat(table.lookup(new BigDecimal("500.00"))).isEqualTo("gold");
+        assertThat(table.lookup(500.0)).isEqualTo("gold");
+        assertThat(table.lookup(1e12)).isEqualTo("gold");
+        assertThat(table.getTiers()).containsExactly("basic", "silver", "gold");
+    }
+
+    @Test
+    void valuesOutsideEveryRangeHaveNoTier() {
+        TierTable<String> gapped = TierTable.<String>builder()
+                .range(new BigDecimal("10"), new BigDecimal("20"), "low")
+                .from(new BigDecimal("30"), "high")
+                .build();
+
+        assertThat(gapped.lookup(new BigDecimal("5"))).isNull();
+        assertThat(gapped.lookup(new BigDecimal("20"))).isNull();
+        assertThat(gapped.lookup(25.0)).isNull();
+        assertThat(gapped.lookup(new BigDecimal("30"))).isEqualTo("high");
+        assertThat(gapped.lookup((BigDecimal) null)).isNull();
+    }
+
+    @Test
+    void valueRoundingOntoABoundIsComparedExactly() {
+        TierTable<String> fine = TierTable.<String>builder()
+                .from(new BigDecimal("0.1"), "above")
+                .build();
+
+        // Both round to the double nearest to 0.1, but only one of them reaches the bound
+        assertThat(fine.lookup(new BigDecimal("0.09999999999999999999"))).isNull();
+        assertThat(fine.lookup(new BigDecimal("0.1"))).isEqualTo("above");
+    }
+
+    @Test
+    void overlappingRangesAreRejected() {
+        assertThatThrownBy(() -> TierTable.<String>builder()
+                .range(new BigDecimal("0"), new BigDecimal("20"), "a")
+                .range(new BigDecimal("10"), new BigDecimal("30"), "b")
+                .build())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("overlaps");
+    }
+
+    @Test
+    void lookupMatchesLinearScanForManyTiers() {
+        TierTable.Builder<Integer> builder = TierTable.builder();
+        for (int tier = 0; tier < 500; tier++) {
+            builder.from(BigDecimal.valueOf(tier * 1_000L), tier);
+        }
+        TierTable<Integer> large = builder.build();
+
+        for (long value = -500; value < 510_000; value += 333) {
+            Integer expected = value < 0 ? null : (int) Math.min(value / 1_000, 499);
+            assertThat(large.lookup(BigDecimal.valueOf(value))).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void sharedTablesMatchTheShippedTiers() {
+        assertThat(PricingTiers.VOLUME_DISCOUNT.lookup(new BigDecimal("99999.99"))).isNull();
+        assertThat(PricingTiers.VOLUME_DISCOUNT.lookup(new BigDecimal("150000")).name())
+                .isEqualTo("Volume Discount - Tier 1");
+        assertThat(PricingTiers.TCV_PRICING.lookup(new BigDecimal("10000")).priceMultiplier()).isEqualTo(1.05);
+        assertThat(PricingTiers.TCV_PRICING.lookup(new BigDecimal("2000000")).includedService())
+                .isEqualTo("Premium Support");
+        assertThat(PricingTiers.RISK_PRICE_MULTIPLIER.lookup(new BigDecimal("0.6")))
+                .isEqualByComparingTo("0.85");
+        assertThat(PricingTiers.RISK_PRICE_MULTIPLIER.lookup(new BigDecimal("-0.1"))).isNull();
+    }
+}